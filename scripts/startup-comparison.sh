@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Compares startup time and resident memory of the plain JVM, JVM + CDS and
+# native image builds. Expects PostgreSQL on localhost:5432 (see README).
+#
+#   mvn -Pcds package -DskipTests          # target/*.jar and target/application/
+#   mvn -Pnative native:compile -DskipTests # target/devices-api
+#   scripts/startup-comparison.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/../target"
+
+JAR="$(ls devices-api-*.jar | head -n 1)"
+RUNS="${RUNS:-5}"
+
+measure() {
+    local mode="$1"; shift
+    local total_ms=0 total_rss=0
+
+    for _ in $(seq "$RUNS"); do
+        local log
+        log="$(mktemp)"
+        local start
+        start="$(date +%s%N)"
+        "$@" >"$log" 2>&1 &
+        local pid=$!
+
+        until grep -q "Started DevicesApiApplication" "$log"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$mode failed to start, see $log" >&2
+                exit 1
+            fi
+            sleep 0.05
+        done
+
+        local end
+        end="$(date +%s%N)"
+        total_ms=$((total_ms + (end - start) / 1000000))
+        total_rss=$((total_rss + $(ps -o rss= -p "$pid")))
+
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        rm -f "$log"
+    done
+
+    printf "| %-10s | %8d ms | %8d MB |\n" "$mode" $((total_ms / RUNS)) $((total_rss / RUNS / 1024))
+}
+
+echo "| Mode       | Ready in    | RSS         |"
+echo "|------------|-------------|-------------|"
+measure "JVM" java -jar "$JAR"
+if [[ -f application/application.jsa ]]; then
+    measure "JVM + CDS" java -XX:SharedArchiveFile=application/application.jsa -jar "application/$JAR"
+fi
+if [[ -x devices-api ]]; then
+    measure "Native" ./devices-api
+fi
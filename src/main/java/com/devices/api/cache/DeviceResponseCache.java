@@ -0,0 +1,129 @@
+package com.devices.api.cache;
+
+import com.devices.api.config.ResponseCacheProperties;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.event.DevicesImportedEvent;
+import com.devices.api.event.DevicesUpsertedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized GET responses for single devices and device lists, kept as the exact bytes
+ * Jackson wrote plus a gzip variant for larger bodies, so a hit is a map lookup and a copy
+ * to the socket.
+ *
+ * <p>Entries are stamped with a generation when the request that produced them starts:
+ * one per id stripe for single devices and one for all lists. Committed changes bump the
+ * generations, and an entry whose stamp is no longer current is a miss. A response read
+ * from the database before a commit can therefore never be served after it, even when it
+ * is stored after the invalidation ran.
+ */
+public class DeviceResponseCache {
+
+    private static final int STRIPES = 1024;
+
+    public record Key(String path, String query) {
+    }
+
+    public record Entry(long generation, String contentType, byte[] body, byte[] gzipBody) {
+    }
+
+    private final Cache<Key, Entry> entries;
+    private final AtomicLongArray deviceGenerations = new AtomicLongArray(STRIPES);
+    private final AtomicLong listGeneration = new AtomicLong();
+    private final long maxEntryBytes;
+    private final long minGzipBytes;
+
+    public DeviceResponseCache(ResponseCacheProperties properties) {
+        this.maxEntryBytes = properties.maxEntrySize().toBytes();
+        this.minGzipBytes = properties.minGzipSize().toBytes();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(properties.maxSize().toBytes())
+                .weigher((Key key, Entry entry) -> entry.body().length
+                        + (entry.gzipBody() != null ? entry.gzipBody().length : 0))
+                .expireAfterWrite(properties.timeToLive())
+                .build();
+    }
+
+    public long maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Generation to stamp a response with, read before the request touches the database.
+     */
+    public long generation(UUID deviceId) {
+        return deviceId != null ? deviceGenerations.get(stripe(deviceId)) : listGeneration.get();
+    }
+
+    public Entry get(Key key, UUID deviceId) {
+        Entry entry = entries.getIfPresent(key);
+        return entry != null && entry.generation() == generation(deviceId) ? entry : null;
+    }
+
+    public void put(Key key, UUID deviceId, long generation, String contentType, byte[] body) {
+        if (body.length > maxEntryBytes || generation != generation(deviceId)) {
+            return;
+        }
+        byte[] gzipBody = body.length >= minGzipBytes ? gzip(body) : null;
+        entries.put(key, new Entry(generation, contentType, body, gzipBody));
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        invalidate(event);
+        listGeneration.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDevicesUpserted(DevicesUpsertedEvent event) {
+        event.changes().forEach(this::invalidate);
+        listGeneration.incrementAndGet();
+    }
+
+    @EventListener
+    public void onDevicesImported(DevicesImportedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            deviceGenerations.incrementAndGet(i);
+        }
+        listGeneration.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    private void invalidate(DeviceChangedEvent event) {
+        deviceGenerations.incrementAndGet(stripe(event.deviceId()));
+    }
+
+    private static int stripe(UUID id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,221 @@
+package com.devices.api.cache;
+
+import com.devices.api.controller.DeviceController;
+import com.devices.api.resilience.DatabaseCircuitBreakerAspect;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.UUID;
+
+/**
+ * Serves {@code GET /api/v1/devices} and {@code GET /api/v1/devices/{id}} from the
+ * {@link DeviceResponseCache} without entering Spring MVC. On a miss the response is
+ * streamed to the client as usual and a copy of its bytes is kept for the next request.
+ * Only bodies are kept, so responses carrying a total in their headers are not cached.
+ */
+public class DeviceResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String DEVICES = "/api/v1/devices";
+    private static final int UUID_LENGTH = 36;
+
+    private final DeviceResponseCache cache;
+
+    public DeviceResponseCacheFilter(DeviceResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        UUID deviceId = null;
+        if (!path.equals(DEVICES)) {
+            deviceId = deviceId(path);
+            if (deviceId == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+        }
+
+        DeviceResponseCache.Key key = new DeviceResponseCache.Key(path, request.getQueryString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsJson(request) && !noCache(request)) {
+            DeviceResponseCache.Entry entry = cache.get(key, deviceId);
+            if (entry != null) {
+                write(request, response, entry);
+                return;
+            }
+        }
+
+        long generation = cache.generation(deviceId);
+        CapturingResponse capturing = new CapturingResponse(response, cache.maxEntryBytes());
+        chain.doFilter(request, capturing);
+        capturing.flushWriter();
+
+        byte[] body = capturing.captured();
+        String contentType = capturing.getContentType();
+        if (capturing.getStatus() == HttpServletResponse.SC_OK && body != null
+                && contentType != null && contentType.contains("json")
+                && capturing.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                && capturing.getHeader(DatabaseCircuitBreakerAspect.STALE_HEADER) == null
+                && capturing.getHeader(DeviceController.TOTAL_COUNT_HEADER) == null) {
+            cache.put(key, deviceId, generation, contentType, body);
+        }
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response,
+                              DeviceResponseCache.Entry entry) throws IOException {
+        byte[] body = entry.body();
+        if (entry.gzipBody() != null && acceptsGzip(request)) {
+            body = entry.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Id of a {@code /api/v1/devices/{id}} path, or null for any other path under it.
+     */
+    private static UUID deviceId(String path) {
+        if (path.length() != DEVICES.length() + 1 + UUID_LENGTH || !path.startsWith(DEVICES + "/")) {
+            return null;
+        }
+        try {
+            return UUID.fromString(path.substring(DEVICES.length() + 1));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static boolean acceptsJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept == null || accept.contains("json") || accept.contains("*/*");
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static boolean noCache(HttpServletRequest request) {
+        String cacheControl = request.getHeader(HttpHeaders.CACHE_CONTROL);
+        return cacheControl != null && cacheControl.contains("no-cache");
+    }
+
+    /**
+     * Passes the body through unchanged and keeps a copy until it grows past the limit.
+     */
+    private static final class CapturingResponse extends HttpServletResponseWrapper {
+
+        private final long limit;
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream(1024);
+        private boolean overflowed;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CapturingResponse(HttpServletResponse response, long limit) {
+            super(response);
+            this.limit = limit;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TeeOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        byte[] captured() {
+            return overflowed ? null : copy.toByteArray();
+        }
+
+        private boolean reserve(int length) {
+            if (!overflowed && copy.size() + length > limit) {
+                overflowed = true;
+                copy.reset();
+            }
+            return !overflowed;
+        }
+
+        private final class TeeOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            TeeOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                if (reserve(1)) {
+                    copy.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                delegate.write(bytes, offset, length);
+                if (reserve(length)) {
+                    copy.write(bytes, offset, length);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                delegate.setWriteListener(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.devices.api.config;
+
+import com.devices.api.index.DeviceBitmapIndex;
+import com.devices.api.index.DeviceBitmapIndexMaintainer;
+import com.devices.api.service.DeviceService;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.snapshot.CatalogSnapshotManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * In-memory bitmap index for brand/state filters, enabled with {@code devices.index.bitmap.enabled=true}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@EnableConfigurationProperties(BitmapIndexProperties.class)
+@ConditionalOnProperty(prefix = "devices.index.bitmap", name = "enabled", havingValue = "true")
+public class BitmapIndexConfig {
+
+    @Bean
+    public DeviceBitmapIndex deviceBitmapIndex(BitmapIndexProperties properties, ObjectProvider<ShardRouter> shardRouter) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        return new DeviceBitmapIndex(router != null ? router.getShardCount() : 1, properties.maxIdLookup());
+    }
+
+    @Bean
+    public DeviceBitmapIndexMaintainer deviceBitmapIndexMaintainer(DeviceBitmapIndex deviceBitmapIndex,
+                                                                   DeviceService deviceService,
+                                                                   ObjectProvider<CatalogSnapshotManager> snapshots) {
+        return new DeviceBitmapIndexMaintainer(deviceBitmapIndex, deviceService, snapshots.getIfAvailable());
+    }
+}
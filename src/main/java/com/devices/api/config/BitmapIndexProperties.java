@@ -0,0 +1,21 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bitmap index settings, bound from {@code devices.index.bitmap.*}.
+ *
+ * @param maxIdLookup     most filter matches fetched by primary key; larger lists use the
+ *                        brand/state index of the table
+ * @param refreshInterval how often the index is rebuilt from the database, which bounds how
+ *                        long writes made through other instances are missing from counts
+ */
+@ConfigurationProperties(prefix = "devices.index.bitmap")
+public record BitmapIndexProperties(
+        boolean enabled,
+        @DefaultValue("1000") int maxIdLookup,
+        @DefaultValue("5m") Duration refreshInterval) {
+}
@@ -0,0 +1,38 @@
+package com.devices.api.config;
+
+import com.devices.api.mapper.DeviceMapper;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.service.DeviceService;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.snapshot.CatalogSnapshotManager;
+import com.devices.api.snapshot.DeviceChangeLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Warm-start catalog snapshot for the bitmap index, enabled with {@code devices.snapshot.enabled=true}
+ * together with {@code devices.index.bitmap.enabled=true}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@EnableConfigurationProperties(CatalogSnapshotProperties.class)
+@ConditionalOnProperty(prefix = "devices", name = {"index.bitmap.enabled", "snapshot.enabled"}, havingValue = "true")
+public class CatalogSnapshotConfig {
+
+    @Bean
+    public DeviceChangeLog deviceChangeLog(DeviceRepository deviceRepository, DeviceMapper deviceMapper) {
+        return new DeviceChangeLog(deviceRepository, deviceMapper);
+    }
+
+    @Bean
+    public CatalogSnapshotManager catalogSnapshotManager(CatalogSnapshotProperties properties,
+                                                         DeviceService deviceService,
+                                                         DeviceChangeLog deviceChangeLog,
+                                                         ObjectProvider<ShardRouter> shardRouter) {
+        return new CatalogSnapshotManager(properties, deviceService, deviceChangeLog, shardRouter.getIfAvailable());
+    }
+}
@@ -0,0 +1,25 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Warm-start catalog snapshot, bound from {@code devices.snapshot.*}.
+ *
+ * @param file               local snapshot file, ideally on a volume that outlives the pod
+ * @param interval           how often the snapshot is rewritten
+ * @param overlap            how far before the snapshot watermark the delta query starts, covering
+ *                           transactions still in flight while the snapshot was scanned and clock skew
+ * @param tombstoneRetention how long deletions are remembered; older snapshots are ignored
+ */
+@ConfigurationProperties(prefix = "devices.snapshot")
+public record CatalogSnapshotProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("catalog.snapshot") Path file,
+        @DefaultValue("10m") Duration interval,
+        @DefaultValue("1m") Duration overlap,
+        @DefaultValue("7d") Duration tombstoneRetention) {
+}
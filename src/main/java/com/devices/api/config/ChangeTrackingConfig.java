@@ -0,0 +1,29 @@
+package com.devices.api.config;
+
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.snapshot.TombstonePurger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+
+/**
+ * Tombstones of deleted devices, written by a trigger on every instance and purged after
+ * {@code devices.snapshot.tombstone-retention} (default 7 days) whether or not the snapshot is on.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@EnableConfigurationProperties(CatalogSnapshotProperties.class)
+public class ChangeTrackingConfig {
+
+    @Bean
+    public TombstonePurger tombstonePurger(DeviceRepository deviceRepository, ObjectProvider<ShardRouter> shardRouter,
+                                           CatalogSnapshotProperties properties) {
+        return new TombstonePurger(deviceRepository, shardRouter.getIfAvailable(), properties.tombstoneRetention(),
+                Clock.systemUTC());
+    }
+}
@@ -0,0 +1,51 @@
+package com.devices.api.config;
+
+import com.devices.api.resilience.ConnectionTimeoutPostProcessor;
+import com.devices.api.resilience.DatabaseCircuitBreaker;
+import com.devices.api.resilience.DatabaseCircuitBreakerAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Stale-on-error serving, enabled with {@code devices.circuit-breaker.enabled=true}. One
+ * breaker guards the whole database, so in sharded mode an unavailable shard opens it for all.
+ * Every pool's connection timeout is capped at {@code devices.circuit-breaker.connection-timeout}
+ * so that failures surface, and open the breaker, within seconds of an outage.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(CircuitBreakerProperties.class)
+@ConditionalOnProperty(prefix = "devices.circuit-breaker", name = "enabled", havingValue = "true")
+public class CircuitBreakerConfig {
+
+    /**
+     * Properties are bound here directly, as post-processors are created before the
+     * configuration properties beans.
+     */
+    @Bean
+    public static ConnectionTimeoutPostProcessor connectionTimeoutPostProcessor(Environment environment) {
+        CircuitBreakerProperties properties = Binder.get(environment)
+                .bindOrCreate("devices.circuit-breaker", CircuitBreakerProperties.class);
+        return new ConnectionTimeoutPostProcessor(properties.connectionTimeout());
+    }
+
+    @Bean
+    public DatabaseCircuitBreaker databaseCircuitBreaker(CircuitBreakerProperties properties, MeterRegistry registry) {
+        DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker(properties.failureThreshold(), properties.openDuration());
+        Gauge.builder("devices.circuit-breaker.state", breaker, b -> b.state().ordinal())
+                .description("Database circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(registry);
+        return breaker;
+    }
+
+    @Bean
+    public DatabaseCircuitBreakerAspect databaseCircuitBreakerAspect(DatabaseCircuitBreaker breaker,
+                                                                     CircuitBreakerProperties properties) {
+        return new DatabaseCircuitBreakerAspect(breaker, properties.maxStaleDevices(), properties.maxStaleAge());
+    }
+}
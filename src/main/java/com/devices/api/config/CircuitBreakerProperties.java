@@ -0,0 +1,26 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Database circuit breaker, bound from {@code devices.circuit-breaker.*}.
+ *
+ * @param failureThreshold  consecutive database failures that open the breaker
+ * @param openDuration      how long the breaker stays open before a trial call
+ * @param maxStaleDevices   devices kept across all remembered read responses; a list counts
+ *                          one per device
+ * @param maxStaleAge       older responses are not served, even while the database is down
+ * @param connectionTimeout longest any pool makes a request wait for a connection
+ */
+@ConfigurationProperties(prefix = "devices.circuit-breaker")
+public record CircuitBreakerProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5") int failureThreshold,
+        @DefaultValue("10s") Duration openDuration,
+        @DefaultValue("100000") long maxStaleDevices,
+        @DefaultValue("1h") Duration maxStaleAge,
+        @DefaultValue("2s") Duration connectionTimeout) {
+}
@@ -0,0 +1,58 @@
+package com.devices.api.config;
+
+import com.devices.api.deadline.DeadlineAspect;
+import com.devices.api.deadline.DeadlineInterceptor;
+import com.devices.api.deadline.DeadlineTransactionListener;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Request deadlines, enabled with {@code devices.deadlines.enabled=true}. Each transaction
+ * a request starts costs one extra {@code SET LOCAL} round trip.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DeadlineProperties.class)
+@ConditionalOnProperty(prefix = "devices.deadlines", name = "enabled", havingValue = "true")
+public class DeadlineConfig {
+
+    @Bean
+    public WebMvcConfigurer deadlineInterceptorConfigurer(DeadlineProperties properties) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new DeadlineInterceptor(properties)).addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    @Bean
+    public DeadlineAspect deadlineAspect() {
+        return new DeadlineAspect();
+    }
+
+    /**
+     * With workload pools, connections already carry their class's statement timeout, which
+     * the deadline only replaces when it is shorter.
+     */
+    @Bean
+    public DeadlineTransactionListener deadlineTransactionListener(DataSource dataSource,
+                                                                   ObjectProvider<WorkloadProperties> workloadProperties) {
+        WorkloadProperties workloads = workloadProperties.getIfAvailable();
+        Supplier<Duration> sessionTimeout = workloads == null ? () -> null : () -> {
+            WorkloadClass workload = WorkloadContext.current();
+            return workloads.pool(workload != null ? workload : WorkloadClass.WRITE).statementTimeout();
+        };
+        return new DeadlineTransactionListener(dataSource, sessionTimeout);
+    }
+}
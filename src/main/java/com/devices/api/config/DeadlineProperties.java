@@ -0,0 +1,23 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Request deadlines, bound from {@code devices.deadlines.*}.
+ *
+ * @param defaultTimeout deadline of operations without an entry in {@code operations}
+ * @param operations     deadline per operation, keyed by controller class and method name
+ *                       (e.g. {@code DeviceController.getAllDevices})
+ * @param header         request header with which a client shortens the deadline, e.g. {@code 2s}
+ */
+@ConfigurationProperties(prefix = "devices.deadlines")
+public record DeadlineProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10s") Duration defaultTimeout,
+        @DefaultValue Map<String, Duration> operations,
+        @DefaultValue("X-Request-Timeout") String header) {
+}
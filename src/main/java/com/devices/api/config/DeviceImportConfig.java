@@ -0,0 +1,49 @@
+package com.devices.api.config;
+
+import com.devices.api.imports.DeviceImportWorker;
+import com.devices.api.repository.ImportJobErrorRepository;
+import com.devices.api.repository.ImportJobRepository;
+import com.devices.api.sharding.ShardRoutingDataSource;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bulk import jobs. Each job runs on its own virtual thread, so an upload never holds a
+ * request thread; shutdown waits for running jobs to finish.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DeviceImportProperties.class)
+public class DeviceImportConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService deviceImportExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("device-import-", 0).factory());
+    }
+
+    /**
+     * In sharded mode rows are copied straight into the pool of the shard they belong to.
+     */
+    @Bean
+    public DeviceImportWorker deviceImportWorker(DataSource dataSource,
+                                                 ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                                                 Validator validator, ObjectMapper objectMapper,
+                                                 ImportJobRepository jobRepository,
+                                                 ImportJobErrorRepository errorRepository,
+                                                 ApplicationEventPublisher eventPublisher,
+                                                 DeviceImportProperties properties) {
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        List<DataSource> targets = shards != null ? shards.getShards() : List.of(dataSource);
+        return new DeviceImportWorker(targets, validator, objectMapper, jobRepository, errorRepository,
+                eventPublisher, properties);
+    }
+}
@@ -0,0 +1,20 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bulk import jobs, bound from {@code devices.import.*}.
+ *
+ * @param maxConcurrentJobs jobs writing at the same time; further uploads wait as {@code QUEUED}
+ * @param maxErrors         rejected rows stored per job; later rejections are only counted
+ * @param progressInterval  how often a running job publishes its counters
+ */
+@ConfigurationProperties(prefix = "devices.import")
+public record DeviceImportProperties(
+        @DefaultValue("2") int maxConcurrentJobs,
+        @DefaultValue("1000") int maxErrors,
+        @DefaultValue("1s") Duration progressInterval) {
+}
@@ -0,0 +1,44 @@
+package com.devices.api.config;
+
+import com.devices.api.export.DeviceArrowExporter;
+import com.devices.api.export.DeviceExportScheduler;
+import com.devices.api.sharding.ShardRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Arrow export of the device table, enabled with {@code devices.export.enabled=true}: a
+ * download at {@code GET /api/v1/devices/export}, and a scheduled file when
+ * {@code devices.export.directory} is set.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@EnableConfigurationProperties(ExportProperties.class)
+@ConditionalOnProperty(prefix = "devices.export", name = "enabled", havingValue = "true")
+public class ExportConfig {
+
+    /**
+     * In sharded mode every shard is read, each from its own pool.
+     */
+    @Bean
+    public DeviceArrowExporter deviceArrowExporter(DataSource dataSource,
+                                                   ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                                                   ExportProperties properties) {
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        List<DataSource> sources = shards != null ? shards.getShards() : List.of(dataSource);
+        return new DeviceArrowExporter(sources, properties.batchSize(), properties.compress());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "devices.export", name = "directory")
+    public DeviceExportScheduler deviceExportScheduler(DeviceArrowExporter exporter, ExportProperties properties) {
+        return new DeviceExportScheduler(exporter, properties);
+    }
+}
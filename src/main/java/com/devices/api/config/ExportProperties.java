@@ -0,0 +1,27 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Columnar export, bound from {@code devices.export.*}.
+ *
+ * @param batchSize rows per Arrow record batch, which is also the JDBC fetch size
+ * @param compress  LZ4-compress record batches; turn off for readers without IPC
+ *                  compression support, such as Arrow JS
+ * @param directory where scheduled exports are written; none are written when unset
+ * @param interval  how often a scheduled export is written
+ * @param retain    how many scheduled exports are kept; older ones are deleted
+ */
+@ConfigurationProperties(prefix = "devices.export")
+public record ExportProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("65536") int batchSize,
+        @DefaultValue("true") boolean compress,
+        Path directory,
+        @DefaultValue("1h") Duration interval,
+        @DefaultValue("24") int retain) {
+}
@@ -0,0 +1,56 @@
+package com.devices.api.config;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.graphql.DateTimeScalar;
+import com.devices.api.graphql.DeviceBatchLoader;
+import com.devices.api.graphql.GraphQlExceptionResolver;
+import com.devices.api.graphql.QueryCostCalculator;
+import com.devices.api.service.DeviceService;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+import reactor.core.publisher.Mono;
+
+/**
+ * GraphQL API at {@code spring.graphql.http.path}, schema in {@code graphql/devices.graphqls}.
+ * Always available; what one query may cost is bounded by {@code devices.graphql.*}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(GraphQlProperties.class)
+public class GraphQlConfig {
+
+    @Bean
+    public RuntimeWiringConfigurer dateTimeScalar() {
+        return wiring -> wiring.scalar(DateTimeScalar.INSTANCE);
+    }
+
+    /**
+     * Registered per request by Spring for GraphQL, so batching and caching never span requests.
+     */
+    @Bean
+    public DeviceBatchLoader deviceBatchLoader(DeviceService deviceService, BatchLoaderRegistry registry) {
+        DeviceBatchLoader loader = new DeviceBatchLoader(deviceService);
+        registry.forTypePair(DeviceBatchLoader.Key.class, DeviceResponse.class)
+                .registerMappedBatchLoader((keys, environment) -> Mono.fromSupplier(() -> loader.load(keys)));
+        return loader;
+    }
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(GraphQlProperties properties) {
+        return new MaxQueryDepthInstrumentation(properties.maxDepth());
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(GraphQlProperties properties) {
+        return new MaxQueryComplexityInstrumentation(properties.maxComplexity(), new QueryCostCalculator(properties.listSize()));
+    }
+
+    @Bean
+    public GraphQlExceptionResolver graphQlExceptionResolver() {
+        return new GraphQlExceptionResolver();
+    }
+}
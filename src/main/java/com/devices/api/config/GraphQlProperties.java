@@ -0,0 +1,19 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * GraphQL query limits, bound from {@code devices.graphql.*}. Queries over either limit are
+ * rejected before any data is fetched.
+ *
+ * @param maxDepth      deepest field nesting allowed
+ * @param maxComplexity highest cost allowed, as computed by {@link com.devices.api.graphql.QueryCostCalculator}
+ * @param listSize      elements assumed for lists without a {@code limit} argument
+ */
+@ConfigurationProperties(prefix = "devices.graphql")
+public record GraphQlProperties(
+        @DefaultValue("6") int maxDepth,
+        @DefaultValue("2000") int maxComplexity,
+        @DefaultValue("100") int listSize) {
+}
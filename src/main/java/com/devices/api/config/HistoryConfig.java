@@ -0,0 +1,70 @@
+package com.devices.api.config;
+
+import com.devices.api.history.DeviceHistoryPartitionMaintainer;
+import com.devices.api.history.DeviceStateHistoryRecorder;
+import com.devices.api.repository.DeviceStateHistoryRepository;
+import com.devices.api.service.DeviceHistoryService;
+import com.devices.api.service.DeviceHistoryServiceImpl;
+import com.devices.api.service.ShardedDeviceHistoryService;
+import com.devices.api.sharding.ShardRouter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+
+/**
+ * Device state history, enabled with {@code devices.history.enabled=true}: state changes are
+ * recorded in the partitioned {@code device_state_history} table and served at
+ * {@code GET /api/v1/devices/{id}/history} and {@code GET /api/v1/devices/history}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@EnableConfigurationProperties(HistoryProperties.class)
+@ConditionalOnProperty(prefix = "devices.history", name = "enabled", havingValue = "true")
+public class HistoryConfig {
+
+    @Bean
+    public DeviceStateHistoryRepository deviceStateHistoryRepository(JdbcTemplate jdbcTemplate) {
+        return new DeviceStateHistoryRepository(jdbcTemplate);
+    }
+
+    @Bean(destroyMethod = "close")
+    public DeviceStateHistoryRecorder deviceStateHistoryRecorder(DeviceStateHistoryRepository repository,
+                                                                 ObjectProvider<ShardRouter> shardRouter,
+                                                                 HistoryProperties properties,
+                                                                 MeterRegistry registry) {
+        DeviceStateHistoryRecorder recorder = new DeviceStateHistoryRecorder(repository, shardRouter.getIfAvailable(),
+                properties.queueCapacity(), properties.batchSize());
+        Gauge.builder("devices.history.queued", recorder, DeviceStateHistoryRecorder::queued)
+                .description("Device state transitions waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("devices.history.dropped", recorder, DeviceStateHistoryRecorder::dropped)
+                .description("Device state transitions dropped because the queue was full")
+                .register(registry);
+        return recorder;
+    }
+
+    @Bean
+    public DeviceHistoryPartitionMaintainer deviceHistoryPartitionMaintainer(DeviceStateHistoryRepository repository,
+                                                                             ObjectProvider<ShardRouter> shardRouter,
+                                                                             HistoryProperties properties) {
+        return new DeviceHistoryPartitionMaintainer(repository, shardRouter.getIfAvailable(),
+                properties.retention(), properties.partitionsAhead(), Clock.systemUTC());
+    }
+
+    @Bean
+    public DeviceHistoryService deviceHistoryService(DeviceStateHistoryRepository repository,
+                                                     ObjectProvider<ShardRouter> shardRouter) {
+        DeviceHistoryService service = new DeviceHistoryServiceImpl(repository);
+        ShardRouter router = shardRouter.getIfAvailable();
+        return router != null ? new ShardedDeviceHistoryService(service, router) : service;
+    }
+}
@@ -0,0 +1,25 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Device state history, bound from {@code devices.history.*}.
+ *
+ * @param queueCapacity     transitions waiting to be written; further ones are dropped and counted
+ * @param batchSize         rows per insert statement
+ * @param flushInterval     how often queued transitions are written
+ * @param retention         how long history is kept; older daily partitions are dropped
+ * @param partitionsAhead   days after today that always have a partition
+ */
+@ConfigurationProperties(prefix = "devices.history")
+public record HistoryProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100000") int queueCapacity,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("90d") Duration retention,
+        @DefaultValue("7") int partitionsAhead) {
+}
@@ -0,0 +1,52 @@
+package com.devices.api.config;
+
+import com.devices.api.hotkeys.CountMinSketch;
+import com.devices.api.hotkeys.HotKeyFilter;
+import com.devices.api.hotkeys.HotKeyTracker;
+import com.devices.api.hotkeys.HotKeys;
+import com.devices.api.hotkeys.HotKeysEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tracks the most requested device ids and list filters, enabled with
+ * {@code devices.hot-keys.enabled=true}. Each tracker takes {@code width * depth * 4} bytes
+ * plus its top keys, however many distinct keys are requested.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@EnableConfigurationProperties(HotKeyProperties.class)
+@ConditionalOnProperty(prefix = "devices.hot-keys", name = "enabled", havingValue = "true")
+public class HotKeyConfig {
+
+    @Bean
+    public HotKeys hotKeys(HotKeyProperties properties) {
+        return new HotKeys(tracker(properties), tracker(properties));
+    }
+
+    /**
+     * Runs right after the rate limiter and before the response cache, so that rejected
+     * requests are not counted and cached ones are.
+     */
+    @Bean
+    public FilterRegistrationBean<HotKeyFilter> hotKeyFilter(HotKeys hotKeys) {
+        FilterRegistrationBean<HotKeyFilter> registration = new FilterRegistrationBean<>(new HotKeyFilter(hotKeys));
+        registration.addUrlPatterns("/api/v1/devices", "/api/v1/devices/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    public HotKeysEndpoint hotKeysEndpoint(HotKeys hotKeys, HotKeyProperties properties) {
+        return new HotKeysEndpoint(hotKeys, properties.topK());
+    }
+
+    private static HotKeyTracker tracker(HotKeyProperties properties) {
+        return new HotKeyTracker(new CountMinSketch(properties.width(), properties.depth()), properties.topK());
+    }
+}
@@ -0,0 +1,23 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Hot-key tracking settings, bound from {@code devices.hot-keys.*}.
+ *
+ * @param width         counters per sketch row; wider sketches over-count rare keys less
+ * @param depth         sketch rows
+ * @param topK          keys kept per tracker, and the most the endpoint lists
+ * @param decayInterval how often all counts are halved
+ */
+@ConfigurationProperties(prefix = "devices.hot-keys")
+public record HotKeyProperties(
+        boolean enabled,
+        @DefaultValue("8192") int width,
+        @DefaultValue("4") int depth,
+        @DefaultValue("20") int topK,
+        @DefaultValue("1m") Duration decayInterval) {
+}
@@ -0,0 +1,40 @@
+package com.devices.api.config;
+
+import com.devices.api.jfr.ContinuousRecording;
+import com.devices.api.jfr.JfrEndpoint;
+import com.devices.api.jfr.JfrEventAspect;
+import com.devices.api.jfr.PinnedVirtualThreadMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDK Flight Recorder instrumentation. Disable with {@code devices.jfr.enabled=false}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(JfrProperties.class)
+@ConditionalOnProperty(prefix = "devices.jfr", name = "enabled", matchIfMissing = true)
+public class JfrConfig {
+
+    @Bean
+    public JfrEventAspect jfrEventAspect() {
+        return new JfrEventAspect();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ContinuousRecording continuousRecording(JfrProperties properties) {
+        return new ContinuousRecording(properties);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public PinnedVirtualThreadMonitor pinnedVirtualThreadMonitor(JfrProperties properties, MeterRegistry registry) {
+        return new PinnedVirtualThreadMonitor(properties.pinnedThreshold(), registry);
+    }
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(ContinuousRecording continuousRecording, JfrProperties properties) {
+        return new JfrEndpoint(continuousRecording, properties.dumpWindow());
+    }
+}
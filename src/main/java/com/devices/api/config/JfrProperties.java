@@ -0,0 +1,28 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for the continuous flight recording, bound from {@code devices.jfr.*}.
+ *
+ * @param settings         JDK settings file used as the base ({@code default} or {@code profile})
+ * @param maxAge           how much history the recording keeps on disk
+ * @param maxSize          upper bound for the on-disk repository
+ * @param dumpWindow       window dumped by {@code /actuator/jfr} when no {@code minutes} are given
+ * @param eventThreshold   minimum duration for the custom device, repository and connection events
+ * @param pinnedThreshold  minimum pinning duration reported for virtual threads
+ */
+@ConfigurationProperties(prefix = "devices.jfr")
+public record JfrProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("default") String settings,
+        @DefaultValue("30m") Duration maxAge,
+        @DefaultValue("250MB") DataSize maxSize,
+        @DefaultValue("10m") Duration dumpWindow,
+        @DefaultValue("10ms") Duration eventThreshold,
+        @DefaultValue("20ms") Duration pinnedThreshold) {
+}
@@ -0,0 +1,88 @@
+package com.devices.api.config;
+
+import com.devices.api.dto.DeviceCountResponse;
+import com.devices.api.dto.DeviceFullUpdateRequest;
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertBatchRequest;
+import com.devices.api.dto.DeviceUpsertResult;
+import com.devices.api.dto.ImportJobResponse;
+import com.devices.api.dto.ImportRowError;
+import com.devices.api.entity.Device;
+import com.devices.api.entity.ImportJob;
+import com.devices.api.entity.ImportJobError;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.ImportFormat;
+import com.devices.api.enums.ImportJobStatus;
+import com.devices.api.enums.UpsertOutcome;
+import com.devices.api.sharding.ShardAwareUuidGenerator;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Reachability metadata for the GraalVM native image built with {@code -Pnative}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeImageConfig.DeviceRuntimeHints.class)
+public class NativeImageConfig {
+
+    static class DeviceRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            MemberCategory[] allMembers = {
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.ACCESS_DECLARED_FIELDS
+            };
+
+            // Enums are resolved by name from request parameters, JSON and the varchar state column
+            hints.reflection().registerType(DeviceState.class, allMembers);
+            hints.reflection().registerType(DeviceField.class, allMembers);
+            hints.reflection().registerType(ImportFormat.class, allMembers);
+            hints.reflection().registerType(ImportJobStatus.class, allMembers);
+            hints.reflection().registerType(UpsertOutcome.class, allMembers);
+
+            // Hibernate populates entity fields reflectively
+            hints.reflection().registerType(Device.class, allMembers);
+            hints.reflection().registerType(ImportJob.class, allMembers);
+            hints.reflection().registerType(ImportJobError.class, allMembers);
+            hints.reflection().registerType(ShardAwareUuidGenerator.class, allMembers);
+
+            // MapStruct generates the implementation at compile time
+            hints.reflection().registerType(
+                    TypeReference.of("com.devices.api.mapper.DeviceMapperImpl"), allMembers);
+
+            hints.reflection().registerType(DeviceRequest.class, allMembers);
+            hints.reflection().registerType(DeviceUpdateRequest.class, allMembers);
+            hints.reflection().registerType(DeviceFullUpdateRequest.class, allMembers);
+            hints.reflection().registerType(DeviceResponse.class, allMembers);
+            hints.reflection().registerType(DeviceCountResponse.class, allMembers);
+            hints.reflection().registerType(ImportJobResponse.class, allMembers);
+            hints.reflection().registerType(ImportRowError.class, allMembers);
+            hints.reflection().registerType(DeviceUpsertBatchRequest.class, allMembers);
+            hints.reflection().registerType(DeviceUpsertResult.class, allMembers);
+
+            // Slow-query capture wraps connections and statements in JDK proxies
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, Connection.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, Statement.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, PreparedStatement.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, CallableStatement.class);
+
+            hints.resources().registerPattern("db/migration/*.sql");
+            hints.resources().registerPattern("openapi/*");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.devices.api.config;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.EnvironmentPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Map;
+
+/**
+ * Turns springdoc's runtime scanning back on when {@code springdoc.api-docs.enabled=false}
+ * but the build did not generate {@code openapi/api-docs.json}, which is the case when the
+ * application runs from an IDE, with {@code mvn spring-boot:run} or from a build that stopped
+ * before {@code prepare-package}. {@code /api-docs} then describes the running application
+ * instead of answering 404.
+ */
+public class OpenApiRuntimeScanningFallback implements EnvironmentPostProcessor {
+
+    private static final String DOCUMENT = "openapi/api-docs.json";
+
+    private static final String ENABLED = "springdoc.api-docs.enabled";
+
+    private final Log log;
+
+    public OpenApiRuntimeScanningFallback(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(OpenApiRuntimeScanningFallback.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (environment.getProperty(ENABLED, Boolean.class, true)
+                || new ClassPathResource(DOCUMENT, application.getClassLoader()).exists()) {
+            return;
+        }
+        log.info("No generated " + DOCUMENT + " on the classpath, building /api-docs from the controllers at startup");
+        environment.getPropertySources().addFirst(
+                new MapPropertySource("openapiRuntimeScanningFallback", Map.of(ENABLED, true)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.devices.api.config;
+
+import com.devices.api.ratelimit.RateLimitFilter;
+import com.devices.api.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Set;
+
+/**
+ * Per-client quotas on the device API, enabled with {@code devices.rate-limit.enabled=true}.
+ * Budgets are kept per instance, so behind a load balancer a client gets up to its budget
+ * from every instance.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "devices.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    /**
+     * GraphQL requests share the read budget: the schema has no mutations.
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, MeterRegistry registry,
+                                           @Value("${spring.graphql.http.path:/graphql}") String graphQlPath) {
+        return new RateLimitFilter(
+                limiter("read", properties.read(), properties.maxClients(), registry),
+                limiter("write", properties.write(), properties.maxClients(), registry),
+                properties.apiKeyHeader(),
+                properties.apiKeys(),
+                Set.of(graphQlPath));
+    }
+
+    /**
+     * Runs first, so that responses served from the response cache count against the budget too.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter,
+                                                                               @Value("${spring.graphql.http.path:/graphql}") String graphQlPath) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/devices", "/api/v1/devices/*", graphQlPath);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static RateLimiter limiter(String kind, RateLimitProperties.Budget budget, int maxClients,
+                                       MeterRegistry registry) {
+        RateLimiter limiter = new RateLimiter(budget.requestsPerSecond(), budget.burst(), maxClients, System::nanoTime);
+        FunctionCounter.builder("devices.rate-limit.rejected", limiter, RateLimiter::rejected)
+                .description("Requests answered 429 because the client exceeded its budget")
+                .tag("kind", kind)
+                .register(registry);
+        return limiter;
+    }
+}
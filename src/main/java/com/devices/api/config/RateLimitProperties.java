@@ -0,0 +1,55 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Set;
+
+/**
+ * Per-client request quotas, bound from {@code devices.rate-limit.*}. Unset budget settings
+ * fall back to the defaults of their kind.
+ *
+ * @param apiKeyHeader header identifying a client
+ * @param apiKeys      API keys that get budgets of their own; requests without one of them
+ *                     are limited by address, so made-up keys cannot dodge a budget
+ * @param maxClients   clients tracked individually; further clients share one budget until
+ *                     idle clients are forgotten
+ * @param read         {@code GET} and {@code HEAD} requests
+ * @param write        all other requests
+ */
+@ConfigurationProperties(prefix = "devices.rate-limit")
+public record RateLimitProperties(
+        boolean enabled,
+        @DefaultValue("X-API-Key") String apiKeyHeader,
+        Set<String> apiKeys,
+        @DefaultValue("100000") int maxClients,
+        Budget read,
+        Budget write) {
+
+    private static final Budget READ_DEFAULTS = new Budget(100, 200);
+    private static final Budget WRITE_DEFAULTS = new Budget(20, 40);
+
+    public RateLimitProperties {
+        apiKeys = apiKeys != null ? Set.copyOf(apiKeys) : Set.of();
+        read = Budget.orDefaults(read, READ_DEFAULTS);
+        write = Budget.orDefaults(write, WRITE_DEFAULTS);
+    }
+
+    /**
+     * @param requestsPerSecond sustained rate a client is allowed
+     * @param burst             requests a client that has been idle may make at once
+     */
+    public record Budget(
+            Integer requestsPerSecond,
+            Integer burst) {
+
+        static Budget orDefaults(Budget budget, Budget defaults) {
+            if (budget == null) {
+                return defaults;
+            }
+            return new Budget(
+                    budget.requestsPerSecond != null ? budget.requestsPerSecond : defaults.requestsPerSecond,
+                    budget.burst != null ? budget.burst : defaults.burst);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.devices.api.config;
+
+import com.devices.api.cache.DeviceResponseCache;
+import com.devices.api.cache.DeviceResponseCacheFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache of serialized device and list responses, enabled with {@code devices.response-cache.enabled=true}.
+ * Invalidation follows the writes of this instance only; writes made elsewhere become visible
+ * after {@code devices.response-cache.time-to-live}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "devices.response-cache", name = "enabled", havingValue = "true")
+public class ResponseCacheConfig {
+
+    @Bean
+    public DeviceResponseCache deviceResponseCache(ResponseCacheProperties properties) {
+        return new DeviceResponseCache(properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<DeviceResponseCacheFilter> deviceResponseCacheFilter(DeviceResponseCache cache) {
+        FilterRegistrationBean<DeviceResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new DeviceResponseCacheFilter(cache));
+        registration.addUrlPatterns("/api/v1/devices", "/api/v1/devices/*");
+        return registration;
+    }
+}
@@ -0,0 +1,25 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Serialized response cache, bound from {@code devices.response-cache.*}.
+ *
+ * @param maxSize      total size of cached bodies, gzip variants included
+ * @param maxEntrySize larger responses, such as unfiltered lists of a big catalog, are not cached
+ * @param minGzipSize  bodies at least this large also keep a gzip variant
+ * @param timeToLive   upper bound on staleness for writes made by other instances, which
+ *                     this instance is not notified of
+ */
+@ConfigurationProperties(prefix = "devices.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("64MB") DataSize maxSize,
+        @DefaultValue("1MB") DataSize maxEntrySize,
+        @DefaultValue("2KB") DataSize minGzipSize,
+        @DefaultValue("1m") Duration timeToLive) {
+}
@@ -0,0 +1,107 @@
+package com.devices.api.config;
+
+import com.devices.api.service.DeviceService;
+import com.devices.api.service.DeviceServiceImpl;
+import com.devices.api.service.DeviceStatsService;
+import com.devices.api.service.DeviceStatsServiceImpl;
+import com.devices.api.service.DeviceTotalService;
+import com.devices.api.service.DeviceTotalServiceImpl;
+import com.devices.api.service.ShardedDeviceService;
+import com.devices.api.service.ShardedDeviceStatsService;
+import com.devices.api.service.ShardedDeviceTotalService;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.sharding.ShardRoutingDataSource;
+import com.devices.api.workload.WorkloadPoolFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharded mode, enabled with {@code devices.sharding.enabled=true}. Replaces the single
+ * datasource with one pool per shard and decorates the services with shard routing.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "devices.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * With workload pools enabled each shard gets one pool per workload class, sized by
+     * {@code devices.workloads.*} instead of the shard's {@code maximum-pool-size}.
+     */
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(ShardingProperties properties,
+                                             ObjectProvider<WorkloadPoolFactory> workloadPools) {
+        if (properties.shards().isEmpty()) {
+            throw new IllegalStateException("devices.sharding.enabled requires at least one devices.sharding.shards entry");
+        }
+
+        WorkloadPoolFactory workloads = workloadPools.getIfAvailable();
+        List<DataSource> pools = new ArrayList<>();
+        for (ShardingProperties.Shard shard : properties.shards()) {
+            if (workloads != null) {
+                pools.add(workloads.create("shard-" + pools.size(), shard.url(), shard.username(), shard.password()));
+                continue;
+            }
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            pool.setPoolName("shard-" + pools.size());
+            pool.setMaximumPoolSize(shard.maximumPoolSize());
+            pools.add(pool);
+        }
+        return new ShardRoutingDataSource(pools);
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        return new ShardRouter(properties.shards().size());
+    }
+
+    /**
+     * Applies the same migrations to every shard instead of only the default one.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardRoutingDataSource dataSource) {
+        return flyway -> dataSource.getShards().forEach(shard -> Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(shard)
+                .load()
+                .migrate());
+    }
+
+    @Bean
+    @Primary
+    public DeviceService shardedDeviceService(DeviceServiceImpl deviceService, ShardRouter shardRouter) {
+        return new ShardedDeviceService(deviceService, shardRouter);
+    }
+
+    @Bean
+    @Primary
+    public DeviceStatsService shardedDeviceStatsService(DeviceStatsServiceImpl deviceStatsService,
+                                                        ShardRouter shardRouter) {
+        return new ShardedDeviceStatsService(deviceStatsService, shardRouter);
+    }
+
+    @Bean
+    @Primary
+    public DeviceTotalService shardedDeviceTotalService(DeviceTotalServiceImpl deviceTotalService,
+                                                        ShardRouter shardRouter) {
+        return new ShardedDeviceTotalService(deviceTotalService, shardRouter);
+    }
+}
@@ -0,0 +1,23 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Shard topology, bound from {@code devices.sharding.*}. The position in {@code shards}
+ * is the shard number, so entries must only ever be appended together with a data move.
+ */
+@ConfigurationProperties(prefix = "devices.sharding")
+public record ShardingProperties(
+        boolean enabled,
+        @DefaultValue List<Shard> shards) {
+
+    public record Shard(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int maximumPoolSize) {
+    }
+}
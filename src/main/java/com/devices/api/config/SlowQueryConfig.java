@@ -0,0 +1,54 @@
+package com.devices.api.config;
+
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.slowquery.QueryPlanSampler;
+import com.devices.api.slowquery.SlowQueriesEndpoint;
+import com.devices.api.slowquery.SlowQueryAspect;
+import com.devices.api.slowquery.SlowQueryListener;
+import com.devices.api.slowquery.SlowQueryLog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Slow-query capture, enabled with {@code devices.slow-queries.enabled=true}. Every statement
+ * runs through a JDBC proxy, which allocates a few small objects per statement.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SlowQueryProperties.class)
+@ConditionalOnProperty(prefix = "devices.slow-queries", name = "enabled", havingValue = "true")
+public class SlowQueryConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties, MeterRegistry registry) {
+        SlowQueryLog log = new SlowQueryLog(properties.capacity());
+        FunctionCounter.builder("devices.slow-queries", log, SlowQueryLog::recorded)
+                .description("Statements slower than devices.slow-queries.threshold")
+                .register(registry);
+        return log;
+    }
+
+    /**
+     * The DataSource is resolved on first use, as it is itself advised by the aspect.
+     */
+    @Bean
+    public SlowQueryAspect slowQueryAspect(SlowQueryLog slowQueryLog, @Lazy DataSource dataSource,
+                                           ObjectProvider<ShardRouter> shardRouter, SlowQueryProperties properties) {
+        QueryPlanSampler sampler = new QueryPlanSampler(dataSource, shardRouter.getIfAvailable(),
+                properties.explainSampleRate(), properties.explainTimeout(), properties.maxConcurrentExplains());
+        return new SlowQueryAspect(new SlowQueryListener(slowQueryLog, sampler, properties.threshold(), Clock.systemUTC()));
+    }
+
+    @Bean
+    public SlowQueriesEndpoint slowQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueriesEndpoint(slowQueryLog);
+    }
+}
@@ -0,0 +1,26 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Slow-query capture settings, bound from {@code devices.slow-queries.*}.
+ *
+ * @param threshold             statements taking at least this long are recorded
+ * @param capacity              slow queries kept; older ones are overwritten
+ * @param explainSampleRate     share of slow {@code SELECT}s whose plan is taken, from 0 to 1
+ * @param explainTimeout        statement timeout of a plan; {@code ANALYZE} runs the query again
+ * @param maxConcurrentExplains plans taken at the same time; slow queries beyond that are
+ *                              recorded without a plan
+ */
+@ConfigurationProperties(prefix = "devices.slow-queries")
+public record SlowQueryProperties(
+        boolean enabled,
+        @DefaultValue("500ms") Duration threshold,
+        @DefaultValue("100") int capacity,
+        @DefaultValue("0.1") double explainSampleRate,
+        @DefaultValue("10s") Duration explainTimeout,
+        @DefaultValue("1") int maxConcurrentExplains) {
+}
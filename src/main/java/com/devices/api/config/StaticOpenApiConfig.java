@@ -0,0 +1,37 @@
+package com.devices.api.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+/**
+ * Serves the OpenAPI document generated at build time at {@code /api-docs} when springdoc
+ * does not scan the controllers at runtime ({@code springdoc.api-docs.enabled=false}).
+ * Clients accepting gzip get the compressed copy as it was written by the build.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+public class StaticOpenApiConfig {
+
+    @Bean
+    public WebMvcConfigurer staticOpenApiConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addViewControllers(ViewControllerRegistry registry) {
+                registry.addViewController("/api-docs").setViewName("forward:/openapi/api-docs.json");
+            }
+
+            @Override
+            public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                registry.addResourceHandler("/openapi/**")
+                        .addResourceLocations("classpath:/openapi/")
+                        .resourceChain(true)
+                        .addResolver(new EncodedResourceResolver());
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.devices.api.config;
+
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.stats.DeviceCreationRollupRecorder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Creation rollups behind {@code GET /api/v1/devices/stats/timeline}: single-device writes
+ * are applied to {@code device_creation_rollups} in batches every
+ * {@code devices.stats.flush-interval} (default 1s).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+public class StatsConfig {
+
+    @Bean(destroyMethod = "close")
+    public DeviceCreationRollupRecorder deviceCreationRollupRecorder(DeviceCreationRollupRepository repository,
+                                                                     ObjectProvider<ShardRouter> shardRouter,
+                                                                     MeterRegistry registry) {
+        DeviceCreationRollupRecorder recorder = new DeviceCreationRollupRecorder(repository, shardRouter.getIfAvailable());
+        Gauge.builder("devices.rollups.pending", recorder, DeviceCreationRollupRecorder::pending)
+                .description("Creation rollup buckets with changes waiting to be applied")
+                .register(registry);
+        return recorder;
+    }
+}
@@ -0,0 +1,28 @@
+package com.devices.api.config;
+
+import com.devices.api.index.DeviceBitmapIndex;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.service.DeviceTotalServiceImpl;
+import com.devices.api.sharding.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Totals for {@code GET /api/v1/devices?includeTotal=true}. Always available; the cost of
+ * a total is bounded by {@code devices.totals.*} rather than by the size of the table.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TotalCountProperties.class)
+public class TotalCountConfig {
+
+    @Bean
+    public DeviceTotalServiceImpl deviceTotalService(DeviceRepository deviceRepository,
+                                                     ObjectProvider<DeviceBitmapIndex> bitmapIndex,
+                                                     ObjectProvider<ShardRouter> shardRouter,
+                                                     TotalCountProperties properties) {
+        return new DeviceTotalServiceImpl(deviceRepository, bitmapIndex.getIfAvailable(),
+                shardRouter.getIfAvailable(), properties);
+    }
+}
@@ -0,0 +1,24 @@
+package com.devices.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * List totals, bound from {@code devices.totals.*}.
+ *
+ * @param exactThreshold      results the planner estimates below this size are counted exactly
+ * @param cacheTtl            how long an exact count of a large result is reused; writes made
+ *                            since are not reflected until it expires
+ * @param maxCachedFilters    number of filters with a cached exact count, each shard counting
+ *                            separately
+ * @param maxBackgroundCounts exact counts of large results running at once
+ */
+@ConfigurationProperties(prefix = "devices.totals")
+public record TotalCountProperties(
+        @DefaultValue("10000") long exactThreshold,
+        @DefaultValue("1m") Duration cacheTtl,
+        @DefaultValue("1000") int maxCachedFilters,
+        @DefaultValue("2") int maxBackgroundCounts) {
+}
@@ -0,0 +1,52 @@
+package com.devices.api.config;
+
+import com.devices.api.workload.WorkloadAspect;
+import com.devices.api.workload.WorkloadPoolFactory;
+import com.devices.api.workload.WorkloadRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.jdbc.autoconfigure.JdbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Workload bulkheads, enabled with {@code devices.workloads.enabled=true}. Replaces the single
+ * pool with one pool per workload class; in sharded mode every shard gets its own set.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(WorkloadProperties.class)
+@ConditionalOnProperty(prefix = "devices.workloads", name = "enabled", havingValue = "true")
+public class WorkloadConfig {
+
+    @Bean
+    public WorkloadAspect workloadAspect() {
+        return new WorkloadAspect();
+    }
+
+    @Bean
+    public WorkloadPoolFactory workloadPoolFactory(WorkloadProperties properties, MeterRegistry registry) {
+        return new WorkloadPoolFactory(properties, registry);
+    }
+
+    /**
+     * Uses service connection details when present (Testcontainers, Docker Compose) and
+     * {@code spring.datasource.*} otherwise.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "devices.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public WorkloadRoutingDataSource dataSource(WorkloadPoolFactory factory,
+                                                ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                                DataSourceProperties dataSourceProperties) {
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        if (details != null) {
+            return factory.create("devices", details.getJdbcUrl(), details.getUsername(), details.getPassword());
+        }
+        return factory.create("devices", dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+}
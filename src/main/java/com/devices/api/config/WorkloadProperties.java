@@ -0,0 +1,62 @@
+package com.devices.api.config;
+
+import com.devices.api.workload.WorkloadClass;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per-workload connection pools, bound from {@code devices.workloads.*}. Unset pool
+ * settings fall back to the defaults of their class.
+ *
+ * @param pointRead lookups by id
+ * @param write     creates, updates, deletes and upserts
+ * @param bulk      lists, counts, timelines, imports and snapshots
+ */
+@ConfigurationProperties(prefix = "devices.workloads")
+public record WorkloadProperties(
+        boolean enabled,
+        Pool pointRead,
+        Pool write,
+        Pool bulk) {
+
+    private static final Pool POINT_READ_DEFAULTS = new Pool(10, Duration.ofSeconds(1), Duration.ofSeconds(5));
+    private static final Pool WRITE_DEFAULTS = new Pool(10, Duration.ofSeconds(2), Duration.ofSeconds(30));
+    private static final Pool BULK_DEFAULTS = new Pool(4, Duration.ofSeconds(30), null);
+
+    public WorkloadProperties {
+        pointRead = Pool.orDefaults(pointRead, POINT_READ_DEFAULTS);
+        write = Pool.orDefaults(write, WRITE_DEFAULTS);
+        bulk = Pool.orDefaults(bulk, BULK_DEFAULTS);
+    }
+
+    public Pool pool(WorkloadClass workload) {
+        return switch (workload) {
+            case POINT_READ -> pointRead;
+            case WRITE -> write;
+            case BULK -> bulk;
+        };
+    }
+
+    /**
+     * @param maximumPoolSize   connections the class may hold at once
+     * @param connectionTimeout how long a request waits for a connection before failing
+     * @param statementTimeout  session {@code statement_timeout} of the pool's connections;
+     *                          unset or zero means no limit
+     */
+    public record Pool(
+            Integer maximumPoolSize,
+            Duration connectionTimeout,
+            Duration statementTimeout) {
+
+        static Pool orDefaults(Pool pool, Pool defaults) {
+            if (pool == null) {
+                return defaults;
+            }
+            return new Pool(
+                    pool.maximumPoolSize != null ? pool.maximumPoolSize : defaults.maximumPoolSize,
+                    pool.connectionTimeout != null ? pool.connectionTimeout : defaults.connectionTimeout,
+                    pool.statementTimeout != null ? pool.statementTimeout : defaults.statementTimeout);
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.devices.api.controller;
 
+import com.devices.api.dto.DeviceCountResponse;
+import com.devices.api.dto.DeviceFilter;
 import com.devices.api.dto.DeviceFullUpdateRequest;
 import com.devices.api.dto.DeviceRequest;
 import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceTotal;
 import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertBatchRequest;
+import com.devices.api.dto.DeviceUpsertResult;
+import com.devices.api.enums.DeviceField;
 import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.UpsertOutcome;
 import com.devices.api.service.DeviceService;
+import com.devices.api.service.DeviceTotalService;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -19,6 +30,7 @@ import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,10 +39,15 @@ import java.util.UUID;
 @Tag(name = "Devices", description = "Device management operations")
 public class DeviceController {
 
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final String TOTAL_COUNT_SOURCE_HEADER = "X-Total-Count-Source";
+
     private final DeviceService deviceService;
+    private final DeviceTotalService deviceTotalService;
 
-    public DeviceController(DeviceService deviceService) {
+    public DeviceController(DeviceService deviceService, DeviceTotalService deviceTotalService) {
         this.deviceService = deviceService;
+        this.deviceTotalService = deviceTotalService;
     }
 
     @Operation(summary = "Create a new device", description = "Creates a new device with the provided details")
@@ -39,45 +56,128 @@ public class DeviceController {
             @ApiResponse(responseCode = "400", description = "Invalid request data",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
     })
+    @Workload(WorkloadClass.WRITE)
     @PostMapping
     public ResponseEntity<DeviceResponse> createDevice(@Valid @RequestBody DeviceRequest request) {
         DeviceResponse response = deviceService.create(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    @Operation(summary = "Get device by ID", description = "Retrieves a device by its unique identifier")
+    @Operation(summary = "Create or update a device by brand and name",
+            description = "Creates the device if no device has this brand and name, otherwise replaces its state. Devices that are in use are left unchanged. Tags cannot be set here; use PATCH.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Device created"),
+            @ApiResponse(responseCode = "200", description = "Existing device updated"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "409", description = "Device is in use and cannot be modified",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @Workload(WorkloadClass.WRITE)
+    @PostMapping("/upsert")
+    public ResponseEntity<DeviceResponse> upsertDevice(@Valid @RequestBody DeviceRequest request) {
+        DeviceUpsertResult result = deviceService.upsert(request);
+        HttpStatus status = result.outcome() == UpsertOutcome.CREATED ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(result.device());
+    }
+
+    @Operation(summary = "Create or update devices by brand and name",
+            description = "Upserts up to 1000 devices in one statement. Each result reports whether the device was created, updated or left unchanged because it is in use. Tags cannot be set here; use PATCH.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch applied"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data or the same brand and name appear twice",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @Workload(WorkloadClass.WRITE)
+    @PostMapping("/upsert/batch")
+    public ResponseEntity<List<DeviceUpsertResult>> upsertDevices(@Valid @RequestBody DeviceUpsertBatchRequest request) {
+        return ResponseEntity.ok(deviceService.upsertAll(request.devices()));
+    }
+
+    @Operation(summary = "Get device by ID", description = "Retrieves a device by its unique identifier, optionally limited to a sparse fieldset")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device found"),
             @ApiResponse(responseCode = "404", description = "Device not found",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
     })
+    @Workload(WorkloadClass.POINT_READ)
     @GetMapping("/{id}")
     public ResponseEntity<DeviceResponse> getDevice(
-            @Parameter(description = "Device ID") @PathVariable UUID id) {
-        DeviceResponse response = deviceService.getById(id);
+            @Parameter(description = "Device ID") @PathVariable UUID id,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,state") @RequestParam(required = false) List<String> fields) {
+        DeviceResponse response = fields == null
+                ? deviceService.getById(id)
+                : deviceService.getById(id, DeviceField.fromProperties(fields));
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Get all devices", description = "Retrieves all devices with optional filtering by brand and/or state")
-    @ApiResponse(responseCode = "200", description = "List of devices retrieved successfully")
+    @Operation(summary = "Get all devices", description = "Retrieves all devices with optional filtering by brand, state, creation time range and/or tags, optionally limited to a sparse fieldset")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of devices retrieved successfully", headers = {
+                    @Header(name = TOTAL_COUNT_HEADER, description = "Matching devices, when includeTotal is set",
+                            schema = @Schema(type = "integer")),
+                    @Header(name = TOTAL_COUNT_SOURCE_HEADER, description = "exact, cached or estimate",
+                            schema = @Schema(type = "string"))
+            }),
+            @ApiResponse(responseCode = "400", description = "Invalid filter",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @Workload(WorkloadClass.BULK)
     @GetMapping
     public ResponseEntity<List<DeviceResponse>> getAllDevices(
             @Parameter(description = "Filter by brand") @RequestParam(required = false) String brand,
-            @Parameter(description = "Filter by state") @RequestParam(required = false) DeviceState state) {
-        List<DeviceResponse> devices = deviceService.getAll(brand, state);
-        return ResponseEntity.ok(devices);
+            @Parameter(description = "Filter by state") @RequestParam(required = false) DeviceState state,
+            @Parameter(description = "Only devices created at or after this instant, e.g. 2024-01-01T00:00:00Z") @RequestParam(required = false) Instant createdAfter,
+            @Parameter(description = "Only devices created before this instant, e.g. 2024-02-01T00:00:00Z") @RequestParam(required = false) Instant createdBefore,
+            @Parameter(description = "Comma-separated tags; only devices carrying at least one of them, e.g. site:ams1,site:fra2") @RequestParam(required = false) List<String> anyTags,
+            @Parameter(description = "Comma-separated tags; only devices carrying all of them, e.g. team:payments,pool:loaners") @RequestParam(required = false) List<String> allTags,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,state") @RequestParam(required = false) List<String> fields,
+            @Parameter(description = "Add the number of matching devices in the X-Total-Count header; large totals may be cached or estimated") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        DeviceFilter filter = new DeviceFilter(brand, state, createdAfter, createdBefore, anyTags, allTags);
+        List<DeviceResponse> devices = fields == null
+                ? deviceService.getAll(filter)
+                : deviceService.getAll(filter, DeviceField.fromProperties(fields));
+        if (!includeTotal) {
+            return ResponseEntity.ok(devices);
+        }
+
+        DeviceTotal total = deviceTotalService.total(filter);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, Long.toString(total.count()))
+                .header(TOTAL_COUNT_SOURCE_HEADER, total.source().headerValue())
+                .body(devices);
+    }
+
+    @Operation(summary = "Count devices", description = "Counts devices matching the optional brand, state, creation time range and tag filters")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Count computed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @Workload(WorkloadClass.BULK)
+    @GetMapping("/count")
+    public ResponseEntity<DeviceCountResponse> countDevices(
+            @Parameter(description = "Filter by brand") @RequestParam(required = false) String brand,
+            @Parameter(description = "Filter by state") @RequestParam(required = false) DeviceState state,
+            @Parameter(description = "Only devices created at or after this instant, e.g. 2024-01-01T00:00:00Z") @RequestParam(required = false) Instant createdAfter,
+            @Parameter(description = "Only devices created before this instant, e.g. 2024-02-01T00:00:00Z") @RequestParam(required = false) Instant createdBefore,
+            @Parameter(description = "Comma-separated tags; only devices carrying at least one of them, e.g. site:ams1,site:fra2") @RequestParam(required = false) List<String> anyTags,
+            @Parameter(description = "Comma-separated tags; only devices carrying all of them, e.g. team:payments,pool:loaners") @RequestParam(required = false) List<String> allTags) {
+        DeviceFilter filter = new DeviceFilter(brand, state, createdAfter, createdBefore, anyTags, allTags);
+        return ResponseEntity.ok(new DeviceCountResponse(deviceService.count(filter)));
     }
 
-    @Operation(summary = "Update device", description = "Fully replaces an existing device. All fields are required. Cannot update device that is in use.")
+    @Operation(summary = "Update device", description = "Fully replaces an existing device. All fields are required; tags are left unchanged. Cannot update device that is in use.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request data",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
             @ApiResponse(responseCode = "404", description = "Device not found",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
-            @ApiResponse(responseCode = "409", description = "Device is in use and cannot be modified",
+            @ApiResponse(responseCode = "409", description = "Device is in use and cannot be modified, or in sharded mode the new brand and name belong on another shard",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
     })
+    @Workload(WorkloadClass.WRITE)
     @PutMapping("/{id}")
     public ResponseEntity<DeviceResponse> updateDevice(
             @Parameter(description = "Device ID") @PathVariable UUID id,
@@ -86,18 +186,19 @@ public class DeviceController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Partially update device", description = "Partially updates an existing device. Name and brand cannot be updated if device is in use.")
+    @Operation(summary = "Partially update device", description = "Partially updates an existing device; tags, when given, replace the current ones. Name and brand cannot be updated if device is in use.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Device updated successfully"),
             @ApiResponse(responseCode = "404", description = "Device not found",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
-            @ApiResponse(responseCode = "409", description = "Device is in use and cannot be modified",
+            @ApiResponse(responseCode = "409", description = "Device is in use and cannot be modified, or in sharded mode the new brand and name belong on another shard",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
     })
+    @Workload(WorkloadClass.WRITE)
     @PatchMapping("/{id}")
     public ResponseEntity<DeviceResponse> partialUpdateDevice(
             @Parameter(description = "Device ID") @PathVariable UUID id,
-            @RequestBody DeviceUpdateRequest request) {
+            @Valid @RequestBody DeviceUpdateRequest request) {
         DeviceResponse response = deviceService.partialUpdate(id, request);
         return ResponseEntity.ok(response);
     }
@@ -110,6 +211,7 @@ public class DeviceController {
             @ApiResponse(responseCode = "409", description = "Device is in use and cannot be deleted",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
     })
+    @Workload(WorkloadClass.WRITE)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDevice(
             @Parameter(description = "Device ID") @PathVariable UUID id) {
@@ -0,0 +1,49 @@
+package com.devices.api.controller;
+
+import com.devices.api.export.DeviceArrowExporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Written straight to the response on the request thread, so the download is not bound by
+ * the async request timeout, and outside the JSON response handling of the other endpoints.
+ */
+@RestController
+@RequestMapping("/api/v1/devices/export")
+@Tag(name = "Device Export", description = "Columnar catalog export for analytics")
+@ConditionalOnProperty(prefix = "devices.export", name = "enabled", havingValue = "true")
+public class DeviceExportController {
+
+    private final DeviceArrowExporter exporter;
+
+    public DeviceExportController(DeviceArrowExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @Operation(summary = "Export all devices",
+            description = "Streams every device as an Apache Arrow IPC stream with dictionary-encoded brand and state")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arrow stream of all devices",
+                    content = @Content(mediaType = DeviceArrowExporter.STREAM_MEDIA_TYPE))
+    })
+    @GetMapping
+    public void exportDevices(HttpServletResponse response) throws IOException, SQLException {
+        response.setContentType(DeviceArrowExporter.STREAM_MEDIA_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("devices.arrows").build().toString());
+        exporter.writeStream(response.getOutputStream());
+    }
+}
@@ -0,0 +1,81 @@
+package com.devices.api.controller;
+
+import com.devices.api.dto.DeviceStateTransition;
+import com.devices.api.service.DeviceHistoryService;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/devices")
+@Tag(name = "Device History", description = "Audit trail of device state changes")
+@ConditionalOnProperty(prefix = "devices.history", name = "enabled", havingValue = "true")
+public class DeviceHistoryController {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(1);
+    private static final int MAX_LIMIT = 10_000;
+
+    private final DeviceHistoryService deviceHistoryService;
+
+    public DeviceHistoryController(DeviceHistoryService deviceHistoryService) {
+        this.deviceHistoryService = deviceHistoryService;
+    }
+
+    @Operation(summary = "Get a device's state history",
+            description = "Returns every recorded state change of the device, oldest first. Changes are recorded "
+                    + "shortly after they commit, and kept for the configured retention, also after the device is deleted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "History retrieved successfully")
+    })
+    @Workload(WorkloadClass.POINT_READ)
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<DeviceStateTransition>> getDeviceHistory(
+            @Parameter(description = "Device ID") @PathVariable UUID id) {
+        return ResponseEntity.ok(deviceHistoryService.getDeviceHistory(id));
+    }
+
+    @Operation(summary = "Get state changes in a time window",
+            description = "Returns state changes of all devices in the window, oldest first, reading only the daily partitions it overlaps")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transitions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid time range or limit",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @Workload(WorkloadClass.BULK)
+    @GetMapping("/history")
+    public ResponseEntity<List<DeviceStateTransition>> getTransitions(
+            @Parameter(description = "Start of the window (inclusive). Defaults to 1 day before 'to'") @RequestParam(required = false) Instant from,
+            @Parameter(description = "End of the window (exclusive). Defaults to now") @RequestParam(required = false) Instant to,
+            @Parameter(description = "Maximum number of transitions, up to 10000") @RequestParam(defaultValue = "1000") int limit) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_RANGE);
+
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        return ResponseEntity.ok(deviceHistoryService.getTransitions(start, end, limit));
+    }
+}
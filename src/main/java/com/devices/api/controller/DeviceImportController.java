@@ -0,0 +1,81 @@
+package com.devices.api.controller;
+
+import com.devices.api.dto.ImportJobResponse;
+import com.devices.api.service.DeviceImportService;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/devices/imports")
+@Tag(name = "Device Imports", description = "Asynchronous bulk device imports")
+public class DeviceImportController {
+
+    private final DeviceImportService deviceImportService;
+
+    public DeviceImportController(DeviceImportService deviceImportService) {
+        this.deviceImportService = deviceImportService;
+    }
+
+    @Operation(summary = "Start a bulk import",
+            description = "Uploads a CSV file (header with name, brand and state columns) or an NDJSON file "
+                    + "(one device object per line) and imports it in the background. Poll the returned job for progress.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import job queued"),
+            @ApiResponse(responseCode = "400", description = "Empty file or unsupported format",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @Workload(WorkloadClass.WRITE)
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponse> createImport(
+            @Parameter(description = "A .csv or .ndjson file") @RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Uploaded file is empty");
+        }
+
+        ImportJobResponse job;
+        try (InputStream content = file.getInputStream()) {
+            job = deviceImportService.submit(file.getOriginalFilename(), file.getContentType(), content);
+        }
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @Operation(summary = "Get import progress",
+            description = "Returns the status and row counters of an import job together with its rejected rows")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import job found"),
+            @ApiResponse(responseCode = "404", description = "Import job not found",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @Workload(WorkloadClass.POINT_READ)
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobResponse> getImport(@Parameter(description = "Import job ID") @PathVariable UUID id) {
+        return ResponseEntity.ok(deviceImportService.getJob(id));
+    }
+}
@@ -0,0 +1,65 @@
+package com.devices.api.controller;
+
+import com.devices.api.dto.DeviceTimelineEntry;
+import com.devices.api.enums.TimelineBucket;
+import com.devices.api.service.DeviceStatsService;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/devices/stats")
+@Tag(name = "Device Statistics", description = "Aggregated device statistics")
+public class DeviceStatsController {
+
+    private static final Duration DEFAULT_HOURLY_RANGE = Duration.ofDays(2);
+    private static final Duration DEFAULT_DAILY_RANGE = Duration.ofDays(30);
+
+    private final DeviceStatsService deviceStatsService;
+
+    public DeviceStatsController(DeviceStatsService deviceStatsService) {
+        this.deviceStatsService = deviceStatsService;
+    }
+
+    @Operation(summary = "Get device creation timeline",
+            description = "Returns the number of devices created per brand in hourly or daily buckets, served from pre-aggregated rollups")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Timeline retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid bucket or time range",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @Workload(WorkloadClass.BULK)
+    @GetMapping("/timeline")
+    public ResponseEntity<List<DeviceTimelineEntry>> getCreationTimeline(
+            @Parameter(description = "Bucket size: hour or day") @RequestParam(defaultValue = "hour") String bucket,
+            @Parameter(description = "Filter by brand") @RequestParam(required = false) String brand,
+            @Parameter(description = "Start of the range (inclusive). Defaults to 2 days (hour) or 30 days (day) before 'to'") @RequestParam(required = false) Instant from,
+            @Parameter(description = "End of the range (exclusive). Defaults to now") @RequestParam(required = false) Instant to) {
+        TimelineBucket timelineBucket = TimelineBucket.fromValue(bucket);
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from
+                : end.minus(timelineBucket == TimelineBucket.HOUR ? DEFAULT_HOURLY_RANGE : DEFAULT_DAILY_RANGE);
+
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+
+        return ResponseEntity.ok(deviceStatsService.getCreationTimeline(timelineBucket, brand, start, end));
+    }
+}
@@ -0,0 +1,21 @@
+package com.devices.api.deadline;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which a request must be answered, on the {@link System#nanoTime()} clock.
+ */
+public record Deadline(long expiresAt) {
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+}
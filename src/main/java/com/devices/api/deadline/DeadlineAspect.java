@@ -0,0 +1,24 @@
+package com.devices.api.deadline;
+
+import com.devices.api.exception.DeadlineExceededException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Skips serializing a read whose deadline passed while it was being computed; the client
+ * has stopped waiting for it. Writes are always answered, since their effect is committed.
+ */
+@Aspect
+public class DeadlineAspect {
+
+    @Around("execution(public org.springframework.http.ResponseEntity com.devices.api.controller.*Controller.*(..))"
+            + " && @annotation(org.springframework.web.bind.annotation.GetMapping)")
+    public Object checkDeadline(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object response = joinPoint.proceed();
+        if (DeadlineContext.isExpired()) {
+            throw new DeadlineExceededException();
+        }
+        return response;
+    }
+}
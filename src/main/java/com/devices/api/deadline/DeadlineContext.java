@@ -0,0 +1,47 @@
+package com.devices.api.deadline;
+
+import java.util.function.Supplier;
+
+/**
+ * Deadline of the request handled by the current thread. Set by {@link DeadlineInterceptor}
+ * and read by {@link DeadlineTransactionListener} when a transaction begins.
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static boolean isExpired() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null && deadline.isExpired();
+    }
+
+    public static <T> T call(Deadline deadline, Supplier<T> action) {
+        Deadline previous = enter(deadline);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static Deadline enter(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return previous;
+    }
+
+    static void restore(Deadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
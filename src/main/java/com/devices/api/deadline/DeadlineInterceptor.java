@@ -0,0 +1,73 @@
+package com.devices.api.deadline;
+
+import com.devices.api.config.DeadlineProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Starts the deadline of each API request: the timeout configured for its operation, or
+ * the default, shortened by the request's timeout header when the client waits less.
+ */
+public class DeadlineInterceptor implements HandlerInterceptor {
+
+    private static final String PREVIOUS = DeadlineInterceptor.class.getName() + ".previous";
+
+    private final DeadlineProperties properties;
+
+    public DeadlineInterceptor(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Duration timeout = properties.operations().getOrDefault(operation(method), properties.defaultTimeout());
+        String header = request.getHeader(properties.header());
+        if (header != null) {
+            Duration requested = parse(header);
+            if (requested.compareTo(timeout) < 0) {
+                timeout = requested;
+            }
+        }
+        Deadline previous = DeadlineContext.enter(Deadline.after(timeout));
+        if (previous != null) {
+            request.setAttribute(PREVIOUS, previous);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (handler instanceof HandlerMethod) {
+            DeadlineContext.restore((Deadline) request.getAttribute(PREVIOUS));
+        }
+    }
+
+    /**
+     * {@code DeviceController.getAllDevices}: method names alone may repeat across controllers.
+     */
+    private static String operation(HandlerMethod method) {
+        return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+    }
+
+    private Duration parse(String header) {
+        Duration requested;
+        try {
+            requested = DurationStyle.detectAndParse(header.trim());
+        } catch (IllegalArgumentException ex) {
+            requested = null;
+        }
+        if (requested == null || requested.isNegative() || requested.isZero()) {
+            throw new IllegalArgumentException("Invalid " + properties.header()
+                    + " header: expected a positive duration such as 2s or 1500 (milliseconds)");
+        }
+        return requested;
+    }
+}
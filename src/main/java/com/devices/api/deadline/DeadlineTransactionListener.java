@@ -0,0 +1,62 @@
+package com.devices.api.deadline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Carries the request deadline into each transaction it starts as
+ * {@code SET LOCAL statement_timeout}, so PostgreSQL cancels a statement that is still
+ * running when the client has stopped waiting.
+ *
+ * <p>The timeout is the time left when the transaction begins and applies to each of its
+ * statements; a transaction begun after the deadline gets the minimum of 1 ms. It is not
+ * set when the connection's own statement timeout is already tighter.
+ *
+ * <p>Nothing is thrown from here: the transaction has begun but is not yet handed to the
+ * caller, so an exception would leave it open. A failed {@code SET} aborts the transaction
+ * and the next statement fails and rolls it back instead.
+ */
+public class DeadlineTransactionListener implements TransactionExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineTransactionListener.class);
+
+    private final DataSource dataSource;
+    private final Supplier<Duration> sessionStatementTimeout;
+
+    public DeadlineTransactionListener(DataSource dataSource, Supplier<Duration> sessionStatementTimeout) {
+        this.dataSource = dataSource;
+        this.sessionStatementTimeout = sessionStatementTimeout;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        Deadline deadline = DeadlineContext.current();
+        if (deadline == null || beginFailure != null) {
+            return;
+        }
+        Duration remaining = deadline.remaining();
+        Duration sessionTimeout = sessionStatementTimeout.get();
+        if (sessionTimeout != null && !sessionTimeout.isZero() && sessionTimeout.compareTo(remaining) <= 0) {
+            return;
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LOCAL statement_timeout = " + Math.max(1, remaining.toMillis()));
+        } catch (SQLException ex) {
+            log.warn("Could not apply the request deadline to the transaction", ex);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
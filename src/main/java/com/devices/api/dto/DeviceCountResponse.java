@@ -0,0 +1,10 @@
+package com.devices.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Number of devices matching a filter")
+public record DeviceCountResponse(
+        @Schema(description = "Matching devices", example = "42")
+        long count
+) {
+}
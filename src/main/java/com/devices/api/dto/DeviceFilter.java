@@ -0,0 +1,63 @@
+package com.devices.api.dto;
+
+import com.devices.api.enums.DeviceState;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * @param anyTags devices carrying at least one of these tags
+ * @param allTags devices carrying all of these tags
+ */
+public record DeviceFilter(
+        String brand,
+        DeviceState state,
+        Instant createdAfter,
+        Instant createdBefore,
+        List<String> anyTags,
+        List<String> allTags
+) {
+
+    public DeviceFilter {
+        if (createdAfter != null && createdBefore != null && !createdAfter.isBefore(createdBefore)) {
+            throw new IllegalArgumentException("createdAfter must be before createdBefore");
+        }
+        anyTags = normalize(anyTags);
+        allTags = normalize(allTags);
+    }
+
+    public DeviceFilter(String brand, DeviceState state, Instant createdAfter, Instant createdBefore) {
+        this(brand, state, createdAfter, createdBefore, null, null);
+    }
+
+    public static DeviceFilter of(String brand, DeviceState state) {
+        return new DeviceFilter(brand, state, null, null);
+    }
+
+    public boolean hasCreationTimeRange() {
+        return createdAfter != null || createdBefore != null;
+    }
+
+    public boolean hasTags() {
+        return anyTags != null || allTags != null;
+    }
+
+    /**
+     * Sorted and without duplicates, so that equal filters are equal records; {@code null}
+     * when there is nothing to filter on.
+     */
+    private static List<String> normalize(Collection<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String tag : tags) {
+            if (!tag.isBlank()) {
+                normalized.add(tag.strip());
+            }
+        }
+        return normalized.isEmpty() ? null : List.copyOf(normalized);
+    }
+}
@@ -4,19 +4,37 @@ import com.devices.api.enums.DeviceState;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
 
 @Schema(description = "Request payload for creating a new device")
 public record DeviceRequest(
         @Schema(description = "Device name", example = "iPhone 15 Pro")
         @NotBlank(message = "Name is required")
+        @Size(max = 255, message = "Name must be at most 255 characters")
         String name,
 
         @Schema(description = "Device brand", example = "Apple")
         @NotBlank(message = "Brand is required")
+        @Size(max = 255, message = "Brand must be at most 255 characters")
         String brand,
 
         @Schema(description = "Device state", example = "AVAILABLE")
         @NotNull(message = "State is required")
-        DeviceState state
+        DeviceState state,
+
+        @Schema(description = "Device tags", example = "[\"site:ams1\", \"team:payments\"]")
+        @Size(max = DeviceRequest.MAX_TAGS, message = "At most " + DeviceRequest.MAX_TAGS + " tags are allowed")
+        List<@NotBlank(message = "Tags must not be blank")
+             @Size(max = DeviceRequest.MAX_TAG_LENGTH, message = "Tags must be at most " + DeviceRequest.MAX_TAG_LENGTH + " characters")
+             String> tags
 ) {
+
+    public static final int MAX_TAGS = 32;
+    public static final int MAX_TAG_LENGTH = 64;
+
+    public DeviceRequest(String name, String brand, DeviceState state) {
+        this(name, brand, state, null);
+    }
 }
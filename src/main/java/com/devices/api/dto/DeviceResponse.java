@@ -1,12 +1,15 @@
 package com.devices.api.dto;
 
 import com.devices.api.enums.DeviceState;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
-@Schema(description = "Device response payload")
+@Schema(description = "Device response payload. Only the requested fields are present when a sparse fieldset is used.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record DeviceResponse(
         @Schema(description = "Unique device identifier", example = "123e4567-e89b-12d3-a456-426614174000")
         UUID id,
@@ -21,6 +24,13 @@ public record DeviceResponse(
         DeviceState state,
 
         @Schema(description = "Device creation timestamp", example = "2024-01-15T10:30:00Z")
-        Instant creationTime
+        Instant creationTime,
+
+        @Schema(description = "Device tags, sorted", example = "[\"site:ams1\", \"team:payments\"]")
+        List<String> tags
 ) {
+
+    public DeviceResponse(UUID id, String name, String brand, DeviceState state, Instant creationTime) {
+        this(id, name, brand, state, creationTime, null);
+    }
 }
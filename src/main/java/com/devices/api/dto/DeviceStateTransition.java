@@ -0,0 +1,23 @@
+package com.devices.api.dto;
+
+import com.devices.api.enums.DeviceState;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "A change of a device's state")
+public record DeviceStateTransition(
+        @Schema(description = "Device identifier", example = "123e4567-e89b-12d3-a456-426614174000")
+        UUID deviceId,
+
+        @Schema(description = "State before the change", example = "AVAILABLE")
+        DeviceState fromState,
+
+        @Schema(description = "State after the change", example = "IN_USE")
+        DeviceState toState,
+
+        @Schema(description = "When the change was committed (UTC)", example = "2024-01-15T10:30:00Z")
+        Instant changedAt
+) {
+}
@@ -0,0 +1,18 @@
+package com.devices.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Number of devices created for a brand within a time bucket")
+public record DeviceTimelineEntry(
+        @Schema(description = "Start of the bucket (UTC)", example = "2024-01-15T10:00:00Z")
+        Instant bucketStart,
+
+        @Schema(description = "Device brand", example = "Apple")
+        String brand,
+
+        @Schema(description = "Devices created in the bucket", example = "42")
+        long count
+) {
+}
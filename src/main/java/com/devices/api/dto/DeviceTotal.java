@@ -0,0 +1,13 @@
+package com.devices.api.dto;
+
+import com.devices.api.enums.TotalCountSource;
+
+/**
+ * Number of devices matching a filter and how it was obtained.
+ */
+public record DeviceTotal(long count, TotalCountSource source) {
+
+    public static DeviceTotal exact(long count) {
+        return new DeviceTotal(count, TotalCountSource.EXACT);
+    }
+}
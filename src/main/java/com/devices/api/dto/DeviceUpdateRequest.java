@@ -2,6 +2,10 @@ package com.devices.api.dto;
 
 import com.devices.api.enums.DeviceState;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
 
 @Schema(description = "Request payload for updating a device. All fields are optional for partial updates.")
 public record DeviceUpdateRequest(
@@ -12,6 +16,16 @@ public record DeviceUpdateRequest(
         String brand,
 
         @Schema(description = "Device state", example = "IN_USE")
-        DeviceState state
+        DeviceState state,
+
+        @Schema(description = "Replaces all tags of the device; an empty list removes them", example = "[\"site:ams1\"]")
+        @Size(max = DeviceRequest.MAX_TAGS, message = "At most " + DeviceRequest.MAX_TAGS + " tags are allowed")
+        List<@NotBlank(message = "Tags must not be blank")
+             @Size(max = DeviceRequest.MAX_TAG_LENGTH, message = "Tags must be at most " + DeviceRequest.MAX_TAG_LENGTH + " characters")
+             String> tags
 ) {
+
+    public DeviceUpdateRequest(String name, String brand, DeviceState state) {
+        this(name, brand, state, null);
+    }
 }
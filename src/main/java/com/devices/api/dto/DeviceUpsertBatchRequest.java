@@ -0,0 +1,17 @@
+package com.devices.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Devices to create or update by brand and name in one statement")
+public record DeviceUpsertBatchRequest(
+        @Schema(description = "Devices keyed by brand and name; each key may appear only once")
+        @NotEmpty(message = "Devices are required")
+        @Size(max = 1000, message = "At most 1000 devices per batch")
+        List<@Valid DeviceRequest> devices
+) {
+}
@@ -0,0 +1,15 @@
+package com.devices.api.dto;
+
+import com.devices.api.enums.UpsertOutcome;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of upserting one device by brand and name")
+public record DeviceUpsertResult(
+        @Schema(description = "CREATED, UPDATED, or IN_USE when the existing device is in use and was left unchanged",
+                example = "UPDATED")
+        UpsertOutcome outcome,
+
+        @Schema(description = "The device as stored; only brand and name when the outcome is IN_USE")
+        DeviceResponse device
+) {
+}
@@ -0,0 +1,51 @@
+package com.devices.api.dto;
+
+import com.devices.api.enums.ImportFormat;
+import com.devices.api.enums.ImportJobStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Progress of a bulk import job")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportJobResponse(
+        @Schema(description = "Import job identifier", example = "8d7f3c1e-2b4a-4c5d-9e6f-0a1b2c3d4e5f")
+        UUID id,
+
+        @Schema(description = "Uploaded file name", example = "vendor-feed.csv")
+        String fileName,
+
+        @Schema(description = "File format", example = "CSV")
+        ImportFormat format,
+
+        @Schema(description = "Job status", example = "RUNNING")
+        ImportJobStatus status,
+
+        @Schema(description = "Rows read from the file so far", example = "250000")
+        long rowsRead,
+
+        @Schema(description = "Rows written to the catalog; set once the job completes", example = "0")
+        long rowsImported,
+
+        @Schema(description = "Rows rejected by validation so far", example = "12")
+        long rowsRejected,
+
+        @Schema(description = "Why the job failed, when it did")
+        String failure,
+
+        @Schema(description = "When the file was uploaded", example = "2024-01-15T10:30:00Z")
+        Instant createdAt,
+
+        @Schema(description = "When the worker picked the job up", example = "2024-01-15T10:30:01Z")
+        Instant startedAt,
+
+        @Schema(description = "When the job completed or failed", example = "2024-01-15T10:30:04Z")
+        Instant finishedAt,
+
+        @Schema(description = "Rejected rows in file order, up to devices.import.max-errors")
+        List<ImportRowError> errors
+) {
+}
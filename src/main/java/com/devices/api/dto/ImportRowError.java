@@ -0,0 +1,13 @@
+package com.devices.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A rejected row of an import file")
+public record ImportRowError(
+        @Schema(description = "1-based line number in the uploaded file", example = "17")
+        long line,
+
+        @Schema(description = "Why the row was rejected", example = "Brand is required")
+        String message
+) {
+}
@@ -1,8 +1,17 @@
 package com.devices.api.entity;
 
 import com.devices.api.enums.DeviceState;
+import com.devices.api.sharding.ShardedUuid;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
 import java.util.UUID;
 
 @Entity
@@ -10,7 +19,7 @@ import java.util.UUID;
 public class Device {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @ShardedUuid
     private UUID id;
 
     @Column(nullable = false)
@@ -23,12 +32,28 @@ public class Device {
     @Column(nullable = false)
     private DeviceState state;
 
+    /**
+     * Sorted and without duplicates.
+     */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false)
+    private List<String> tags = new ArrayList<>();
+
     @Column(name = "creation_time", nullable = false, updatable = false)
     private Instant creationTime;
 
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified;
+
     @PrePersist
     protected void onCreate() {
-        creationTime = Instant.now();
+        creationTime = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        lastModified = creationTime;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        lastModified = Instant.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     public UUID getId() {
@@ -63,6 +88,18 @@ public class Device {
         this.state = state;
     }
 
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(Collection<String> tags) {
+        TreeSet<String> normalized = new TreeSet<>();
+        if (tags != null) {
+            tags.forEach(tag -> normalized.add(tag.strip()));
+        }
+        this.tags = new ArrayList<>(normalized);
+    }
+
     public Instant getCreationTime() {
         return creationTime;
     }
@@ -70,4 +107,12 @@ public class Device {
     public void setCreationTime(Instant creationTime) {
         this.creationTime = creationTime;
     }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
 }
@@ -0,0 +1,30 @@
+package com.devices.api.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "device_creation_rollups")
+public class DeviceCreationRollup {
+
+    @EmbeddedId
+    private DeviceCreationRollupId id;
+
+    @Column(name = "device_count", nullable = false)
+    private long deviceCount;
+
+    public DeviceCreationRollupId getId() {
+        return id;
+    }
+
+    public void setId(DeviceCreationRollupId id) {
+        this.id = id;
+    }
+
+    public long getDeviceCount() {
+        return deviceCount;
+    }
+
+    public void setDeviceCount(long deviceCount) {
+        this.deviceCount = deviceCount;
+    }
+}
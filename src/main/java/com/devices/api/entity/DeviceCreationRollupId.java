@@ -0,0 +1,64 @@
+package com.devices.api.entity;
+
+import com.devices.api.enums.TimelineBucket;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+@Embeddable
+public class DeviceCreationRollupId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TimelineBucket bucket;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(nullable = false)
+    private String brand;
+
+    protected DeviceCreationRollupId() {
+    }
+
+    public DeviceCreationRollupId(TimelineBucket bucket, Instant bucketStart, String brand) {
+        this.bucket = bucket;
+        this.bucketStart = bucketStart;
+        this.brand = brand;
+    }
+
+    public TimelineBucket getBucket() {
+        return bucket;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeviceCreationRollupId that)) {
+            return false;
+        }
+        return bucket == that.bucket
+                && Objects.equals(bucketStart, that.bucketStart)
+                && Objects.equals(brand, that.brand);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bucket, bucketStart, brand);
+    }
+}
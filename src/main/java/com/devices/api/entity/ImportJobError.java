@@ -0,0 +1,47 @@
+package com.devices.api.entity;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = "import_job_errors")
+public class ImportJobError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(nullable = false)
+    private long line;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String message;
+
+    protected ImportJobError() {
+    }
+
+    public ImportJobError(UUID jobId, long line, String message) {
+        this.jobId = jobId;
+        this.line = line;
+        this.message = message;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,43 @@
+package com.devices.api.enums;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum DeviceField {
+    ID("id"),
+    NAME("name"),
+    BRAND("brand"),
+    STATE("state"),
+    CREATION_TIME("creationTime"),
+    TAGS("tags");
+
+    private final String property;
+
+    DeviceField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static DeviceField fromProperty(String property) {
+        for (DeviceField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown device field: " + property);
+    }
+
+    public static Set<DeviceField> fromProperties(Collection<String> properties) {
+        Set<DeviceField> fields = EnumSet.noneOf(DeviceField.class);
+        for (String property : properties) {
+            if (!property.isBlank()) {
+                fields.add(fromProperty(property.trim()));
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,27 @@
+package com.devices.api.enums;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * Picks the format from the upload's content type, falling back to the file extension
+     * since many clients send files as {@code application/octet-stream}.
+     */
+    public static ImportFormat detect(String contentType, String fileName) {
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+
+        if (type.startsWith("text/csv") || name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")
+                || name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + (fileName != null ? fileName : contentType)
+                + ". Upload a .csv or .ndjson file.");
+    }
+}
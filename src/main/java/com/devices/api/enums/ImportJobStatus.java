@@ -0,0 +1,8 @@
+package com.devices.api.enums;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,28 @@
+package com.devices.api.enums;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+public enum TimelineBucket {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    TimelineBucket(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public Instant truncate(Instant instant) {
+        return instant.truncatedTo(unit);
+    }
+
+    public static TimelineBucket fromValue(String value) {
+        for (TimelineBucket bucket : values()) {
+            if (bucket.name().equalsIgnoreCase(value)) {
+                return bucket;
+            }
+        }
+        throw new IllegalArgumentException("Unknown timeline bucket: " + value + ". Use hour or day.");
+    }
+}
@@ -0,0 +1,14 @@
+package com.devices.api.enums;
+
+/**
+ * Where a list total came from, ordered from most to least accurate.
+ */
+public enum TotalCountSource {
+    EXACT,
+    CACHED,
+    ESTIMATE;
+
+    public String headerValue() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,7 @@
+package com.devices.api.enums;
+
+public enum UpsertOutcome {
+    CREATED,
+    UPDATED,
+    IN_USE
+}
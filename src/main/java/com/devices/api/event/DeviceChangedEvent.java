@@ -0,0 +1,36 @@
+package com.devices.api.event;
+
+import com.devices.api.dto.DeviceResponse;
+
+import java.util.UUID;
+
+/**
+ * Published by the service write paths inside the writing transaction.
+ * {@code previous} is null for a creation and {@code current} is null for a deletion.
+ */
+public record DeviceChangedEvent(DeviceResponse previous, DeviceResponse current) {
+
+    public static DeviceChangedEvent created(DeviceResponse device) {
+        return new DeviceChangedEvent(null, device);
+    }
+
+    public static DeviceChangedEvent updated(DeviceResponse previous, DeviceResponse current) {
+        return new DeviceChangedEvent(previous, current);
+    }
+
+    public static DeviceChangedEvent deleted(DeviceResponse device) {
+        return new DeviceChangedEvent(device, null);
+    }
+
+    public boolean isCreation() {
+        return previous == null;
+    }
+
+    public boolean isDeletion() {
+        return current == null;
+    }
+
+    public UUID deviceId() {
+        return current != null ? current.id() : previous.id();
+    }
+}
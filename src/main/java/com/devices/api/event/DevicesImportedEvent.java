@@ -0,0 +1,10 @@
+package com.devices.api.event;
+
+import java.util.UUID;
+
+/**
+ * Published once an import job has committed. Bulk imports bypass the per-device
+ * {@link DeviceChangedEvent}, so listeners that mirror the catalog have to reload it.
+ */
+public record DevicesImportedEvent(UUID jobId, long rowsImported) {
+}
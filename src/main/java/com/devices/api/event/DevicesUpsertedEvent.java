@@ -0,0 +1,11 @@
+package com.devices.api.event;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction of an upsert statement. The statement maintains the
+ * creation rollups itself, so the changes are carried here rather than as individual
+ * {@link DeviceChangedEvent}s, which would count them a second time.
+ */
+public record DevicesUpsertedEvent(List<DeviceChangedEvent> changes) {
+}
@@ -0,0 +1,13 @@
+package com.devices.api.exception;
+
+/**
+ * A device keeps the shard it was created on, so in sharded mode it cannot be renamed to a
+ * brand and name that hash to another shard.
+ */
+public class CrossShardRenameException extends RuntimeException {
+
+    public CrossShardRenameException(String brand, String name) {
+        super("Brand '" + brand + "' and name '" + name
+                + "' belong on another shard; delete the device and create it again instead");
+    }
+}
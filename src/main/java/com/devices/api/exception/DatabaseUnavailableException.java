@@ -0,0 +1,17 @@
+package com.devices.api.exception;
+
+import java.time.Duration;
+
+public class DatabaseUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public DatabaseUnavailableException(Duration retryAfter, Throwable cause) {
+        super("The database is temporarily unavailable", cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
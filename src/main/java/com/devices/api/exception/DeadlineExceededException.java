@@ -0,0 +1,8 @@
+package com.devices.api.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException() {
+        super("The request did not complete within its deadline");
+    }
+}
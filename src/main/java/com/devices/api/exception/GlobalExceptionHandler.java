@@ -1,7 +1,12 @@
 package com.devices.api.exception;
 
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -22,6 +27,15 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ProblemDetail handleImportJobNotFound(ImportJobNotFoundException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.NOT_FOUND, ex.getMessage());
+        problemDetail.setTitle("Import Job Not Found");
+        problemDetail.setType(URI.create("https://api.devices.com/errors/not-found"));
+        return problemDetail;
+    }
+
     @ExceptionHandler(DeviceInUseException.class)
     public ProblemDetail handleDeviceInUse(DeviceInUseException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
@@ -31,6 +45,39 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(CrossShardRenameException.class)
+    public ProblemDetail handleCrossShardRename(CrossShardRenameException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.CONFLICT, ex.getMessage());
+        problemDetail.setTitle("Cross-Shard Rename");
+        problemDetail.setType(URI.create("https://api.devices.com/errors/cross-shard-rename"));
+        return problemDetail;
+    }
+
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleDatabaseUnavailable(DatabaseUnavailableException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problemDetail.setTitle("Service Unavailable");
+        problemDetail.setType(URI.create("https://api.devices.com/errors/database-unavailable"));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(problemDetail);
+    }
+
+    /**
+     * A statement cancelled by its timeout, usually the request deadline, is reported like a
+     * deadline that passed before the response was written.
+     */
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class})
+    public ProblemDetail handleDeadlineExceeded(RuntimeException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.GATEWAY_TIMEOUT, "The request did not complete within its deadline");
+        problemDetail.setTitle("Deadline Exceeded");
+        problemDetail.setType(URI.create("https://api.devices.com/errors/deadline-exceeded"));
+        return problemDetail;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ProblemDetail handleValidationErrors(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -53,4 +100,21 @@ public class GlobalExceptionHandler {
         problemDetail.setType(URI.create("https://api.devices.com/errors/bad-request"));
         return problemDetail;
     }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ProblemDetail handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        String cause = String.valueOf(NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        ProblemDetail problemDetail;
+        if (cause.contains("uq_devices_brand_name")) {
+            problemDetail = ProblemDetail.forStatusAndDetail(
+                    HttpStatus.CONFLICT, "A device with this brand and name already exists");
+            problemDetail.setTitle("Device Already Exists");
+        } else {
+            problemDetail = ProblemDetail.forStatusAndDetail(
+                    HttpStatus.CONFLICT, "The request conflicts with the current state of the data");
+            problemDetail.setTitle("Conflict");
+        }
+        problemDetail.setType(URI.create("https://api.devices.com/errors/conflict"));
+        return problemDetail;
+    }
 }
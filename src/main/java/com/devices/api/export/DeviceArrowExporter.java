@@ -0,0 +1,298 @@
+package com.devices.api.export;
+
+import com.devices.api.enums.DeviceState;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Writes the device table as Apache Arrow IPC, the columnar format pandas, Polars, DuckDB
+ * and Spark read without parsing. Brand and state are dictionary-encoded, ids are 16-byte
+ * {@code arrow.uuid} values, tags are a list of strings and timestamps are UTC microseconds.
+ *
+ * <p>Rows are read straight from JDBC with a cursor, {@code batchSize} at a time, on a
+ * read-only repeatable-read transaction per database, so memory stays bounded by one
+ * batch and no entities are built. All transactions take their snapshot before the first
+ * row is read, and the brand dictionary is collected from those snapshots, so every
+ * exported brand is in it. Record batches are LZ4-compressed unless {@code compress} is off.
+ */
+public class DeviceArrowExporter {
+
+    public static final String STREAM_MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    static final DictionaryEncoding BRAND_ENCODING = new DictionaryEncoding(0, false, new ArrowType.Int(32, true));
+    static final DictionaryEncoding STATE_ENCODING = new DictionaryEncoding(1, false, new ArrowType.Int(8, true));
+
+    /**
+     * Distinct brands by walking the brand index one value at a time, instead of reading
+     * every entry.
+     */
+    private static final String BRANDS = """
+            WITH RECURSIVE brands AS (
+                SELECT min(brand) AS brand FROM devices
+                UNION ALL
+                SELECT (SELECT min(d.brand) FROM devices d WHERE d.brand > b.brand)
+                FROM brands b WHERE b.brand IS NOT NULL
+            )
+            SELECT brand FROM brands WHERE brand IS NOT NULL
+            """;
+
+    private static final String DEVICES = "SELECT id, name, brand, state, tags, creation_time, last_modified FROM devices";
+
+    private static final Schema SCHEMA = new Schema(List.of(
+            new Field("id", new FieldType(false, new ArrowType.FixedSizeBinary(16), null,
+                    Map.of("ARROW:extension:name", "arrow.uuid", "ARROW:extension:metadata", "")), null),
+            Field.notNullable("name", ArrowType.Utf8.INSTANCE),
+            new Field("brand", new FieldType(false, BRAND_ENCODING.getIndexType(), BRAND_ENCODING), null),
+            new Field("state", new FieldType(false, STATE_ENCODING.getIndexType(), STATE_ENCODING), null),
+            new Field("tags", FieldType.notNullable(ArrowType.List.INSTANCE),
+                    List.of(Field.notNullable("item", ArrowType.Utf8.INSTANCE))),
+            Field.notNullable("creation_time", new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC")),
+            Field.notNullable("last_modified", new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC"))));
+
+    private final List<DataSource> sources;
+    private final int batchSize;
+    private final CompressionUtil.CodecType codec;
+
+    public DeviceArrowExporter(List<DataSource> sources, int batchSize, boolean compress) {
+        this.sources = List.copyOf(sources);
+        this.batchSize = batchSize;
+        this.codec = compress ? CompressionUtil.CodecType.LZ4_FRAME : CompressionUtil.CodecType.NO_COMPRESSION;
+    }
+
+    /**
+     * Writes the IPC stream format, which can be read as it arrives.
+     *
+     * @return the number of devices written
+     */
+    @Workload(WorkloadClass.BULK)
+    public long writeStream(OutputStream output) throws IOException, SQLException {
+        return export(Channels.newChannel(output), false);
+    }
+
+    /**
+     * Writes the IPC file format (Feather v2), which readers can memory-map and seek in.
+     *
+     * @return the number of devices written
+     */
+    @Workload(WorkloadClass.BULK)
+    public long writeFile(Path file) throws IOException, SQLException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return export(channel, true);
+        }
+    }
+
+    private long export(WritableByteChannel channel, boolean file) throws IOException, SQLException {
+        List<Connection> connections = new ArrayList<>(sources.size());
+        try (BufferAllocator allocator = new RootAllocator()) {
+            SortedSet<String> brands = new TreeSet<>();
+            for (DataSource source : sources) {
+                Connection connection = source.getConnection();
+                connections.add(connection);
+                connection.setReadOnly(true);
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                connection.setAutoCommit(false);
+                brands.addAll(brands(connection));
+            }
+
+            try (VarCharVector brandValues = values(allocator, brands);
+                 VarCharVector stateValues = values(allocator, Arrays.stream(DeviceState.values()).map(Enum::name).toList());
+                 VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+                DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider(
+                        new Dictionary(brandValues, BRAND_ENCODING), new Dictionary(stateValues, STATE_ENCODING));
+                try (ArrowWriter writer = file
+                        ? new ArrowFileWriter(root, provider, channel, null, IpcOption.DEFAULT,
+                                CommonsCompressionFactory.INSTANCE, codec)
+                        : new ArrowStreamWriter(root, provider, channel, IpcOption.DEFAULT,
+                                CommonsCompressionFactory.INSTANCE, codec)) {
+                    writer.start();
+                    Batch batch = new Batch(root, indexOf(brands));
+                    long rows = 0;
+                    for (Connection connection : connections) {
+                        rows += scan(connection, batch, writer);
+                    }
+                    if (rows == 0 || batch.size() > 0) {
+                        batch.flush(writer);
+                    }
+                    writer.end();
+                    return rows;
+                }
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    private static List<String> brands(Connection connection) throws SQLException {
+        List<String> brands = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(BRANDS)) {
+            while (rows.next()) {
+                brands.add(rows.getString(1));
+            }
+        }
+        return brands;
+    }
+
+    private long scan(Connection connection, Batch batch, ArrowWriter writer) throws SQLException, IOException {
+        long rows = 0;
+        try (PreparedStatement statement = connection.prepareStatement(DEVICES)) {
+            statement.setFetchSize(batchSize);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    batch.add(result);
+                    rows++;
+                    if (batch.size() == batchSize) {
+                        batch.flush(writer);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static VarCharVector values(BufferAllocator allocator, Iterable<String> values) {
+        VarCharVector vector = new VarCharVector(Field.notNullable("values", ArrowType.Utf8.INSTANCE), allocator);
+        vector.allocateNew();
+        int index = 0;
+        for (String value : values) {
+            vector.setSafe(index++, value.getBytes(StandardCharsets.UTF_8));
+        }
+        vector.setValueCount(index);
+        return vector;
+    }
+
+    private static Map<String, Integer> indexOf(SortedSet<String> brands) {
+        Map<String, Integer> indexes = HashMap.newHashMap(brands.size());
+        for (String brand : brands) {
+            indexes.put(brand, indexes.size());
+        }
+        return indexes;
+    }
+
+    private static long micros(OffsetDateTime timestamp) {
+        Instant instant = timestamp.toInstant();
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+    /**
+     * One record batch being filled; flushing writes it and starts the next one in the
+     * same buffers.
+     */
+    private static final class Batch {
+
+        private final VectorSchemaRoot root;
+        private final Map<String, Integer> brandIndexes;
+        private final FixedSizeBinaryVector id;
+        private final VarCharVector name;
+        private final IntVector brand;
+        private final TinyIntVector state;
+        private final ListVector tags;
+        private final VarCharVector tagValues;
+        private final TimeStampMicroTZVector creationTime;
+        private final TimeStampMicroTZVector lastModified;
+        private final ByteBuffer uuid = ByteBuffer.allocate(16);
+        private int size;
+
+        Batch(VectorSchemaRoot root, Map<String, Integer> brandIndexes) {
+            this.root = root;
+            this.brandIndexes = brandIndexes;
+            this.id = (FixedSizeBinaryVector) root.getVector("id");
+            this.name = (VarCharVector) root.getVector("name");
+            this.brand = (IntVector) root.getVector("brand");
+            this.state = (TinyIntVector) root.getVector("state");
+            this.tags = (ListVector) root.getVector("tags");
+            this.tagValues = (VarCharVector) tags.getDataVector();
+            this.creationTime = (TimeStampMicroTZVector) root.getVector("creation_time");
+            this.lastModified = (TimeStampMicroTZVector) root.getVector("last_modified");
+            root.allocateNew();
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(ResultSet row) throws SQLException {
+            UUID deviceId = row.getObject(1, UUID.class);
+            uuid.putLong(0, deviceId.getMostSignificantBits()).putLong(8, deviceId.getLeastSignificantBits());
+            id.setSafe(size, uuid.array());
+            name.setSafe(size, row.getString(2).getBytes(StandardCharsets.UTF_8));
+            Integer brandIndex = brandIndexes.get(row.getString(3));
+            if (brandIndex == null) {
+                throw new IllegalStateException("Brand missing from the export dictionary: " + row.getString(3));
+            }
+            brand.setSafe(size, brandIndex);
+            state.setSafe(size, (byte) DeviceState.valueOf(row.getString(4)).ordinal());
+            String[] deviceTags = (String[]) row.getArray(5).getArray();
+            int offset = tags.startNewValue(size);
+            for (int i = 0; i < deviceTags.length; i++) {
+                tagValues.setSafe(offset + i, deviceTags[i].getBytes(StandardCharsets.UTF_8));
+            }
+            tags.endValue(size, deviceTags.length);
+            creationTime.setSafe(size, micros(row.getObject(6, OffsetDateTime.class)));
+            lastModified.setSafe(size, micros(row.getObject(7, OffsetDateTime.class)));
+            size++;
+        }
+
+        /**
+         * An empty batch is only written for an empty table, so that readers still get the dictionaries.
+         */
+        void flush(ArrowWriter writer) throws IOException {
+            root.setRowCount(size);
+            writer.writeBatch();
+            root.allocateNew();
+            size = 0;
+        }
+    }
+}
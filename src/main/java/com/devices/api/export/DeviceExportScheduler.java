@@ -0,0 +1,79 @@
+package com.devices.api.export;
+
+import com.devices.api.config.ExportProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes an Arrow file of the catalog to a local directory on a schedule, for analytics
+ * jobs to pick up. Files are named by their UTC start time so they sort chronologically,
+ * and appear under their final name only once complete.
+ */
+public class DeviceExportScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceExportScheduler.class);
+
+    private static final String PREFIX = "devices-";
+    private static final String SUFFIX = ".arrow";
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final DeviceArrowExporter exporter;
+    private final Path directory;
+    private final int retain;
+
+    public DeviceExportScheduler(DeviceArrowExporter exporter, ExportProperties properties) {
+        this.exporter = exporter;
+        this.directory = properties.directory();
+        this.retain = properties.retain();
+    }
+
+    /**
+     * A failed export is retried at the next interval, so it is logged rather than thrown.
+     */
+    @Scheduled(fixedDelayString = "${devices.export.interval:1h}", initialDelayString = "${devices.export.interval:1h}")
+    public void export() {
+        Path target = directory.resolve(PREFIX + FILE_TIME.format(Instant.now()) + SUFFIX);
+        Path partial = directory.resolve(target.getFileName() + ".partial");
+        try {
+            Files.createDirectories(directory);
+            long started = System.nanoTime();
+            long rows = exporter.writeFile(partial);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Exported {} devices to {} ({} bytes) in {} ms", rows, target, Files.size(target),
+                    (System.nanoTime() - started) / 1_000_000);
+            prune();
+        } catch (Exception ex) {
+            log.warn("Failed to export devices to {}", target, ex);
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // Overwritten by a later export or left for the operator
+            }
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> exports = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            files.forEach(exports::add);
+        }
+        Collections.sort(exports);
+        for (Path old : exports.subList(0, Math.max(0, exports.size() - retain))) {
+            Files.deleteIfExists(old);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.devices.api.graphql;
+
+import graphql.GraphQLContext;
+import graphql.execution.CoercedVariables;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLScalarType;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * {@code DateTime}: an {@link Instant} written as ISO-8601 in UTC, the same format the REST
+ * API uses for timestamps and time-range parameters.
+ */
+public final class DateTimeScalar {
+
+    public static final GraphQLScalarType INSTANCE = GraphQLScalarType.newScalar()
+            .name("DateTime")
+            .coercing(new InstantCoercing())
+            .build();
+
+    private DateTimeScalar() {
+    }
+
+    private static final class InstantCoercing implements Coercing<Instant, String> {
+
+        @Override
+        public String serialize(Object value, GraphQLContext context, Locale locale) {
+            if (value instanceof Instant instant) {
+                return instant.toString();
+            }
+            throw new CoercingSerializeException("Expected an Instant but was " + value.getClass().getSimpleName());
+        }
+
+        @Override
+        public Instant parseValue(Object input, GraphQLContext context, Locale locale) {
+            if (input instanceof String text) {
+                try {
+                    return Instant.parse(text);
+                } catch (DateTimeParseException ex) {
+                    throw new CoercingParseValueException("Invalid DateTime '" + text + "', expected e.g. 2024-01-15T10:30:00Z");
+                }
+            }
+            throw new CoercingParseValueException("DateTime must be a string");
+        }
+
+        @Override
+        public Instant parseLiteral(Value<?> input, CoercedVariables variables, GraphQLContext context, Locale locale) {
+            if (input instanceof StringValue text) {
+                try {
+                    return Instant.parse(text.getValue());
+                } catch (DateTimeParseException ex) {
+                    throw new CoercingParseLiteralException("Invalid DateTime '" + text.getValue() + "', expected e.g. 2024-01-15T10:30:00Z");
+                }
+            }
+            throw new CoercingParseLiteralException("DateTime must be a string");
+        }
+
+        @Override
+        public Value<?> valueToLiteral(Object input, GraphQLContext context, Locale locale) {
+            return StringValue.of(serialize(input, context, locale));
+        }
+    }
+}
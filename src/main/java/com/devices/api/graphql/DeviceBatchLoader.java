@@ -0,0 +1,80 @@
+package com.devices.api.graphql;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.service.DeviceService;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+import graphql.schema.DataFetchingFieldSelectionSet;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the devices requested while one GraphQL request executes. The data loader collects
+ * the keys of every {@code device} field resolved in the same pass, including aliases and
+ * the devices of state changes, and hands them over at once: all of them are fetched with
+ * a single {@code id = ANY(?)} query per shard, selecting the union of the requested fields.
+ *
+ * <p>A key includes the fields it was requested with, so the per-request cache never answers
+ * a selection with a device loaded for a narrower one.
+ */
+public class DeviceBatchLoader {
+
+    public record Key(UUID id, Set<DeviceField> fields) {
+
+        /**
+         * The fields selected below a {@code Device}, plus the id the loader maps results by.
+         */
+        public static Key of(UUID id, DataFetchingFieldSelectionSet selection) {
+            return new Key(id, DeviceBatchLoader.fields(selection));
+        }
+    }
+
+    private final DeviceService deviceService;
+
+    public DeviceBatchLoader(DeviceService deviceService) {
+        this.deviceService = deviceService;
+    }
+
+    /**
+     * Keys of devices that do not exist are left out of the result and resolve to null.
+     */
+    public Map<Key, DeviceResponse> load(Set<Key> keys) {
+        Set<UUID> ids = new HashSet<>();
+        Set<DeviceField> fields = EnumSet.of(DeviceField.ID);
+        for (Key key : keys) {
+            ids.add(key.id());
+            fields.addAll(key.fields());
+        }
+
+        Map<UUID, DeviceResponse> devices = WorkloadContext.call(WorkloadClass.POINT_READ,
+                () -> deviceService.getAllById(ids, fields)).stream()
+                .collect(Collectors.toMap(DeviceResponse::id, Function.identity()));
+
+        Map<Key, DeviceResponse> loaded = new HashMap<>();
+        for (Key key : keys) {
+            DeviceResponse device = devices.get(key.id());
+            if (device != null) {
+                loaded.put(key, device);
+            }
+        }
+        return loaded;
+    }
+
+    static Set<DeviceField> fields(DataFetchingFieldSelectionSet selection) {
+        Set<DeviceField> fields = EnumSet.of(DeviceField.ID);
+        for (DeviceField field : DeviceField.values()) {
+            if (selection.contains(field.getProperty())) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,96 @@
+package com.devices.api.graphql;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceStateTransition;
+import com.devices.api.service.DeviceHistoryService;
+import com.devices.api.service.DeviceService;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * GraphQL queries over the same services as the REST API. Lists and counts select only
+ * the columns the query asks for; single devices, by id or below a state change, go
+ * through the request's {@link DeviceBatchLoader} so a screen's lookups become one query.
+ */
+@Controller
+public class DeviceGraphQlController {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(1);
+    private static final int MAX_LIMIT = 1_000;
+
+    private final DeviceService deviceService;
+    private final ObjectProvider<DeviceHistoryService> deviceHistoryService;
+
+    public DeviceGraphQlController(DeviceService deviceService, ObjectProvider<DeviceHistoryService> deviceHistoryService) {
+        this.deviceService = deviceService;
+        this.deviceHistoryService = deviceHistoryService;
+    }
+
+    @QueryMapping
+    public CompletableFuture<DeviceResponse> device(@Argument UUID id, DataFetchingFieldSelectionSet selection,
+                                                    DataLoader<DeviceBatchLoader.Key, DeviceResponse> devices) {
+        return devices.load(DeviceBatchLoader.Key.of(id, selection));
+    }
+
+    @Workload(WorkloadClass.BULK)
+    @QueryMapping
+    public List<DeviceResponse> devices(@Argument DeviceFilter filter, @Argument int limit,
+                                        DataFetchingFieldSelectionSet selection) {
+        requireLimit(limit);
+        return deviceService.getAll(orAll(filter), DeviceBatchLoader.fields(selection), limit);
+    }
+
+    @Workload(WorkloadClass.BULK)
+    @QueryMapping
+    public long deviceCount(@Argument DeviceFilter filter) {
+        return deviceService.count(orAll(filter));
+    }
+
+    @Workload(WorkloadClass.BULK)
+    @QueryMapping
+    public List<DeviceStateTransition> stateChanges(@Argument Instant from, @Argument Instant to, @Argument int limit) {
+        DeviceHistoryService history = deviceHistoryService.getIfAvailable();
+        if (history == null) {
+            throw new IllegalArgumentException("State history is not enabled");
+        }
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_RANGE);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        requireLimit(limit);
+
+        return history.getTransitions(start, end, limit);
+    }
+
+    @SchemaMapping(typeName = "StateChange")
+    public CompletableFuture<DeviceResponse> device(DeviceStateTransition change, DataFetchingFieldSelectionSet selection,
+                                                    DataLoader<DeviceBatchLoader.Key, DeviceResponse> devices) {
+        return devices.load(DeviceBatchLoader.Key.of(change.deviceId(), selection));
+    }
+
+    private static void requireLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    private static DeviceFilter orAll(DeviceFilter filter) {
+        return filter != null ? filter : DeviceFilter.of(null, null);
+    }
+}
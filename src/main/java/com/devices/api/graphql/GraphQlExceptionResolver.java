@@ -0,0 +1,47 @@
+package com.devices.api.graphql;
+
+import com.devices.api.exception.DatabaseUnavailableException;
+import com.devices.api.exception.DeadlineExceededException;
+import com.devices.api.exception.DeviceNotFoundException;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+
+/**
+ * Reports the exceptions the REST API turns into problem details as GraphQL errors with
+ * the same messages. Anything else stays an {@code INTERNAL_ERROR} without details.
+ */
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment environment) {
+        // Arguments are bound through constructors, which reject invalid filters
+        if (ex instanceof BeanInstantiationException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return error(environment, ErrorType.BAD_REQUEST, ex.getMessage());
+        }
+        if (ex instanceof DeviceNotFoundException) {
+            return error(environment, ErrorType.NOT_FOUND, ex.getMessage());
+        }
+        if (ex instanceof DeadlineExceededException || ex instanceof QueryTimeoutException) {
+            return error(environment, ErrorType.INTERNAL_ERROR, "The request did not complete within its deadline");
+        }
+        if (ex instanceof DatabaseUnavailableException) {
+            return error(environment, ErrorType.INTERNAL_ERROR, ex.getMessage());
+        }
+        return null;
+    }
+
+    private static GraphQLError error(DataFetchingEnvironment environment, ErrorType type, String message) {
+        return GraphqlErrorBuilder.newError(environment)
+                .errorType(type)
+                .message(message)
+                .build();
+    }
+}
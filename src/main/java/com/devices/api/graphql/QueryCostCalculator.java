@@ -0,0 +1,34 @@
+package com.devices.api.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLCompositeType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+/**
+ * Cost of a query before it runs: one per field, and for a list of objects the cost of one
+ * element times the list's {@code limit} argument or, without one, {@code listSize}. A query
+ * that asks for a few devices by id is cheap; one that nests fields under every device of
+ * an unfiltered list is not.
+ */
+public class QueryCostCalculator implements FieldComplexityCalculator {
+
+    private final int listSize;
+
+    public QueryCostCalculator(int listSize) {
+        this.listSize = listSize;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType());
+        if (!(type instanceof GraphQLList) || !(GraphQLTypeUtil.unwrapAll(type) instanceof GraphQLCompositeType)) {
+            return 1 + childComplexity;
+        }
+
+        int size = environment.getArguments().get("limit") instanceof Integer limit ? Math.max(limit, 1) : listSize;
+        return (int) Math.min(Integer.MAX_VALUE, (long) size * (1 + childComplexity));
+    }
+}
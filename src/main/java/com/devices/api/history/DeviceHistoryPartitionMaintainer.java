@@ -0,0 +1,78 @@
+package com.devices.api.history;
+
+import com.devices.api.repository.DeviceStateHistoryRepository;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps one {@code device_state_history} partition per UTC day: creates today's and the
+ * next {@code partitionsAhead} days', and detaches and drops each day once all of it is
+ * older than the retention, so expiring history never deletes rows. Runs at startup and
+ * hourly, on every shard.
+ */
+public class DeviceHistoryPartitionMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceHistoryPartitionMaintainer.class);
+
+    private final DeviceStateHistoryRepository repository;
+    private final ShardRouter router;
+    private final Duration retention;
+    private final int partitionsAhead;
+    private final Clock clock;
+
+    public DeviceHistoryPartitionMaintainer(DeviceStateHistoryRepository repository, ShardRouter router,
+                                            Duration retention, int partitionsAhead, Clock clock) {
+        this.repository = repository;
+        this.router = router;
+        this.retention = retention;
+        this.partitionsAhead = partitionsAhead;
+        this.clock = clock;
+    }
+
+    /**
+     * A failure is retried at the next run while today's partitions still cover new
+     * transitions, so it is logged rather than thrown.
+     */
+    @Workload(WorkloadClass.BULK)
+    @Scheduled(fixedDelayString = "PT1H")
+    public void maintain() {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate oldestKept = LocalDate.ofInstant(clock.instant().minus(retention), clock.getZone());
+        try {
+            if (router == null) {
+                maintain(today, oldestKept);
+            } else {
+                router.onEveryShard(() -> {
+                    maintain(today, oldestKept);
+                    return null;
+                });
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to maintain device state history partitions", ex);
+        }
+    }
+
+    private void maintain(LocalDate today, LocalDate oldestKept) {
+        List<LocalDate> existing = repository.findPartitionDays();
+        for (LocalDate day = today; !day.isAfter(today.plusDays(partitionsAhead)); day = day.plusDays(1)) {
+            if (!existing.contains(day)) {
+                repository.createPartition(day);
+            }
+        }
+        for (LocalDate day : existing) {
+            if (day.isBefore(oldestKept)) {
+                repository.dropPartition(day);
+                log.info("Dropped device state history partition for {}", day);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.devices.api.history;
+
+import com.devices.api.dto.DeviceStateTransition;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.event.DevicesUpsertedEvent;
+import com.devices.api.repository.DeviceStateHistoryRepository;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Records committed state changes in {@code device_state_history} without adding a write to
+ * the changing transaction: transitions are queued in memory after commit and written in
+ * multi-row inserts every flush interval. Transitions still queued when the process dies
+ * are lost; when the queue is full new ones are dropped and counted rather than slowing
+ * writes down. A batch that fails to insert is retried at the next flush.
+ */
+public class DeviceStateHistoryRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceStateHistoryRecorder.class);
+
+    private final DeviceStateHistoryRepository repository;
+    private final ShardRouter router;
+    private final int batchSize;
+    private final BlockingQueue<DeviceStateTransition> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<DeviceStateTransition> pending = new ArrayList<>();
+
+    public DeviceStateHistoryRecorder(DeviceStateHistoryRepository repository, ShardRouter router,
+                                      int queueCapacity, int batchSize) {
+        this.repository = repository;
+        this.router = router;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        record(event, Instant.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDevicesUpserted(DevicesUpsertedEvent event) {
+        Instant changedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        event.changes().forEach(change -> record(change, changedAt));
+    }
+
+    private void record(DeviceChangedEvent event, Instant changedAt) {
+        if (event.isCreation() || event.isDeletion() || event.previous().state() == event.current().state()) {
+            return;
+        }
+        DeviceStateTransition transition = new DeviceStateTransition(
+                event.deviceId(), event.previous().state(), event.current().state(), changedAt);
+        if (!queue.offer(transition) && dropped.getAndIncrement() == 0) {
+            log.warn("Device state history queue is full, dropping transitions");
+        }
+    }
+
+    /**
+     * Writes everything queued so far, {@code batchSize} rows per statement.
+     */
+    @Workload(WorkloadClass.BULK)
+    @Scheduled(fixedDelayString = "${devices.history.flush-interval:1s}", initialDelayString = "${devices.history.flush-interval:1s}")
+    public synchronized void flush() {
+        try {
+            while (!pending.isEmpty() || queue.drainTo(pending, batchSize) > 0) {
+                write(pending);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write {} device state transitions, retrying at the next flush", pending.size(), ex);
+        }
+    }
+
+    /**
+     * Writes what is still queued on shutdown.
+     */
+    public void close() {
+        flush();
+    }
+
+    public int queued() {
+        return queue.size() + pending.size();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Removes what was written from {@code batch}, so that after a failure on one shard only
+     * the rows of the failed shards are retried.
+     */
+    private void write(List<DeviceStateTransition> batch) {
+        if (router == null) {
+            repository.insertAll(batch);
+            batch.clear();
+            return;
+        }
+        Map<Integer, List<DeviceStateTransition>> byShard = batch.stream().collect(Collectors.groupingBy(
+                transition -> router.shardFor(transition.deviceId()), TreeMap::new, Collectors.toList()));
+        for (Map.Entry<Integer, List<DeviceStateTransition>> shard : byShard.entrySet()) {
+            router.on(shard.getKey(), () -> {
+                repository.insertAll(shard.getValue());
+                return null;
+            });
+            batch.removeAll(shard.getValue());
+        }
+    }
+}
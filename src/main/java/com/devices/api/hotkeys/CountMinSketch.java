@@ -0,0 +1,116 @@
+package com.devices.api.hotkeys;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch: {@code depth} rows of {@code width} counters, a key incrementing one
+ * counter per row. A key's estimate is the smallest of its counters, so it never
+ * under-counts and over-counts only by collisions, whatever the number of distinct keys.
+ * Each row hashes the key with its own seed, using MurmurHash3's 64-bit mixing over the
+ * key's characters, so keys that collide in one row are unlikely to collide in the others.
+ * Counters are updated with atomic increments, so recording never blocks.
+ */
+public class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9e3779b97f4a7c15L, 0xbf58476d1ce4e5b9L, 0x94d049bb133111ebL, 0xd6e8feb86659fd93L,
+            0xa0761d6478bd642fL, 0xe7037ed1a0b428dbL, 0x8ebc6af09c88c6e3L, 0x589965cc75374cc3L};
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final int depth;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param depth rows, at most 8; each one divides the chance of a collision by the width
+     */
+    public CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Sketch depth must be between 1 and " + SEEDS.length);
+        }
+        int rowWidth = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.depth = depth;
+        this.mask = rowWidth - 1;
+        this.counters = new AtomicIntegerArray(rowWidth * depth);
+    }
+
+    /**
+     * Counts one occurrence of the key.
+     *
+     * @return the key's estimate including this occurrence
+     */
+    public int increment(String key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(key, row);
+            int count = counters.get(index);
+            if (count < Integer.MAX_VALUE) {
+                count = counters.incrementAndGet(index);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    public int estimate(String key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(key, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter, so that past occurrences weigh half as much as new ones.
+     */
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private int index(String key, int row) {
+        return row * (mask + 1) + ((int) hash(key, SEEDS[row]) & mask);
+    }
+
+    /**
+     * MurmurHash3 x64 block mixing and finalizer over the key's chars, four per 64-bit block,
+     * without encoding the key to bytes first.
+     */
+    private static long hash(String key, long seed) {
+        int length = key.length();
+        long h = seed;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long k = key.charAt(i) | (long) key.charAt(i + 1) << 16
+                    | (long) key.charAt(i + 2) << 32 | (long) key.charAt(i + 3) << 48;
+            h ^= mixBlock(k);
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) key.charAt(i) << shift;
+        }
+        h ^= mixBlock(tail);
+        h ^= length;
+        return fmix64(h);
+    }
+
+    private static long mixBlock(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        return k * C2;
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,56 @@
+package com.devices.api.hotkeys;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records the device id or list filter of every {@code GET} in {@link HotKeys} before the
+ * request reaches the response cache, so that cached responses are counted too. Lists are
+ * keyed by brand and state only; time ranges vary too much between requests to be hot.
+ */
+public class HotKeyFilter extends OncePerRequestFilter {
+
+    static final String ALL = "all";
+
+    private static final String DEVICES = "/api/v1/devices";
+    private static final int UUID_LENGTH = 36;
+
+    private final HotKeys hotKeys;
+
+    public HotKeyFilter(HotKeys hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(DEVICES)) {
+            hotKeys.filters().record(filterKey(request.getParameter("brand"), request.getParameter("state")));
+        } else if (path.length() == DEVICES.length() + 1 + UUID_LENGTH && path.startsWith(DEVICES + "/")) {
+            hotKeys.devices().record(path.substring(DEVICES.length() + 1));
+        }
+        chain.doFilter(request, response);
+    }
+
+    static String filterKey(String brand, String state) {
+        if (brand == null && state == null) {
+            return ALL;
+        }
+        if (state == null) {
+            return "brand=" + brand;
+        }
+        return brand == null ? "state=" + state : "brand=" + brand + "&state=" + state;
+    }
+}
@@ -0,0 +1,78 @@
+package com.devices.api.hotkeys;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Heavy hitters over a {@link CountMinSketch}: keys whose estimate reaches the smallest of
+ * the current top {@code size} become candidates, and the candidates are trimmed back to the
+ * top {@code size} whenever they grow to twice that. Recording a key that is neither hot nor
+ * a candidate touches only the sketch, so memory stays constant whatever the traffic.
+ */
+public class HotKeyTracker {
+
+    private final CountMinSketch sketch;
+    private final int size;
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    private volatile int admissionThreshold;
+
+    public HotKeyTracker(CountMinSketch sketch, int size) {
+        this.sketch = sketch;
+        this.size = size;
+    }
+
+    public void record(String key) {
+        int estimate = sketch.increment(key);
+        if (estimate < admissionThreshold || candidates.contains(key)) {
+            return;
+        }
+        if (candidates.add(key) && candidates.size() > 2 * size) {
+            trim();
+        }
+    }
+
+    /**
+     * Estimated number of recent occurrences of the key, for callers deciding whether it is
+     * worth caching or prewarming.
+     */
+    public int estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    /**
+     * The hottest keys, most frequent first.
+     */
+    public List<HotKey> top(int limit) {
+        return candidates.stream()
+                .map(key -> new HotKey(key, sketch.estimate(key)))
+                .filter(hotKey -> hotKey.estimate() > 0)
+                .sorted(Comparator.comparingInt(HotKey::estimate).reversed())
+                .limit(Math.min(limit, size))
+                .toList();
+    }
+
+    /**
+     * Halves all counts, so that each interval weighs twice as much as the one before it.
+     * Candidates whose count fell to zero are dropped.
+     */
+    public synchronized void decay() {
+        sketch.halve();
+        admissionThreshold >>>= 1;
+        candidates.removeIf(key -> sketch.estimate(key) == 0);
+    }
+
+    private synchronized void trim() {
+        if (candidates.size() <= 2 * size) {
+            return;
+        }
+        List<HotKey> ranked = top(Integer.MAX_VALUE);
+        List<HotKey> kept = ranked.subList(0, Math.min(size, ranked.size()));
+        candidates.retainAll(kept.stream().map(HotKey::key).toList());
+        admissionThreshold = kept.isEmpty() ? 0 : kept.getLast().estimate();
+    }
+
+    public record HotKey(String key, int estimate) {
+    }
+}
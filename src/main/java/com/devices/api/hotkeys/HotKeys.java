@@ -0,0 +1,47 @@
+package com.devices.api.hotkeys;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * The hottest device ids and list filters. Counts are halved every decay interval, so a key's
+ * estimate is roughly twice the number of requests for it in the last interval, and a key
+ * that is no longer requested drops out within a few intervals.
+ */
+public class HotKeys {
+
+    private final HotKeyTracker devices;
+    private final HotKeyTracker filters;
+
+    public HotKeys(HotKeyTracker devices, HotKeyTracker filters) {
+        this.devices = devices;
+        this.filters = filters;
+    }
+
+    public HotKeyTracker devices() {
+        return devices;
+    }
+
+    public HotKeyTracker filters() {
+        return filters;
+    }
+
+    public Snapshot top(int limit) {
+        return new Snapshot(devices.top(limit), filters.top(limit));
+    }
+
+    @Scheduled(fixedDelayString = "${devices.hot-keys.decay-interval:PT1M}",
+            initialDelayString = "${devices.hot-keys.decay-interval:PT1M}")
+    public void decay() {
+        devices.decay();
+        filters.decay();
+    }
+
+    /**
+     * @param devices device ids of {@code GET /api/v1/devices/{id}}
+     * @param filters filters of {@code GET /api/v1/devices}, e.g. {@code brand=Apple&state=IN_USE}
+     */
+    public record Snapshot(List<HotKeyTracker.HotKey> devices, List<HotKeyTracker.HotKey> filters) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.devices.api.hotkeys;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+
+/**
+ * {@code GET /actuator/hotkeys?limit=N} lists the N hottest device ids and list filters with
+ * their estimated recent request counts.
+ */
+@WebEndpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final HotKeys hotKeys;
+    private final int defaultLimit;
+
+    public HotKeysEndpoint(HotKeys hotKeys, int defaultLimit) {
+        this.hotKeys = hotKeys;
+        this.defaultLimit = defaultLimit;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<HotKeys.Snapshot> top(@Nullable Integer limit) {
+        if (limit != null && limit <= 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        return new WebEndpointResponse<>(hotKeys.top(limit != null ? limit : defaultLimit));
+    }
+}
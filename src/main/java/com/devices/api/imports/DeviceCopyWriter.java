@@ -0,0 +1,221 @@
+package com.devices.api.imports;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.sharding.ShardRouter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams devices with {@code COPY FROM STDIN} into a temporary staging table on every
+ * target database, then upserts them into {@code devices} by (brand, name) and counts
+ * new devices into the creation rollups in the same statement. When a file repeats a
+ * (brand, name) pair its last row wins, and devices that are in use are left unchanged.
+ * Each device goes to the shard its natural key maps to, with an id that maps to the
+ * same shard, so it can be found by id or upserted again exactly like one created
+ * through the API.
+ *
+ * <p>Shards commit one after another once all of them have merged; a failure between two
+ * commits leaves the earlier shards imported.
+ */
+public class DeviceCopyWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMPORARY TABLE device_import_staging (
+                line BIGINT NOT NULL,
+                id UUID NOT NULL,
+                name VARCHAR(255) NOT NULL,
+                brand VARCHAR(255) NOT NULL,
+                state VARCHAR(50) NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String MERGE = """
+            WITH upserted AS (
+                INSERT INTO devices AS d (id, name, brand, state, creation_time, last_modified)
+                SELECT DISTINCT ON (brand, name) id, name, brand, state, now(), now()
+                FROM device_import_staging
+                ORDER BY brand, name, line DESC
+                ON CONFLICT (brand, name) DO UPDATE
+                    SET state = EXCLUDED.state, last_modified = EXCLUDED.last_modified
+                    WHERE d.state <> 'IN_USE'
+                RETURNING d.brand, d.xmax = 0 AS inserted
+            ), rollups AS (
+                INSERT INTO device_creation_rollups (bucket, bucket_start, brand, device_count)
+                SELECT b.bucket, date_trunc(b.unit, now(), 'UTC'), u.brand, count(*)
+                FROM upserted u
+                CROSS JOIN (VALUES ('HOUR', 'hour'), ('DAY', 'day')) AS b(bucket, unit)
+                WHERE u.inserted
+                GROUP BY b.bucket, b.unit, u.brand
+                ON CONFLICT (bucket, bucket_start, brand)
+                DO UPDATE SET device_count = device_creation_rollups.device_count + EXCLUDED.device_count
+            )
+            SELECT count(*) FROM upserted
+            """;
+
+    private final List<Target> targets;
+    private boolean committed;
+
+    private DeviceCopyWriter(List<Target> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * Opens one connection and one {@code COPY} per data source; {@code dataSources}
+     * are the shards in shard order, or the single catalog database.
+     */
+    public static DeviceCopyWriter open(List<DataSource> dataSources) throws SQLException {
+        DeviceCopyWriter writer = new DeviceCopyWriter(new ArrayList<>(dataSources.size()));
+        try {
+            for (DataSource dataSource : dataSources) {
+                writer.targets.add(Target.open(dataSource));
+            }
+            return writer;
+        } catch (SQLException | RuntimeException ex) {
+            writer.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Stages a device; {@code line} orders repeated (brand, name) pairs so the last one wins.
+     */
+    public void write(long line, DeviceRequest device) throws SQLException {
+        int shard = ShardRouter.shardOf(device.brand(), device.name(), targets.size());
+        UUID id;
+        do {
+            id = UUID.randomUUID();
+        } while (ShardRouter.shardOf(id, targets.size()) != shard);
+        Target target = targets.get(shard);
+
+        StringBuilder buffer = target.buffer;
+        buffer.append(line).append('\t').append(id).append('\t');
+        escape(buffer, device.name());
+        buffer.append('\t');
+        escape(buffer, device.brand());
+        buffer.append('\t').append(device.state().name()).append('\n');
+
+        if (buffer.length() >= BUFFER_BYTES) {
+            target.flush();
+        }
+    }
+
+    /**
+     * Finishes every {@code COPY}, merges the staged rows and commits.
+     *
+     * @return the number of devices created or updated across all targets
+     */
+    public long commit() throws SQLException {
+        long imported = 0;
+        for (Target target : targets) {
+            target.flush();
+            target.copy.endCopy();
+            try (Statement statement = target.connection.createStatement();
+                 ResultSet merged = statement.executeQuery(MERGE)) {
+                merged.next();
+                imported += merged.getLong(1);
+            }
+        }
+        for (Target target : targets) {
+            target.connection.commit();
+        }
+        committed = true;
+        return imported;
+    }
+
+    /**
+     * Rolls back whatever has not been committed and returns the connections to their pools.
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (Target target : targets) {
+            try {
+                target.close(committed);
+            } catch (SQLException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Escapes a value for the {@code COPY} text format.
+     */
+    static void escape(StringBuilder buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(c);
+            }
+        }
+    }
+
+    private static final class Target {
+
+        private final Connection connection;
+        private final CopyIn copy;
+        private final StringBuilder buffer = new StringBuilder(BUFFER_BYTES + 1024);
+
+        private Target(Connection connection, CopyIn copy) {
+            this.connection = connection;
+            this.copy = copy;
+        }
+
+        static Target open(DataSource dataSource) throws SQLException {
+            Connection connection = dataSource.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING);
+                }
+                CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY device_import_staging (line, id, name, brand, state) FROM STDIN");
+                return new Target(connection, copy);
+            } catch (SQLException | RuntimeException ex) {
+                connection.close();
+                throw ex;
+            }
+        }
+
+        void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        void close(boolean committed) throws SQLException {
+            try {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+                if (!committed) {
+                    connection.rollback();
+                }
+            } finally {
+                connection.close();
+            }
+        }
+    }
+}
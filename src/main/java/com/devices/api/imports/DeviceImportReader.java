@@ -0,0 +1,194 @@
+package com.devices.api.imports;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.ImportFormat;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams the rows of an uploaded device file one line at a time. A row that cannot be
+ * turned into a {@link DeviceRequest} comes back rejected rather than failing the file;
+ * only a file that is unusable as a whole, such as a CSV without the required columns, throws.
+ * Blank lines are skipped but still counted, so line numbers match the file.
+ */
+public abstract class DeviceImportReader implements Closeable {
+
+    private final BufferedReader reader;
+    private long line;
+
+    protected DeviceImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    public static DeviceImportReader open(ImportFormat format, BufferedReader reader, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(reader);
+            case NDJSON -> new Ndjson(reader, objectMapper);
+        };
+    }
+
+    /**
+     * Returns the next row, or null at the end of the file.
+     */
+    public Row next() throws IOException {
+        String text = nextLine();
+        return text != null ? parse(line, text) : null;
+    }
+
+    protected abstract Row parse(long line, String text);
+
+    protected String nextLine() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (!text.isBlank()) {
+                return text;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    public record Row(long line, DeviceRequest device, String error) {
+
+        static Row accepted(long line, DeviceRequest device) {
+            return new Row(line, device, null);
+        }
+
+        static Row rejected(long line, String error) {
+            return new Row(line, null, error);
+        }
+
+        public boolean isRejected() {
+            return error != null;
+        }
+    }
+
+    /**
+     * RFC 4180 style CSV with a header row naming at least {@code name}, {@code brand} and
+     * {@code state}, in any order. Quoted fields may contain commas and doubled quotes but
+     * not line breaks.
+     */
+    static final class Csv extends DeviceImportReader {
+
+        private final int nameColumn;
+        private final int brandColumn;
+        private final int stateColumn;
+
+        Csv(BufferedReader reader) throws IOException {
+            super(reader);
+            String header = nextLine();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+
+            List<String> columns = split(header.replace("\uFEFF", "")).stream()
+                    .map(column -> column.strip().toLowerCase(Locale.ROOT))
+                    .toList();
+            this.nameColumn = columns.indexOf("name");
+            this.brandColumn = columns.indexOf("brand");
+            this.stateColumn = columns.indexOf("state");
+            if (nameColumn < 0 || brandColumn < 0 || stateColumn < 0) {
+                throw new IllegalArgumentException("CSV header must contain name, brand and state columns, found: " + header);
+            }
+        }
+
+        @Override
+        protected Row parse(long line, String text) {
+            List<String> fields;
+            try {
+                fields = split(text);
+            } catch (IllegalArgumentException ex) {
+                return Row.rejected(line, ex.getMessage());
+            }
+
+            String state = value(fields, stateColumn);
+            DeviceState deviceState = null;
+            if (state != null) {
+                try {
+                    deviceState = DeviceState.valueOf(state.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException ex) {
+                    return Row.rejected(line, "Invalid state: " + state + ". Use one of "
+                            + Arrays.toString(DeviceState.values()));
+                }
+            }
+            return Row.accepted(line, new DeviceRequest(value(fields, nameColumn), value(fields, brandColumn), deviceState));
+        }
+
+        private static String value(List<String> fields, int column) {
+            if (column >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(column).strip();
+            return value.isEmpty() ? null : value;
+        }
+
+        static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * One JSON object per line, shaped like the body of {@code POST /api/v1/devices}.
+     */
+    static final class Ndjson extends DeviceImportReader {
+
+        private final ObjectMapper objectMapper;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        protected Row parse(long line, String text) {
+            try {
+                return Row.accepted(line, objectMapper.readValue(text, DeviceRequest.class));
+            } catch (JacksonException ex) {
+                return Row.rejected(line, "Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.devices.api.imports;
+
+import com.devices.api.config.DeviceImportProperties;
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.entity.ImportJobError;
+import com.devices.api.enums.ImportFormat;
+import com.devices.api.enums.ImportJobStatus;
+import com.devices.api.event.DevicesImportedEvent;
+import com.devices.api.repository.ImportJobErrorRepository;
+import com.devices.api.repository.ImportJobRepository;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Runs one import job: reads the uploaded file, validates every row against the
+ * {@link DeviceRequest} constraints, streams the valid ones through a {@link DeviceCopyWriter}
+ * and keeps the job row up to date for pollers. Meant to run on its own virtual thread;
+ * at most {@code maxConcurrentJobs} jobs write at once and the rest wait as {@code QUEUED}.
+ * The uploaded file is deleted when the job ends either way.
+ */
+public class DeviceImportWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceImportWorker.class);
+
+    private final List<DataSource> targets;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ImportJobRepository jobRepository;
+    private final ImportJobErrorRepository errorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceImportProperties properties;
+    private final Semaphore permits;
+
+    public DeviceImportWorker(List<DataSource> targets, Validator validator, ObjectMapper objectMapper,
+                              ImportJobRepository jobRepository, ImportJobErrorRepository errorRepository,
+                              ApplicationEventPublisher eventPublisher, DeviceImportProperties properties) {
+        this.targets = List.copyOf(targets);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.permits = new Semaphore(properties.maxConcurrentJobs(), true);
+    }
+
+    @Workload(WorkloadClass.BULK)
+    public void run(UUID jobId, ImportFormat format, Path file) {
+        Progress progress = new Progress(jobId);
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            finish(progress, ImportJobStatus.FAILED, 0, "Interrupted before the import started");
+            deleteQuietly(file);
+            return;
+        }
+
+        try {
+            long started = System.nanoTime();
+            jobRepository.markStarted(jobId, ImportJobStatus.RUNNING, now());
+            long imported = importFile(format, file, progress);
+            finish(progress, ImportJobStatus.COMPLETED, imported, null);
+
+            long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            log.info("Import job {} imported {} devices and rejected {} rows in {} ms ({} rows/s)",
+                    jobId, imported, progress.rejected, millis, progress.read * 1000 / millis);
+            if (imported > 0) {
+                eventPublisher.publishEvent(new DevicesImportedEvent(jobId, imported));
+            }
+        } catch (IllegalArgumentException | CharacterCodingException ex) {
+            log.info("Import job {} rejected: {}", jobId, failureMessage(ex));
+            finish(progress, ImportJobStatus.FAILED, 0, failureMessage(ex));
+        } catch (Exception ex) {
+            log.warn("Import job {} failed", jobId, ex);
+            finish(progress, ImportJobStatus.FAILED, 0, failureMessage(ex));
+        } finally {
+            permits.release();
+            deleteQuietly(file);
+        }
+    }
+
+    private long importFile(ImportFormat format, Path file, Progress progress) throws IOException, SQLException {
+        try (BufferedReader input = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             DeviceImportReader reader = DeviceImportReader.open(format, input, objectMapper);
+             DeviceCopyWriter writer = DeviceCopyWriter.open(targets)) {
+            long reportInterval = properties.progressInterval().toNanos();
+            long nextReport = System.nanoTime() + reportInterval;
+
+            DeviceImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                progress.read++;
+                String error = row.isRejected() ? row.error() : validate(row.device());
+                if (error == null) {
+                    writer.write(row.line(), row.device());
+                } else {
+                    progress.reject(row.line(), error);
+                }
+
+                if (System.nanoTime() - nextReport >= 0) {
+                    report(progress);
+                    nextReport = System.nanoTime() + reportInterval;
+                }
+            }
+            report(progress);
+            return writer.commit();
+        }
+    }
+
+    private String validate(DeviceRequest device) {
+        var violations = validator.validate(device);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void report(Progress progress) {
+        if (!progress.pendingErrors.isEmpty()) {
+            errorRepository.saveAll(progress.pendingErrors);
+            progress.pendingErrors.clear();
+        }
+        jobRepository.updateProgress(progress.jobId, progress.read, progress.rejected);
+    }
+
+    private void finish(Progress progress, ImportJobStatus status, long imported, String failure) {
+        try {
+            if (!progress.pendingErrors.isEmpty()) {
+                errorRepository.saveAll(progress.pendingErrors);
+            }
+            jobRepository.markFinished(progress.jobId, status, progress.read, imported, progress.rejected, failure, now());
+        } catch (RuntimeException ex) {
+            log.error("Could not record the outcome of import job {}", progress.jobId, ex);
+        }
+    }
+
+    private static String failureMessage(Exception ex) {
+        if (ex instanceof CharacterCodingException) {
+            return "File is not valid UTF-8";
+        }
+        return ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete import file {}", file, ex);
+        }
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private final class Progress {
+
+        private final UUID jobId;
+        private final List<ImportJobError> pendingErrors = new ArrayList<>();
+        private long read;
+        private long rejected;
+
+        private Progress(UUID jobId) {
+            this.jobId = jobId;
+        }
+
+        void reject(long line, String message) {
+            if (rejected++ < properties.maxErrors()) {
+                pendingErrors.add(new ImportJobError(jobId, line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.devices.api.index;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.snapshot.CatalogSink;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory secondary index over brand, state and (in sharded mode) shard.
+ * Every device gets a dense int ordinal; each brand, state and shard owns a compressed
+ * bitmap of ordinals, so filters are bitmap intersections and counts are cardinalities.
+ * Ordinals of deleted devices are reused to keep the bitmaps dense.
+ *
+ * <p>Until the first {@link #completeRebuild(Collection)} the index is not ready and callers
+ * must use the database. Changes applied while a rebuild is running are replayed on top
+ * of the rebuilt state, so a rebuild never loses concurrent writes.
+ *
+ * <p>Between rebuilds the index only sees writes made through this instance. Callers treat
+ * it as a hint: rows fetched for its ids are re-checked, and rows modified since
+ * {@link #syncedSince()} are read from the database as well.
+ */
+public class DeviceBitmapIndex {
+
+    public static final int DEFAULT_MAX_ID_LOOKUP = 1000;
+
+    /**
+     * Allowance for clock skew between instances and for transactions that stamped
+     * {@code last_modified} before a rebuild started but committed after its scan.
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final int shardCount;
+    private final int maxIdLookup;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment;
+    private boolean ready;
+    private List<DeviceChangedEvent> pending;
+    private Instant rebuildStarted;
+    private Instant syncedSince;
+
+    public DeviceBitmapIndex(int shardCount) {
+        this(shardCount, DEFAULT_MAX_ID_LOOKUP);
+    }
+
+    /**
+     * @param maxIdLookup most matches fetched by primary key; larger results are cheaper
+     *                    through the brand/state index of the table
+     */
+    public DeviceBitmapIndex(int shardCount, int maxIdLookup) {
+        this.shardCount = shardCount;
+        this.maxIdLookup = maxIdLookup;
+        this.segment = new Segment(shardCount);
+    }
+
+    public int getMaxIdLookup() {
+        return maxIdLookup;
+    }
+
+    /**
+     * Rows modified from this instant on may be missing from, or stale in, the index.
+     */
+    public Instant syncedSince() {
+        lock.readLock().lock();
+        try {
+            return syncedSince;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+            rebuildStarted = Instant.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index contents with {@code devices} (only id, brand and state are read)
+     * and marks the index ready.
+     */
+    public void completeRebuild(Collection<DeviceResponse> devices) {
+        Rebuild rebuild = newRebuild();
+        devices.forEach(device -> rebuild.upsert(device.id(), device.brand(), device.state()));
+        completeRebuild(rebuild);
+    }
+
+    /**
+     * Empty contents to fill device by device, for catalogs too large to hold as a collection.
+     */
+    public Rebuild newRebuild() {
+        return new Rebuild(new Segment(shardCount));
+    }
+
+    /**
+     * Replaces the index contents with {@code rebuild} and marks the index ready.
+     */
+    public void completeRebuild(Rebuild rebuild) {
+        Segment rebuilt = rebuild.segment;
+        rebuilt.runOptimize();
+
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.forEach(rebuilt::apply);
+                pending = null;
+            }
+            segment = rebuilt;
+            syncedSince = (rebuildStarted != null ? rebuildStarted : Instant.now()).minus(SYNC_OVERLAP);
+            rebuildStarted = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void apply(DeviceChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            segment.apply(event);
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(UUID id) {
+        lock.readLock().lock();
+        try {
+            return segment.ordinals.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids matching the given brand and/or state, optionally restricted to one shard.
+     */
+    public List<UUID> find(String brand, DeviceState state, Integer shard) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = segment.match(brand, state, shard);
+            List<UUID> ids = new ArrayList<>(matches.getCardinality());
+            matches.forEach((int ordinal) -> ids.add(segment.ids[ordinal]));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(String brand, DeviceState state, Integer shard) {
+        lock.readLock().lock();
+        try {
+            return segment.match(brand, state, shard).getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #count(String, DeviceState, Integer)}, leaving out the {@code excluded} ids.
+     */
+    public long count(String brand, DeviceState state, Integer shard, Collection<UUID> excluded) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = segment.match(brand, state, shard);
+            for (UUID id : excluded) {
+                Integer ordinal = segment.ordinals.get(id);
+                if (ordinal != null) {
+                    matches.remove(ordinal);
+                }
+            }
+            return matches.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index contents being loaded, not visible to readers until {@link #completeRebuild(Rebuild)}.
+     */
+    public static final class Rebuild implements CatalogSink {
+
+        private final Segment segment;
+
+        private Rebuild(Segment segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        public void upsert(UUID id, String brand, DeviceState state) {
+            segment.upsert(id, brand, state);
+        }
+
+        @Override
+        public void remove(UUID id) {
+            segment.remove(id);
+        }
+
+        public int size() {
+            return segment.ordinals.size();
+        }
+    }
+
+    private static final class Segment {
+
+        private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+        private final int shardCount;
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+        private final Map<String, RoaringBitmap> byBrand = new HashMap<>();
+        private final Map<DeviceState, RoaringBitmap> byState = new EnumMap<>(DeviceState.class);
+        private final RoaringBitmap[] byShard;
+        private final RoaringBitmap free = new RoaringBitmap();
+
+        private UUID[] ids = new UUID[1024];
+        private String[] brands = new String[1024];
+        private DeviceState[] states = new DeviceState[1024];
+        private int nextOrdinal;
+
+        Segment(int shardCount) {
+            this.shardCount = shardCount;
+            this.byShard = new RoaringBitmap[shardCount];
+            for (int shard = 0; shard < shardCount; shard++) {
+                byShard[shard] = new RoaringBitmap();
+            }
+            for (DeviceState state : DeviceState.values()) {
+                byState.put(state, new RoaringBitmap());
+            }
+        }
+
+        void apply(DeviceChangedEvent event) {
+            if (event.isDeletion()) {
+                remove(event.previous().id());
+            } else {
+                DeviceResponse device = event.current();
+                upsert(device.id(), device.brand(), device.state());
+            }
+        }
+
+        void upsert(UUID id, String brand, DeviceState state) {
+            Integer existing = ordinals.get(id);
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                unlink(ordinal);
+            } else {
+                ordinal = allocate();
+                ordinals.put(id, ordinal);
+                ids[ordinal] = id;
+                byShard[ShardRouter.shardOf(id, shardCount)].add(ordinal);
+            }
+
+            brands[ordinal] = brand;
+            states[ordinal] = state;
+            byBrand.computeIfAbsent(brand, key -> new RoaringBitmap()).add(ordinal);
+            byState.get(state).add(ordinal);
+        }
+
+        void remove(UUID id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            unlink(ordinal);
+            byShard[ShardRouter.shardOf(id, shardCount)].remove(ordinal);
+            ids[ordinal] = null;
+            brands[ordinal] = null;
+            states[ordinal] = null;
+            free.add(ordinal);
+        }
+
+        RoaringBitmap match(String brand, DeviceState state, Integer shard) {
+            List<RoaringBitmap> terms = new ArrayList<>(3);
+            if (brand != null) {
+                terms.add(byBrand.getOrDefault(brand, EMPTY));
+            }
+            if (state != null) {
+                terms.add(byState.get(state));
+            }
+            if (shard != null) {
+                terms.add(byShard[shard]);
+            }
+            if (terms.isEmpty()) {
+                RoaringBitmap all = new RoaringBitmap();
+                for (RoaringBitmap shardBitmap : byShard) {
+                    all.or(shardBitmap);
+                }
+                return all;
+            }
+
+            RoaringBitmap result = terms.getFirst().clone();
+            for (int i = 1; i < terms.size(); i++) {
+                result.and(terms.get(i));
+            }
+            return result;
+        }
+
+        void runOptimize() {
+            byBrand.values().forEach(RoaringBitmap::runOptimize);
+            byState.values().forEach(RoaringBitmap::runOptimize);
+            Arrays.stream(byShard).forEach(RoaringBitmap::runOptimize);
+        }
+
+        private void unlink(int ordinal) {
+            RoaringBitmap brandBitmap = byBrand.get(brands[ordinal]);
+            brandBitmap.remove(ordinal);
+            if (brandBitmap.isEmpty()) {
+                byBrand.remove(brands[ordinal]);
+            }
+            byState.get(states[ordinal]).remove(ordinal);
+        }
+
+        private int allocate() {
+            if (!free.isEmpty()) {
+                int ordinal = free.first();
+                free.remove(ordinal);
+                return ordinal;
+            }
+            int ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                brands = Arrays.copyOf(brands, capacity);
+                states = Arrays.copyOf(states, capacity);
+            }
+            return ordinal;
+        }
+    }
+}
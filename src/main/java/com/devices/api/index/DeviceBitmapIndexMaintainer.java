@@ -0,0 +1,92 @@
+package com.devices.api.index;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.event.DevicesImportedEvent;
+import com.devices.api.event.DevicesUpsertedEvent;
+import com.devices.api.service.DeviceService;
+import com.devices.api.snapshot.CatalogSnapshotManager;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+
+/**
+ * Loads the {@link DeviceBitmapIndex} once the application is up, from the catalog snapshot
+ * when one is configured and from a scan of all devices otherwise, and applies every
+ * committed change afterwards. Bulk imports do not publish per-device changes, so each
+ * completed import triggers a rebuild instead.
+ *
+ * <p>Writes made through other instances publish no events here, so the index is also
+ * rebuilt from the database every {@code devices.index.bitmap.refresh-interval}.
+ */
+public class DeviceBitmapIndexMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceBitmapIndexMaintainer.class);
+
+    private final DeviceBitmapIndex index;
+    private final DeviceService deviceService;
+    private final CatalogSnapshotManager snapshots;
+
+    public DeviceBitmapIndexMaintainer(DeviceBitmapIndex index, DeviceService deviceService,
+                                       CatalogSnapshotManager snapshots) {
+        this.index = index;
+        this.deviceService = deviceService;
+        this.snapshots = snapshots;
+    }
+
+    @Workload(WorkloadClass.BULK)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuild(snapshots != null);
+    }
+
+    @Workload(WorkloadClass.BULK)
+    @Scheduled(fixedDelayString = "${devices.index.bitmap.refresh-interval:5m}",
+            initialDelayString = "${devices.index.bitmap.refresh-interval:5m}")
+    public void refresh() {
+        rebuild(false);
+    }
+
+    private void rebuild(boolean fromSnapshot) {
+        long started = System.nanoTime();
+        index.beginRebuild();
+        DeviceBitmapIndex.Rebuild rebuild = index.newRebuild();
+        if (fromSnapshot) {
+            snapshots.load(rebuild);
+        } else {
+            deviceService.getAll(DeviceFilter.of(null, null),
+                            EnumSet.of(DeviceField.ID, DeviceField.BRAND, DeviceField.STATE))
+                    .forEach(device -> rebuild.upsert(device.id(), device.brand(), device.state()));
+        }
+        index.completeRebuild(rebuild);
+        log.info("Bitmap index rebuilt with {} devices in {} ms",
+                rebuild.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Only committed changes are indexed, so a rolled-back write never becomes visible.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        index.apply(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDevicesUpserted(DevicesUpsertedEvent event) {
+        event.changes().forEach(index::apply);
+    }
+
+    @EventListener
+    public void onDevicesImported(DevicesImportedEvent event) {
+        rebuild();
+    }
+}
@@ -0,0 +1,23 @@
+package com.devices.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time spent waiting for a pooled JDBC connection.
+ */
+@Name(ConnectionAcquireEvent.NAME)
+@Label("Connection Acquire")
+@Description("Wait for a connection from the JDBC pool")
+@Category({"Devices API", "JDBC"})
+@StackTrace(false)
+public class ConnectionAcquireEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.devices.api.ConnectionAcquire";
+
+    @Label("Failure")
+    String failure;
+}
@@ -0,0 +1,85 @@
+package com.devices.api.jfr;
+
+import com.devices.api.config.JfrProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Always-on disk recording using the JDK {@code default} settings (about 1% overhead),
+ * bounded by {@code devices.jfr.max-age} and {@code devices.jfr.max-size}. The events that
+ * carry environment variables, system properties and JVM arguments are left out, since
+ * those hold the database credentials.
+ */
+public class ContinuousRecording implements AutoCloseable {
+
+    public static final String NAME = "devices-api-continuous";
+
+    static final List<String> CONFIDENTIAL_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+
+    private final JfrProperties properties;
+    private Recording recording;
+
+    public ContinuousRecording(JfrProperties properties) {
+        this.properties = properties;
+    }
+
+    public void start() throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration(properties.settings()));
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.maxAge());
+        recording.setMaxSize(properties.maxSize().toBytes());
+
+        recording.enable(DeviceOperationEvent.NAME).withThreshold(properties.eventThreshold());
+        recording.enable(DeviceRepositoryEvent.NAME).withThreshold(properties.eventThreshold());
+        recording.enable(ConnectionAcquireEvent.NAME).withThreshold(properties.eventThreshold());
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(properties.pinnedThreshold()).withStackTrace();
+        CONFIDENTIAL_EVENTS.forEach(recording::disable);
+
+        recording.start();
+        this.recording = recording;
+    }
+
+    /**
+     * Writes everything recorded during the last {@code window} to a new temporary file.
+     * The caller owns the file.
+     */
+    public Path dump(Duration window) throws IOException {
+        Path file = Files.createTempFile("devices-api-", ".jfr");
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot();
+             InputStream data = snapshot.getStream(Instant.now().minus(window), null)) {
+            if (data != null) {
+                Files.copy(data, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        return file;
+    }
+
+    public boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    @Override
+    public void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.devices.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code DeviceServiceImpl} call, including the transaction commit and flush.
+ */
+@Name(DeviceOperationEvent.NAME)
+@Label("Device Operation")
+@Description("Device service call including transaction commit")
+@Category({"Devices API", "Service"})
+@StackTrace(false)
+public class DeviceOperationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.devices.api.DeviceOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Device Id")
+    String deviceId;
+
+    @Label("Row Count")
+    int rowCount;
+
+    @Label("Failure")
+    String failure;
+}
@@ -0,0 +1,35 @@
+package com.devices.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One Spring Data repository call, nested inside a {@link DeviceOperationEvent}.
+ */
+@Name(DeviceRepositoryEvent.NAME)
+@Label("Device Repository Call")
+@Description("Spring Data repository call, including connection acquisition and SQL")
+@Category({"Devices API", "Repository"})
+@StackTrace(false)
+public class DeviceRepositoryEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.devices.api.DeviceRepositoryCall";
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Device Id")
+    String deviceId;
+
+    @Label("Row Count")
+    int rowCount;
+
+    @Label("Failure")
+    String failure;
+}
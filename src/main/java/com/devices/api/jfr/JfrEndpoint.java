@@ -0,0 +1,76 @@
+package com.devices.api.jfr;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@code GET /actuator/jfr?minutes=N} downloads the last N minutes of the continuous recording.
+ */
+@WebEndpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private final ContinuousRecording recording;
+    private final Duration defaultWindow;
+
+    public JfrEndpoint(ContinuousRecording recording, Duration defaultWindow) {
+        this.recording = recording;
+        this.defaultWindow = defaultWindow;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Integer minutes) {
+        if (minutes != null && minutes <= 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!recording.isRunning()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        Duration window = minutes != null ? Duration.ofMinutes(minutes) : defaultWindow;
+        try {
+            return new WebEndpointResponse<>(new TemporaryFileResource(recording.dump(window)));
+        } catch (IOException ex) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Deletes the dump once it has been streamed to the client.
+     */
+    static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // Forces streaming through getInputStream() so the file is always cleaned up
+            return false;
+        }
+    }
+}
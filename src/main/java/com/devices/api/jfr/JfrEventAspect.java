@@ -0,0 +1,137 @@
+package com.devices.api.jfr;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.entity.Device;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Emits {@link DeviceOperationEvent}, {@link DeviceRepositoryEvent} and {@link ConnectionAcquireEvent}.
+ * Runs outside the transaction advice so service events include commit and flush time.
+ * When JFR is not recording these events the advice is a single {@code isEnabled()} check.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JfrEventAspect {
+
+    @Around("execution(public * com.devices.api.service.DeviceServiceImpl.*(..))")
+    public Object recordServiceOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        DeviceOperationEvent event = new DeviceOperationEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        event.begin();
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable ex) {
+            event.failure = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = joinPoint.getSignature().getName();
+                event.deviceId = deviceId(joinPoint.getArgs(), result);
+                event.rowCount = rowCount(result);
+                event.commit();
+            }
+        }
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object recordRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        DeviceRepositoryEvent event = new DeviceRepositoryEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        event.begin();
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable ex) {
+            event.failure = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repositoryName(joinPoint);
+                event.method = joinPoint.getSignature().getName();
+                event.deviceId = deviceId(joinPoint.getArgs(), result);
+                event.rowCount = rowCount(result);
+                event.commit();
+            }
+        }
+    }
+
+    @Around("execution(* javax.sql.DataSource.getConnection(..))")
+    public Object recordConnectionAcquire(ProceedingJoinPoint joinPoint) throws Throwable {
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            event.failure = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+        return interfaces.length > 0
+                ? interfaces[0].getSimpleName()
+                : joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+
+    static String deviceId(Object[] args, Object result) {
+        for (Object arg : args) {
+            if (arg instanceof UUID id) {
+                return id.toString();
+            }
+        }
+        Object single = result instanceof Optional<?> optional ? optional.orElse(null) : result;
+        if (single instanceof DeviceResponse response && response.id() != null) {
+            return response.id().toString();
+        }
+        if (single instanceof Device device && device.getId() != null) {
+            return device.getId().toString();
+        }
+        return null;
+    }
+
+    static int rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Boolean || result instanceof Number) {
+            return 0;
+        }
+        return 1;
+    }
+}
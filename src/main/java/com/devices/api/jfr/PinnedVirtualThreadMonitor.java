@@ -0,0 +1,70 @@
+package com.devices.api.jfr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} in-process so pinning (typically a
+ * {@code synchronized} block around blocking I/O) shows up in the logs and as the
+ * {@code devices.jfr.virtual-thread.pinned} counter without anyone opening a recording.
+ */
+public class PinnedVirtualThreadMonitor implements AutoCloseable {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Logger log = LoggerFactory.getLogger(PinnedVirtualThreadMonitor.class);
+    private static final int LOGGED_FRAMES = 12;
+
+    private final RecordingStream stream;
+    private final Counter pinned;
+
+    public PinnedVirtualThreadMonitor(Duration threshold, MeterRegistry registry) {
+        this.pinned = Counter.builder("devices.jfr.virtual-thread.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(registry);
+        this.stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+    }
+
+    public void start() {
+        stream.startAsync();
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinned.increment();
+        log.warn("Virtual thread '{}' pinned its carrier for {} ms\n{}",
+                event.getThread() != null ? event.getThread().getJavaName() : "unknown",
+                event.getDuration().toMillis(),
+                format(event.getStackTrace()));
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(PinnedVirtualThreadMonitor::format)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
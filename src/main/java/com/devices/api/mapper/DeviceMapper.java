@@ -3,19 +3,54 @@ package com.devices.api.mapper;
 import com.devices.api.dto.DeviceRequest;
 import com.devices.api.dto.DeviceResponse;
 import com.devices.api.entity.Device;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.enums.DeviceState;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 
 @Mapper(componentModel = "spring")
 public interface DeviceMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "creationTime", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     Device toEntity(DeviceRequest request);
 
     DeviceResponse toResponse(Device device);
 
     List<DeviceResponse> toResponseList(List<Device> devices);
+
+    @SuppressWarnings("unchecked")
+    default DeviceResponse fromTuple(Tuple tuple) {
+        UUID id = null;
+        String name = null;
+        String brand = null;
+        DeviceState state = null;
+        Instant creationTime = null;
+        List<String> tags = null;
+
+        for (TupleElement<?> element : tuple.getElements()) {
+            Object value = tuple.get(element);
+            switch (DeviceField.fromProperty(element.getAlias())) {
+                case ID -> id = (UUID) value;
+                case NAME -> name = (String) value;
+                case BRAND -> brand = (String) value;
+                case STATE -> state = (DeviceState) value;
+                case CREATION_TIME -> creationTime = (Instant) value;
+                case TAGS -> tags = (List<String>) value;
+            }
+        }
+
+        return new DeviceResponse(id, name, brand, state, creationTime, tags);
+    }
+
+    default List<DeviceResponse> fromTuples(List<Tuple> tuples) {
+        return tuples.stream().map(this::fromTuple).toList();
+    }
 }
@@ -0,0 +1,101 @@
+package com.devices.api.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the read or write {@link RateLimiter} of the client before the request reaches the
+ * response cache or Spring MVC. Every response carries the client's budget in
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset} (seconds);
+ * a request over budget is answered {@code 429} with {@code Retry-After} and never served.
+ * GET and HEAD requests, and any request to one of the read-only paths, use the read budget.
+ *
+ * <p>A client is its API key when the key is one of {@code apiKeys}, and its remote address
+ * otherwise. Unrecognised keys are ignored, so that inventing keys neither resets a client's
+ * budget nor fills the limiter with clients.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    private static final byte[] TOO_MANY_REQUESTS = """
+            {"type":"https://api.devices.com/errors/rate-limited","title":"Too Many Requests","status":429,\
+            "detail":"The client exceeded its request quota"}""".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter readLimiter;
+    private final RateLimiter writeLimiter;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final Set<String> readOnlyPaths;
+
+    public RateLimitFilter(RateLimiter readLimiter, RateLimiter writeLimiter, String apiKeyHeader, Set<String> apiKeys) {
+        this(readLimiter, writeLimiter, apiKeyHeader, apiKeys, Set.of());
+    }
+
+    /**
+     * @param readOnlyPaths paths that only read whatever the method, such as the GraphQL
+     *                      endpoint, whose queries are sent as POST
+     */
+    public RateLimitFilter(RateLimiter readLimiter, RateLimiter writeLimiter, String apiKeyHeader,
+                           Set<String> apiKeys, Set<String> readOnlyPaths) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = apiKeys;
+        this.readOnlyPaths = readOnlyPaths;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        boolean read = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || readOnlyPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+        RateLimiter limiter = read ? readLimiter : writeLimiter;
+        String apiKey = request.getHeader(apiKeyHeader);
+        long result = limiter.tryAcquire(apiKey != null && apiKeys.contains(apiKey) ? apiKey : request.getRemoteAddr());
+
+        long remaining = Math.max(result, 0);
+        response.setIntHeader(LIMIT_HEADER, limiter.burst());
+        response.setIntHeader(REMAINING_HEADER, (int) remaining);
+        response.setIntHeader(RESET_HEADER, seconds(limiter.nanosUntilFull(remaining)));
+        if (result >= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setIntHeader(HttpHeaders.RETRY_AFTER, seconds(-result));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(TOO_MANY_REQUESTS.length);
+        response.getOutputStream().write(TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Keeps the tracked clients to those that used their budget recently.
+     */
+    @Scheduled(fixedDelayString = "PT1M", initialDelayString = "PT1M")
+    public void forgetIdleClients() {
+        readLimiter.forgetIdle();
+        writeLimiter.forgetIdle();
+    }
+
+    private static int seconds(long nanos) {
+        return (int) Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,101 @@
+package com.devices.api.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per client, kept as a generic cell rate algorithm: each client's bucket is a
+ * single {@link AtomicLong} holding the time at which it would be full again, and taking a
+ * token is one compare-and-set that moves that time forward by one emission interval. Known
+ * clients are served without locks; a client's first request adds its bucket.
+ *
+ * <p>A bucket whose full time has passed is indistinguishable from a new one, so
+ * {@link #forgetIdle()} drops it without losing anything. Once {@code maxClients} are
+ * tracked, new clients share one overflow bucket until idle ones are forgotten.
+ */
+public class RateLimiter {
+
+    /**
+     * Full time of a bucket that has never been used.
+     */
+    private static final long FULL = Long.MIN_VALUE;
+
+    private final int burst;
+    private final long emissionInterval;
+    private final long burstWindow;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(FULL);
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(int requestsPerSecond, int burst, int maxClients, LongSupplier nanoClock) {
+        if (requestsPerSecond < 1 || burst < 1) {
+            throw new IllegalArgumentException("Rate limits need at least one request per second and a burst of one");
+        }
+        this.burst = burst;
+        this.emissionInterval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        this.burstWindow = emissionInterval * burst;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+    }
+
+    public int burst() {
+        return burst;
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     *
+     * @return the tokens left when one was taken, or, negated, the nanoseconds until the
+     *         next one is available
+     */
+    public long tryAcquire(String client) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = buckets.size() < maxClients
+                    ? buckets.computeIfAbsent(client, key -> new AtomicLong(FULL))
+                    : overflow;
+        }
+
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + emissionInterval;
+            long wait = next - now - burstWindow;
+            if (wait > 0) {
+                rejected.increment();
+                return -wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return (burstWindow - (next - now)) / emissionInterval;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until a bucket with {@code remaining} tokens is full again, rounded up to
+     * whole tokens.
+     */
+    public long nanosUntilFull(long remaining) {
+        return (burst - remaining) * emissionInterval;
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Drops the buckets that have refilled completely.
+     *
+     * @return the number of clients still tracked
+     */
+    public int forgetIdle() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+        return buckets.size();
+    }
+}
@@ -0,0 +1,49 @@
+package com.devices.api.repository;
+
+import com.devices.api.entity.DeviceCreationRollup;
+import com.devices.api.entity.DeviceCreationRollupId;
+import com.devices.api.enums.TimelineBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface DeviceCreationRollupRepository extends JpaRepository<DeviceCreationRollup, DeviceCreationRollupId> {
+
+    /**
+     * Adds {@code deltas[i]} to the bucket {@code (buckets[i], bucketStarts[i], brands[i])}
+     * for every {@code i} in one statement.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO device_creation_rollups (bucket, bucket_start, brand, device_count)
+            SELECT * FROM unnest(CAST(:buckets AS varchar[]), CAST(:bucketStarts AS timestamptz[]),
+                                 CAST(:brands AS varchar[]), CAST(:deltas AS bigint[]))
+            ON CONFLICT (bucket, bucket_start, brand)
+            DO UPDATE SET device_count = device_creation_rollups.device_count + EXCLUDED.device_count
+            """, nativeQuery = true)
+    void incrementAll(String[] buckets, String[] bucketStarts, String[] brands, Long[] deltas);
+
+    @Query("""
+            select r from DeviceCreationRollup r
+            where r.id.bucket = :bucket and r.id.bucketStart >= :from and r.id.bucketStart < :to
+              and r.deviceCount > 0
+            order by r.id.bucketStart, r.id.brand
+            """)
+    List<DeviceCreationRollup> findTimeline(TimelineBucket bucket, Instant from, Instant to);
+
+    @Query("""
+            select r from DeviceCreationRollup r
+            where r.id.bucket = :bucket and r.id.brand = :brand
+              and r.id.bucketStart >= :from and r.id.bucketStart < :to
+              and r.deviceCount > 0
+            order by r.id.bucketStart
+            """)
+    List<DeviceCreationRollup> findTimelineByBrand(TimelineBucket bucket, String brand, Instant from, Instant to);
+}
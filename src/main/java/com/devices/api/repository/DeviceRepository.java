@@ -3,17 +3,73 @@ package com.devices.api.repository;
 import com.devices.api.entity.Device;
 import com.devices.api.enums.DeviceState;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface DeviceRepository extends JpaRepository<Device, UUID> {
+public interface DeviceRepository extends JpaRepository<Device, UUID>, DeviceRepositoryCustom {
 
     List<Device> findByBrand(String brand);
 
     List<Device> findByState(DeviceState state);
 
     List<Device> findByBrandAndState(String brand, DeviceState state);
+
+    /**
+     * Primary key fetch for an id set resolved elsewhere. A single array parameter keeps
+     * the statement text constant regardless of how many ids are passed.
+     */
+    @Query(value = "SELECT * FROM devices WHERE id = ANY(:ids)", nativeQuery = true)
+    List<Device> findAllByIdIn(@Param("ids") UUID[] ids);
+
+    /**
+     * Rows for ids resolved by the bitmap index plus rows matching brand and/or state that
+     * were modified after it was last rebuilt, which it may not know about yet.
+     */
+    @Query(value = """
+            SELECT * FROM devices
+            WHERE id = ANY(:ids)
+               OR (last_modified >= :since
+                   AND (CAST(:brand AS text) IS NULL OR brand = :brand)
+                   AND (CAST(:state AS text) IS NULL OR state = :state))
+            """, nativeQuery = true)
+    List<Device> findAllByIdInOrModifiedSince(@Param("ids") UUID[] ids, @Param("brand") String brand,
+                                              @Param("state") String state, @Param("since") Instant since);
+
+    List<Device> findByLastModifiedGreaterThanEqual(Instant since);
+
+    /**
+     * Ids of rows modified or deleted since {@code since}, whose bitmap index entries may be
+     * stale. At most {@code limit} are returned.
+     */
+    @Query(value = """
+            SELECT id FROM devices WHERE last_modified >= :since
+            UNION ALL
+            SELECT id FROM device_tombstones WHERE deleted_at >= :since
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findIdsChangedSince(@Param("since") Instant since, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT count(*) FROM devices
+            WHERE last_modified >= :since
+              AND (CAST(:brand AS text) IS NULL OR brand = :brand)
+              AND (CAST(:state AS text) IS NULL OR state = :state)
+            """, nativeQuery = true)
+    long countModifiedSince(@Param("brand") String brand, @Param("state") String state, @Param("since") Instant since);
+
+    @Query(value = "SELECT id FROM device_tombstones WHERE deleted_at >= :since", nativeQuery = true)
+    List<UUID> findTombstoneIdsSince(Instant since);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM device_tombstones WHERE deleted_at < :before", nativeQuery = true)
+    int deleteTombstonesBefore(Instant before);
 }
@@ -0,0 +1,53 @@
+package com.devices.api.repository;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.entity.Device;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.enums.DeviceState;
+import jakarta.persistence.Tuple;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public interface DeviceRepositoryCustom {
+
+    List<Device> findByFilter(DeviceFilter filter);
+
+    long countByFilter(DeviceFilter filter);
+
+    /**
+     * Planner's row estimate for the filter, read from {@code EXPLAIN} without running the
+     * query. Derived from {@code pg_class.reltuples} scaled to the current table size and,
+     * for filters, the column statistics gathered by {@code ANALYZE}.
+     */
+    long estimateCountByFilter(DeviceFilter filter);
+
+    Optional<Tuple> findProjectedById(UUID id, Set<DeviceField> fields);
+
+    List<Tuple> findProjectedBy(DeviceFilter filter, Set<DeviceField> fields);
+
+    List<Tuple> findProjectedBy(DeviceFilter filter, Set<DeviceField> fields, int limit);
+
+    /**
+     * Projection of the devices with the given ids, bound as one array parameter so any
+     * number of ids is a single {@code id = ANY(?)} statement. Unknown ids are skipped.
+     */
+    List<Tuple> findProjectedByIdIn(UUID[] ids, Set<DeviceField> fields);
+
+    /**
+     * Inserts each device or, when its (brand, name) already exists, updates the state of
+     * the existing device unless it is in use, and counts new devices into the creation
+     * rollups, all in one statement. Ids must be assigned and keys unique within the call.
+     * Tags are not written: new devices start without tags and existing ones keep theirs.
+     * Devices left unchanged because they are in use are not returned.
+     */
+    List<UpsertedDevice> upsertAll(List<Device> devices);
+
+    /**
+     * @param previousState state before the statement, or null for a new device
+     */
+    record UpsertedDevice(Device device, boolean inserted, DeviceState previousState) {
+    }
+}
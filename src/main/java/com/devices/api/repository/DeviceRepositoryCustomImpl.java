@@ -0,0 +1,273 @@
+package com.devices.api.repository;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.entity.Device;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.enums.DeviceState;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Criteria queries for filter combinations that have no derived query method, and
+ * projections that only select the requested columns so narrow fieldsets can be
+ * answered from covering indexes without touching the heap.
+ */
+class DeviceRepositoryCustomImpl implements DeviceRepositoryCustom {
+
+    /**
+     * {@code previous} sees the table as it was before the statement, so it yields the
+     * prior state of updated devices. {@code xmax = 0} tells inserts from updates even
+     * when a concurrent insert of the same key won the race.
+     */
+    private static final String UPSERT = """
+            WITH input AS (
+                SELECT * FROM unnest(CAST(:ids AS uuid[]), CAST(:names AS varchar[]),
+                                     CAST(:brands AS varchar[]), CAST(:states AS varchar[]))
+                    AS t(id, name, brand, state)
+            ),
+            previous AS (
+                SELECT d.id, d.state FROM devices d JOIN input i ON d.brand = i.brand AND d.name = i.name
+            ),
+            upserted AS (
+                INSERT INTO devices AS d (id, name, brand, state, creation_time, last_modified)
+                SELECT id, name, brand, state, now(), now() FROM input
+                ON CONFLICT (brand, name) DO UPDATE
+                    SET state = EXCLUDED.state, last_modified = EXCLUDED.last_modified
+                    WHERE d.state <> 'IN_USE'
+                RETURNING d.id, d.name, d.brand, d.state, d.tags, d.creation_time, d.last_modified, d.xmax = 0 AS inserted
+            ),
+            rollups AS (
+                INSERT INTO device_creation_rollups (bucket, bucket_start, brand, device_count)
+                SELECT b.bucket, date_trunc(b.unit, u.creation_time, 'UTC'), u.brand, count(*)
+                FROM upserted u CROSS JOIN (VALUES ('HOUR', 'hour'), ('DAY', 'day')) AS b(bucket, unit)
+                WHERE u.inserted
+                GROUP BY 1, 2, 3
+                ON CONFLICT (bucket, bucket_start, brand)
+                DO UPDATE SET device_count = device_creation_rollups.device_count + EXCLUDED.device_count
+            )
+            SELECT u.id, u.name, u.brand, u.state, u.tags, u.creation_time, u.last_modified, u.inserted,
+                   p.state AS previous_state
+            FROM upserted u LEFT JOIN previous p ON p.id = u.id
+            """;
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Device> findByFilter(DeviceFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Device> query = cb.createQuery(Device.class);
+        Root<Device> root = query.from(Device.class);
+
+        query.where(predicates(cb, root, filter));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public long countByFilter(DeviceFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Device> root = query.from(Device.class);
+
+        query.select(cb.count(root))
+                .where(predicates(cb, root, filter));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * The first line of the plan is its top node, whose row count is the estimate for the
+     * whole query.
+     */
+    @Override
+    public long estimateCountByFilter(DeviceFilter filter) {
+        StringBuilder sql = new StringBuilder("EXPLAIN SELECT 1 FROM devices WHERE true");
+        if (filter.brand() != null) {
+            sql.append(" AND brand = :brand");
+        }
+        if (filter.state() != null) {
+            sql.append(" AND state = :state");
+        }
+        if (filter.createdAfter() != null) {
+            sql.append(" AND creation_time >= :createdAfter");
+        }
+        if (filter.createdBefore() != null) {
+            sql.append(" AND creation_time < :createdBefore");
+        }
+        if (filter.anyTags() != null) {
+            sql.append(" AND tags && CAST(:anyTags AS varchar[])");
+        }
+        if (filter.allTags() != null) {
+            sql.append(" AND tags @> CAST(:allTags AS varchar[])");
+        }
+
+        Query query = entityManager.createNativeQuery(sql.toString(), String.class);
+        if (filter.brand() != null) {
+            query.setParameter("brand", filter.brand());
+        }
+        if (filter.state() != null) {
+            query.setParameter("state", filter.state().name());
+        }
+        if (filter.createdAfter() != null) {
+            query.setParameter("createdAfter", filter.createdAfter());
+        }
+        if (filter.createdBefore() != null) {
+            query.setParameter("createdBefore", filter.createdBefore());
+        }
+        if (filter.anyTags() != null) {
+            query.setParameter("anyTags", filter.anyTags().toArray(String[]::new));
+        }
+        if (filter.allTags() != null) {
+            query.setParameter("allTags", filter.allTags().toArray(String[]::new));
+        }
+
+        String topNode = (String) query.getResultList().getFirst();
+        Matcher rows = PLAN_ROWS.matcher(topNode);
+        if (!rows.find()) {
+            throw new IllegalStateException("No row estimate in plan: " + topNode);
+        }
+        return Long.parseLong(rows.group(1));
+    }
+
+    @Override
+    public Optional<Tuple> findProjectedById(UUID id, Set<DeviceField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Device> root = query.from(Device.class);
+
+        query.multiselect(selections(root, fields))
+                .where(cb.equal(root.get("id"), id));
+
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    @Override
+    public List<Tuple> findProjectedBy(DeviceFilter filter, Set<DeviceField> fields) {
+        return projectedBy(filter, fields).getResultList();
+    }
+
+    @Override
+    public List<Tuple> findProjectedBy(DeviceFilter filter, Set<DeviceField> fields, int limit) {
+        return projectedBy(filter, fields).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Tuple> findProjectedByIdIn(UUID[] ids, Set<DeviceField> fields) {
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Device> root = query.from(Device.class);
+
+        // arrayContains() renders as ids @> array[id], which cannot use the primary key
+        query.multiselect(selections(root, fields))
+                .where(cb.isTrue(cb.sql("? = any(?)", Boolean.class, root.get("id"), cb.value(ids))));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UpsertedDevice> upsertAll(List<Device> devices) {
+        List<Object[]> rows = entityManager.createNativeQuery(UPSERT)
+                .setParameter("ids", devices.stream().map(Device::getId).toArray(UUID[]::new))
+                .setParameter("names", devices.stream().map(Device::getName).toArray(String[]::new))
+                .setParameter("brands", devices.stream().map(Device::getBrand).toArray(String[]::new))
+                .setParameter("states", devices.stream().map(device -> device.getState().name()).toArray(String[]::new))
+                .unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("name", String.class)
+                .addScalar("brand", String.class)
+                .addScalar("state", String.class)
+                .addScalar("tags", String[].class)
+                .addScalar("creation_time", Instant.class)
+                .addScalar("last_modified", Instant.class)
+                .addScalar("inserted", Boolean.class)
+                .addScalar("previous_state", String.class)
+                .getResultList();
+
+        List<UpsertedDevice> upserted = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Device device = new Device();
+            device.setId((UUID) row[0]);
+            device.setName((String) row[1]);
+            device.setBrand((String) row[2]);
+            device.setState(DeviceState.valueOf((String) row[3]));
+            device.setTags(List.of((String[]) row[4]));
+            device.setCreationTime((Instant) row[5]);
+            device.setLastModified((Instant) row[6]);
+            upserted.add(new UpsertedDevice(device, (Boolean) row[7],
+                    row[8] != null ? DeviceState.valueOf((String) row[8]) : null));
+        }
+        return upserted;
+    }
+
+    /**
+     * Tag filters render as the array operators {@code &&} and {@code @>}, which the GIN
+     * index on {@code tags} serves.
+     */
+    private TypedQuery<Tuple> projectedBy(DeviceFilter filter, Set<DeviceField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Device> root = query.from(Device.class);
+
+        query.multiselect(selections(root, fields))
+                .where(predicates(cb, root, filter));
+
+        return entityManager.createQuery(query);
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Device> root, DeviceFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.brand() != null) {
+            predicates.add(cb.equal(root.get("brand"), filter.brand()));
+        }
+        if (filter.state() != null) {
+            predicates.add(cb.equal(root.get("state"), filter.state()));
+        }
+        if (filter.createdAfter() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.<Instant>get("creationTime"), filter.createdAfter()));
+        }
+        if (filter.createdBefore() != null) {
+            predicates.add(cb.lessThan(root.<Instant>get("creationTime"), filter.createdBefore()));
+        }
+        if (filter.anyTags() != null) {
+            // collectionOverlaps() is deprecated for removal; && is what the GIN index on tags serves
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            predicates.add(hcb.isTrue(hcb.sql("? && cast(? as varchar[])", Boolean.class,
+                    root.get("tags"), hcb.value(filter.anyTags().toArray(String[]::new)))));
+        }
+        if (filter.allTags() != null) {
+            predicates.add(((HibernateCriteriaBuilder) cb).collectionIncludes(root.<List<String>>get("tags"), filter.allTags()));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private List<Selection<?>> selections(Root<Device> root, Set<DeviceField> fields) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (DeviceField field : fields) {
+            selections.add(root.get(field.getProperty()).alias(field.getProperty()));
+        }
+        return selections;
+    }
+}
@@ -0,0 +1,112 @@
+package com.devices.api.repository;
+
+import com.devices.api.dto.DeviceStateTransition;
+import com.devices.api.enums.DeviceState;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plain JDBC over {@code device_state_history}: the table is append-only and partitioned
+ * without a primary key, so there is no entity to map, and partitions are managed with DDL.
+ */
+public class DeviceStateHistoryRepository {
+
+    public static final String TABLE = "device_state_history";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_p'uuuuMMdd");
+
+    private static final String INSERT = """
+            INSERT INTO device_state_history (device_id, from_state, to_state, changed_at)
+            SELECT * FROM unnest(CAST(? AS uuid[]), CAST(? AS varchar[]), CAST(? AS varchar[]),
+                                 CAST(? AS timestamptz[]))
+            """;
+
+    private static final String COLUMNS = "SELECT device_id, from_state, to_state, changed_at FROM device_state_history";
+
+    private static final RowMapper<DeviceStateTransition> TRANSITION = (row, rowNum) -> new DeviceStateTransition(
+            row.getObject(1, UUID.class),
+            DeviceState.valueOf(row.getString(2)),
+            DeviceState.valueOf(row.getString(3)),
+            row.getTimestamp(4).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeviceStateHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes all transitions with one multi-row insert.
+     */
+    public void insertAll(List<DeviceStateTransition> transitions) {
+        int size = transitions.size();
+        String[] deviceIds = new String[size];
+        String[] fromStates = new String[size];
+        String[] toStates = new String[size];
+        String[] changedAt = new String[size];
+        for (int i = 0; i < size; i++) {
+            DeviceStateTransition transition = transitions.get(i);
+            deviceIds[i] = transition.deviceId().toString();
+            fromStates[i] = transition.fromState().name();
+            toStates[i] = transition.toState().name();
+            changedAt[i] = transition.changedAt().toString();
+        }
+        jdbcTemplate.update(INSERT, deviceIds, fromStates, toStates, changedAt);
+    }
+
+    public List<DeviceStateTransition> findByDeviceId(UUID deviceId) {
+        return jdbcTemplate.query(COLUMNS + " WHERE device_id = ? ORDER BY changed_at", TRANSITION, deviceId);
+    }
+
+    /**
+     * Transitions from {@code from} (inclusive) to {@code to} (exclusive), oldest first,
+     * reading only the partitions the range overlaps.
+     */
+    public List<DeviceStateTransition> findBetween(Instant from, Instant to, int limit) {
+        return jdbcTemplate.query(COLUMNS + " WHERE changed_at >= ? AND changed_at < ? ORDER BY changed_at LIMIT ?",
+                TRANSITION, Timestamp.from(from), Timestamp.from(to), limit);
+    }
+
+    /**
+     * Days that have a partition, from the partition names.
+     */
+    public List<LocalDate> findPartitionDays() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = CAST(? AS regclass)
+                        """, String.class, TABLE).stream()
+                .map(name -> LocalDate.parse(name.substring(TABLE.length()), PARTITION_SUFFIX))
+                .sorted()
+                .toList();
+    }
+
+    public void createPartition(LocalDate day) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')".formatted(
+                partition(day), TABLE, day.atStartOfDay(ZoneOffset.UTC), day.plusDays(1).atStartOfDay(ZoneOffset.UTC)));
+    }
+
+    /**
+     * Detaches the partition without blocking inserts and reads of the others, then drops it.
+     * A concurrent detach interrupted earlier is finished instead. Must not run inside a transaction.
+     */
+    public void dropPartition(LocalDate day) {
+        String partition = partition(day);
+        Boolean pending = jdbcTemplate.queryForObject(
+                "SELECT inhdetachpending FROM pg_inherits WHERE inhrelid = CAST(? AS regclass)", Boolean.class, partition);
+        jdbcTemplate.execute("ALTER TABLE %s DETACH PARTITION %s %s".formatted(
+                TABLE, partition, Boolean.TRUE.equals(pending) ? "FINALIZE" : "CONCURRENTLY"));
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    private static String partition(LocalDate day) {
+        return TABLE + PARTITION_SUFFIX.format(day);
+    }
+}
@@ -0,0 +1,41 @@
+package com.devices.api.repository;
+
+import com.devices.api.entity.ImportJob;
+import com.devices.api.enums.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress updates come from the import worker outside any service transaction,
+ * so each one commits on its own and is visible to pollers immediately.
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.status = :status, j.startedAt = :startedAt where j.id = :id")
+    void markStarted(UUID id, ImportJobStatus status, Instant startedAt);
+
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.rowsRead = :rowsRead, j.rowsRejected = :rowsRejected where j.id = :id")
+    void updateProgress(UUID id, long rowsRead, long rowsRejected);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ImportJob j
+            set j.status = :status, j.rowsRead = :rowsRead, j.rowsImported = :rowsImported,
+                j.rowsRejected = :rowsRejected, j.failure = :failure, j.finishedAt = :finishedAt
+            where j.id = :id
+            """)
+    void markFinished(UUID id, ImportJobStatus status, long rowsRead, long rowsImported, long rowsRejected,
+                      String failure, Instant finishedAt);
+}
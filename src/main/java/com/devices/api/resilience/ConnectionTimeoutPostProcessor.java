@@ -0,0 +1,47 @@
+package com.devices.api.resilience;
+
+import com.devices.api.sharding.ShardRoutingDataSource;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Caps the connection timeout of every pool behind a {@link DataSource} bean, including
+ * the shard and workload pools of a routing DataSource. The {@link DatabaseCircuitBreaker}
+ * only opens after enough requests failed, so each of them must give up on an unreachable
+ * database quickly rather than after Hikari's default of 30 seconds.
+ */
+public class ConnectionTimeoutPostProcessor implements BeanPostProcessor {
+
+    private final Duration maxConnectionTimeout;
+
+    public ConnectionTimeoutPostProcessor(Duration maxConnectionTimeout) {
+        this.maxConnectionTimeout = maxConnectionTimeout;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            cap(dataSource);
+        }
+        return bean;
+    }
+
+    private void cap(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource pool) {
+            if (pool.getConnectionTimeout() > maxConnectionTimeout.toMillis()) {
+                pool.setConnectionTimeout(maxConnectionTimeout.toMillis());
+            }
+        } else if (dataSource instanceof WorkloadRoutingDataSource workloads) {
+            for (WorkloadClass workload : WorkloadClass.values()) {
+                cap(workloads.getPool(workload));
+            }
+        } else if (dataSource instanceof ShardRoutingDataSource shards) {
+            shards.getShards().forEach(this::cap);
+        }
+    }
+}
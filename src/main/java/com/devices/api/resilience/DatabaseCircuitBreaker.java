@@ -0,0 +1,130 @@
+package com.devices.api.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker for the database. After {@code failureThreshold}
+ * failed calls in a row it opens and rejects calls for {@code openDuration}; then a single
+ * trial call is let through, which closes it again on success or reopens it on failure.
+ * Only the caller holding the {@link Permit#TRIAL} permit can close or reopen a half-open
+ * breaker; calls that started before it opened report into the failure count only.
+ *
+ * <p>Lock-free, so request threads never pin their carrier while checking it.
+ */
+public class DatabaseCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public enum Permit {
+        /** The breaker is open; the call must not go to the database. */
+        REJECTED,
+        /** The breaker is closed. */
+        CALL,
+        /** The single call let through while half-open. */
+        TRIAL;
+
+        public boolean isGranted() {
+            return this != REJECTED;
+        }
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoTime;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openedAt;
+
+    public DatabaseCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    DatabaseCircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoTime) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    /**
+     * Whether a call may go to the database now. A caller that was granted a permit must
+     * hand it back with {@link #onSuccess}, {@link #onFailure} or {@link #release}.
+     */
+    public Permit tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return Permit.CALL;
+        }
+        if (current == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAt < openNanos) {
+                return Permit.REJECTED;
+            }
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return trialInFlight.compareAndSet(false, true) ? Permit.TRIAL : Permit.REJECTED;
+    }
+
+    public void onSuccess(Permit permit) {
+        consecutiveFailures.set(0);
+        if (permit == Permit.TRIAL && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            trialInFlight.set(false);
+            log.info("Database circuit breaker closed");
+        }
+    }
+
+    public void onFailure(Permit permit) {
+        if (permit == Permit.TRIAL) {
+            open();
+            trialInFlight.set(false);
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == State.CLOSED) {
+            open();
+        }
+    }
+
+    /**
+     * Hands back a permit whose call said nothing about the database, such as a request
+     * error or an expired deadline. A released trial lets the next call try instead.
+     */
+    public void release(Permit permit) {
+        if (permit == Permit.TRIAL) {
+            trialInFlight.set(false);
+        }
+    }
+
+    /**
+     * Time until the next trial call is let through, for {@code Retry-After}.
+     */
+    public Duration retryAfter() {
+        long remaining = openNanos - (nanoTime.getAsLong() - openedAt);
+        return Duration.ofNanos(Math.max(0, remaining));
+    }
+
+    private void open() {
+        openedAt = nanoTime.getAsLong();
+        if (state.getAndSet(State.OPEN) != State.OPEN) {
+            log.warn("Database circuit breaker opened after {} consecutive failures; retrying in {} ms",
+                    consecutiveFailures.get(), openNanos / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.devices.api.resilience;
+
+import com.devices.api.deadline.DeadlineContext;
+import com.devices.api.exception.DatabaseUnavailableException;
+import com.devices.api.exception.DeviceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Puts the {@link DatabaseCircuitBreaker} in front of every controller operation.
+ *
+ * <p>Successful {@code GET} responses are remembered per operation and arguments. When the
+ * database fails, or while the breaker is open, reads are answered with the last response
+ * remembered for them, marked with {@value #STALE_HEADER} and {@code Age}. Writes, and reads
+ * with nothing remembered, fail fast with {@link DatabaseUnavailableException}. A statement
+ * cancelled because the request deadline passed is not a database failure.
+ */
+@Aspect
+public class DatabaseCircuitBreakerAspect {
+
+    public static final String STALE_HEADER = "X-Stale-Response";
+
+    private record Key(String operation, List<Object> arguments) {
+    }
+
+    private record Remembered(ResponseEntity<?> response, long storedAt) {
+    }
+
+    private final DatabaseCircuitBreaker breaker;
+    private final Cache<Key, Remembered> lastGood;
+
+    public DatabaseCircuitBreakerAspect(DatabaseCircuitBreaker breaker, long maxStaleDevices, Duration maxStaleAge) {
+        this.breaker = breaker;
+        this.lastGood = Caffeine.newBuilder()
+                .maximumWeight(maxStaleDevices)
+                .weigher((Key key, Remembered remembered) -> remembered.response().getBody() instanceof Collection<?> c
+                        ? c.size() + 1
+                        : 1)
+                .expireAfterWrite(maxStaleAge)
+                .build();
+    }
+
+    @Around("execution(public org.springframework.http.ResponseEntity com.devices.api.controller.*Controller.*(..))")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Key key = AnnotatedElementUtils.hasAnnotation(signature.getMethod(), GetMapping.class)
+                ? new Key(signature.toLongString(), Arrays.asList(joinPoint.getArgs()))
+                : null;
+
+        DatabaseCircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (!permit.isGranted()) {
+            return stale(key, null);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = (ResponseEntity<?>) joinPoint.proceed();
+        } catch (Throwable ex) {
+            if (!isDatabaseUnavailable(ex) || DeadlineContext.isExpired()) {
+                breaker.release(permit);
+                if (key != null && ex instanceof DeviceNotFoundException) {
+                    lastGood.invalidate(key);
+                }
+                throw ex;
+            }
+            breaker.onFailure(permit);
+            return stale(key, ex);
+        }
+
+        breaker.onSuccess(permit);
+        if (key != null && response.getStatusCode().is2xxSuccessful()) {
+            lastGood.put(key, new Remembered(response, System.nanoTime()));
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> stale(Key key, Throwable cause) {
+        Remembered remembered = key != null ? lastGood.getIfPresent(key) : null;
+        if (remembered == null) {
+            throw new DatabaseUnavailableException(breaker.retryAfter(), cause);
+        }
+        long age = Duration.ofNanos(System.nanoTime() - remembered.storedAt()).toSeconds();
+        return ResponseEntity.status(remembered.response().getStatusCode())
+                .headers(remembered.response().getHeaders())
+                .header(STALE_HEADER, "true")
+                .header(HttpHeaders.AGE, String.valueOf(age))
+                .body(remembered.response().getBody());
+    }
+
+    /**
+     * Failures that say nothing about the request itself: no connection, a dropped
+     * connection or a timeout. Constraint violations and lock conflicts mean the database
+     * answered and do not count.
+     */
+    static boolean isDatabaseUnavailable(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException) {
+                return false;
+            }
+            if (cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
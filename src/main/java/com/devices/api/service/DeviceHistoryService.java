@@ -0,0 +1,22 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceStateTransition;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface DeviceHistoryService {
+
+    /**
+     * Every recorded state change of a device, oldest first. Deleted devices keep their
+     * history until it expires.
+     */
+    List<DeviceStateTransition> getDeviceHistory(UUID id);
+
+    /**
+     * State changes of all devices from {@code from} (inclusive) to {@code to} (exclusive),
+     * oldest first, at most {@code limit}.
+     */
+    List<DeviceStateTransition> getTransitions(Instant from, Instant to, int limit);
+}
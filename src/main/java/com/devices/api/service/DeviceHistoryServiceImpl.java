@@ -0,0 +1,30 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceStateTransition;
+import com.devices.api.repository.DeviceStateHistoryRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Each read is a single statement, so it runs without a transaction.
+ */
+public class DeviceHistoryServiceImpl implements DeviceHistoryService {
+
+    private final DeviceStateHistoryRepository historyRepository;
+
+    public DeviceHistoryServiceImpl(DeviceStateHistoryRepository historyRepository) {
+        this.historyRepository = historyRepository;
+    }
+
+    @Override
+    public List<DeviceStateTransition> getDeviceHistory(UUID id) {
+        return historyRepository.findByDeviceId(id);
+    }
+
+    @Override
+    public List<DeviceStateTransition> getTransitions(Instant from, Instant to, int limit) {
+        return historyRepository.findBetween(from, to, limit);
+    }
+}
@@ -0,0 +1,16 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.ImportJobResponse;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+public interface DeviceImportService {
+
+    /**
+     * Stores the upload and queues it for import, returning before any row is read.
+     */
+    ImportJobResponse submit(String fileName, String contentType, InputStream content);
+
+    ImportJobResponse getJob(UUID id);
+}
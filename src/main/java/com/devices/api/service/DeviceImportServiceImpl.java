@@ -0,0 +1,109 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.ImportJobResponse;
+import com.devices.api.dto.ImportRowError;
+import com.devices.api.entity.ImportJob;
+import com.devices.api.entity.ImportJobError;
+import com.devices.api.enums.ImportFormat;
+import com.devices.api.exception.ImportJobNotFoundException;
+import com.devices.api.imports.DeviceImportWorker;
+import com.devices.api.repository.ImportJobErrorRepository;
+import com.devices.api.repository.ImportJobRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+@Service
+public class DeviceImportServiceImpl implements DeviceImportService {
+
+    private final ImportJobRepository jobRepository;
+    private final ImportJobErrorRepository errorRepository;
+    private final DeviceImportWorker worker;
+    private final Executor importExecutor;
+
+    public DeviceImportServiceImpl(ImportJobRepository jobRepository, ImportJobErrorRepository errorRepository,
+                                   DeviceImportWorker worker,
+                                   @Qualifier("deviceImportExecutor") Executor importExecutor) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.worker = worker;
+        this.importExecutor = importExecutor;
+    }
+
+    /**
+     * Not transactional: the job row must be committed before the worker can pick it up.
+     */
+    @Override
+    public ImportJobResponse submit(String fileName, String contentType, InputStream content) {
+        ImportFormat format = ImportFormat.detect(contentType, fileName);
+        Path file = spool(content);
+
+        ImportJob job = new ImportJob();
+        job.setFileName(fileName);
+        job.setFormat(format);
+        try {
+            job = jobRepository.save(job);
+        } catch (RuntimeException ex) {
+            deleteQuietly(file);
+            throw ex;
+        }
+
+        UUID id = job.getId();
+        importExecutor.execute(() -> worker.run(id, format, file));
+        return toResponse(job, List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImportJobResponse getJob(UUID id) {
+        ImportJob job = jobRepository.findById(id)
+                .orElseThrow(() -> new ImportJobNotFoundException(id));
+        return toResponse(job, errorRepository.findByJobIdOrderByLine(id));
+    }
+
+    private static Path spool(InputStream content) {
+        try {
+            Path file = Files.createTempFile("device-import-", ".upload");
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not store the uploaded file", ex);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // left to the temp directory cleanup
+        }
+    }
+
+    private static ImportJobResponse toResponse(ImportJob job, List<ImportJobError> errors) {
+        return new ImportJobResponse(
+                job.getId(),
+                job.getFileName(),
+                job.getFormat(),
+                job.getStatus(),
+                job.getRowsRead(),
+                job.getRowsImported(),
+                job.getRowsRejected(),
+                job.getFailure(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                errors.stream()
+                        .map(error -> new ImportRowError(error.getLine(), error.getMessage()))
+                        .toList());
+    }
+}
@@ -1,12 +1,16 @@
 package com.devices.api.service;
 
+import com.devices.api.dto.DeviceFilter;
 import com.devices.api.dto.DeviceFullUpdateRequest;
 import com.devices.api.dto.DeviceRequest;
 import com.devices.api.dto.DeviceResponse;
 import com.devices.api.dto.DeviceUpdateRequest;
-import com.devices.api.enums.DeviceState;
+import com.devices.api.dto.DeviceUpsertResult;
+import com.devices.api.enums.DeviceField;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface DeviceService {
@@ -15,11 +19,42 @@ public interface DeviceService {
 
     DeviceResponse getById(UUID id);
 
-    List<DeviceResponse> getAll(String brand, DeviceState state);
+    DeviceResponse getById(UUID id, Set<DeviceField> fields);
+
+    List<DeviceResponse> getAll(DeviceFilter filter);
+
+    List<DeviceResponse> getAll(DeviceFilter filter, Set<DeviceField> fields);
+
+    /**
+     * At most {@code limit} devices matching the filter, in no particular order. An empty
+     * {@code fields} set loads every field.
+     */
+    List<DeviceResponse> getAll(DeviceFilter filter, Set<DeviceField> fields, int limit);
+
+    /**
+     * Devices with the given ids, fetched with one query per shard and in no particular
+     * order. Unknown ids are left out; an empty {@code fields} set loads every field.
+     */
+    List<DeviceResponse> getAllById(Collection<UUID> ids, Set<DeviceField> fields);
+
+    long count(DeviceFilter filter);
 
     DeviceResponse update(UUID id, DeviceFullUpdateRequest request);
 
     DeviceResponse partialUpdate(UUID id, DeviceUpdateRequest request);
 
     void delete(UUID id);
+
+    /**
+     * Creates the device or updates the state of the one with the same brand and name.
+     *
+     * @throws com.devices.api.exception.DeviceInUseException if the existing device is in use
+     */
+    DeviceUpsertResult upsert(DeviceRequest request);
+
+    /**
+     * Upserts every device in one statement; results are in request order and devices in
+     * use are reported as {@code IN_USE} instead of failing the batch.
+     */
+    List<DeviceUpsertResult> upsertAll(List<DeviceRequest> requests);
 }
@@ -1,19 +1,38 @@
 package com.devices.api.service;
 
+import com.devices.api.dto.DeviceFilter;
 import com.devices.api.dto.DeviceFullUpdateRequest;
 import com.devices.api.dto.DeviceRequest;
 import com.devices.api.dto.DeviceResponse;
 import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertResult;
 import com.devices.api.entity.Device;
+import com.devices.api.enums.DeviceField;
 import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.UpsertOutcome;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.event.DevicesUpsertedEvent;
 import com.devices.api.exception.DeviceInUseException;
 import com.devices.api.exception.DeviceNotFoundException;
+import com.devices.api.index.DeviceBitmapIndex;
 import com.devices.api.mapper.DeviceMapper;
 import com.devices.api.repository.DeviceRepository;
+import com.devices.api.repository.DeviceRepositoryCustom.UpsertedDevice;
+import com.devices.api.sharding.ShardAwareUuidGenerator;
+import com.devices.api.sharding.ShardContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -22,17 +41,25 @@ public class DeviceServiceImpl implements DeviceService {
 
     private final DeviceRepository deviceRepository;
     private final DeviceMapper deviceMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceBitmapIndex bitmapIndex;
 
-    public DeviceServiceImpl(DeviceRepository deviceRepository, DeviceMapper deviceMapper) {
+    public DeviceServiceImpl(DeviceRepository deviceRepository, DeviceMapper deviceMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             ObjectProvider<DeviceBitmapIndex> bitmapIndex) {
         this.deviceRepository = deviceRepository;
         this.deviceMapper = deviceMapper;
+        this.eventPublisher = eventPublisher;
+        this.bitmapIndex = bitmapIndex.getIfAvailable();
     }
 
     @Override
     public DeviceResponse create(DeviceRequest request) {
         Device device = deviceMapper.toEntity(request);
         Device savedDevice = deviceRepository.save(device);
-        return deviceMapper.toResponse(savedDevice);
+        DeviceResponse response = deviceMapper.toResponse(savedDevice);
+        eventPublisher.publishEvent(DeviceChangedEvent.created(response));
+        return response;
     }
 
     @Override
@@ -44,34 +71,95 @@ public class DeviceServiceImpl implements DeviceService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<DeviceResponse> getAll(String brand, DeviceState state) {
-        List<Device> devices;
+    public List<DeviceResponse> getAll(DeviceFilter filter) {
+        String brand = filter.brand();
+        DeviceState state = filter.state();
 
-        if (brand != null && state != null) {
-            devices = deviceRepository.findByBrandAndState(brand, state);
-        } else if (brand != null) {
-            devices = deviceRepository.findByBrand(brand);
-        } else if (state != null) {
-            devices = deviceRepository.findByState(state);
-        } else {
-            devices = deviceRepository.findAll();
+        List<Device> devices = null;
+        if (!filter.hasCreationTimeRange() && !filter.hasTags() && (brand != null || state != null) && indexReady()) {
+            devices = findIndexed(brand, state);
+        }
+        if (devices == null) {
+            devices = findInDatabase(filter);
         }
 
         return deviceMapper.toResponseList(devices);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public DeviceResponse getById(UUID id, Set<DeviceField> fields) {
+        if (fields.isEmpty()) {
+            return getById(id);
+        }
+
+        return deviceRepository.findProjectedById(id, fields)
+                .map(deviceMapper::fromTuple)
+                .orElseThrow(() -> new DeviceNotFoundException(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeviceResponse> getAll(DeviceFilter filter, Set<DeviceField> fields) {
+        if (fields.isEmpty()) {
+            return getAll(filter);
+        }
+
+        return deviceMapper.fromTuples(deviceRepository.findProjectedBy(filter, fields));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeviceResponse> getAll(DeviceFilter filter, Set<DeviceField> fields, int limit) {
+        Set<DeviceField> selected = fields.isEmpty() ? EnumSet.allOf(DeviceField.class) : fields;
+        return deviceMapper.fromTuples(deviceRepository.findProjectedBy(filter, selected, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeviceResponse> getAllById(Collection<UUID> ids, Set<DeviceField> fields) {
+        UUID[] distinct = ids.stream()
+                .distinct()
+                .toArray(UUID[]::new);
+        if (distinct.length == 0) {
+            return List.of();
+        }
+        if (fields.isEmpty()) {
+            return deviceMapper.toResponseList(deviceRepository.findAllByIdIn(distinct));
+        }
+
+        Set<DeviceField> selected = EnumSet.copyOf(fields);
+        selected.add(DeviceField.ID);
+        return deviceMapper.fromTuples(deviceRepository.findProjectedByIdIn(distinct, selected));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count(DeviceFilter filter) {
+        if (!filter.hasCreationTimeRange() && !filter.hasTags() && indexReady()) {
+            Long count = IndexedCount.count(bitmapIndex, deviceRepository, filter.brand(), filter.state(), currentShard());
+            if (count != null) {
+                return count;
+            }
+        }
+        return deviceRepository.countByFilter(filter);
+    }
+
     @Override
     public DeviceResponse update(UUID id, DeviceFullUpdateRequest request) {
         Device device = findDeviceOrThrow(id);
 
         validateFullUpdateAllowed(device);
+        DeviceResponse previous = deviceMapper.toResponse(device);
 
         device.setName(request.name());
         device.setBrand(request.brand());
         device.setState(request.state());
 
         Device updatedDevice = deviceRepository.save(device);
-        return deviceMapper.toResponse(updatedDevice);
+        DeviceResponse response = deviceMapper.toResponse(updatedDevice);
+        eventPublisher.publishEvent(DeviceChangedEvent.updated(previous, response));
+        return response;
     }
 
     @Override
@@ -79,6 +167,7 @@ public class DeviceServiceImpl implements DeviceService {
         Device device = findDeviceOrThrow(id);
 
         validatePartialUpdateAllowed(device, request);
+        DeviceResponse previous = deviceMapper.toResponse(device);
 
         if (request.name() != null) {
             device.setName(request.name());
@@ -89,9 +178,14 @@ public class DeviceServiceImpl implements DeviceService {
         if (request.state() != null) {
             device.setState(request.state());
         }
+        if (request.tags() != null) {
+            device.setTags(request.tags());
+        }
 
         Device updatedDevice = deviceRepository.save(device);
-        return deviceMapper.toResponse(updatedDevice);
+        DeviceResponse response = deviceMapper.toResponse(updatedDevice);
+        eventPublisher.publishEvent(DeviceChangedEvent.updated(previous, response));
+        return response;
     }
 
     @Override
@@ -103,6 +197,113 @@ public class DeviceServiceImpl implements DeviceService {
         }
 
         deviceRepository.delete(device);
+        eventPublisher.publishEvent(DeviceChangedEvent.deleted(deviceMapper.toResponse(device)));
+    }
+
+    @Override
+    public DeviceUpsertResult upsert(DeviceRequest request) {
+        DeviceUpsertResult result = upsertAll(List.of(request)).getFirst();
+        if (result.outcome() == UpsertOutcome.IN_USE) {
+            throw new DeviceInUseException("Cannot update device that is in use");
+        }
+        return result;
+    }
+
+    @Override
+    public List<DeviceUpsertResult> upsertAll(List<DeviceRequest> requests) {
+        List<Device> devices = new ArrayList<>(requests.size());
+        Set<NaturalKey> keys = new HashSet<>();
+        for (DeviceRequest request : requests) {
+            if (request.tags() != null && !request.tags().isEmpty()) {
+                throw new IllegalArgumentException("Tags cannot be set by an upsert; set them with PATCH");
+            }
+            if (!keys.add(NaturalKey.of(request))) {
+                throw new IllegalArgumentException(
+                        "Duplicate device in batch: brand '" + request.brand() + "', name '" + request.name() + "'");
+            }
+            Device device = deviceMapper.toEntity(request);
+            device.setId(ShardAwareUuidGenerator.nextId());
+            devices.add(device);
+        }
+
+        Map<NaturalKey, UpsertedDevice> upserted = new HashMap<>();
+        for (UpsertedDevice row : deviceRepository.upsertAll(devices)) {
+            upserted.put(NaturalKey.of(row.device()), row);
+        }
+
+        List<DeviceUpsertResult> results = new ArrayList<>(requests.size());
+        List<DeviceChangedEvent> changes = new ArrayList<>(requests.size());
+        for (DeviceRequest request : requests) {
+            UpsertedDevice row = upserted.get(NaturalKey.of(request));
+            if (row == null) {
+                results.add(new DeviceUpsertResult(UpsertOutcome.IN_USE,
+                        new DeviceResponse(null, request.name(), request.brand(), null, null)));
+                continue;
+            }
+
+            DeviceResponse current = deviceMapper.toResponse(row.device());
+            if (row.inserted()) {
+                changes.add(DeviceChangedEvent.created(current));
+                results.add(new DeviceUpsertResult(UpsertOutcome.CREATED, current));
+            } else {
+                DeviceState previousState = row.previousState() != null ? row.previousState() : current.state();
+                DeviceResponse previous = new DeviceResponse(
+                        current.id(), current.name(), current.brand(), previousState, current.creationTime(), current.tags());
+                changes.add(DeviceChangedEvent.updated(previous, current));
+                results.add(new DeviceUpsertResult(UpsertOutcome.UPDATED, current));
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new DevicesUpsertedEvent(changes));
+        }
+        return results;
+    }
+
+    /**
+     * Fetches the bitmap index matches by primary key, together with matching rows written
+     * since the index was last rebuilt, possibly through other instances. Returns
+     * {@code null} above {@link DeviceBitmapIndex#getMaxIdLookup()} matches, which are
+     * cheaper through {@code idx_devices_brand_state}. Rows are re-checked against the
+     * filter because the index may be behind on changes made elsewhere.
+     */
+    private List<Device> findIndexed(String brand, DeviceState state) {
+        Integer shard = currentShard();
+        if (bitmapIndex.count(brand, state, shard) > bitmapIndex.getMaxIdLookup()) {
+            return null;
+        }
+
+        UUID[] ids = bitmapIndex.find(brand, state, shard).toArray(UUID[]::new);
+        return deviceRepository.findAllByIdInOrModifiedSince(ids, brand, state != null ? state.name() : null,
+                        bitmapIndex.syncedSince()).stream()
+                .filter(device -> (brand == null || brand.equals(device.getBrand()))
+                        && (state == null || state == device.getState()))
+                .toList();
+    }
+
+    private List<Device> findInDatabase(DeviceFilter filter) {
+        String brand = filter.brand();
+        DeviceState state = filter.state();
+
+        if (filter.hasCreationTimeRange() || filter.hasTags()) {
+            return deviceRepository.findByFilter(filter);
+        } else if (brand != null && state != null) {
+            return deviceRepository.findByBrandAndState(brand, state);
+        } else if (brand != null) {
+            return deviceRepository.findByBrand(brand);
+        } else if (state != null) {
+            return deviceRepository.findByState(state);
+        }
+        return deviceRepository.findAll();
+    }
+
+    private boolean indexReady() {
+        return bitmapIndex != null && bitmapIndex.isReady();
+    }
+
+    private static Integer currentShard() {
+        ShardContext.Route route = ShardContext.current();
+        return route != null ? route.shard() : null;
     }
 
     private Device findDeviceOrThrow(UUID id) {
@@ -125,4 +326,15 @@ public class DeviceServiceImpl implements DeviceService {
             }
         }
     }
+
+    private record NaturalKey(String brand, String name) {
+
+        static NaturalKey of(DeviceRequest request) {
+            return new NaturalKey(request.brand(), request.name());
+        }
+
+        static NaturalKey of(Device device) {
+            return new NaturalKey(device.getBrand(), device.getName());
+        }
+    }
 }
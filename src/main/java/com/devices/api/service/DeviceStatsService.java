@@ -0,0 +1,12 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceTimelineEntry;
+import com.devices.api.enums.TimelineBucket;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface DeviceStatsService {
+
+    List<DeviceTimelineEntry> getCreationTimeline(TimelineBucket bucket, String brand, Instant from, Instant to);
+}
@@ -0,0 +1,37 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceTimelineEntry;
+import com.devices.api.entity.DeviceCreationRollup;
+import com.devices.api.enums.TimelineBucket;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class DeviceStatsServiceImpl implements DeviceStatsService {
+
+    private final DeviceCreationRollupRepository rollupRepository;
+
+    public DeviceStatsServiceImpl(DeviceCreationRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    @Override
+    public List<DeviceTimelineEntry> getCreationTimeline(TimelineBucket bucket, String brand, Instant from, Instant to) {
+        Instant start = bucket.truncate(from);
+        List<DeviceCreationRollup> rollups = brand != null
+                ? rollupRepository.findTimelineByBrand(bucket, brand, start, to)
+                : rollupRepository.findTimeline(bucket, start, to);
+
+        return rollups.stream()
+                .map(rollup -> new DeviceTimelineEntry(
+                        rollup.getId().getBucketStart(),
+                        rollup.getId().getBrand(),
+                        rollup.getDeviceCount()))
+                .toList();
+    }
+}
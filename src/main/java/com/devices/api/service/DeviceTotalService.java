@@ -0,0 +1,14 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceTotal;
+
+public interface DeviceTotalService {
+
+    /**
+     * Total for a list response. Small results are counted exactly; large unfiltered and
+     * single-filter results are answered from a recent exact count or the planner's row
+     * estimate, so the cost does not grow with the table.
+     */
+    DeviceTotal total(DeviceFilter filter);
+}
@@ -0,0 +1,138 @@
+package com.devices.api.service;
+
+import com.devices.api.config.TotalCountProperties;
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceTotal;
+import com.devices.api.enums.TotalCountSource;
+import com.devices.api.index.DeviceBitmapIndex;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.sharding.ShardContext;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Picks the cheapest total that is good enough. The bitmap index, when ready, counts
+ * almost for free, corrected for the rows changed since its last rebuild; that total is
+ * reported as cached, since it is only as current as the change tracking it is corrected
+ * with. Otherwise the planner estimates the result size from table statistics;
+ * below {@link TotalCountProperties#exactThreshold()} the rows are counted, above it the
+ * last exact count of the filter is returned if one is cached, and the estimate if not.
+ * A missing cached count is computed on a background virtual thread through the bulk pool,
+ * at most once per filter and shard at a time, so no request waits for a full count. At
+ * most {@link TotalCountProperties#maxBackgroundCounts()} run at once; a filter arriving
+ * while all are busy gets the estimate and is counted on a later request.
+ *
+ * <p>Creation time ranges are never cached or counted in the background: their bounds are
+ * usually instants close to the time of the request, so a cached count would hardly ever be
+ * reused and every request would start another full count.
+ *
+ * <p>Filters combining several criteria are always counted: the planner treats the
+ * criteria as independent, which makes its estimate unreliable for correlated columns
+ * such as brand and state.
+ */
+@Transactional(readOnly = true)
+public class DeviceTotalServiceImpl implements DeviceTotalService {
+
+    record Key(DeviceFilter filter, Integer shard) {
+    }
+
+    private final DeviceRepository deviceRepository;
+    private final DeviceBitmapIndex bitmapIndex;
+    private final ShardRouter shardRouter;
+    private final long exactThreshold;
+    private final AsyncCache<Key, Long> exactCounts;
+    private final Semaphore backgroundCounts;
+
+    public DeviceTotalServiceImpl(DeviceRepository deviceRepository, DeviceBitmapIndex bitmapIndex,
+                                  ShardRouter shardRouter, TotalCountProperties properties) {
+        this.deviceRepository = deviceRepository;
+        this.bitmapIndex = bitmapIndex;
+        this.shardRouter = shardRouter;
+        this.exactThreshold = properties.exactThreshold();
+        this.exactCounts = Caffeine.newBuilder()
+                .maximumSize(properties.maxCachedFilters())
+                .expireAfterWrite(properties.cacheTtl())
+                .executor(task -> Thread.ofVirtual().name("device-total-count").start(task))
+                .buildAsync();
+        this.backgroundCounts = new Semaphore(properties.maxBackgroundCounts());
+    }
+
+    @Override
+    public DeviceTotal total(DeviceFilter filter) {
+        if (!filter.hasCreationTimeRange() && !filter.hasTags() && bitmapIndex != null && bitmapIndex.isReady()) {
+            Long indexed = IndexedCount.count(bitmapIndex, deviceRepository, filter.brand(), filter.state(), currentShard());
+            if (indexed != null) {
+                return new DeviceTotal(indexed, TotalCountSource.CACHED);
+            }
+        }
+        if (criteria(filter) > 1) {
+            return DeviceTotal.exact(deviceRepository.countByFilter(filter));
+        }
+
+        long estimate = deviceRepository.estimateCountByFilter(filter);
+        if (estimate < exactThreshold) {
+            return DeviceTotal.exact(deviceRepository.countByFilter(filter));
+        }
+
+        if (filter.hasCreationTimeRange()) {
+            return new DeviceTotal(estimate, TotalCountSource.ESTIMATE);
+        }
+        CompletableFuture<Long> cached = cachedCount(new Key(filter, currentShard()));
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            return new DeviceTotal(cached.join(), TotalCountSource.CACHED);
+        }
+        return new DeviceTotal(estimate, TotalCountSource.ESTIMATE);
+    }
+
+    /**
+     * The cached or running count of {@code key}, starting one if a permit is free; {@code null}
+     * when there is none and every permit is taken.
+     */
+    private CompletableFuture<Long> cachedCount(Key key) {
+        CompletableFuture<Long> cached = exactCounts.getIfPresent(key);
+        if (cached != null || !backgroundCounts.tryAcquire()) {
+            return cached;
+        }
+        AtomicBoolean started = new AtomicBoolean();
+        cached = exactCounts.get(key, (k, executor) -> {
+            started.set(true);
+            return CompletableFuture.supplyAsync(() -> countInBackground(k), executor)
+                    .whenComplete((count, failure) -> backgroundCounts.release());
+        });
+        if (!started.get()) {
+            backgroundCounts.release();
+        }
+        return cached;
+    }
+
+    private long countInBackground(Key key) {
+        Supplier<Long> count = () -> WorkloadContext.call(WorkloadClass.BULK,
+                () -> deviceRepository.countByFilter(key.filter()));
+        return key.shard() != null ? shardRouter.on(key.shard(), count) : count.get();
+    }
+
+    /**
+     * A creation time range counts as one criterion, whether it is bounded on one side or both.
+     */
+    private static int criteria(DeviceFilter filter) {
+        return (filter.brand() != null ? 1 : 0)
+                + (filter.state() != null ? 1 : 0)
+                + (filter.hasCreationTimeRange() ? 1 : 0)
+                + (filter.anyTags() != null ? 1 : 0)
+                + (filter.allTags() != null ? 1 : 0);
+    }
+
+    private static Integer currentShard() {
+        ShardContext.Route route = ShardContext.current();
+        return route != null ? route.shard() : null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.devices.api.service;
+
+import com.devices.api.enums.DeviceState;
+import com.devices.api.index.DeviceBitmapIndex;
+import com.devices.api.repository.DeviceRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Counts from the bitmap index, corrected for rows written since it was last rebuilt,
+ * possibly through other instances: index matches modified or tombstoned since
+ * {@link DeviceBitmapIndex#syncedSince()} are left out and the modified rows that match
+ * are counted in the database instead.
+ */
+final class IndexedCount {
+
+    /** Most changed ids read for one count; beyond that a plain database count is cheaper. */
+    static final int MAX_CHANGES = 100_000;
+
+    private IndexedCount() {
+    }
+
+    /**
+     * Returns {@code null} when more than {@link #MAX_CHANGES} rows changed since the rebuild.
+     */
+    static Long count(DeviceBitmapIndex bitmapIndex, DeviceRepository deviceRepository,
+                      String brand, DeviceState state, Integer shard) {
+        Instant since = bitmapIndex.syncedSince();
+        List<UUID> changed = deviceRepository.findIdsChangedSince(since, MAX_CHANGES + 1);
+        if (changed.size() > MAX_CHANGES) {
+            return null;
+        }
+        if (changed.isEmpty()) {
+            return bitmapIndex.count(brand, state, shard);
+        }
+        return bitmapIndex.count(brand, state, shard, changed)
+                + deviceRepository.countModifiedSince(brand, state != null ? state.name() : null, since);
+    }
+}
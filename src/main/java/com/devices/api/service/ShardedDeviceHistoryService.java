@@ -0,0 +1,39 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceStateTransition;
+import com.devices.api.sharding.ShardRouter;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * History is stored on the shard of its device; a device's history is read from that shard
+ * and a time window from all of them, keeping the oldest {@code limit} transitions overall.
+ */
+public class ShardedDeviceHistoryService implements DeviceHistoryService {
+
+    private final DeviceHistoryService delegate;
+    private final ShardRouter router;
+
+    public ShardedDeviceHistoryService(DeviceHistoryService delegate, ShardRouter router) {
+        this.delegate = delegate;
+        this.router = router;
+    }
+
+    @Override
+    public List<DeviceStateTransition> getDeviceHistory(UUID id) {
+        return router.on(router.shardFor(id), () -> delegate.getDeviceHistory(id));
+    }
+
+    @Override
+    public List<DeviceStateTransition> getTransitions(Instant from, Instant to, int limit) {
+        return router.onEveryShard(() -> delegate.getTransitions(from, to, limit)).stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(DeviceStateTransition::changedAt))
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,190 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceFullUpdateRequest;
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertResult;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.exception.CrossShardRenameException;
+import com.devices.api.sharding.ShardContext;
+import com.devices.api.sharding.ShardRouter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Routes single-device operations to the shard owning the id and scatters list queries
+ * across all shards. New devices are placed by their (brand, name) key so that creations
+ * and upserts of the same key always meet on one shard. Each call runs the unsharded
+ * {@link DeviceServiceImpl} inside a single-shard transaction, so writes never coordinate
+ * across shards. Updates may not move a device's key to another shard.
+ */
+public class ShardedDeviceService implements DeviceService {
+
+    private final DeviceService delegate;
+    private final ShardRouter router;
+
+    public ShardedDeviceService(DeviceService delegate, ShardRouter router) {
+        this.delegate = delegate;
+        this.router = router;
+    }
+
+    @Override
+    public DeviceResponse create(DeviceRequest request) {
+        return router.on(router.shardForKey(request.brand(), request.name()), () -> delegate.create(request));
+    }
+
+    @Override
+    public DeviceResponse getById(UUID id) {
+        return router.on(router.shardFor(id), () -> delegate.getById(id));
+    }
+
+    @Override
+    public DeviceResponse getById(UUID id, Set<DeviceField> fields) {
+        return router.on(router.shardFor(id), () -> delegate.getById(id, fields));
+    }
+
+    @Override
+    public List<DeviceResponse> getAll(DeviceFilter filter) {
+        return merge(router.onEveryShard(() -> delegate.getAll(filter)));
+    }
+
+    @Override
+    public List<DeviceResponse> getAll(DeviceFilter filter, Set<DeviceField> fields) {
+        return merge(router.onEveryShard(() -> delegate.getAll(filter, fields)));
+    }
+
+    /**
+     * Every shard returns up to {@code limit} devices and the merged list is cut to the limit.
+     */
+    @Override
+    public List<DeviceResponse> getAll(DeviceFilter filter, Set<DeviceField> fields, int limit) {
+        List<DeviceResponse> merged = merge(router.onEveryShard(() -> delegate.getAll(filter, fields, limit)));
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Each shard looks up only the ids it owns; shards owning none of them skip the query.
+     */
+    @Override
+    public List<DeviceResponse> getAllById(Collection<UUID> ids, Set<DeviceField> fields) {
+        Map<Integer, List<UUID>> idsByShard = ids.stream().distinct().collect(Collectors.groupingBy(router::shardFor));
+        if (idsByShard.isEmpty()) {
+            return List.of();
+        }
+        if (idsByShard.size() == 1) {
+            Map.Entry<Integer, List<UUID>> only = idsByShard.entrySet().iterator().next();
+            return router.on(only.getKey(), () -> delegate.getAllById(only.getValue(), fields));
+        }
+        return merge(router.onEveryShard(() -> {
+            List<UUID> owned = idsByShard.get(ShardContext.current().shard());
+            return owned != null ? delegate.getAllById(owned, fields) : List.of();
+        }));
+    }
+
+    @Override
+    public long count(DeviceFilter filter) {
+        return router.onEveryShard(() -> delegate.count(filter)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public DeviceResponse update(UUID id, DeviceFullUpdateRequest request) {
+        int shard = router.shardFor(id);
+        requireKeyOnShard(shard, request.brand(), request.name());
+        return router.on(shard, () -> delegate.update(id, request));
+    }
+
+    /**
+     * A rename of only the brand or only the name reads the other one first, and the update
+     * then writes both, so the key it checked is the key the row ends up with.
+     */
+    @Override
+    public DeviceResponse partialUpdate(UUID id, DeviceUpdateRequest request) {
+        int shard = router.shardFor(id);
+        if (request.brand() == null && request.name() == null) {
+            return router.on(shard, () -> delegate.partialUpdate(id, request));
+        }
+
+        return router.on(shard, () -> {
+            DeviceUpdateRequest renamed = request;
+            if (request.brand() == null || request.name() == null) {
+                DeviceResponse current = delegate.getById(id, EnumSet.of(DeviceField.BRAND, DeviceField.NAME));
+                renamed = new DeviceUpdateRequest(
+                        request.name() != null ? request.name() : current.name(),
+                        request.brand() != null ? request.brand() : current.brand(),
+                        request.state(),
+                        request.tags());
+            }
+            requireKeyOnShard(shard, renamed.brand(), renamed.name());
+            return delegate.partialUpdate(id, renamed);
+        });
+    }
+
+    @Override
+    public void delete(UUID id) {
+        router.on(router.shardFor(id), () -> {
+            delegate.delete(id);
+            return null;
+        });
+    }
+
+    @Override
+    public DeviceUpsertResult upsert(DeviceRequest request) {
+        return router.on(router.shardForKey(request.brand(), request.name()), () -> delegate.upsert(request));
+    }
+
+    /**
+     * Splits the batch by owning shard and runs one statement per shard; each shard
+     * commits on its own.
+     */
+    @Override
+    public List<DeviceUpsertResult> upsertAll(List<DeviceRequest> requests) {
+        Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            DeviceRequest request = requests.get(i);
+            positionsByShard.computeIfAbsent(router.shardForKey(request.brand(), request.name()),
+                    shard -> new ArrayList<>()).add(i);
+        }
+
+        DeviceUpsertResult[] results = new DeviceUpsertResult[requests.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            List<DeviceRequest> batch = positions.stream().map(requests::get).toList();
+            List<DeviceUpsertResult> shardResults = router.on(shard, () -> delegate.upsertAll(batch));
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = shardResults.get(i);
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Devices are created on the shard of their (brand, name) key and keep it in their id, so
+     * the unique index only catches duplicates of keys that stay on their device's shard. A
+     * rename that would belong on another shard is rejected rather than creating a key that
+     * a later create or upsert, routed by key, could duplicate there.
+     */
+    private void requireKeyOnShard(int shard, String brand, String name) {
+        int keyShard = router.shardForKey(brand, name);
+        if (keyShard != shard) {
+            throw new CrossShardRenameException(brand, name);
+        }
+    }
+
+    private static List<DeviceResponse> merge(List<List<DeviceResponse>> perShard) {
+        return perShard.stream()
+                .flatMap(Collection::stream)
+                .toList();
+    }
+}
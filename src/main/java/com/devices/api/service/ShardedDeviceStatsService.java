@@ -0,0 +1,44 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceTimelineEntry;
+import com.devices.api.enums.TimelineBucket;
+import com.devices.api.sharding.ShardRouter;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Each shard keeps rollups for its own devices; timelines are summed per bucket and brand.
+ */
+public class ShardedDeviceStatsService implements DeviceStatsService {
+
+    private static final Comparator<DeviceTimelineEntry> TIMELINE_ORDER =
+            Comparator.comparing(DeviceTimelineEntry::bucketStart).thenComparing(DeviceTimelineEntry::brand);
+
+    private final DeviceStatsService delegate;
+    private final ShardRouter router;
+
+    public ShardedDeviceStatsService(DeviceStatsService delegate, ShardRouter router) {
+        this.delegate = delegate;
+        this.router = router;
+    }
+
+    @Override
+    public List<DeviceTimelineEntry> getCreationTimeline(TimelineBucket bucket, String brand, Instant from, Instant to) {
+        List<List<DeviceTimelineEntry>> perShard =
+                router.onEveryShard(() -> delegate.getCreationTimeline(bucket, brand, from, to));
+
+        Map<DeviceTimelineEntry, Long> totals = new TreeMap<>(TIMELINE_ORDER);
+        perShard.stream()
+                .flatMap(Collection::stream)
+                .forEach(entry -> totals.merge(entry, entry.count(), Long::sum));
+
+        return totals.entrySet().stream()
+                .map(total -> new DeviceTimelineEntry(total.getKey().bucketStart(), total.getKey().brand(), total.getValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceTotal;
+import com.devices.api.enums.TotalCountSource;
+import com.devices.api.sharding.ShardRouter;
+
+import java.util.List;
+
+/**
+ * Totals are summed across shards and reported with the least accurate source any shard used.
+ */
+public class ShardedDeviceTotalService implements DeviceTotalService {
+
+    private final DeviceTotalService delegate;
+    private final ShardRouter router;
+
+    public ShardedDeviceTotalService(DeviceTotalService delegate, ShardRouter router) {
+        this.delegate = delegate;
+        this.router = router;
+    }
+
+    @Override
+    public DeviceTotal total(DeviceFilter filter) {
+        List<DeviceTotal> perShard = router.onEveryShard(() -> delegate.total(filter));
+
+        long count = 0;
+        TotalCountSource source = TotalCountSource.EXACT;
+        for (DeviceTotal total : perShard) {
+            count += total.count();
+            if (total.source().compareTo(source) > 0) {
+                source = total.source();
+            }
+        }
+        return new DeviceTotal(count, source);
+    }
+}
@@ -0,0 +1,43 @@
+package com.devices.api.sharding;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+/**
+ * Draws random UUIDs until one maps to the current shard, so a device can later be
+ * found from its id alone. Takes on average {@code shardCount} draws; outside
+ * sharded mode it is a plain random UUID.
+ */
+public class ShardAwareUuidGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return nextId();
+    }
+
+    /**
+     * Id for a device inserted outside Hibernate, such as by a native upsert.
+     */
+    public static UUID nextId() {
+        ShardContext.Route route = ShardContext.current();
+        UUID id = UUID.randomUUID();
+        if (route == null) {
+            return id;
+        }
+        while (ShardRouter.shardOf(id, route.shardCount()) != route.shard()) {
+            id = UUID.randomUUID();
+        }
+        return id;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,37 @@
+package com.devices.api.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard selected for the current thread. Read by {@link ShardRoutingDataSource} when a
+ * transaction acquires its connection and by {@link ShardAwareUuidGenerator} on insert,
+ * so it must be set before the transactional service method is entered.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public record Route(int shard, int shardCount) {
+    }
+
+    public static Route current() {
+        return CURRENT.get();
+    }
+
+    static <T> T callOn(Route route, Supplier<T> action) {
+        Route previous = CURRENT.get();
+        CURRENT.set(route);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
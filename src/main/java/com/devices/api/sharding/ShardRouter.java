@@ -0,0 +1,107 @@
+package com.devices.api.sharding;
+
+import com.devices.api.deadline.Deadline;
+import com.devices.api.deadline.DeadlineContext;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Maps device ids to shards and runs work against one or all of them.
+ * The mapping is a pure function of the id and the shard count, so changing the
+ * number of shards requires moving existing rows.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public static int shardOf(UUID id, int shardCount) {
+        return (int) Math.floorMod(id.getMostSignificantBits() ^ id.getLeastSignificantBits(), (long) shardCount);
+    }
+
+    public int shardFor(UUID id) {
+        return shardOf(id, shardCount);
+    }
+
+    /**
+     * Shard for a new device, derived from its natural key so that every device with the
+     * same (brand, name) is created on the same shard and the per-shard unique index keeps
+     * the key unique across the fleet. {@link String#hashCode()} is specified, so the mapping
+     * is stable across JVMs and restarts.
+     */
+    public static int shardOf(String brand, String name, int shardCount) {
+        return Math.floorMod(31 * brand.hashCode() + name.hashCode(), shardCount);
+    }
+
+    public int shardForKey(String brand, String name) {
+        return shardOf(brand, name, shardCount);
+    }
+
+    public <T> T on(int shard, Supplier<T> action) {
+        return ShardContext.callOn(new ShardContext.Route(shard, shardCount), action);
+    }
+
+    /**
+     * Runs {@code action} on every shard in parallel, one virtual thread per shard,
+     * and returns the results in shard order. The workload class and deadline of the
+     * calling thread carry over to the shard threads.
+     */
+    public <T> List<T> onEveryShard(Supplier<T> action) {
+        if (shardCount == 1) {
+            return List.of(on(0, action));
+        }
+
+        WorkloadClass workload = WorkloadContext.current();
+        Deadline deadline = DeadlineContext.current();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                int target = shard;
+                futures.add(executor.submit(() -> WorkloadContext.call(workload,
+                        () -> DeadlineContext.call(deadline, () -> on(target, action)))));
+            }
+
+            List<T> results = new ArrayList<>(shardCount);
+            for (Future<T> future : futures) {
+                results.add(join(future));
+            }
+            return results;
+        }
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Shard query failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", ex);
+        }
+    }
+}
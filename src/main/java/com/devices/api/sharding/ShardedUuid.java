@@ -0,0 +1,17 @@
+package com.devices.api.sharding;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Random UUID identifier that, in sharded mode, hashes to the shard it is inserted into.
+ */
+@IdGeneratorType(ShardAwareUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ShardedUuid {
+}
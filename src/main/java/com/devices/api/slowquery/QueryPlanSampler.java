@@ -0,0 +1,136 @@
+package com.devices.api.slowquery;
+
+import com.devices.api.sharding.ShardContext;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs {@code EXPLAIN (ANALYZE, BUFFERS)} for a sample of slow {@code SELECT}s, re-binding the
+ * original parameters, on a virtual thread of its own so the request that was slow is not
+ * delayed further. The plan is taken on the shard the statement ran on, in the bulk pool when
+ * workload pools are enabled, and in a read-only transaction that is rolled back, so a
+ * statement that slipped past {@link #isSelect} fails instead of writing or locking rows.
+ * Postgres prints the re-bound values in conditions, so they are replaced with {@code ?}
+ * before the plan is kept. When the maximum number of plans is already being taken, the
+ * query is recorded without one.
+ */
+public class QueryPlanSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanSampler.class);
+
+    /** FOR UPDATE, FOR NO KEY UPDATE, FOR SHARE and FOR KEY SHARE all take row locks. */
+    private static final Pattern LOCKING_CLAUSE = Pattern.compile(
+            "\\bfor\\s+(update|no\\s+key\\s+update|share|key\\s+share)\\b", Pattern.CASE_INSENSITIVE);
+
+    /** Index Cond, Recheck Cond, Hash Cond, Filter, Join Filter and the like, not Rows Removed by Filter. */
+    private static final Pattern CONDITION = Pattern.compile("^(\\s*(?:[\\w-]+ )?(?:Cond|Filter): )(.*)$", Pattern.MULTILINE);
+
+    /** Quoted constants, including arrays such as {@code '{a,b}'::text[]}, with doubled quotes inside. */
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    /** Numbers that are not part of a name, a {@code $1} parameter or a type modifier like {@code varchar(255)}. */
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w$.]|[a-z]\\()-?\\d+(?:\\.\\d+)?(?![\\w.])");
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final double sampleRate;
+    private final int timeoutSeconds;
+    private final Semaphore permits;
+
+    /**
+     * @param shardRouter {@code null} unless sharded
+     */
+    public QueryPlanSampler(DataSource dataSource, ShardRouter shardRouter, double sampleRate,
+                            Duration timeout, int maxConcurrent) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.sampleRate = sampleRate;
+        this.timeoutSeconds = (int) Math.max(1, timeout.toSeconds());
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Hands the query to {@code record}, with a plan if it was sampled.
+     */
+    public void sample(SlowQuery query, List<ParameterSetOperation> parameters, Consumer<SlowQuery> record) {
+        if (!isSelect(query.sql()) || ThreadLocalRandom.current().nextDouble() >= sampleRate || !permits.tryAcquire()) {
+            record.accept(query);
+            return;
+        }
+        ShardContext.Route route = ShardContext.current();
+        Thread.ofVirtual().name("slow-query-plan").start(() -> {
+            try {
+                record.accept(query.withPlan(explainOn(route, query.sql(), parameters)));
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private String explainOn(ShardContext.Route route, String sql, List<ParameterSetOperation> parameters) {
+        if (shardRouter != null && route != null) {
+            return shardRouter.on(route.shard(), () -> explain(sql, parameters));
+        }
+        return explain(sql, parameters);
+    }
+
+    private String explain(String sql, List<ParameterSetOperation> parameters) {
+        return WorkloadContext.call(WorkloadClass.BULK, () -> {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                    statement.setQueryTimeout(timeoutSeconds);
+                    for (ParameterSetOperation parameter : parameters) {
+                        parameter.getMethod().invoke(statement, parameter.getArgs());
+                    }
+                    StringJoiner plan = new StringJoiner("\n");
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            plan.add(rows.getString(1));
+                        }
+                    }
+                    return redact(plan.toString());
+                } finally {
+                    connection.rollback();
+                }
+            } catch (SQLException | ReflectiveOperationException ex) {
+                log.debug("Could not explain slow query: {}", sql, ex);
+                return "EXPLAIN failed: " + ex.getMessage();
+            }
+        });
+    }
+
+    /**
+     * Replaces the constants in the plan's conditions with {@code ?}, like the statement text.
+     */
+    static String redact(String plan) {
+        return CONDITION.matcher(plan).replaceAll(line -> {
+            String condition = STRING_LITERAL.matcher(line.group(2)).replaceAll("?");
+            condition = NUMERIC_LITERAL.matcher(condition).replaceAll("?");
+            return Matcher.quoteReplacement(line.group(1) + condition);
+        });
+    }
+
+    static boolean isSelect(String sql) {
+        return sql.regionMatches(true, 0, "select", 0, 6) && !LOCKING_CLAUSE.matcher(sql).find();
+    }
+}
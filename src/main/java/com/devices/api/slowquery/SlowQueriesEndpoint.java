@@ -0,0 +1,29 @@
+package com.devices.api.slowquery;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/slowqueries?limit=N} lists the N most recent slow queries, newest first.
+ */
+@WebEndpoint(id = "slowqueries")
+public class SlowQueriesEndpoint {
+
+    private final SlowQueryLog log;
+
+    public SlowQueriesEndpoint(SlowQueryLog log) {
+        this.log = log;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<List<SlowQuery>> recent(@Nullable Integer limit) {
+        if (limit != null && limit <= 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        return new WebEndpointResponse<>(log.recent(limit != null ? limit : Integer.MAX_VALUE));
+    }
+}
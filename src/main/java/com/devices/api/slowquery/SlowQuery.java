@@ -0,0 +1,27 @@
+package com.devices.api.slowquery;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement that took longer than the slow-query threshold.
+ *
+ * @param endpoint   handler that issued it, e.g. {@code GET /api/v1/devices/{id}}; {@code null}
+ *                   outside a request
+ * @param parameters type of each bound parameter, never its value
+ * @param batchSize  parameter sets executed together; the shape is that of the first
+ * @param plan       {@code EXPLAIN (ANALYZE, BUFFERS)} output, {@code null} unless sampled
+ */
+public record SlowQuery(
+        Instant at,
+        String endpoint,
+        long elapsedMillis,
+        String sql,
+        List<String> parameters,
+        int batchSize,
+        String plan) {
+
+    SlowQuery withPlan(String plan) {
+        return new SlowQuery(at, endpoint, elapsedMillis, sql, parameters, batchSize, plan);
+    }
+}
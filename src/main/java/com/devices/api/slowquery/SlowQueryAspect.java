@@ -0,0 +1,35 @@
+package com.devices.api.slowquery;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.sql.Connection;
+
+/**
+ * Times every statement by handing out connections wrapped in a JDBC proxy that reports to
+ * the {@link SlowQueryListener}, whichever DataSource bean or routing DataSource they come from.
+ */
+@Aspect
+public class SlowQueryAspect {
+
+    private final ProxyConfig proxyConfig;
+
+    public SlowQueryAspect(SlowQueryListener listener) {
+        this.proxyConfig = ProxyConfig.Builder.create()
+                .dataSourceName("devices")
+                .queryListener(listener)
+                .build();
+    }
+
+    @Around("execution(* javax.sql.DataSource.getConnection(..))")
+    public Object timeStatements(ProceedingJoinPoint joinPoint) throws Throwable {
+        Connection connection = (Connection) joinPoint.proceed();
+        ConnectionInfo connectionInfo = new ConnectionInfo();
+        connectionInfo.setDataSourceName(proxyConfig.getDataSourceName());
+        return JdbcProxyFactory.DEFAULT.createConnection(connection, connectionInfo, proxyConfig);
+    }
+}
@@ -0,0 +1,85 @@
+package com.devices.api.slowquery;
+
+import jakarta.servlet.http.HttpServletRequest;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Array;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records statements slower than the threshold in the {@link SlowQueryLog}, tagged with the
+ * endpoint of the current request and the shape of their parameters. Faster statements cost
+ * one comparison.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private final SlowQueryLog log;
+    private final QueryPlanSampler sampler;
+    private final long thresholdMillis;
+    private final Clock clock;
+
+    public SlowQueryListener(SlowQueryLog log, QueryPlanSampler sampler, Duration threshold, Clock clock) {
+        this.log = log;
+        this.sampler = sampler;
+        this.thresholdMillis = threshold.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis || queryInfoList.isEmpty()) {
+            return;
+        }
+        QueryInfo query = queryInfoList.getFirst();
+        String sql = query.getQuery().strip();
+        if (sql.regionMatches(true, 0, "EXPLAIN", 0, 7)) {
+            // The sampler's own plans
+            return;
+        }
+        List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                ? List.of() : query.getParametersList().getFirst();
+        SlowQuery slowQuery = new SlowQuery(clock.instant(), endpoint(), execInfo.getElapsedTime(), sql,
+                shape(parameters), execInfo.isBatch() ? execInfo.getBatchSize() : 1, null);
+        sampler.sample(slowQuery, parameters, log::add);
+    }
+
+    static List<String> shape(List<ParameterSetOperation> parameters) {
+        List<String> shape = new ArrayList<>(parameters.size());
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            Object value = args.length > 1 ? args[1] : null;
+            if (value == null || ParameterSetOperation.isSetNullParameterOperation(parameter)) {
+                shape.add("null");
+            } else if (value.getClass().isArray()) {
+                shape.add(value.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(value) + "]");
+            } else if (value instanceof java.sql.Array) {
+                shape.add("Array");
+            } else {
+                shape.add(value.getClass().getSimpleName());
+            }
+        }
+        return shape;
+    }
+
+    private static String endpoint() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
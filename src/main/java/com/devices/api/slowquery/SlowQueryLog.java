@@ -0,0 +1,47 @@
+package com.devices.api.slowquery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The last {@code capacity} slow queries, newest overwriting oldest.
+ */
+public class SlowQueryLog {
+
+    private final AtomicReferenceArray<SlowQuery> entries;
+    private final AtomicLong recorded = new AtomicLong();
+
+    public SlowQueryLog(int capacity) {
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(SlowQuery query) {
+        long sequence = recorded.getAndIncrement();
+        entries.set((int) (sequence % entries.length()), query);
+    }
+
+    /**
+     * Up to {@code limit} entries, newest first.
+     */
+    public List<SlowQuery> recent(int limit) {
+        long last = recorded.get();
+        int count = (int) Math.min(Math.min(limit, entries.length()), last);
+        List<SlowQuery> recent = new ArrayList<>(count);
+        for (long sequence = last - 1; sequence >= last - count; sequence--) {
+            SlowQuery query = entries.get((int) (sequence % entries.length()));
+            if (query != null) {
+                recent.add(query);
+            }
+        }
+        return recent;
+    }
+
+    /**
+     * Slow queries recorded since startup, including those already overwritten.
+     */
+    public long recorded() {
+        return recorded.get();
+    }
+}
@@ -0,0 +1,16 @@
+package com.devices.api.snapshot;
+
+import com.devices.api.enums.DeviceState;
+
+import java.util.UUID;
+
+/**
+ * Receives a catalog as {@link CatalogSnapshotManager} loads it: every device in the snapshot
+ * or scan, then the rows modified and deleted since, as edits in that order.
+ */
+public interface CatalogSink {
+
+    void upsert(UUID id, String brand, DeviceState state);
+
+    void remove(UUID id);
+}
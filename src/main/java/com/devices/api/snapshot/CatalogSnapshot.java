@@ -0,0 +1,227 @@
+package com.devices.api.snapshot;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary copy of the device catalog (id, brand, state and creation time; names are
+ * not kept). Brands are dictionary-encoded and every device is a fixed 29-byte record:
+ *
+ * <pre>
+ * header   magic:int version:int watermark:long(epoch micros) brands:int devices:int
+ * brands   length:short utf8:byte[length]  (repeated)
+ * devices  msb:long lsb:long brand:int state:byte creationTime:long(epoch micros)  (repeated)
+ * trailer  crc32c:int  over everything above
+ * </pre>
+ *
+ * The watermark is the instant the catalog scan started; rows changed after it are caught
+ * up from the database. Files are limited to 2 GB, the most a single mapping can hold.
+ */
+public record CatalogSnapshot(Instant watermark, List<DeviceResponse> devices) {
+
+    static final int MAGIC = 0x44564353; // "DVCS"
+    static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+    private static final int RECORD_BYTES = 8 + 8 + 4 + 1 + 8;
+
+    /** A single mapping is limited to 2 GB, about 74 million devices. */
+    private static final long MAX_BYTES = Integer.MAX_VALUE;
+    private static final DeviceState[] STATES = DeviceState.values();
+
+    /**
+     * Writes to a sibling temporary file and renames it over {@code file}, so readers
+     * only ever map a complete snapshot.
+     */
+    public void writeTo(Path file) throws IOException {
+        Map<String, Integer> brandIds = new HashMap<>();
+        List<byte[]> brands = new ArrayList<>();
+        for (DeviceResponse device : devices) {
+            brandIds.computeIfAbsent(device.brand(), brand -> {
+                brands.add(brand.getBytes(StandardCharsets.UTF_8));
+                return brands.size() - 1;
+            });
+        }
+
+        long size = HEADER_BYTES + 4 + (long) RECORD_BYTES * devices.size();
+        for (byte[] brand : brands) {
+            size += 2 + brand.length;
+        }
+
+        if (size > MAX_BYTES) {
+            throw new IOException("Catalog of " + devices.size() + " devices is too large for a snapshot");
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(toMicros(watermark))
+                        .putInt(brands.size())
+                        .putInt(devices.size());
+                for (byte[] brand : brands) {
+                    buffer.putShort((short) brand.length).put(brand);
+                }
+                for (DeviceResponse device : devices) {
+                    buffer.putLong(device.id().getMostSignificantBits())
+                            .putLong(device.id().getLeastSignificantBits())
+                            .putInt(brandIds.get(device.brand()))
+                            .put((byte) device.state().ordinal())
+                            .putLong(toMicros(device.creationTime()));
+                }
+                buffer.putInt(checksum(buffer, buffer.position()));
+                buffer.force();
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps {@code file} read-only and checks it is a complete snapshot of this version.
+     * Records are decoded only when {@link Mapped#forEach} visits them.
+     *
+     * @throws IOException if the file cannot be read or is not a complete snapshot of this version
+     */
+    public static Mapped map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 4) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            if (size > MAX_BYTES) {
+                throw new IOException("Snapshot " + file + " is larger than a mapping can hold");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Snapshot " + file + " has an unsupported format");
+            }
+            int end = (int) size - 4;
+            if (buffer.getInt(end) != checksum(buffer, end)) {
+                throw new IOException("Snapshot " + file + " failed its checksum");
+            }
+
+            Instant watermark = fromMicros(buffer.getLong());
+            String[] brands = new String[buffer.getInt()];
+            int deviceCount = buffer.getInt();
+            for (int i = 0; i < brands.length; i++) {
+                byte[] brand = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(brand);
+                brands[i] = new String(brand, StandardCharsets.UTF_8);
+            }
+            if (end - buffer.position() != (long) RECORD_BYTES * deviceCount) {
+                throw new IOException("Snapshot " + file + " is corrupt");
+            }
+            return new Mapped(file, watermark, brands, deviceCount, buffer.slice(buffer.position(), end - buffer.position()));
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | NegativeArraySizeException ex) {
+            throw new IOException("Snapshot " + file + " is corrupt", ex);
+        }
+    }
+
+    /**
+     * Reads every record into memory. Warm starts visit the records with {@link #map} instead.
+     */
+    public static CatalogSnapshot mapFrom(Path file) throws IOException {
+        Mapped mapped = map(file);
+        List<DeviceResponse> devices = new ArrayList<>(mapped.size());
+        mapped.forEach((id, brand, state, creationTime) ->
+                devices.add(new DeviceResponse(id, null, brand, state, creationTime)));
+        return new CatalogSnapshot(mapped.watermark(), devices);
+    }
+
+    /**
+     * Receives the records of a snapshot in file order.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+
+        void visit(UUID id, String brand, DeviceState state, Instant creationTime);
+    }
+
+    /**
+     * A validated snapshot whose records are still only in the mapping.
+     */
+    public static final class Mapped {
+
+        private final Path file;
+        private final Instant watermark;
+        private final String[] brands;
+        private final int size;
+        private final ByteBuffer records;
+
+        private Mapped(Path file, Instant watermark, String[] brands, int size, ByteBuffer records) {
+            this.file = file;
+            this.watermark = watermark;
+            this.brands = brands;
+            this.size = size;
+            this.records = records;
+        }
+
+        public Instant watermark() {
+            return watermark;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Decodes each record from the mapping and hands it to {@code visitor}, without
+         * keeping any of them.
+         *
+         * @throws IOException if a record refers to a brand or state the snapshot does not have
+         */
+        public void forEach(RecordVisitor visitor) throws IOException {
+            ByteBuffer buffer = records.duplicate();
+            for (int i = 0; i < size; i++) {
+                UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                int brand = buffer.getInt();
+                int state = buffer.get();
+                if (brand < 0 || brand >= brands.length || state < 0 || state >= STATES.length) {
+                    throw new IOException("Snapshot " + file + " is corrupt");
+                }
+                visitor.visit(id, brands[brand], STATES[state], fromMicros(buffer.getLong()));
+            }
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, length));
+        return (int) crc.getValue();
+    }
+
+    private static long toMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static Instant fromMicros(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+}
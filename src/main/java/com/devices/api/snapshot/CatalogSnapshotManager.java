@@ -0,0 +1,139 @@
+package com.devices.api.snapshot;
+
+import com.devices.api.config.CatalogSnapshotProperties;
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.service.DeviceService;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a {@link CatalogSnapshot} on local disk and turns it back into the current catalog
+ * at startup: the mapped snapshot plus a delta query for rows modified or deleted after
+ * its watermark, instead of scanning every device. Records go from the mapping to the
+ * {@link CatalogSink} one at a time, so the catalog is never held twice.
+ */
+public class CatalogSnapshotManager {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotManager.class);
+
+    private static final Set<DeviceField> SNAPSHOT_FIELDS =
+            EnumSet.of(DeviceField.ID, DeviceField.BRAND, DeviceField.STATE, DeviceField.CREATION_TIME);
+
+    private final CatalogSnapshotProperties properties;
+    private final DeviceService deviceService;
+    private final DeviceChangeLog changeLog;
+    private final ShardRouter router;
+
+    public CatalogSnapshotManager(CatalogSnapshotProperties properties, DeviceService deviceService,
+                                  DeviceChangeLog changeLog, ShardRouter router) {
+        this.properties = properties;
+        this.deviceService = deviceService;
+        this.changeLog = changeLog;
+        this.router = router;
+    }
+
+    /**
+     * Feeds the current catalog to {@code sink}, warm-started from the snapshot when a usable
+     * one exists. Otherwise the catalog is scanned and the scan written as the first snapshot.
+     */
+    public void load(CatalogSink sink) {
+        if (warmStart(sink)) {
+            return;
+        }
+        Instant watermark = Instant.now();
+        List<DeviceResponse> devices = scan();
+        write(new CatalogSnapshot(watermark, devices));
+        devices.forEach(device -> sink.upsert(device.id(), device.brand(), device.state()));
+    }
+
+    /**
+     * Feeds the snapshot records straight from the mapping to {@code sink}, followed by
+     * every change since its watermark. Returns {@code false} without feeding anything when
+     * the snapshot is missing, unreadable, or older than the tombstone retention.
+     */
+    public boolean warmStart(CatalogSink sink) {
+        if (!Files.exists(properties.file())) {
+            return false;
+        }
+
+        CatalogSnapshot.Mapped snapshot;
+        try {
+            snapshot = CatalogSnapshot.map(properties.file());
+        } catch (IOException ex) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", properties.file(), ex.getMessage());
+            return false;
+        }
+
+        Instant since = snapshot.watermark().minus(properties.overlap());
+        if (since.isBefore(Instant.now().minus(properties.tombstoneRetention()))) {
+            log.info("Ignoring catalog snapshot from {}, deletions before it may already be purged",
+                    snapshot.watermark());
+            return false;
+        }
+
+        List<DeviceChangeLog.Changes> deltas = onEveryShard(() -> changeLog.changesSince(since));
+        try {
+            snapshot.forEach((id, brand, state, creationTime) -> sink.upsert(id, brand, state));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        int modified = 0;
+        int deleted = 0;
+        for (DeviceChangeLog.Changes delta : deltas) {
+            delta.modified().forEach(device -> sink.upsert(device.id(), device.brand(), device.state()));
+            modified += delta.modified().size();
+        }
+        for (DeviceChangeLog.Changes delta : deltas) {
+            delta.deleted().forEach(sink::remove);
+            deleted += delta.deleted().size();
+        }
+
+        log.info("Warm-started from snapshot of {} devices at {} ({} modified and {} deleted since)",
+                snapshot.size(), snapshot.watermark(), modified, deleted);
+        return true;
+    }
+
+    /**
+     * Rewrites the snapshot from a fresh scan.
+     */
+    @Workload(WorkloadClass.BULK)
+    @Scheduled(fixedDelayString = "${devices.snapshot.interval:10m}", initialDelayString = "${devices.snapshot.interval:10m}")
+    public void refresh() {
+        write(new CatalogSnapshot(Instant.now(), scan()));
+    }
+
+    private List<DeviceResponse> scan() {
+        return deviceService.getAll(DeviceFilter.of(null, null), SNAPSHOT_FIELDS);
+    }
+
+    /**
+     * A failed write only costs the next startup its warm start, so it is logged rather than thrown.
+     */
+    private void write(CatalogSnapshot snapshot) {
+        try {
+            snapshot.writeTo(properties.file());
+            log.debug("Wrote catalog snapshot of {} devices to {}", snapshot.devices().size(), properties.file());
+        } catch (IOException ex) {
+            log.warn("Failed to write catalog snapshot {}", properties.file(), ex);
+        }
+    }
+
+    private <T> List<T> onEveryShard(Supplier<T> action) {
+        return router != null ? router.onEveryShard(action) : List.of(action.get());
+    }
+}
@@ -0,0 +1,36 @@
+package com.devices.api.snapshot;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.mapper.DeviceMapper;
+import com.devices.api.repository.DeviceRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Answers "what changed since" from {@code devices.last_modified} and the tombstones
+ * deletions leave behind, so a snapshot can be brought up to date without a full scan.
+ * Tombstones are written by a trigger on {@code devices} (migration {@code V11}).
+ */
+public class DeviceChangeLog {
+
+    private final DeviceRepository deviceRepository;
+    private final DeviceMapper deviceMapper;
+
+    public DeviceChangeLog(DeviceRepository deviceRepository, DeviceMapper deviceMapper) {
+        this.deviceRepository = deviceRepository;
+        this.deviceMapper = deviceMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public Changes changesSince(Instant since) {
+        return new Changes(
+                deviceMapper.toResponseList(deviceRepository.findByLastModifiedGreaterThanEqual(since)),
+                deviceRepository.findTombstoneIdsSince(since));
+    }
+
+    public record Changes(List<DeviceResponse> modified, List<UUID> deleted) {
+    }
+}
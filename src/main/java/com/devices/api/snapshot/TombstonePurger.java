@@ -0,0 +1,56 @@
+package com.devices.api.snapshot;
+
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes tombstones once they are older than the retention, which is also the oldest
+ * snapshot a warm start accepts. Runs hourly on every shard, whether or not the snapshot
+ * is enabled, since every deletion leaves a tombstone.
+ */
+public class TombstonePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstonePurger.class);
+
+    private final DeviceRepository deviceRepository;
+    private final ShardRouter router;
+    private final Duration retention;
+    private final Clock clock;
+
+    public TombstonePurger(DeviceRepository deviceRepository, ShardRouter router, Duration retention, Clock clock) {
+        this.deviceRepository = deviceRepository;
+        this.router = router;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    /**
+     * A failure only keeps tombstones around until the next run, so it is logged rather than thrown.
+     */
+    @Workload(WorkloadClass.BULK)
+    @Scheduled(fixedDelayString = "PT1H")
+    public void purge() {
+        Instant cutoff = clock.instant().minus(retention);
+        try {
+            int purged = router != null
+                    ? router.onEveryShard(() -> deviceRepository.deleteTombstonesBefore(cutoff)).stream()
+                            .mapToInt(Integer::intValue)
+                            .sum()
+                    : deviceRepository.deleteTombstonesBefore(cutoff);
+            if (purged > 0) {
+                log.debug("Purged {} tombstones older than {}", purged, cutoff);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to purge device tombstones", ex);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.devices.api.stats;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.TimelineBucket;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.workload.Workload;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@code device_creation_rollups} up to date for single-device creates, brand changes
+ * and deletes without adding a write to the changing transaction: after commit the change is
+ * added to an in-memory delta per bucket and brand, and every flush interval the deltas are
+ * applied with one multi-row upsert per shard. Many writes to the same brand in an interval
+ * become a single row update instead of each transaction queueing on that row's lock.
+ * Timelines lag writes by up to the flush interval, and deltas not yet flushed when the
+ * process dies are lost. Deltas that fail to apply are retried at the next flush.
+ */
+public class DeviceCreationRollupRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceCreationRollupRecorder.class);
+
+    /** Rows are written in primary key order, so concurrent flushes lock them in the same order. */
+    private static final Comparator<Key> ORDER = Comparator.comparingInt(Key::shard)
+            .thenComparing(Key::bucket)
+            .thenComparing(Key::bucketStart)
+            .thenComparing(Key::brand);
+
+    private final DeviceCreationRollupRepository repository;
+    private final ShardRouter router;
+    private final Map<Key, Long> deltas = new ConcurrentHashMap<>();
+
+    public DeviceCreationRollupRecorder(DeviceCreationRollupRepository repository, ShardRouter router) {
+        this.repository = repository;
+        this.router = router;
+    }
+
+    /**
+     * Brand changes move the device between series.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        DeviceResponse previous = event.previous();
+        DeviceResponse current = event.current();
+        int shard = router != null ? router.shardFor(event.deviceId()) : 0;
+
+        if (event.isCreation()) {
+            adjust(shard, current, 1);
+        } else if (event.isDeletion()) {
+            adjust(shard, previous, -1);
+        } else if (!Objects.equals(previous.brand(), current.brand())) {
+            adjust(shard, previous, -1);
+            adjust(shard, current, 1);
+        }
+    }
+
+    private void adjust(int shard, DeviceResponse device, long delta) {
+        for (TimelineBucket bucket : TimelineBucket.values()) {
+            Key key = new Key(shard, bucket, bucket.truncate(device.creationTime()), device.brand());
+            deltas.merge(key, delta, Long::sum);
+        }
+    }
+
+    /**
+     * Applies the deltas collected so far.
+     */
+    @Workload(WorkloadClass.BULK)
+    @Scheduled(fixedDelayString = "${devices.stats.flush-interval:1s}", initialDelayString = "${devices.stats.flush-interval:1s}")
+    public synchronized void flush() {
+        Map<Integer, Map<Key, Long>> byShard = new TreeMap<>();
+        for (Key key : deltas.keySet()) {
+            Long delta = deltas.remove(key);
+            if (delta != null && delta != 0) {
+                byShard.computeIfAbsent(key.shard(), shard -> new TreeMap<>(ORDER)).put(key, delta);
+            }
+        }
+        for (Map.Entry<Integer, Map<Key, Long>> shard : byShard.entrySet()) {
+            try {
+                write(shard.getKey(), shard.getValue());
+            } catch (RuntimeException ex) {
+                log.warn("Failed to apply {} creation rollup deltas, retrying at the next flush", shard.getValue().size(), ex);
+                shard.getValue().forEach((key, delta) -> deltas.merge(key, delta, Long::sum));
+            }
+        }
+    }
+
+    /**
+     * Applies what is still pending on shutdown, on the bulk pool like the scheduled flushes.
+     */
+    public void close() {
+        WorkloadContext.call(WorkloadClass.BULK, () -> {
+            flush();
+            return null;
+        });
+    }
+
+    public int pending() {
+        return deltas.size();
+    }
+
+    private void write(int shard, Map<Key, Long> rows) {
+        List<Map.Entry<Key, Long>> entries = List.copyOf(rows.entrySet());
+        int size = entries.size();
+        String[] buckets = new String[size];
+        String[] bucketStarts = new String[size];
+        String[] brands = new String[size];
+        Long[] counts = new Long[size];
+        for (int i = 0; i < size; i++) {
+            Key key = entries.get(i).getKey();
+            buckets[i] = key.bucket().name();
+            bucketStarts[i] = key.bucketStart().toString();
+            brands[i] = key.brand();
+            counts[i] = entries.get(i).getValue();
+        }
+        if (router == null) {
+            repository.incrementAll(buckets, bucketStarts, brands, counts);
+            return;
+        }
+        router.on(shard, () -> {
+            repository.incrementAll(buckets, bucketStarts, brands, counts);
+            return null;
+        });
+    }
+
+    private record Key(int shard, TimelineBucket bucket, Instant bucketStart, String brand) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.devices.api.workload;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Applies {@link Workload} annotations. Runs outside the transaction advice so the class is
+ * set before the transaction acquires its connection.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class WorkloadAspect {
+
+    @Around("@annotation(workload)")
+    public Object applyWorkload(ProceedingJoinPoint joinPoint, Workload workload) throws Throwable {
+        WorkloadClass previous = WorkloadContext.enter(workload.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.devices.api.workload;
+
+/**
+ * Kind of database work a request or job does. Each class has its own connection pool, so
+ * one class running out of connections or holding them for long cannot starve the others.
+ */
+public enum WorkloadClass {
+    /** Single-row lookups by id; latency-sensitive and short. */
+    POINT_READ,
+    /** Inserts, updates and deletes of individual devices or small batches. */
+    WRITE,
+    /** Scans, lists, counts, imports and snapshots; may hold a connection for seconds. */
+    BULK
+}
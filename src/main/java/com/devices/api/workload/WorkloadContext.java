@@ -0,0 +1,52 @@
+package com.devices.api.workload;
+
+import java.util.function.Supplier;
+
+/**
+ * Workload class of the current thread. Read by {@link WorkloadRoutingDataSource} when a
+ * transaction acquires its connection, so it must be set before the transactional method
+ * is entered.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static WorkloadClass current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(WorkloadClass workload, Supplier<T> action) {
+        WorkloadClass previous = enter(workload);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(WorkloadClass workload, Runnable action) {
+        WorkloadClass previous = enter(workload);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static WorkloadClass enter(WorkloadClass workload) {
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    static void restore(WorkloadClass previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
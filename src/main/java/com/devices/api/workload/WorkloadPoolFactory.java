@@ -0,0 +1,49 @@
+package com.devices.api.workload;
+
+import com.devices.api.config.WorkloadProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Opens one Hikari pool per {@link WorkloadClass} for a database. Pools are named
+ * {@code <name>-point-read}, {@code <name>-write} and {@code <name>-bulk} and publish the
+ * {@code hikaricp.connections.*} meters tagged with that name.
+ */
+public class WorkloadPoolFactory {
+
+    private final WorkloadProperties properties;
+    private final MeterRegistry registry;
+
+    public WorkloadPoolFactory(WorkloadProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    public WorkloadRoutingDataSource create(String name, String url, String username, String password) {
+        Map<WorkloadClass, HikariDataSource> pools = new EnumMap<>(WorkloadClass.class);
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            WorkloadProperties.Pool settings = properties.pool(workload);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            pool.setPoolName(name + "-" + workload.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+            pool.setMaximumPoolSize(settings.maximumPoolSize());
+            pool.setConnectionTimeout(settings.connectionTimeout().toMillis());
+            if (settings.statementTimeout() != null) {
+                pool.setConnectionInitSql("SET statement_timeout = " + settings.statementTimeout().toMillis());
+            }
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            pools.put(workload, pool);
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+}
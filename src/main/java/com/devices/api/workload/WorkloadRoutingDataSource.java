@@ -0,0 +1,44 @@
+package com.devices.api.workload;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the workload class selected in {@link WorkloadContext}.
+ * Without a selection (bootstrap, migrations, unannotated callers) the write pool is used.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final Map<WorkloadClass, HikariDataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<WorkloadClass, HikariDataSource> pools) {
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            if (!pools.containsKey(workload)) {
+                throw new IllegalArgumentException("No pool for workload class " + workload);
+            }
+        }
+        this.pools = new EnumMap<>(pools);
+
+        setTargetDataSources(new HashMap<>(this.pools));
+        setDefaultTargetDataSource(this.pools.get(WorkloadClass.WRITE));
+        setLenientFallback(false);
+    }
+
+    public HikariDataSource getPool(WorkloadClass workload) {
+        return pools.get(workload);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,8 @@
+-- Free-form labels such as site:ams1, team:payments or pool:loaners.
+-- Adding a column with a constant default does not rewrite the table.
+ALTER TABLE devices ADD COLUMN tags VARCHAR(64)[] NOT NULL DEFAULT '{}';
+
+-- A GIN index holds one entry per tag, so any-of (&&) and all-of (@>) filters
+-- read only the devices carrying the tags, and combine with the brand/state
+-- index through a bitmap AND.
+CREATE INDEX idx_devices_tags ON devices USING GIN (tags);
@@ -0,0 +1,17 @@
+-- Every deletion leaves a tombstone, whichever instance or statement removed the row and
+-- whether or not that instance has the catalog snapshot enabled: snapshot warm starts and
+-- bitmap index counts rely on tombstones to see deletions made elsewhere. A statement-level
+-- trigger writes the tombstones of a multi-row delete with a single insert.
+CREATE FUNCTION record_device_tombstones() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO device_tombstones (id, deleted_at)
+    SELECT id, clock_timestamp() FROM deleted_devices
+    ON CONFLICT (id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER devices_record_tombstones
+    AFTER DELETE ON devices
+    REFERENCING OLD TABLE AS deleted_devices
+    FOR EACH STATEMENT EXECUTE FUNCTION record_device_tombstones();
@@ -0,0 +1,7 @@
+-- Sparse fieldset queries (?fields=id,state) only read indexed columns.
+-- INCLUDE (id) lets brand/state filtered projections run as index-only scans.
+DROP INDEX idx_devices_brand_state;
+CREATE INDEX idx_devices_brand_state ON devices(brand, state) INCLUDE (id);
+
+DROP INDEX idx_devices_state;
+CREATE INDEX idx_devices_state ON devices(state) INCLUDE (id);
@@ -0,0 +1,4 @@
+-- creation_time is stamped on insert, so it follows the physical row order.
+-- A BRIN index stores min/max per block range: a few pages even for millions
+-- of rows, and range filters (createdAfter/createdBefore) skip unrelated blocks.
+CREATE INDEX idx_devices_creation_time_brin ON devices USING BRIN (creation_time) WITH (pages_per_range = 32);
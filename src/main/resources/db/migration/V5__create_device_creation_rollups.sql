@@ -0,0 +1,25 @@
+-- Pre-aggregated device creation counts per brand, so timeline queries never scan
+-- the devices table. Single-device writes reach it as batched deltas applied after
+-- commit by DeviceCreationRollupRecorder; bulk upserts and imports update it in the
+-- statement that inserts the devices.
+CREATE TABLE device_creation_rollups (
+    bucket VARCHAR(10) NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    brand VARCHAR(255) NOT NULL,
+    device_count BIGINT NOT NULL,
+    PRIMARY KEY (bucket, bucket_start, brand)
+);
+
+-- Covers timeline queries filtered by brand
+CREATE INDEX idx_device_creation_rollups_brand ON device_creation_rollups(bucket, brand, bucket_start);
+
+-- Backfill from existing devices
+INSERT INTO device_creation_rollups (bucket, bucket_start, brand, device_count)
+SELECT 'HOUR', date_trunc('hour', creation_time, 'UTC'), brand, count(*)
+FROM devices
+GROUP BY 2, 3;
+
+INSERT INTO device_creation_rollups (bucket, bucket_start, brand, device_count)
+SELECT 'DAY', date_trunc('day', creation_time, 'UTC'), brand, count(*)
+FROM devices
+GROUP BY 2, 3;
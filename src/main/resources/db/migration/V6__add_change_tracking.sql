@@ -0,0 +1,12 @@
+-- Change tracking for delta catch-up from a catalog snapshot: every write stamps
+-- last_modified, and deletions leave a tombstone until they are purged.
+ALTER TABLE devices ADD COLUMN last_modified TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+
+CREATE INDEX idx_devices_last_modified ON devices(last_modified);
+
+CREATE TABLE device_tombstones (
+    id UUID PRIMARY KEY,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_device_tombstones_deleted_at ON device_tombstones(deleted_at);
@@ -0,0 +1,24 @@
+-- Asynchronous bulk imports: one row per uploaded file, updated by the worker as it
+-- progresses, plus the first rejected rows of each job.
+CREATE TABLE import_jobs (
+    id UUID PRIMARY KEY,
+    file_name VARCHAR(255),
+    format VARCHAR(10) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    rows_read BIGINT NOT NULL DEFAULT 0,
+    rows_imported BIGINT NOT NULL DEFAULT 0,
+    rows_rejected BIGINT NOT NULL DEFAULT 0,
+    failure TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    started_at TIMESTAMP WITH TIME ZONE,
+    finished_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE TABLE import_job_errors (
+    id BIGSERIAL PRIMARY KEY,
+    job_id UUID NOT NULL REFERENCES import_jobs(id) ON DELETE CASCADE,
+    line BIGINT NOT NULL,
+    message TEXT NOT NULL
+);
+
+CREATE INDEX idx_import_job_errors_job_id ON import_job_errors(job_id, line);
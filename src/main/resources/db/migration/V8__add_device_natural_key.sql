@@ -0,0 +1,5 @@
+-- (brand, name) identifies a device for sync agents that do not know its id, and is
+-- the conflict target of the upsert endpoints. Existing duplicates must be resolved
+-- before this migration can run; they can be listed with:
+--   SELECT brand, name, count(*) FROM devices GROUP BY brand, name HAVING count(*) > 1;
+CREATE UNIQUE INDEX uq_devices_brand_name ON devices(brand, name);
@@ -0,0 +1,17 @@
+-- Append-only audit trail of device state changes, range-partitioned by day on
+-- changed_at. Partitions are created ahead and dropped after the retention period by
+-- the application (see DeviceHistoryPartitionMaintainer), so expiring history detaches
+-- a whole table instead of deleting rows. There is no default partition: it would make
+-- every new partition scan it, and would block detaching partitions concurrently.
+CREATE TABLE device_state_history (
+    device_id UUID NOT NULL,
+    from_state VARCHAR(20) NOT NULL,
+    to_state VARCHAR(20) NOT NULL,
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL
+) PARTITION BY RANGE (changed_at);
+
+-- Created on every partition; serves a device's timeline
+CREATE INDEX idx_device_state_history_device ON device_state_history(device_id, changed_at);
+
+-- Serves transitions in a time window within the partitions it prunes to
+CREATE INDEX idx_device_state_history_changed_at ON device_state_history(changed_at);
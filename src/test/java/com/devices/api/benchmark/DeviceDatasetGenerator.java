@@ -0,0 +1,193 @@
+package com.devices.api.benchmark;
+
+import com.devices.api.enums.DeviceState;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates a production-shaped device catalog and bulk loads it with {@code COPY}:
+ * <ul>
+ *   <li>brands follow a Zipf distribution, so a handful of brands own most devices and a long tail owns few</li>
+ *   <li>states are mostly {@code AVAILABLE}, a quarter {@code IN_USE} and a small {@code INACTIVE} share</li>
+ *   <li>creation times span {@link #HISTORY} and grow denser towards now, in insertion order like real traffic</li>
+ *   <li>a fifth of devices carry one or two of {@link #TAGS}, most devices none</li>
+ * </ul>
+ * Output is deterministic for a given seed and row count.
+ *
+ * <p>Can also seed a local database:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.devices.api.benchmark.DeviceDatasetGenerator \
+ *     -Dexec.args="jdbc:postgresql://localhost:5432/devicesdb devices devices 1000000"
+ * </pre>
+ */
+public class DeviceDatasetGenerator {
+
+    public static final Duration HISTORY = Duration.ofDays(3 * 365);
+
+    private static final List<String> KNOWN_BRANDS = List.of(
+            "Apple", "Samsung", "Google", "Xiaomi", "Lenovo", "Dell", "HP", "Huawei", "Sony", "Motorola",
+            "OnePlus", "Asus", "Acer", "Microsoft", "Nokia", "Oppo", "Vivo", "LG", "Zebra", "Honeywell",
+            "Garmin", "Fitbit", "Panasonic", "Toshiba", "Fujitsu", "Realme", "Fairphone", "Cisco", "Logitech", "Razer");
+    private static final int BRAND_COUNT = 200;
+    private static final double ZIPF_EXPONENT = 1.1;
+
+    private static final double AVAILABLE_SHARE = 0.73;
+    private static final double IN_USE_SHARE = 0.25;
+
+    public static final List<String> TAGS = List.of(
+            "fleet", "kiosk", "lab", "loaner", "retired", "warehouse", "field", "vip", "repair", "demo");
+    private static final double TAGGED_SHARE = 0.2;
+
+    private static final int COPY_BUFFER_BYTES = 1 << 20;
+
+    private final long seed;
+    private final List<String> brands;
+    private final double[] brandCdf;
+
+    public DeviceDatasetGenerator(long seed) {
+        this.seed = seed;
+        this.brands = new ArrayList<>(KNOWN_BRANDS);
+        for (int rank = KNOWN_BRANDS.size(); rank < BRAND_COUNT; rank++) {
+            brands.add("Brand %03d".formatted(rank + 1));
+        }
+
+        this.brandCdf = new double[BRAND_COUNT];
+        double total = 0;
+        for (int rank = 0; rank < BRAND_COUNT; rank++) {
+            total += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            brandCdf[rank] = total;
+        }
+        for (int rank = 0; rank < BRAND_COUNT; rank++) {
+            brandCdf[rank] /= total;
+        }
+    }
+
+    /**
+     * Brand by popularity, 0 being the most common.
+     */
+    public String brand(int rank) {
+        return brands.get(rank);
+    }
+
+    /**
+     * Replaces the catalog with {@code rows} generated devices, rebuilds the creation rollups
+     * and vacuums so planner statistics and the visibility map reflect the new data.
+     * The connection must be in auto-commit mode.
+     */
+    public void load(Connection connection, int rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE devices, device_creation_rollups, device_tombstones");
+        }
+
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY devices (id, name, brand, state, creation_time, last_modified, tags) FROM STDIN");
+        try {
+            SplittableRandom random = new SplittableRandom(seed);
+            Instant end = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            Instant start = end.minus(HISTORY);
+            long spanMicros = ChronoUnit.MICROS.between(start, end);
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_BYTES);
+
+            for (int i = 0; i < rows; i++) {
+                String brand = brands.get(nextBrandRank(random));
+                // sqrt spreads early rows thinly and packs recent ones, like a growing fleet
+                Instant created = start.plus((long) (spanMicros * Math.sqrt((double) i / rows)), ChronoUnit.MICROS);
+                String timestamp = OffsetDateTime.ofInstant(created, ZoneOffset.UTC).toString();
+
+                buffer.append(new UUID(random.nextLong(), random.nextLong())).append('\t')
+                        // (brand, name) is unique, so the row number keeps names distinct
+                        .append(brand).append(" Model ").append(i + 1).append('\t')
+                        .append(brand).append('\t')
+                        .append(nextState(random)).append('\t')
+                        .append(timestamp).append('\t')
+                        .append(timestamp).append('\t')
+                        .append(nextTags(random)).append('\n');
+
+                if (buffer.length() >= COPY_BUFFER_BYTES) {
+                    flush(copy, buffer);
+                }
+            }
+            flush(copy, buffer);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (String bucket : List.of("hour", "day")) {
+                statement.execute("""
+                        INSERT INTO device_creation_rollups (bucket, bucket_start, brand, device_count)
+                        SELECT '%s', date_trunc('%s', creation_time, 'UTC'), brand, count(*)
+                        FROM devices
+                        GROUP BY 2, 3
+                        """.formatted(bucket.toUpperCase(), bucket));
+            }
+            statement.execute("VACUUM ANALYZE devices");
+            statement.execute("VACUUM ANALYZE device_creation_rollups");
+        }
+    }
+
+    private int nextBrandRank(SplittableRandom random) {
+        int index = Arrays.binarySearch(brandCdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, BRAND_COUNT - 1);
+    }
+
+    private static DeviceState nextState(SplittableRandom random) {
+        double roll = random.nextDouble();
+        if (roll < AVAILABLE_SHARE) {
+            return DeviceState.AVAILABLE;
+        }
+        return roll < AVAILABLE_SHARE + IN_USE_SHARE ? DeviceState.IN_USE : DeviceState.INACTIVE;
+    }
+
+    private static String nextTags(SplittableRandom random) {
+        if (random.nextDouble() >= TAGGED_SHARE) {
+            return "{}";
+        }
+        String first = TAGS.get(random.nextInt(TAGS.size()));
+        String second = TAGS.get(random.nextInt(TAGS.size()));
+        if (random.nextBoolean() || first.equals(second)) {
+            return "{" + first + "}";
+        }
+        return first.compareTo(second) < 0 ? "{" + first + "," + second + "}" : "{" + second + "," + first + "}";
+    }
+
+    private static void flush(CopyIn copy, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length != 4) {
+            System.err.println("Usage: DeviceDatasetGenerator <jdbc-url> <username> <password> <rows>");
+            System.exit(1);
+        }
+
+        int rows = Integer.parseInt(args[3]);
+        long started = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            new DeviceDatasetGenerator(42).load(connection, rows);
+        }
+        System.out.printf("Loaded %,d devices in %d s%n", rows, Duration.ofNanos(System.nanoTime() - started).toSeconds());
+    }
+}
@@ -0,0 +1,258 @@
+package com.devices.api.benchmark;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.repository.DeviceRepository;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.DynamicContainer.dynamicContainer;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Runs every {@link DeviceRepository} query against generated catalogs of
+ * {@code -Dbenchmark.rows} devices (1M and 10M by default), asserts that each one keeps
+ * its intended plan, and records latency to {@code target/benchmark/device-queries.csv}.
+ * Only runs with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers
+@Import(DeviceQueryPlanBenchmarkTest.BenchmarkConfig.class)
+class DeviceQueryPlanBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceQueryPlanBenchmarkTest.class);
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+    private static final Path REPORT = Path.of("target", "benchmark", "device-queries.csv");
+    private static final List<String> results = new ArrayList<>();
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class BenchmarkConfig {
+
+        @Bean
+        static QueryPlanRecorder queryPlanRecorder() {
+            return new QueryPlanRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor queryPlanDataSourcePostProcessor(QueryPlanRecorder recorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name(beanName)
+                                .listener(recorder)
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withSharedMemorySize(1024L * 1024 * 1024)
+            .withCommand("postgres", "-c", "fsync=off", "-c", "shared_buffers=512MB", "-c", "max_wal_size=4GB");
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private QueryPlanRecorder recorder;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final DeviceDatasetGenerator generator = new DeviceDatasetGenerator(42);
+
+    private List<UUID> sampleIds;
+    private Instant loadedAt;
+
+    private record Case(String name, Callable<?> query, Consumer<QueryPlan> expectation) {
+    }
+
+    @TestFactory
+    Stream<DynamicContainer> repositoryQueries() {
+        return Arrays.stream(System.getProperty("benchmark.rows", "1000000,10000000").split(","))
+                .map(String::strip)
+                .map(Integer::parseInt)
+                .map(rows -> dynamicContainer("%,d devices".formatted(rows), Stream.concat(
+                        Stream.of(dynamicTest("generate and load", () -> load(rows))),
+                        cases().stream().map(benchmark -> dynamicTest(benchmark.name(), () -> run(rows, benchmark))))));
+    }
+
+    private List<Case> cases() {
+        String commonBrand = generator.brand(0);
+        String midBrand = generator.brand(9);
+
+        return List.of(
+                new Case("findById",
+                        () -> deviceRepository.findById(sampleIds.getFirst()),
+                        usesIndex("devices_pkey")),
+                new Case("findProjectedById",
+                        () -> deviceRepository.findProjectedById(sampleIds.getFirst(), EnumSet.of(DeviceField.ID, DeviceField.STATE)),
+                        usesIndex("devices_pkey")),
+                new Case("findAllByIdIn (100 ids)",
+                        () -> deviceRepository.findAllByIdIn(sampleIds.toArray(UUID[]::new)),
+                        usesIndex("devices_pkey")),
+                new Case("findProjectedByIdIn (100 ids, fields id,name)",
+                        () -> deviceRepository.findProjectedByIdIn(sampleIds.toArray(UUID[]::new), EnumSet.of(DeviceField.ID, DeviceField.NAME)),
+                        usesIndex("devices_pkey")),
+                new Case("findByBrand",
+                        () -> deviceRepository.findByBrand(midBrand),
+                        usesIndex("idx_devices_brand_state")),
+                new Case("findByBrandAndState",
+                        () -> deviceRepository.findByBrandAndState(commonBrand, DeviceState.INACTIVE),
+                        usesIndex("idx_devices_brand_state")),
+                new Case("findByState",
+                        () -> deviceRepository.findByState(DeviceState.INACTIVE),
+                        usesIndex("idx_devices_state")),
+                new Case("findByFilter (created in last 7 days)",
+                        () -> deviceRepository.findByFilter(new DeviceFilter(null, null, loadedAt.minus(7, ChronoUnit.DAYS), null)),
+                        usesIndex("idx_devices_creation_time_brin")),
+                new Case("findByFilter (brand, created in last 30 days)",
+                        () -> deviceRepository.findByFilter(new DeviceFilter(midBrand, null, loadedAt.minus(30, ChronoUnit.DAYS), null)),
+                        noSequentialScan()),
+                new Case("findProjectedBy (brand, fields id,state)",
+                        () -> deviceRepository.findProjectedBy(DeviceFilter.of(midBrand, null), EnumSet.of(DeviceField.ID, DeviceField.STATE)),
+                        indexOnlyScan("idx_devices_brand_state")),
+                new Case("findByFilter (any of two tags)",
+                        () -> deviceRepository.findByFilter(new DeviceFilter(null, null, null, null,
+                                List.of("kiosk", "loaner"), null)),
+                        usesIndex("idx_devices_tags")),
+                new Case("countByFilter (all of two tags)",
+                        () -> deviceRepository.countByFilter(new DeviceFilter(null, null, null, null,
+                                null, List.of("fleet", "field"))),
+                        usesIndex("idx_devices_tags")),
+                new Case("countByFilter (brand)",
+                        () -> deviceRepository.countByFilter(DeviceFilter.of(midBrand, null)),
+                        indexOnlyScan("idx_devices_brand_state")),
+                new Case("findByLastModifiedGreaterThanEqual (last hour)",
+                        () -> deviceRepository.findByLastModifiedGreaterThanEqual(loadedAt.minus(1, ChronoUnit.HOURS)),
+                        usesIndex("idx_devices_last_modified")));
+    }
+
+    private void load(int rows) throws Exception {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            generator.load(connection, rows);
+        }
+        loadedAt = Instant.now();
+        sampleIds = jdbcTemplate.queryForList("SELECT id FROM devices TABLESAMPLE SYSTEM (1) LIMIT 100", UUID.class);
+        log.info("Loaded {} devices in {} ms", rows, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Queries run in a read-only transaction, as they do when called from the service.
+     */
+    private void run(int rows, Case benchmark) throws Exception {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Callable<?> query = () -> readOnly.execute(status -> {
+            try {
+                return benchmark.query().call();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        List<QueryPlan> plans = recorder.capture(query);
+        assertThat(plans).as("statements issued by %s", benchmark.name()).isNotEmpty();
+        plans.forEach(benchmark.expectation());
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.call();
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long started = System.nanoTime();
+            query.call();
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+
+        double p50 = nanos[MEASURED_RUNS / 2] / 1e6;
+        double max = nanos[MEASURED_RUNS - 1] / 1e6;
+        String plan = plans.getFirst().summary();
+        log.info("{} rows | {} | p50 {} ms | max {} ms | {}", rows, benchmark.name(),
+                "%.1f".formatted(p50), "%.1f".formatted(max), plan);
+        results.add("%d,\"%s\",%.3f,%.3f,\"%s\"".formatted(rows, benchmark.name(), p50, max, plan));
+    }
+
+    @AfterAll
+    static void writeReport() throws Exception {
+        Files.createDirectories(REPORT.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add("rows,query,p50_ms,max_ms,plan");
+        lines.addAll(results);
+        Files.write(REPORT, lines);
+    }
+
+    private static Consumer<QueryPlan> usesIndex(String index) {
+        return plan -> {
+            noSequentialScan().accept(plan);
+            assertThat(plan.usesIndex(index))
+                    .as("expected %s in plan: %s%n%s", index, plan.summary(), plan.sql())
+                    .isTrue();
+        };
+    }
+
+    private static Consumer<QueryPlan> indexOnlyScan(String index) {
+        return plan -> assertThat(plan.hasNode("Index Only Scan", index))
+                .as("expected index-only scan using %s in plan: %s%n%s", index, plan.summary(), plan.sql())
+                .isTrue();
+    }
+
+    private static Consumer<QueryPlan> noSequentialScan() {
+        return plan -> assertThat(plan.scansSequentially("devices"))
+                .as("unexpected sequential scan of devices: %s%n%s", plan.summary(), plan.sql())
+                .isFalse();
+    }
+}
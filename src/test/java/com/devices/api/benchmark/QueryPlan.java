@@ -0,0 +1,34 @@
+package com.devices.api.benchmark;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Flattened {@code EXPLAIN} output of one statement.
+ */
+public record QueryPlan(String sql, List<Node> nodes) {
+
+    public record Node(String type, String relation, String index) {
+    }
+
+    public boolean usesIndex(String index) {
+        return nodes.stream().anyMatch(node -> index.equals(node.index()));
+    }
+
+    public boolean hasNode(String type, String index) {
+        return nodes.stream().anyMatch(node -> node.type().equals(type) && Objects.equals(node.index(), index));
+    }
+
+    public boolean scansSequentially(String relation) {
+        return nodes.stream().anyMatch(node -> node.type().equals("Seq Scan") && relation.equals(node.relation()));
+    }
+
+    public String summary() {
+        return nodes.stream()
+                .map(node -> node.index() != null ? node.type() + " using " + node.index()
+                        : node.relation() != null ? node.type() + " on " + node.relation()
+                        : node.type())
+                .reduce((parent, child) -> parent + " > " + child)
+                .orElse("");
+    }
+}
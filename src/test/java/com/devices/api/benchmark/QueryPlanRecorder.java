@@ -0,0 +1,103 @@
+package com.devices.api.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * While {@link #capture(Callable)} runs, explains every SELECT the application sends, with the
+ * same bound parameters and on the same connection, so plans are those of the SQL Hibernate
+ * and Spring Data actually generate rather than hand-written copies.
+ */
+public class QueryPlanRecorder implements QueryExecutionListener {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final ThreadLocal<List<QueryPlan>> captured = new ThreadLocal<>();
+
+    public <T> List<QueryPlan> capture(Callable<T> action) throws Exception {
+        captured.set(new ArrayList<>());
+        try {
+            action.call();
+            return captured.get();
+        } finally {
+            captured.remove();
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<QueryPlan> plans = captured.get();
+        if (plans == null) {
+            return;
+        }
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery().strip();
+            if (sql.regionMatches(true, 0, "select", 0, 6)) {
+                try {
+                    plans.add(explain(execInfo.getStatement().getConnection(), sql, queryInfo.getParametersList()));
+                } catch (SQLException | ReflectiveOperationException | IOException ex) {
+                    throw new IllegalStateException("Failed to explain: " + sql, ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    private static QueryPlan explain(Connection connection, String sql, List<List<ParameterSetOperation>> parameters)
+            throws SQLException, ReflectiveOperationException, IOException {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+            if (!parameters.isEmpty()) {
+                for (ParameterSetOperation operation : parameters.getFirst()) {
+                    invoke(explain, operation);
+                }
+            }
+            try (ResultSet result = explain.executeQuery()) {
+                result.next();
+                JsonNode plan = JSON.readTree(result.getString(1)).get(0).get("Plan");
+                List<QueryPlan.Node> nodes = new ArrayList<>();
+                flatten(plan, nodes);
+                return new QueryPlan(sql, nodes);
+            }
+        }
+    }
+
+    private static void invoke(PreparedStatement statement, ParameterSetOperation operation)
+            throws IllegalAccessException, SQLException {
+        try {
+            operation.getMethod().invoke(statement, operation.getArgs());
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static void flatten(JsonNode plan, List<QueryPlan.Node> nodes) {
+        nodes.add(new QueryPlan.Node(
+                plan.path("Node Type").asText(),
+                plan.path("Relation Name").asText(null),
+                plan.path("Index Name").asText(null)));
+        for (JsonNode child : plan.path("Plans")) {
+            flatten(child, nodes);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.devices.api.cache;
+
+import com.devices.api.config.ResponseCacheProperties;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.event.DevicesImportedEvent;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceResponseCacheTest {
+
+    private DeviceResponseCache cache;
+
+    private UUID deviceId;
+    private DeviceResponseCache.Key deviceKey;
+    private DeviceResponseCache.Key listKey;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DeviceResponseCache(new ResponseCacheProperties(true, DataSize.ofMegabytes(1),
+                DataSize.ofKilobytes(16), DataSize.ofKilobytes(1), Duration.ofMinutes(1)));
+        deviceId = UUID.randomUUID();
+        deviceKey = new DeviceResponseCache.Key("/api/v1/devices/" + deviceId, null);
+        listKey = new DeviceResponseCache.Key("/api/v1/devices", "brand=Apple");
+    }
+
+    @Nested
+    @DisplayName("Invalidation Tests")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("Should drop the changed device and every list after a write")
+        void shouldInvalidateOnChange() {
+            UUID otherId = UUID.randomUUID();
+            DeviceResponseCache.Key otherKey = new DeviceResponseCache.Key("/api/v1/devices/" + otherId, null);
+            store(deviceKey, deviceId, "{}");
+            store(otherKey, otherId, "{}");
+            store(listKey, null, "[]");
+
+            cache.onDeviceChanged(DeviceChangedEvent.deleted(device(deviceId)));
+
+            assertThat(cache.get(deviceKey, deviceId)).isNull();
+            assertThat(cache.get(listKey, null)).isNull();
+            assertThat(cache.get(otherKey, otherId)).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should not store a response read before a write committed")
+        void shouldNotStoreStaleResponse() {
+            long generation = cache.generation(deviceId);
+            cache.onDeviceChanged(DeviceChangedEvent.updated(device(deviceId), device(deviceId)));
+
+            cache.put(deviceKey, deviceId, generation, "application/json", bytes("{}"));
+
+            assertThat(cache.get(deviceKey, deviceId)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should drop everything after a bulk import")
+        void shouldInvalidateAllOnImport() {
+            store(deviceKey, deviceId, "{}");
+            store(listKey, null, "[]");
+
+            cache.onDevicesImported(new DevicesImportedEvent(UUID.randomUUID(), 10));
+
+            assertThat(cache.get(deviceKey, deviceId)).isNull();
+            assertThat(cache.get(listKey, null)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Encoding Tests")
+    class EncodingTests {
+
+        @Test
+        @DisplayName("Should keep a gzip variant only for large bodies")
+        void shouldGzipLargeBodies() throws Exception {
+            String large = "[" + "{\"brand\":\"Apple\"},".repeat(100) + "{}]";
+            store(listKey, null, large);
+            store(deviceKey, deviceId, "{}");
+
+            DeviceResponseCache.Entry list = cache.get(listKey, null);
+            assertThat(list.gzipBody()).isNotNull().hasSizeLessThan(list.body().length);
+            assertThat(gunzip(list.gzipBody())).isEqualTo(large);
+            assertThat(cache.get(deviceKey, deviceId).gzipBody()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should not cache bodies above the entry limit")
+        void shouldSkipOversizedBodies() {
+            store(listKey, null, "x".repeat(17 * 1024));
+
+            assertThat(cache.get(listKey, null)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Filter Tests")
+    class FilterTests {
+
+        private final AtomicInteger handled = new AtomicInteger();
+        private DeviceResponseCacheFilter filter;
+
+        @BeforeEach
+        void setUp() {
+            filter = new DeviceResponseCacheFilter(cache);
+        }
+
+        @Test
+        @DisplayName("Should serve the second request without reaching the controller")
+        void shouldServeFromCache() throws Exception {
+            MockHttpServletResponse first = perform(get("/api/v1/devices/" + deviceId), HttpServletResponse.SC_OK);
+            MockHttpServletResponse second = perform(get("/api/v1/devices/" + deviceId), HttpServletResponse.SC_OK);
+
+            assertThat(handled).hasValue(1);
+            assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+            assertThat(second.getContentType()).isEqualTo("application/json");
+            assertThat(second.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        }
+
+        @Test
+        @DisplayName("Should serve the gzip variant when the client accepts it")
+        void shouldServeGzip() throws Exception {
+            MockHttpServletRequest request = get("/api/v1/devices");
+            request.setQueryString("brand=Apple");
+            perform(request, HttpServletResponse.SC_OK, "[" + "{\"brand\":\"Apple\"},".repeat(100) + "{}]");
+
+            MockHttpServletRequest gzipRequest = get("/api/v1/devices");
+            gzipRequest.setQueryString("brand=Apple");
+            gzipRequest.addHeader("Accept-Encoding", "gzip, deflate");
+            MockHttpServletResponse response = perform(gzipRequest, HttpServletResponse.SC_OK);
+
+            assertThat(handled).hasValue(1);
+            assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+            assertThat(gunzip(response.getContentAsByteArray())).startsWith("[{\"brand\":\"Apple\"}");
+        }
+
+        @Test
+        @DisplayName("Should not cache errors or other endpoints")
+        void shouldOnlyCacheSuccessfulDeviceResponses() throws Exception {
+            perform(get("/api/v1/devices/" + deviceId), HttpServletResponse.SC_NOT_FOUND);
+            perform(get("/api/v1/devices/" + deviceId), HttpServletResponse.SC_NOT_FOUND);
+            perform(get("/api/v1/devices/count"), HttpServletResponse.SC_OK);
+            perform(get("/api/v1/devices/count"), HttpServletResponse.SC_OK);
+
+            assertThat(handled).hasValue(4);
+            assertThat(cache.size()).isZero();
+        }
+
+        private MockHttpServletResponse perform(MockHttpServletRequest request, int status) throws Exception {
+            return perform(request, status, "{\"id\":\"" + deviceId + "\"}");
+        }
+
+        private MockHttpServletResponse perform(MockHttpServletRequest request, int status, String body) throws Exception {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, (req, res) -> {
+                handled.incrementAndGet();
+                HttpServletResponse http = (HttpServletResponse) res;
+                http.setStatus(status);
+                http.setContentType("application/json");
+                http.getOutputStream().write(bytes(body));
+            });
+            return response;
+        }
+
+        private static MockHttpServletRequest get(String path) {
+            return new MockHttpServletRequest("GET", path);
+        }
+    }
+
+    private void store(DeviceResponseCache.Key key, UUID id, String body) {
+        cache.put(key, id, cache.generation(id), "application/json", bytes(body));
+    }
+
+    private static DeviceResponse device(UUID id) {
+        return new DeviceResponse(id, "iPhone 15", "Apple", DeviceState.AVAILABLE, Instant.now());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String gunzip(byte[] compressed) throws Exception {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.devices.api.controller;
 
+import com.devices.api.dto.DeviceFilter;
 import com.devices.api.dto.DeviceFullUpdateRequest;
 import com.devices.api.dto.DeviceRequest;
 import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceTotal;
 import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertBatchRequest;
+import com.devices.api.dto.DeviceUpsertResult;
+import com.devices.api.enums.DeviceField;
 import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.TotalCountSource;
+import com.devices.api.enums.UpsertOutcome;
+import com.devices.api.exception.CrossShardRenameException;
 import com.devices.api.exception.DeviceInUseException;
 import com.devices.api.exception.DeviceNotFoundException;
 import com.devices.api.exception.GlobalExceptionHandler;
 import com.devices.api.service.DeviceService;
+import com.devices.api.service.DeviceTotalService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,10 +28,13 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.sql.SQLException;
 import java.time.Instant;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -43,6 +55,11 @@ class DeviceControllerTest {
             return mock(DeviceService.class);
         }
 
+        @Bean
+        DeviceTotalService deviceTotalService() {
+            return mock(DeviceTotalService.class);
+        }
+
         @Bean
         ObjectMapper objectMapper() {
             return new ObjectMapper();
@@ -58,12 +75,15 @@ class DeviceControllerTest {
     @Autowired
     private DeviceService deviceService;
 
+    @Autowired
+    private DeviceTotalService deviceTotalService;
+
     private UUID deviceId;
     private DeviceResponse deviceResponse;
 
     @BeforeEach
     void setUp() {
-        reset(deviceService);
+        reset(deviceService, deviceTotalService);
         deviceId = UUID.randomUUID();
         deviceResponse = new DeviceResponse(
                 deviceId,
@@ -128,6 +148,104 @@ class DeviceControllerTest {
                             .content(json))
                     .andExpect(status().isBadRequest());
         }
+
+        @Test
+        @DisplayName("Should return 409 when creating a device whose brand and name already exist")
+        void shouldReturn409WhenCreatingDuplicate() throws Exception {
+            DeviceRequest request = new DeviceRequest("Test Device", "Test Brand", DeviceState.AVAILABLE);
+            when(deviceService.create(any(DeviceRequest.class))).thenThrow(new DataIntegrityViolationException(
+                    "could not execute statement", new SQLException("duplicate key value violates unique constraint \"uq_devices_brand_name\"")));
+
+            mockMvc.perform(post("/api/v1/devices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.title").value("Device Already Exists"));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when a tag is blank or too long")
+        void shouldReturn400WhenTagIsInvalid() throws Exception {
+            DeviceRequest request = new DeviceRequest("Test Device", "Test Brand", DeviceState.AVAILABLE,
+                    List.of(" ", "x".repeat(DeviceRequest.MAX_TAG_LENGTH + 1)));
+
+            mockMvc.perform(post("/api/v1/devices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.title").value("Validation Error"));
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /api/v1/devices/upsert")
+    class UpsertDeviceTests {
+
+        private final DeviceRequest request = new DeviceRequest("Test Device", "Test Brand", DeviceState.AVAILABLE);
+
+        @Test
+        @DisplayName("Should return 201 when the device is created")
+        void shouldReturn201WhenCreated() throws Exception {
+            when(deviceService.upsert(request)).thenReturn(new DeviceUpsertResult(UpsertOutcome.CREATED, deviceResponse));
+
+            mockMvc.perform(post("/api/v1/devices/upsert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(deviceId.toString()));
+        }
+
+        @Test
+        @DisplayName("Should return 200 when the device is updated")
+        void shouldReturn200WhenUpdated() throws Exception {
+            when(deviceService.upsert(request)).thenReturn(new DeviceUpsertResult(UpsertOutcome.UPDATED, deviceResponse));
+
+            mockMvc.perform(post("/api/v1/devices/upsert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(deviceId.toString()));
+        }
+
+        @Test
+        @DisplayName("Should return 409 when the device is in use")
+        void shouldReturn409WhenInUse() throws Exception {
+            when(deviceService.upsert(request)).thenThrow(new DeviceInUseException("Cannot update device that is in use"));
+
+            mockMvc.perform(post("/api/v1/devices/upsert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.title").value("Device In Use"));
+        }
+
+        @Test
+        @DisplayName("Should return the outcome of every device in a batch")
+        void shouldUpsertBatch() throws Exception {
+            DeviceRequest inUse = new DeviceRequest("Other Device", "Test Brand", DeviceState.INACTIVE);
+            when(deviceService.upsertAll(List.of(request, inUse))).thenReturn(List.of(
+                    new DeviceUpsertResult(UpsertOutcome.UPDATED, deviceResponse),
+                    new DeviceUpsertResult(UpsertOutcome.IN_USE, new DeviceResponse(null, "Other Device", "Test Brand", null, null))));
+
+            mockMvc.perform(post("/api/v1/devices/upsert/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new DeviceUpsertBatchRequest(List.of(request, inUse)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].outcome").value("UPDATED"))
+                    .andExpect(jsonPath("$[0].device.id").value(deviceId.toString()))
+                    .andExpect(jsonPath("$[1].outcome").value("IN_USE"))
+                    .andExpect(jsonPath("$[1].device.name").value("Other Device"));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when the batch is empty")
+        void shouldReturn400WhenBatchIsEmpty() throws Exception {
+            mockMvc.perform(post("/api/v1/devices/upsert/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"devices\": []}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.title").value("Validation Error"));
+        }
     }
 
     @Nested
@@ -154,6 +272,30 @@ class DeviceControllerTest {
                     .andExpect(status().isNotFound())
                     .andExpect(jsonPath("$.title").value("Device Not Found"));
         }
+
+        @Test
+        @DisplayName("Should return only requested fields")
+        void shouldReturnOnlyRequestedFields() throws Exception {
+            DeviceResponse projected = new DeviceResponse(deviceId, null, null, DeviceState.AVAILABLE, null);
+            when(deviceService.getById(deviceId, EnumSet.of(DeviceField.ID, DeviceField.STATE))).thenReturn(projected);
+
+            mockMvc.perform(get("/api/v1/devices/{id}", deviceId)
+                            .param("fields", "id,state"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(deviceId.toString()))
+                    .andExpect(jsonPath("$.state").value("AVAILABLE"))
+                    .andExpect(jsonPath("$.name").doesNotExist())
+                    .andExpect(jsonPath("$.creationTime").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should return 400 for unknown field")
+        void shouldReturn400ForUnknownField() throws Exception {
+            mockMvc.perform(get("/api/v1/devices/{id}", deviceId)
+                            .param("fields", "id,serialNumber"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.title").value("Bad Request"));
+        }
     }
 
     @Nested
@@ -163,7 +305,7 @@ class DeviceControllerTest {
         @Test
         @DisplayName("Should return all devices")
         void shouldReturnAllDevices() throws Exception {
-            when(deviceService.getAll(null, null)).thenReturn(List.of(deviceResponse));
+            when(deviceService.getAll(DeviceFilter.of(null, null))).thenReturn(List.of(deviceResponse));
 
             mockMvc.perform(get("/api/v1/devices"))
                     .andExpect(status().isOk())
@@ -173,27 +315,140 @@ class DeviceControllerTest {
         @Test
         @DisplayName("Should filter by brand")
         void shouldFilterByBrand() throws Exception {
-            when(deviceService.getAll("Test Brand", null)).thenReturn(List.of(deviceResponse));
+            when(deviceService.getAll(DeviceFilter.of("Test Brand", null))).thenReturn(List.of(deviceResponse));
 
             mockMvc.perform(get("/api/v1/devices")
                             .param("brand", "Test Brand"))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$[0].brand").value("Test Brand"));
 
-            verify(deviceService).getAll("Test Brand", null);
+            verify(deviceService).getAll(DeviceFilter.of("Test Brand", null));
         }
 
         @Test
         @DisplayName("Should filter by state")
         void shouldFilterByState() throws Exception {
-            when(deviceService.getAll(null, DeviceState.AVAILABLE)).thenReturn(List.of(deviceResponse));
+            when(deviceService.getAll(DeviceFilter.of(null, DeviceState.AVAILABLE))).thenReturn(List.of(deviceResponse));
 
             mockMvc.perform(get("/api/v1/devices")
                             .param("state", "AVAILABLE"))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$[0].state").value("AVAILABLE"));
 
-            verify(deviceService).getAll(null, DeviceState.AVAILABLE);
+            verify(deviceService).getAll(DeviceFilter.of(null, DeviceState.AVAILABLE));
+        }
+
+        @Test
+        @DisplayName("Should filter by any-of and all-of tags")
+        void shouldFilterByTags() throws Exception {
+            DeviceFilter filter = new DeviceFilter("Test Brand", null, null, null,
+                    List.of("site:ams1", "site:fra2"), List.of("team:payments"));
+            when(deviceService.getAll(filter)).thenReturn(List.of(deviceResponse));
+
+            mockMvc.perform(get("/api/v1/devices")
+                            .param("brand", "Test Brand")
+                            .param("anyTags", "site:fra2,site:ams1")
+                            .param("allTags", "team:payments"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(deviceId.toString()));
+
+            verify(deviceService).getAll(filter);
+        }
+
+        @Test
+        @DisplayName("Should filter by creation time range")
+        void shouldFilterByCreationTimeRange() throws Exception {
+            DeviceFilter filter = new DeviceFilter(null, null,
+                    Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-02-01T00:00:00Z"));
+            when(deviceService.getAll(filter)).thenReturn(List.of(deviceResponse));
+
+            mockMvc.perform(get("/api/v1/devices")
+                            .param("createdAfter", "2024-01-01T00:00:00Z")
+                            .param("createdBefore", "2024-02-01T00:00:00Z"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(deviceId.toString()));
+
+            verify(deviceService).getAll(filter);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when creation time range is inverted")
+        void shouldReturn400WhenCreationTimeRangeInverted() throws Exception {
+            mockMvc.perform(get("/api/v1/devices")
+                            .param("createdAfter", "2024-02-01T00:00:00Z")
+                            .param("createdBefore", "2024-01-01T00:00:00Z"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Should return only requested fields")
+        void shouldReturnOnlyRequestedFields() throws Exception {
+            DeviceResponse projected = new DeviceResponse(deviceId, null, null, DeviceState.AVAILABLE, null);
+            when(deviceService.getAll(DeviceFilter.of("Test Brand", null), EnumSet.of(DeviceField.ID, DeviceField.STATE)))
+                    .thenReturn(List.of(projected));
+
+            mockMvc.perform(get("/api/v1/devices")
+                            .param("brand", "Test Brand")
+                            .param("fields", "id,state"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(deviceId.toString()))
+                    .andExpect(jsonPath("$[0].brand").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should add the total and its source when requested")
+        void shouldIncludeTotal() throws Exception {
+            DeviceFilter filter = DeviceFilter.of("Test Brand", null);
+            when(deviceService.getAll(filter)).thenReturn(List.of(deviceResponse));
+            when(deviceTotalService.total(filter)).thenReturn(new DeviceTotal(125_000, TotalCountSource.ESTIMATE));
+
+            mockMvc.perform(get("/api/v1/devices")
+                            .param("brand", "Test Brand")
+                            .param("includeTotal", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Total-Count", "125000"))
+                    .andExpect(header().string("X-Total-Count-Source", "estimate"))
+                    .andExpect(jsonPath("$[0].id").value(deviceId.toString()));
+        }
+
+        @Test
+        @DisplayName("Should not compute a total unless requested")
+        void shouldOmitTotalByDefault() throws Exception {
+            when(deviceService.getAll(DeviceFilter.of(null, null))).thenReturn(List.of(deviceResponse));
+
+            mockMvc.perform(get("/api/v1/devices"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("X-Total-Count"));
+
+            verifyNoInteractions(deviceTotalService);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/devices/count")
+    class CountDevicesTests {
+
+        @Test
+        @DisplayName("Should return count for filter")
+        void shouldReturnCount() throws Exception {
+            when(deviceService.count(DeviceFilter.of("Test Brand", DeviceState.AVAILABLE))).thenReturn(3L);
+
+            mockMvc.perform(get("/api/v1/devices/count")
+                            .param("brand", "Test Brand")
+                            .param("state", "AVAILABLE"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.count").value(3));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for inverted creation time range")
+        void shouldRejectInvertedRange() throws Exception {
+            mockMvc.perform(get("/api/v1/devices/count")
+                            .param("createdAfter", "2024-02-01T00:00:00Z")
+                            .param("createdBefore", "2024-01-01T00:00:00Z"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(deviceService);
         }
     }
 
@@ -261,6 +516,22 @@ class DeviceControllerTest {
                     .andExpect(status().isConflict())
                     .andExpect(jsonPath("$.title").value("Device In Use"));
         }
+
+        @Test
+        @DisplayName("Should return 409 when the new brand and name belong on another shard")
+        void shouldReturn409WhenRenamedAcrossShards() throws Exception {
+            DeviceFullUpdateRequest request = new DeviceFullUpdateRequest("Updated", "Brand", DeviceState.AVAILABLE);
+
+            when(deviceService.update(eq(deviceId), any(DeviceFullUpdateRequest.class)))
+                    .thenThrow(new CrossShardRenameException("Brand", "Updated"));
+
+            mockMvc.perform(put("/api/v1/devices/{id}", deviceId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.title").value("Cross-Shard Rename"))
+                    .andExpect(jsonPath("$.type").value("https://api.devices.com/errors/cross-shard-rename"));
+        }
     }
 
     @Nested
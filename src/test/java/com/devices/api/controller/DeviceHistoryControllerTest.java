@@ -0,0 +1,111 @@
+package com.devices.api.controller;
+
+import com.devices.api.dto.DeviceStateTransition;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.exception.GlobalExceptionHandler;
+import com.devices.api.service.DeviceHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = DeviceHistoryController.class, properties = "devices.history.enabled=true")
+@Import({GlobalExceptionHandler.class, DeviceHistoryControllerTest.TestConfig.class})
+class DeviceHistoryControllerTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        DeviceHistoryService deviceHistoryService() {
+            return mock(DeviceHistoryService.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DeviceHistoryService deviceHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        reset(deviceHistoryService);
+    }
+
+    @Test
+    @DisplayName("Should return a device's history")
+    void shouldReturnDeviceHistory() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(deviceHistoryService.getDeviceHistory(id)).thenReturn(List.of(new DeviceStateTransition(
+                id, DeviceState.AVAILABLE, DeviceState.IN_USE, Instant.parse("2024-01-15T10:30:00Z"))));
+
+        mockMvc.perform(get("/api/v1/devices/{id}/history", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].deviceId").value(id.toString()))
+                .andExpect(jsonPath("$[0].fromState").value("AVAILABLE"))
+                .andExpect(jsonPath("$[0].toState").value("IN_USE"));
+    }
+
+    @Test
+    @DisplayName("Should return transitions in a window")
+    void shouldReturnTransitionsInWindow() throws Exception {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        Instant to = Instant.parse("2024-01-02T00:00:00Z");
+        when(deviceHistoryService.getTransitions(from, to, 50)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/devices/history")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("to", "2024-01-02T00:00:00Z")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should default to the last day and 1000 transitions")
+    void shouldDefaultWindow() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/history"))
+                .andExpect(status().isOk());
+
+        verify(deviceHistoryService).getTransitions(
+                argThat(from -> Duration.between(from, Instant.now()).compareTo(Duration.ofDays(1)) >= 0),
+                any(), eq(1000));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when from is not before to")
+    void shouldRejectEmptyWindow() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/history")
+                        .param("from", "2024-01-02T00:00:00Z")
+                        .param("to", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(deviceHistoryService);
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a limit above the maximum")
+    void shouldRejectLargeLimit() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/history").param("limit", "10001"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(deviceHistoryService);
+    }
+}
@@ -0,0 +1,124 @@
+package com.devices.api.controller;
+
+import com.devices.api.dto.ImportJobResponse;
+import com.devices.api.dto.ImportRowError;
+import com.devices.api.enums.ImportFormat;
+import com.devices.api.enums.ImportJobStatus;
+import com.devices.api.exception.GlobalExceptionHandler;
+import com.devices.api.exception.ImportJobNotFoundException;
+import com.devices.api.service.DeviceImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DeviceImportController.class)
+@Import({GlobalExceptionHandler.class, DeviceImportControllerTest.TestConfig.class})
+class DeviceImportControllerTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        DeviceImportService deviceImportService() {
+            return mock(DeviceImportService.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DeviceImportService deviceImportService;
+
+    private final UUID jobId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        reset(deviceImportService);
+    }
+
+    @Test
+    @DisplayName("Should queue an upload and point to the job")
+    void shouldQueueUpload() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "feed.csv", "text/csv",
+                "name,brand,state\nPixel 8,Google,AVAILABLE\n".getBytes());
+        when(deviceImportService.submit(eq("feed.csv"), eq("text/csv"), any()))
+                .thenReturn(job(ImportJobStatus.QUEUED, List.of()));
+
+        mockMvc.perform(multipart("/api/v1/devices/imports").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/v1/devices/imports/" + jobId))
+                .andExpect(jsonPath("$.id").value(jobId.toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("Should reject an empty upload")
+    void shouldRejectEmptyUpload() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "feed.csv", "text/csv", new byte[0]);
+
+        mockMvc.perform(multipart("/api/v1/devices/imports").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Uploaded file is empty"));
+
+        verifyNoInteractions(deviceImportService);
+    }
+
+    @Test
+    @DisplayName("Should reject an unsupported format")
+    void shouldRejectUnsupportedFormat() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "feed.xlsx", "application/octet-stream", new byte[]{1});
+        when(deviceImportService.submit(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Unsupported import format: feed.xlsx. Upload a .csv or .ndjson file."));
+
+        mockMvc.perform(multipart("/api/v1/devices/imports").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Bad Request"));
+    }
+
+    @Test
+    @DisplayName("Should return job progress with rejected rows")
+    void shouldReturnProgress() throws Exception {
+        when(deviceImportService.getJob(jobId)).thenReturn(
+                job(ImportJobStatus.RUNNING, List.of(new ImportRowError(3, "Brand is required"))));
+
+        mockMvc.perform(get("/api/v1/devices/imports/{id}", jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.rowsRejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Brand is required"));
+    }
+
+    @Test
+    @DisplayName("Should return 404 for an unknown job")
+    void shouldReturnNotFoundForUnknownJob() throws Exception {
+        when(deviceImportService.getJob(jobId)).thenThrow(new ImportJobNotFoundException(jobId));
+
+        mockMvc.perform(get("/api/v1/devices/imports/{id}", jobId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.title").value("Import Job Not Found"));
+    }
+
+    private ImportJobResponse job(ImportJobStatus status, List<ImportRowError> errors) {
+        return new ImportJobResponse(jobId, "feed.csv", ImportFormat.CSV, status, errors.size() + 1L, 0,
+                errors.size(), null, Instant.now(), null, null, errors);
+    }
+}
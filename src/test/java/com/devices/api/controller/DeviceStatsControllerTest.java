@@ -0,0 +1,87 @@
+package com.devices.api.controller;
+
+import com.devices.api.dto.DeviceTimelineEntry;
+import com.devices.api.enums.TimelineBucket;
+import com.devices.api.exception.GlobalExceptionHandler;
+import com.devices.api.service.DeviceStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DeviceStatsController.class)
+@Import({GlobalExceptionHandler.class, DeviceStatsControllerTest.TestConfig.class})
+class DeviceStatsControllerTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        DeviceStatsService deviceStatsService() {
+            return mock(DeviceStatsService.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DeviceStatsService deviceStatsService;
+
+    @BeforeEach
+    void setUp() {
+        reset(deviceStatsService);
+    }
+
+    @Test
+    @DisplayName("Should return daily timeline for brand")
+    void shouldReturnDailyTimelineForBrand() throws Exception {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        Instant to = Instant.parse("2024-02-01T00:00:00Z");
+        when(deviceStatsService.getCreationTimeline(TimelineBucket.DAY, "Apple", from, to))
+                .thenReturn(List.of(new DeviceTimelineEntry(from, "Apple", 5)));
+
+        mockMvc.perform(get("/api/v1/devices/stats/timeline")
+                        .param("bucket", "day")
+                        .param("brand", "Apple")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("to", "2024-02-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].brand").value("Apple"))
+                .andExpect(jsonPath("$[0].count").value(5));
+    }
+
+    @Test
+    @DisplayName("Should default to hourly buckets")
+    void shouldDefaultToHourlyBuckets() throws Exception {
+        when(deviceStatsService.getCreationTimeline(eq(TimelineBucket.HOUR), eq(null), any(), any()))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/devices/stats/timeline"))
+                .andExpect(status().isOk());
+
+        verify(deviceStatsService).getCreationTimeline(eq(TimelineBucket.HOUR), eq(null), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for unknown bucket")
+    void shouldReturn400ForUnknownBucket() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/stats/timeline")
+                        .param("bucket", "week"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Bad Request"));
+    }
+}
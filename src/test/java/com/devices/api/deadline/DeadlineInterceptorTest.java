@@ -0,0 +1,167 @@
+package com.devices.api.deadline;
+
+import com.devices.api.config.DeadlineProperties;
+import com.devices.api.controller.DeviceController;
+import com.devices.api.controller.DeviceHistoryController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class DeadlineInterceptorTest {
+
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor(new DeadlineProperties(true,
+            Duration.ofSeconds(10), Map.of("DeviceController.getDevice", Duration.ofSeconds(2),
+                    "DeviceHistoryController.getDeviceHistory", Duration.ofSeconds(1)), "X-Request-Timeout"));
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/v1/devices");
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        DeadlineContext.restore(null);
+    }
+
+    @Nested
+    @DisplayName("Interceptor Tests")
+    class InterceptorTests {
+
+        @Test
+        @DisplayName("Should use the timeout configured for the operation or the default")
+        void shouldUseOperationTimeout() throws Exception {
+            interceptor.preHandle(request, response, handler("getDevice", UUID.class, List.class));
+            assertThat(DeadlineContext.current().remaining()).isBetween(Duration.ofSeconds(1), Duration.ofSeconds(2));
+            interceptor.afterCompletion(request, response, handler("getDevice", UUID.class, List.class), null);
+            assertThat(DeadlineContext.current()).isNull();
+
+            interceptor.preHandle(request, response, handler("deleteDevice", UUID.class));
+            assertThat(DeadlineContext.current().remaining()).isBetween(Duration.ofSeconds(9), Duration.ofSeconds(10));
+        }
+
+        @Test
+        @DisplayName("Should look timeouts up by controller and method name")
+        void shouldKeyOperationsByController() throws Exception {
+            HandlerMethod history = new HandlerMethod(mock(DeviceHistoryController.class),
+                    DeviceHistoryController.class.getMethod("getDeviceHistory", UUID.class));
+
+            interceptor.preHandle(request, response, history);
+
+            assertThat(DeadlineContext.current().remaining()).isLessThanOrEqualTo(Duration.ofSeconds(1));
+        }
+
+        @Test
+        @DisplayName("Should let the header shorten but not extend the deadline")
+        void shouldApplyHeaderWhenShorter() throws Exception {
+            request.addHeader("X-Request-Timeout", "500");
+            interceptor.preHandle(request, response, handler("getDevice", UUID.class, List.class));
+            assertThat(DeadlineContext.current().remaining()).isLessThanOrEqualTo(Duration.ofMillis(500));
+
+            MockHttpServletRequest longer = new MockHttpServletRequest("GET", "/api/v1/devices");
+            longer.addHeader("X-Request-Timeout", "1m");
+            interceptor.preHandle(longer, response, handler("getDevice", UUID.class, List.class));
+            assertThat(DeadlineContext.current().remaining()).isLessThanOrEqualTo(Duration.ofSeconds(2));
+        }
+
+        @Test
+        @DisplayName("Should reject a header that is not a positive duration")
+        void shouldRejectInvalidHeader() {
+            request.addHeader("X-Request-Timeout", "-1s");
+
+            assertThatThrownBy(() -> interceptor.preHandle(request, response, handler("deleteDevice", UUID.class)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("X-Request-Timeout");
+            assertThat(DeadlineContext.current()).isNull();
+        }
+
+        private HandlerMethod handler(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+            return new HandlerMethod(mock(DeviceController.class), DeviceController.class.getMethod(name, parameterTypes));
+        }
+    }
+
+    @Nested
+    @DisplayName("Transaction Listener Tests")
+    @ExtendWith(MockitoExtension.class)
+    class TransactionListenerTests {
+
+        @Mock
+        private DataSource dataSource;
+
+        @Mock
+        private Connection connection;
+
+        @Mock
+        private Statement statement;
+
+        @Mock
+        private TransactionExecution transaction;
+
+        @Test
+        @DisplayName("Should set the remaining time as the transaction's statement timeout")
+        void shouldSetStatementTimeout() throws Exception {
+            when(dataSource.getConnection()).thenReturn(connection);
+            when(connection.createStatement()).thenReturn(statement);
+
+            DeadlineContext.call(Deadline.after(Duration.ofSeconds(2)), () -> {
+                new DeadlineTransactionListener(dataSource, () -> null).afterBegin(transaction, null);
+                return null;
+            });
+
+            verify(statement).execute(startsWith("SET LOCAL statement_timeout = 1"));
+        }
+
+        @Test
+        @DisplayName("Should use the minimum timeout once the deadline has passed")
+        void shouldUseMinimumTimeoutWhenExpired() throws Exception {
+            when(dataSource.getConnection()).thenReturn(connection);
+            when(connection.createStatement()).thenReturn(statement);
+
+            DeadlineContext.call(new Deadline(System.nanoTime() - 1), () -> {
+                new DeadlineTransactionListener(dataSource, () -> null).afterBegin(transaction, null);
+                return null;
+            });
+
+            verify(statement).execute("SET LOCAL statement_timeout = 1");
+        }
+
+        @Test
+        @DisplayName("Should leave tighter connection timeouts and requests without a deadline alone")
+        void shouldSkipWhenNotNeeded() {
+            DeadlineTransactionListener listener = new DeadlineTransactionListener(dataSource, () -> Duration.ofSeconds(1));
+
+            listener.afterBegin(transaction, null);
+            DeadlineContext.call(Deadline.after(Duration.ofSeconds(5)), () -> {
+                listener.afterBegin(transaction, null);
+                return null;
+            });
+
+            verifyNoInteractions(dataSource);
+        }
+    }
+}
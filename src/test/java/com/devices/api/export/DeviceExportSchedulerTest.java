@@ -0,0 +1,74 @@
+package com.devices.api.export;
+
+import com.devices.api.config.ExportProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceExportSchedulerTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private DeviceArrowExporter exporter;
+
+    private DeviceExportScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new DeviceExportScheduler(exporter,
+                new ExportProperties(true, 1024, true, directory, Duration.ofHours(1), 2));
+    }
+
+    @Test
+    @DisplayName("Should publish the export under its final name and keep only the newest ones")
+    void shouldPublishAndPrune() throws Exception {
+        Files.writeString(directory.resolve("devices-20240101T000000Z.arrow"), "old");
+        Files.writeString(directory.resolve("devices-20240102T000000Z.arrow"), "newer");
+        Files.writeString(directory.resolve("notes.txt"), "unrelated");
+        when(exporter.writeFile(any())).thenAnswer(invocation -> {
+            Files.writeString(invocation.getArgument(0), "ARROW1");
+            return 3L;
+        });
+
+        scheduler.export();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()).sorted())
+                    .hasSize(3)
+                    .contains("devices-20240102T000000Z.arrow", "notes.txt")
+                    .noneMatch(name -> name.endsWith(".partial"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove the partial file when the export fails")
+    void shouldRemovePartialFileOnFailure() throws Exception {
+        when(exporter.writeFile(any())).thenAnswer(invocation -> {
+            Files.writeString(invocation.getArgument(0), "ARR");
+            throw new SQLException("connection reset");
+        });
+
+        scheduler.export();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.devices.api.history;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceStateTransition;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.event.DevicesUpsertedEvent;
+import com.devices.api.repository.DeviceStateHistoryRepository;
+import com.devices.api.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceStateHistoryRecorderTest {
+
+    private static final Instant CREATED = Instant.parse("2024-01-15T10:30:00Z");
+
+    @Mock
+    private DeviceStateHistoryRepository repository;
+
+    private final List<List<DeviceStateTransition>> inserts = new ArrayList<>();
+
+    private DeviceStateHistoryRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new DeviceStateHistoryRecorder(repository, null, 3, 2);
+    }
+
+    private void captureInserts() {
+        doAnswer(invocation -> inserts.add(List.copyOf(invocation.getArgument(0))))
+                .when(repository).insertAll(any());
+    }
+
+    @Nested
+    @DisplayName("Recording Tests")
+    class RecordingTests {
+
+        @Test
+        @DisplayName("Should record state changes only")
+        void shouldRecordStateChangesOnly() {
+            captureInserts();
+            UUID id = UUID.randomUUID();
+            recorder.onDeviceChanged(DeviceChangedEvent.created(device(id, "iPhone", DeviceState.AVAILABLE)));
+            recorder.onDeviceChanged(DeviceChangedEvent.updated(
+                    device(id, "iPhone", DeviceState.AVAILABLE), device(id, "iPhone 15", DeviceState.AVAILABLE)));
+            recorder.onDeviceChanged(DeviceChangedEvent.updated(
+                    device(id, "iPhone 15", DeviceState.AVAILABLE), device(id, "iPhone 15", DeviceState.IN_USE)));
+            recorder.onDeviceChanged(DeviceChangedEvent.deleted(device(id, "iPhone 15", DeviceState.INACTIVE)));
+
+            recorder.flush();
+
+            assertThat(inserts).singleElement().satisfies(batch -> assertThat(batch).singleElement()
+                    .satisfies(transition -> {
+                        assertThat(transition.deviceId()).isEqualTo(id);
+                        assertThat(transition.fromState()).isEqualTo(DeviceState.AVAILABLE);
+                        assertThat(transition.toState()).isEqualTo(DeviceState.IN_USE);
+                    }));
+        }
+
+        @Test
+        @DisplayName("Should record upserted devices that changed state")
+        void shouldRecordUpserts() {
+            captureInserts();
+            UUID id = UUID.randomUUID();
+            recorder.onDevicesUpserted(new DevicesUpsertedEvent(List.of(
+                    DeviceChangedEvent.created(device(UUID.randomUUID(), "Pixel", DeviceState.AVAILABLE)),
+                    DeviceChangedEvent.updated(device(id, "iPhone", DeviceState.IN_USE), device(id, "iPhone", DeviceState.INACTIVE)))));
+
+            recorder.flush();
+
+            assertThat(inserts).singleElement().satisfies(batch -> assertThat(batch)
+                    .extracting(DeviceStateTransition::deviceId).containsExactly(id));
+        }
+
+        @Test
+        @DisplayName("Should drop and count transitions when the queue is full")
+        void shouldDropWhenQueueIsFull() {
+            for (int i = 0; i < 5; i++) {
+                recorder.onDeviceChanged(transition());
+            }
+
+            assertThat(recorder.queued()).isEqualTo(3);
+            assertThat(recorder.dropped()).isEqualTo(2);
+            verifyNoInteractions(repository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Flush Tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Should write the queue in batches")
+        void shouldWriteInBatches() {
+            captureInserts();
+            for (int i = 0; i < 3; i++) {
+                recorder.onDeviceChanged(transition());
+            }
+
+            recorder.flush();
+
+            assertThat(inserts).extracting(List::size).containsExactly(2, 1);
+            assertThat(recorder.queued()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should keep a failed batch for the next flush")
+        void shouldRetryFailedBatch() {
+            recorder.onDeviceChanged(transition());
+            doThrow(new IllegalStateException("no partition of relation found for row"))
+                    .when(repository).insertAll(any());
+
+            recorder.flush();
+            assertThat(recorder.queued()).isEqualTo(1);
+
+            inserts.clear();
+            captureInserts();
+            recorder.flush();
+
+            assertThat(inserts).singleElement().satisfies(batch -> assertThat(batch).hasSize(1));
+            assertThat(recorder.queued()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should write each transition to its device's shard and retry only failed shards")
+        void shouldWritePerShard() {
+            ShardRouter router = new ShardRouter(2);
+            recorder = new DeviceStateHistoryRecorder(repository, router, 10, 10);
+            UUID onShard0 = idOnShard(router, 0);
+            UUID onShard1 = idOnShard(router, 1);
+            recorder.onDeviceChanged(transition(onShard0));
+            recorder.onDeviceChanged(transition(onShard1));
+            doAnswer(invocation -> null)
+                    .doThrow(new IllegalStateException("shard 1 unavailable"))
+                    .when(repository).insertAll(any());
+
+            recorder.flush();
+
+            assertThat(recorder.queued()).isEqualTo(1);
+            verify(repository, times(2)).insertAll(any());
+        }
+    }
+
+    private static UUID idOnShard(ShardRouter router, int shard) {
+        UUID id;
+        do {
+            id = UUID.randomUUID();
+        } while (router.shardFor(id) != shard);
+        return id;
+    }
+
+    private static DeviceChangedEvent transition() {
+        return transition(UUID.randomUUID());
+    }
+
+    private static DeviceChangedEvent transition(UUID id) {
+        return DeviceChangedEvent.updated(device(id, "iPhone", DeviceState.AVAILABLE), device(id, "iPhone", DeviceState.IN_USE));
+    }
+
+    private static DeviceResponse device(UUID id, String name, DeviceState state) {
+        return new DeviceResponse(id, name, "Apple", state, CREATED);
+    }
+}
@@ -0,0 +1,88 @@
+package com.devices.api.hotkeys;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+
+    @Test
+    @DisplayName("Should never under-count and over-count rare keys only by collisions")
+    void shouldBoundEstimates() {
+        CountMinSketch sketch = new CountMinSketch(1_024, 4);
+        for (int i = 0; i < 1_000; i++) {
+            sketch.increment("hot");
+        }
+        for (int i = 0; i < 5_000; i++) {
+            sketch.increment("cold-" + i);
+        }
+
+        assertThat(sketch.estimate("hot")).isBetween(1_000, 1_100);
+        int overCounted = 0;
+        for (int i = 0; i < 5_000; i++) {
+            int estimate = sketch.estimate("cold-" + i);
+            assertThat(estimate).isPositive();
+            if (estimate > 10) {
+                overCounted++;
+            }
+        }
+        assertThat(overCounted).isLessThan(50);
+    }
+
+    @Test
+    @DisplayName("Should count keys with the same String hash code separately")
+    void shouldSeparateEqualHashCodes() {
+        CountMinSketch sketch = new CountMinSketch(1_024, 4);
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("Aa");
+        }
+
+        assertThat(sketch.estimate("Aa")).isEqualTo(100);
+        assertThat(sketch.estimate("BB")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should halve every count")
+    void shouldHalve() {
+        CountMinSketch sketch = new CountMinSketch(64, 2);
+        for (int i = 0; i < 9; i++) {
+            sketch.increment("key");
+        }
+
+        sketch.halve();
+
+        assertThat(sketch.estimate("key")).isEqualTo(4);
+        assertThat(sketch.increment("key")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should not lose increments under contention")
+    void shouldCountConcurrently() throws Exception {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        sketch.increment("key");
+                    }
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        assertThat(sketch.estimate("key")).isEqualTo(80_000);
+    }
+}
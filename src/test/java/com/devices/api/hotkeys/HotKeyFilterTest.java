@@ -0,0 +1,53 @@
+package com.devices.api.hotkeys;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeyFilterTest {
+
+    private static final String ID = "0f8fad5b-d9cb-469f-a165-70867728950e";
+
+    private final HotKeys hotKeys = new HotKeys(
+            new HotKeyTracker(new CountMinSketch(256, 4), 10),
+            new HotKeyTracker(new CountMinSketch(256, 4), 10));
+    private final HotKeyFilter filter = new HotKeyFilter(hotKeys);
+
+    @Test
+    @DisplayName("Should record device ids and list filters of reads")
+    void shouldRecordReads() throws Exception {
+        perform(new MockHttpServletRequest("GET", "/api/v1/devices/" + ID));
+        perform(new MockHttpServletRequest("GET", "/api/v1/devices/" + ID));
+        MockHttpServletRequest list = new MockHttpServletRequest("GET", "/api/v1/devices");
+        list.addParameter("state", "IN_USE");
+        list.addParameter("brand", "Apple");
+        perform(list);
+        perform(new MockHttpServletRequest("GET", "/api/v1/devices"));
+
+        HotKeys.Snapshot top = hotKeys.top(10);
+        assertThat(top.devices()).containsExactly(new HotKeyTracker.HotKey(ID, 2));
+        assertThat(top.filters()).extracting(HotKeyTracker.HotKey::key)
+                .containsExactlyInAnyOrder("brand=Apple&state=IN_USE", HotKeyFilter.ALL);
+    }
+
+    @Test
+    @DisplayName("Should ignore writes and other device paths")
+    void shouldIgnoreOtherRequests() throws Exception {
+        perform(new MockHttpServletRequest("DELETE", "/api/v1/devices/" + ID));
+        perform(new MockHttpServletRequest("GET", "/api/v1/devices/" + ID + "/history"));
+        perform(new MockHttpServletRequest("GET", "/api/v1/devices/count"));
+
+        assertThat(hotKeys.top(10).devices()).isEmpty();
+        assertThat(hotKeys.top(10).filters()).isEmpty();
+    }
+
+    private void perform(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+}
@@ -0,0 +1,81 @@
+package com.devices.api.hotkeys;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeyTrackerTest {
+
+    private final HotKeyTracker tracker = new HotKeyTracker(new CountMinSketch(4_096, 4), 3);
+
+    @Nested
+    @DisplayName("Top Keys Tests")
+    class TopKeysTests {
+
+        @Test
+        @DisplayName("Should list the most frequent keys first")
+        void shouldRankByFrequency() {
+            record("a", 30);
+            record("b", 10);
+            record("c", 20);
+            record("d", 5);
+
+            assertThat(tracker.top(10)).extracting(HotKeyTracker.HotKey::key).containsExactly("a", "c", "b");
+            assertThat(tracker.top(1)).containsExactly(new HotKeyTracker.HotKey("a", 30));
+        }
+
+        @Test
+        @DisplayName("Should find heavy hitters among many one-off keys")
+        void shouldFindHeavyHitters() {
+            for (int i = 0; i < 10_000; i++) {
+                tracker.record("once-" + i);
+                if (i % 100 == 0) {
+                    tracker.record("hot");
+                }
+                if (i % 250 == 0) {
+                    tracker.record("warm");
+                }
+            }
+
+            assertThat(tracker.top(2)).extracting(HotKeyTracker.HotKey::key).containsExactly("hot", "warm");
+        }
+
+        @Test
+        @DisplayName("Should let a key that becomes hot later displace colder ones")
+        void shouldAdmitLateHotKey() {
+            record("a", 10);
+            record("b", 10);
+            record("c", 10);
+            record("d", 10);
+
+            record("late", 50);
+
+            assertThat(tracker.top(1)).extracting(HotKeyTracker.HotKey::key).containsExactly("late");
+        }
+    }
+
+    @Nested
+    @DisplayName("Decay Tests")
+    class DecayTests {
+
+        @Test
+        @DisplayName("Should halve counts and drop keys no longer requested")
+        void shouldDecay() {
+            record("steady", 8);
+            record("gone", 1);
+
+            tracker.decay();
+
+            assertThat(tracker.estimate("steady")).isEqualTo(4);
+            assertThat(tracker.top(10)).containsExactly(new HotKeyTracker.HotKey("steady", 4));
+        }
+    }
+
+    private void record(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+}
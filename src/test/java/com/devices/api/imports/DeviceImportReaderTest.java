@@ -0,0 +1,131 @@
+package com.devices.api.imports;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.ImportFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeviceImportReaderTest {
+
+    private static List<DeviceImportReader.Row> read(ImportFormat format, String content) throws IOException {
+        try (DeviceImportReader reader = DeviceImportReader.open(format,
+                new BufferedReader(new StringReader(content)), JsonMapper.builder().build())) {
+            List<DeviceImportReader.Row> rows = new ArrayList<>();
+            DeviceImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    @Nested
+    @DisplayName("CSV")
+    class Csv {
+
+        @Test
+        @DisplayName("Should map columns by header in any order")
+        void shouldMapColumnsByHeader() throws IOException {
+            List<DeviceImportReader.Row> rows = read(ImportFormat.CSV, """
+                    \uFEFFState,Name,vendor_sku,Brand
+                    available,"Galaxy S24, 256GB",SKU-1,Samsung
+                    IN_USE,"The ""Pro"" model",SKU-2,Apple
+                    """);
+
+            assertThat(rows).extracting(DeviceImportReader.Row::device).containsExactly(
+                    new DeviceRequest("Galaxy S24, 256GB", "Samsung", DeviceState.AVAILABLE),
+                    new DeviceRequest("The \"Pro\" model", "Apple", DeviceState.IN_USE));
+        }
+
+        @Test
+        @DisplayName("Should keep file line numbers across blank lines")
+        void shouldKeepLineNumbers() throws IOException {
+            List<DeviceImportReader.Row> rows = read(ImportFormat.CSV, "name,brand,state\n\nPixel,Google,AVAILABLE\n");
+
+            assertThat(rows).singleElement().extracting(DeviceImportReader.Row::line).isEqualTo(3L);
+        }
+
+        @Test
+        @DisplayName("Should leave missing values to validation")
+        void shouldLeaveMissingValuesNull() throws IOException {
+            List<DeviceImportReader.Row> rows = read(ImportFormat.CSV, "name,brand,state\nPixel,,\n");
+
+            assertThat(rows.getFirst().isRejected()).isFalse();
+            assertThat(rows.getFirst().device()).isEqualTo(new DeviceRequest("Pixel", null, null));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown states and broken quoting per row")
+        void shouldRejectBadRows() throws IOException {
+            List<DeviceImportReader.Row> rows = read(ImportFormat.CSV, """
+                    name,brand,state
+                    Pixel,Google,BROKEN
+                    "Pixel,Google,AVAILABLE
+                    """);
+
+            assertThat(rows).allMatch(DeviceImportReader.Row::isRejected);
+            assertThat(rows.get(0).error()).startsWith("Invalid state: BROKEN");
+            assertThat(rows.get(1).error()).isEqualTo("Unterminated quoted field");
+        }
+
+        @Test
+        @DisplayName("Should fail the file when a required column is missing")
+        void shouldFailWithoutRequiredColumns() {
+            assertThatThrownBy(() -> read(ImportFormat.CSV, "name,brand\nPixel,Google\n"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("name, brand and state");
+        }
+    }
+
+    @Nested
+    @DisplayName("NDJSON")
+    class Ndjson {
+
+        @Test
+        @DisplayName("Should read one device per line")
+        void shouldReadDevices() throws IOException {
+            List<DeviceImportReader.Row> rows = read(ImportFormat.NDJSON, """
+                    {"name":"Pixel 8","brand":"Google","state":"AVAILABLE"}
+                    {"name":"ThinkPad","brand":"Lenovo","state":"INACTIVE"}
+                    """);
+
+            assertThat(rows).extracting(DeviceImportReader.Row::device).containsExactly(
+                    new DeviceRequest("Pixel 8", "Google", DeviceState.AVAILABLE),
+                    new DeviceRequest("ThinkPad", "Lenovo", DeviceState.INACTIVE));
+        }
+
+        @Test
+        @DisplayName("Should reject malformed lines without stopping")
+        void shouldRejectMalformedLines() throws IOException {
+            List<DeviceImportReader.Row> rows = read(ImportFormat.NDJSON, """
+                    {"name":"Pixel 8","brand":
+                    {"name":"ThinkPad","brand":"Lenovo","state":"INACTIVE"}
+                    """);
+
+            assertThat(rows.get(0).isRejected()).isTrue();
+            assertThat(rows.get(0).error()).startsWith("Invalid JSON");
+            assertThat(rows.get(1).device().name()).isEqualTo("ThinkPad");
+        }
+    }
+
+    @Test
+    @DisplayName("Should escape COPY text format control characters")
+    void shouldEscapeCopyText() {
+        StringBuilder buffer = new StringBuilder();
+        DeviceCopyWriter.escape(buffer, "a\\b\tc\nd");
+
+        assertThat(buffer).hasToString("a\\\\b\\tc\\nd");
+    }
+}
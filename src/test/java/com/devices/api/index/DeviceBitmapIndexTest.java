@@ -0,0 +1,149 @@
+package com.devices.api.index;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceBitmapIndexTest {
+
+    private DeviceBitmapIndex index;
+
+    private DeviceResponse iphone;
+    private DeviceResponse ipad;
+    private DeviceResponse galaxy;
+
+    @BeforeEach
+    void setUp() {
+        index = new DeviceBitmapIndex(1);
+        iphone = device("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        ipad = device("iPad Pro", "Apple", DeviceState.IN_USE);
+        galaxy = device("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+    }
+
+    @Nested
+    @DisplayName("Rebuild Tests")
+    class RebuildTests {
+
+        @Test
+        @DisplayName("Should not be ready before the first rebuild")
+        void shouldNotBeReadyBeforeRebuild() {
+            assertThat(index.isReady()).isFalse();
+
+            index.beginRebuild();
+            index.completeRebuild(List.of(iphone, ipad, galaxy));
+
+            assertThat(index.isReady()).isTrue();
+            assertThat(index.size()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should replay changes applied while rebuilding")
+        void shouldReplayChangesDuringRebuild() {
+            index.beginRebuild();
+            DeviceResponse created = device("Pixel 9", "Google", DeviceState.AVAILABLE);
+            index.apply(DeviceChangedEvent.created(created));
+            index.apply(DeviceChangedEvent.deleted(galaxy));
+
+            // Scan started before both changes committed
+            index.completeRebuild(List.of(iphone, ipad, galaxy));
+
+            assertThat(index.contains(created.id())).isTrue();
+            assertThat(index.contains(galaxy.id())).isFalse();
+            assertThat(index.count(null, DeviceState.AVAILABLE, null)).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Filter Tests")
+    class FilterTests {
+
+        @BeforeEach
+        void load() {
+            index.beginRebuild();
+            index.completeRebuild(List.of(iphone, ipad, galaxy));
+        }
+
+        @Test
+        @DisplayName("Should intersect brand and state")
+        void shouldIntersectBrandAndState() {
+            assertThat(index.find("Apple", DeviceState.AVAILABLE, null)).containsExactly(iphone.id());
+            assertThat(index.find("Apple", null, null)).containsExactlyInAnyOrder(iphone.id(), ipad.id());
+            assertThat(index.find(null, DeviceState.AVAILABLE, null)).containsExactlyInAnyOrder(iphone.id(), galaxy.id());
+            assertThat(index.count(null, null, null)).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should return nothing for unknown brand")
+        void shouldReturnNothingForUnknownBrand() {
+            assertThat(index.find("Nokia", null, null)).isEmpty();
+            assertThat(index.count("Nokia", DeviceState.AVAILABLE, null)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should move device between bitmaps on update")
+        void shouldMoveDeviceOnUpdate() {
+            DeviceResponse rebranded = new DeviceResponse(galaxy.id(), galaxy.name(), "Apple", DeviceState.INACTIVE,
+                    galaxy.creationTime());
+
+            index.apply(DeviceChangedEvent.updated(galaxy, rebranded));
+
+            assertThat(index.find("Samsung", null, null)).isEmpty();
+            assertThat(index.find("Apple", DeviceState.INACTIVE, null)).containsExactly(galaxy.id());
+            assertThat(index.count(null, DeviceState.AVAILABLE, null)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should reuse ordinals of deleted devices")
+        void shouldReuseOrdinals() {
+            index.apply(DeviceChangedEvent.deleted(iphone));
+            DeviceResponse replacement = device("iPhone 16", "Apple", DeviceState.AVAILABLE);
+            index.apply(DeviceChangedEvent.created(replacement));
+
+            assertThat(index.contains(iphone.id())).isFalse();
+            assertThat(index.find("Apple", DeviceState.AVAILABLE, null)).containsExactly(replacement.id());
+            assertThat(index.size()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    @DisplayName("Shard Restriction Tests")
+    class ShardRestrictionTests {
+
+        @Test
+        @DisplayName("Should restrict matches to devices owned by a shard")
+        void shouldRestrictToShard() {
+            DeviceBitmapIndex sharded = new DeviceBitmapIndex(3);
+            List<DeviceResponse> devices = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                devices.add(device("Device " + i, "Apple", DeviceState.AVAILABLE));
+            }
+            sharded.beginRebuild();
+            sharded.completeRebuild(devices);
+
+            long total = 0;
+            for (int shard = 0; shard < 3; shard++) {
+                int owner = shard;
+                assertThat(sharded.find("Apple", null, shard))
+                        .allSatisfy(id -> assertThat(ShardRouter.shardOf(id, 3)).isEqualTo(owner));
+                total += sharded.count("Apple", DeviceState.AVAILABLE, shard);
+            }
+            assertThat(total).isEqualTo(300);
+        }
+    }
+
+    private static DeviceResponse device(String name, String brand, DeviceState state) {
+        return new DeviceResponse(UUID.randomUUID(), name, brand, state, Instant.now());
+    }
+}
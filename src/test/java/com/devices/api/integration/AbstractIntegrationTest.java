@@ -0,0 +1,43 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.support.AbstractPostgresTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Base of the {@code @SpringBootTest} integration tests driving the API through MockMvc
+ * against the shared PostgreSQL container.
+ */
+abstract class AbstractIntegrationTest extends AbstractPostgresTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    protected DeviceResponse createDevice(String name, String brand) throws Exception {
+        return createDevice(name, brand, DeviceState.AVAILABLE);
+    }
+
+    protected DeviceResponse createDevice(String name, String brand, DeviceState state) throws Exception {
+        return createDevice(new DeviceRequest(name, brand, state));
+    }
+
+    protected DeviceResponse createDevice(DeviceRequest request) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/devices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, DeviceResponse.class);
+    }
+}
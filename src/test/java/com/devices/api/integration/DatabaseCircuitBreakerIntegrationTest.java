@@ -0,0 +1,86 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.resilience.DatabaseCircuitBreakerAspect;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "devices.circuit-breaker.enabled=true",
+        "devices.circuit-breaker.failure-threshold=2",
+        "devices.circuit-breaker.open-duration=1s",
+        "devices.circuit-breaker.connection-timeout=250ms"})
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class DatabaseCircuitBreakerIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should serve stale reads and reject writes while the database is unavailable, then recover")
+    void shouldDegradeDuringOutage() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple");
+        mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(DatabaseCircuitBreakerAspect.STALE_HEADER));
+        mockMvc.perform(get("/api/v1/devices").param("brand", "Apple")).andExpect(status().isOk());
+
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        String username = pool.getUsername();
+        pool.getHikariConfigMXBean().setUsername("unavailable");
+        pool.getHikariPoolMXBean().softEvictConnections();
+        try {
+            mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(DatabaseCircuitBreakerAspect.STALE_HEADER, "true"))
+                    .andExpect(header().exists("Age"))
+                    .andExpect(jsonPath("$.name").value("iPhone 15"));
+            mockMvc.perform(get("/api/v1/devices").param("brand", "Apple"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(DatabaseCircuitBreakerAspect.STALE_HEADER, "true"))
+                    .andExpect(jsonPath("$.length()").value(1));
+
+            mockMvc.perform(post("/api/v1/devices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new DeviceRequest("iPad Pro", "Apple", DeviceState.AVAILABLE))))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists("Retry-After"))
+                    .andExpect(jsonPath("$.title").value("Service Unavailable"));
+            mockMvc.perform(get("/api/v1/devices/count"))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            pool.getHikariConfigMXBean().setUsername(username);
+        }
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                        .andExpect(status().isOk())
+                        .andExpect(header().doesNotExist(DatabaseCircuitBreakerAspect.STALE_HEADER)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.entity.Device;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.index.DeviceBitmapIndex;
+import com.devices.api.index.DeviceBitmapIndexMaintainer;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.support.QueryBudget;
+import com.devices.api.support.QueryBudgetConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"devices.index.bitmap.enabled=true", "devices.stats.flush-interval=1h"})
+@AutoConfigureMockMvc
+@Import({QueryBudgetConfig.class, DeviceIntegrationTest.TestConfig.class})
+class DeviceBitmapIndexIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private QueryBudget queryBudget;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @Autowired
+    private DeviceBitmapIndex index;
+
+    @Autowired
+    private DeviceBitmapIndexMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+        rollupRepository.deleteAll();
+        maintainer.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should rebuild from the devices table")
+    void shouldRebuildFromTable() {
+        Device device = new Device();
+        device.setName("iPhone 15");
+        device.setBrand("Apple");
+        device.setState(DeviceState.AVAILABLE);
+        deviceRepository.save(device);
+        assertThat(index.contains(device.getId())).isFalse();
+
+        maintainer.rebuild();
+
+        assertThat(index.contains(device.getId())).isTrue();
+        assertThat(index.count("Apple", DeviceState.AVAILABLE, null)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve filters from the index and fetch rows by primary key")
+    void shouldServeFiltersFromIndex() throws Exception {
+        createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        createDevice("iPad Pro", "Apple", DeviceState.AVAILABLE);
+        DeviceResponse inUse = createDevice("MacBook", "Apple", DeviceState.AVAILABLE);
+        createDevice("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+        mockMvc.perform(patch("/api/v1/devices/{id}", inUse.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeviceUpdateRequest(null, null, DeviceState.IN_USE))))
+                .andExpect(status().isOk());
+
+        List<String> statements = queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/v1/devices")
+                                .param("brand", "Apple")
+                                .param("state", "AVAILABLE"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(2)));
+        assertThat(statements.getFirst()).containsIgnoringCase("= any(");
+
+        queryBudget.assertAtMost(2, () ->
+                mockMvc.perform(get("/api/v1/devices/count").param("state", "IN_USE"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.count").value(1)));
+    }
+
+    @Test
+    @DisplayName("Should find devices written behind the index's back in the database")
+    void shouldFindDevicesMissingFromIndex() throws Exception {
+        Device device = new Device();
+        device.setName("Written Elsewhere");
+        device.setBrand("Nokia");
+        device.setState(DeviceState.AVAILABLE);
+        deviceRepository.save(device);
+        assertThat(index.contains(device.getId())).isFalse();
+
+        mockMvc.perform(get("/api/v1/devices/{id}", device.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Written Elsewhere"));
+        queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/v1/devices").param("brand", "Nokia"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(1)));
+        mockMvc.perform(get("/api/v1/devices/count").param("brand", "Nokia"))
+                .andExpect(jsonPath("$.count").value(1));
+        mockMvc.perform(get("/api/v1/devices/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should drop deleted devices from the index")
+    void shouldDropDeletedDevices() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+
+        mockMvc.perform(delete("/api/v1/devices/{id}", device.id()))
+                .andExpect(status().isNoContent());
+
+        assertThat(index.contains(device.id())).isFalse();
+        mockMvc.perform(get("/api/v1/devices/count").param("brand", "Apple"))
+                .andExpect(jsonPath("$.count").value(0));
+    }
+}
@@ -0,0 +1,134 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.index.DeviceBitmapIndex;
+import com.devices.api.index.DeviceBitmapIndexMaintainer;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.snapshot.CatalogSnapshot;
+import com.devices.api.snapshot.CatalogSnapshotManager;
+import com.devices.api.support.QueryBudget;
+import com.devices.api.support.QueryBudgetConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "devices.stats.flush-interval=1h")
+@AutoConfigureMockMvc
+@Import({QueryBudgetConfig.class, DeviceIntegrationTest.TestConfig.class})
+class DeviceCatalogSnapshotIntegrationTest extends AbstractIntegrationTest {
+
+    static Path snapshotFile;
+
+    @DynamicPropertySource
+    static void snapshotProperties(DynamicPropertyRegistry registry) throws Exception {
+        snapshotFile = Files.createTempDirectory("devices-snapshot").resolve("catalog.snapshot");
+        registry.add("devices.index.bitmap.enabled", () -> "true");
+        registry.add("devices.snapshot.enabled", () -> "true");
+        registry.add("devices.snapshot.file", snapshotFile::toString);
+    }
+
+    @Autowired
+    private QueryBudget queryBudget;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DeviceBitmapIndex index;
+
+    @Autowired
+    private DeviceBitmapIndexMaintainer maintainer;
+
+    @Autowired
+    private CatalogSnapshotManager snapshots;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        deviceRepository.deleteAll();
+        rollupRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM device_tombstones");
+        Files.deleteIfExists(snapshotFile);
+        maintainer.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should write the first snapshot when starting cold")
+    void shouldWriteSnapshotOnColdStart() throws Exception {
+        assertThat(CatalogSnapshot.mapFrom(snapshotFile).devices()).isEmpty();
+
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        snapshots.refresh();
+
+        assertThat(CatalogSnapshot.mapFrom(snapshotFile).devices())
+                .singleElement()
+                .satisfies(snapshotted -> {
+                    assertThat(snapshotted.id()).isEqualTo(device.id());
+                    assertThat(snapshotted.brand()).isEqualTo("Apple");
+                    assertThat(snapshotted.creationTime()).isEqualTo(device.creationTime());
+                });
+    }
+
+    @Test
+    @DisplayName("Should warm start from the snapshot and catch up with a delta query")
+    void shouldWarmStartWithDelta() throws Exception {
+        DeviceResponse kept = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        DeviceResponse updated = createDevice("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+        DeviceResponse deleted = createDevice("Pixel 9", "Google", DeviceState.AVAILABLE);
+        snapshots.refresh();
+
+        mockMvc.perform(patch("/api/v1/devices/{id}", updated.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeviceUpdateRequest(null, null, DeviceState.INACTIVE))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/devices/{id}", deleted.id()))
+                .andExpect(status().isNoContent());
+        DeviceResponse created = createDevice("iPad Pro", "Apple", DeviceState.IN_USE);
+
+        // Devices and tombstones, no scan of the catalog
+        queryBudget.assertAtMost(2, () -> maintainer.rebuild());
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.contains(kept.id())).isTrue();
+        assertThat(index.contains(created.id())).isTrue();
+        assertThat(index.contains(deleted.id())).isFalse();
+        assertThat(index.find("Samsung", DeviceState.INACTIVE, null)).containsExactly(updated.id());
+        mockMvc.perform(get("/api/v1/devices/count").param("brand", "Apple"))
+                .andExpect(jsonPath("$.count").value(2));
+    }
+
+    @Test
+    @DisplayName("Should fall back to a full scan when the snapshot is unreadable")
+    void shouldScanWhenSnapshotIsCorrupt() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        Files.writeString(snapshotFile, "garbage");
+
+        maintainer.rebuild();
+
+        assertThat(index.contains(device.id())).isTrue();
+        assertThat(CatalogSnapshot.mapFrom(snapshotFile).devices()).hasSize(1);
+    }
+}
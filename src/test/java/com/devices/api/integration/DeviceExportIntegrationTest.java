@@ -0,0 +1,180 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.export.DeviceArrowExporter;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.repository.DeviceRepository;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"devices.export.enabled=true", "devices.export.batch-size=1000"})
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class DeviceExportIntegrationTest extends AbstractIntegrationTest {
+
+    @TempDir
+    private Path directory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DeviceArrowExporter exporter;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should stream every device with dictionary-encoded brand and state")
+    void shouldStreamDevices() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.IN_USE);
+        DeviceResponse untagged = createDevice("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+        mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new DeviceUpdateRequest(null, null, null, List.of("site:fra2", "floor:3")))))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/devices/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(DeviceArrowExporter.STREAM_MEDIA_TYPE))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"devices.arrows\""))
+                .andReturn();
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(
+                     new ByteArrayInputStream(result.getResponse().getContentAsByteArray()), allocator,
+                     CommonsCompressionFactory.INSTANCE)) {
+            Map<UUID, String[]> rows = read(reader);
+
+            assertThat(reader.getVectorSchemaRoot().getSchema().findField("brand").getDictionary()).isNotNull();
+            assertThat(reader.getVectorSchemaRoot().getSchema().findField("state").getDictionary()).isNotNull();
+            assertThat(rows).hasSize(2);
+            assertThat(rows.get(device.id())).containsExactly("iPhone 15", "Apple", "IN_USE", "[floor:3, site:fra2]",
+                    device.creationTime().truncatedTo(ChronoUnit.MICROS).toString());
+            assertThat(rows.get(untagged.id())[3]).isEqualTo("[]");
+        }
+    }
+
+    @Test
+    @DisplayName("Should write a file several times smaller than the JSON list")
+    void shouldWriteCompactFile() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO devices (id, name, brand, state, creation_time, last_modified)
+                SELECT gen_random_uuid(), 'Device ' || i, 'Brand ' || (i % 50),
+                       (ARRAY['AVAILABLE', 'IN_USE', 'INACTIVE'])[1 + i % 3],
+                       now() - i * interval '17 minutes', now() - i * interval '3 minutes'
+                FROM generate_series(1, 5000) AS i
+                """);
+        Path file = directory.resolve("devices.arrow");
+
+        long exported = exporter.writeFile(file);
+
+        int jsonBytes = mockMvc.perform(get("/api/v1/devices"))
+                .andReturn().getResponse().getContentAsByteArray().length;
+        try (BufferAllocator allocator = new RootAllocator();
+             FileChannel channel = FileChannel.open(file);
+             ArrowFileReader reader = new ArrowFileReader(channel, allocator, CommonsCompressionFactory.INSTANCE)) {
+            assertThat(exported).isEqualTo(5000);
+            assertThat(reader.getRecordBlocks()).hasSize(5);
+            assertThat(read(reader)).hasSize(5000);
+            assertThat(channel.size()).isLessThan(jsonBytes / 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should export an empty catalog as a readable stream")
+    void shouldExportEmptyCatalog() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/devices/export"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(
+                     new ByteArrayInputStream(result.getResponse().getContentAsByteArray()), allocator,
+                     CommonsCompressionFactory.INSTANCE)) {
+            assertThat(read(reader)).isEmpty();
+        }
+    }
+
+    /**
+     * Rows by id as name, decoded brand, decoded state, tags and creation time.
+     */
+    private static Map<UUID, String[]> read(ArrowReader reader) throws Exception {
+        Map<UUID, String[]> rows = new HashMap<>();
+        while (reader.loadNextBatch()) {
+            var root = reader.getVectorSchemaRoot();
+            FixedSizeBinaryVector ids = (FixedSizeBinaryVector) root.getVector("id");
+            VarCharVector names = (VarCharVector) root.getVector("name");
+            ListVector tags = (ListVector) root.getVector("tags");
+            TimeStampMicroTZVector creationTimes = (TimeStampMicroTZVector) root.getVector("creation_time");
+            try (FieldVector brands = decode(reader, root.getVector("brand"));
+                 FieldVector states = decode(reader, root.getVector("state"))) {
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    ByteBuffer id = ByteBuffer.wrap(ids.get(i));
+                    long micros = creationTimes.get(i);
+                    rows.put(new UUID(id.getLong(), id.getLong()), new String[]{
+                            names.getObject(i).toString(),
+                            brands.getObject(i).toString(),
+                            states.getObject(i).toString(),
+                            tags.getObject(i).stream().map(Object::toString).toList().toString(),
+                            Instant.EPOCH.plus(micros, ChronoUnit.MICROS).toString()});
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static FieldVector decode(ArrowReader reader, FieldVector encoded) throws Exception {
+        long dictionaryId = encoded.getField().getDictionary().getId();
+        return (FieldVector) DictionaryEncoder.decode(encoded, reader.getDictionaryVectors().get(dictionaryId));
+    }
+}
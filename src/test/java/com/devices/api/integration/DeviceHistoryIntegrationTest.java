@@ -0,0 +1,110 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.history.DeviceHistoryPartitionMaintainer;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.repository.DeviceStateHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"devices.history.enabled=true", "devices.history.flush-interval=100ms"})
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class DeviceHistoryIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DeviceStateHistoryRepository historyRepository;
+
+    @Autowired
+    private DeviceHistoryPartitionMaintainer partitionMaintainer;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+        rollupRepository.deleteAll();
+        jdbcTemplate.execute("TRUNCATE device_state_history");
+    }
+
+    @Test
+    @DisplayName("Should record state changes shortly after they commit")
+    void shouldRecordStateChanges() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple");
+        mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeviceUpdateRequest("iPhone 15 Pro", null, null))))
+                .andExpect(status().isOk());
+        updateState(device, DeviceState.IN_USE);
+        updateState(device, DeviceState.INACTIVE);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                mockMvc.perform(get("/api/v1/devices/{id}/history", device.id()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(2))
+                        .andExpect(jsonPath("$[0].fromState").value("AVAILABLE"))
+                        .andExpect(jsonPath("$[0].toState").value("IN_USE"))
+                        .andExpect(jsonPath("$[1].fromState").value("IN_USE"))
+                        .andExpect(jsonPath("$[1].toState").value("INACTIVE")));
+
+        mockMvc.perform(get("/api/v1/devices/history").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].deviceId").value(device.id().toString()))
+                .andExpect(jsonPath("$[0].toState").value("IN_USE"));
+    }
+
+    @Test
+    @DisplayName("Should create partitions ahead and drop expired ones")
+    void shouldMaintainPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate expired = today.minusDays(200);
+        historyRepository.createPartition(expired);
+        jdbcTemplate.update("""
+                INSERT INTO device_state_history (device_id, from_state, to_state, changed_at)
+                VALUES (gen_random_uuid(), 'AVAILABLE', 'IN_USE', ?)
+                """, Timestamp.from(expired.atTime(12, 0).toInstant(ZoneOffset.UTC)));
+
+        partitionMaintainer.maintain();
+
+        assertThat(historyRepository.findPartitionDays())
+                .doesNotContain(expired)
+                .contains(today, today.plusDays(7));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM device_state_history", Long.class)).isZero();
+    }
+
+    private void updateState(DeviceResponse device, DeviceState state) throws Exception {
+        mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeviceUpdateRequest(null, null, state))))
+                .andExpect(status().isOk());
+    }
+}
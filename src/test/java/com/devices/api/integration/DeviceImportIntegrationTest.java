@@ -0,0 +1,189 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.ImportJobResponse;
+import com.devices.api.dto.ImportRowError;
+import com.devices.api.enums.ImportJobStatus;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.repository.ImportJobRepository;
+import com.devices.api.stats.DeviceCreationRollupRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class DeviceImportIntegrationTest extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceImportIntegrationTest.class);
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @Autowired
+    private DeviceCreationRollupRecorder rollupRecorder;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAllInBatch();
+        rollupRecorder.flush();
+        rollupRepository.deleteAllInBatch();
+        importJobRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should import valid CSV rows and report rejected ones by line")
+    void shouldImportCsv() throws Exception {
+        ImportJobResponse job = importAndWait("feed.csv", "text/csv", """
+                name,brand,state
+                iPhone 15,Apple,AVAILABLE
+                Galaxy S24,,IN_USE
+                "MacBook Air, 13\"\"\",Apple,IN_USE
+
+                Pixel 8,Google,LOST
+                ThinkPad X1,Lenovo,inactive
+                """);
+
+        assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.rowsRead()).isEqualTo(5);
+        assertThat(job.rowsImported()).isEqualTo(3);
+        assertThat(job.rowsRejected()).isEqualTo(2);
+        assertThat(job.errors()).extracting(ImportRowError::line).containsExactly(3L, 6L);
+        assertThat(job.errors().getFirst().message()).isEqualTo("Brand is required");
+
+        mockMvc.perform(get("/api/v1/devices").param("brand", "Apple"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[?(@.name == 'MacBook Air, 13\"')]").exists());
+
+        mockMvc.perform(get("/api/v1/devices/stats/timeline")
+                        .param("bucket", "day")
+                        .param("brand", "Apple"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].count").value(2));
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON")
+    void shouldImportNdjson() throws Exception {
+        ImportJobResponse job = importAndWait("feed.ndjson", "application/x-ndjson", """
+                {"name":"Pixel 8","brand":"Google","state":"AVAILABLE"}
+                {"name":"Pixel 9","brand":"Google"}
+                {"name":"Pixel 7","brand":"Google","state":"INACTIVE"}
+                """);
+
+        assertThat(job.rowsImported()).isEqualTo(2);
+        assertThat(job.errors()).singleElement().isEqualTo(new ImportRowError(2, "State is required"));
+        assertThat(deviceRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should upsert by brand and name, keeping the last row and leaving devices in use unchanged")
+    void shouldUpsertExistingDevices() throws Exception {
+        importAndWait("feed.csv", "text/csv", """
+                name,brand,state
+                Pixel 8,Google,AVAILABLE
+                Pixel 9,Google,IN_USE
+                """);
+
+        ImportJobResponse job = importAndWait("feed.csv", "text/csv", """
+                name,brand,state
+                Pixel 8,Google,IN_USE
+                Pixel 8,Google,INACTIVE
+                Pixel 9,Google,INACTIVE
+                Pixel 10,Google,AVAILABLE
+                """);
+
+        assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.rowsImported()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT name || ':' || state FROM devices ORDER BY name", String.class))
+                .containsExactly("Pixel 10:AVAILABLE", "Pixel 8:INACTIVE", "Pixel 9:IN_USE");
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(device_count) FROM device_creation_rollups WHERE bucket = 'DAY'",
+                Long.class)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should fail a CSV without the required columns and import nothing")
+    void shouldFailWithoutRequiredColumns() throws Exception {
+        ImportJobResponse job = importAndWait("feed.csv", "text/csv", "name,brand\nPixel 8,Google\n");
+
+        assertThat(job.status()).isEqualTo(ImportJobStatus.FAILED);
+        assertThat(job.failure()).contains("name, brand and state");
+        assertThat(deviceRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stream a large file through COPY")
+    void shouldImportLargeFile() throws Exception {
+        int rows = 100_000;
+        StringBuilder csv = new StringBuilder("name,brand,state\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Device ").append(i).append(",Brand ").append(i % 50).append(",AVAILABLE\n");
+        }
+
+        long started = System.nanoTime();
+        ImportJobResponse job = importAndWait("bulk.csv", "text/csv", csv.toString());
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Imported {} rows in {} ms ({} rows/s)", rows, millis, rows * 1000L / Math.max(1, millis));
+
+        assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.rowsImported()).isEqualTo(rows);
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(device_count) FROM device_creation_rollups WHERE bucket = 'DAY'",
+                Long.class)).isEqualTo(rows);
+    }
+
+    @Test
+    @DisplayName("Should return 404 for an unknown job")
+    void shouldReturnNotFoundForUnknownJob() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/imports/{id}", "00000000-0000-0000-0000-000000000000"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ImportJobResponse importAndWait(String fileName, String contentType, String content) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", fileName, contentType,
+                content.getBytes(StandardCharsets.UTF_8));
+        String body = mockMvc.perform(multipart("/api/v1/devices/imports").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getContentAsString();
+        ImportJobResponse submitted = objectMapper.readValue(body, ImportJobResponse.class);
+
+        AtomicReference<ImportJobResponse> job = new AtomicReference<>();
+        await().atMost(Duration.ofMinutes(1)).pollInterval(Duration.ofMillis(50)).until(() -> {
+            String progress = mockMvc.perform(get("/api/v1/devices/imports/{id}", submitted.id()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            job.set(objectMapper.readValue(progress, ImportJobResponse.class));
+            return job.get().status() == ImportJobStatus.COMPLETED || job.get().status() == ImportJobStatus.FAILED;
+        });
+        return job.get();
+    }
+}
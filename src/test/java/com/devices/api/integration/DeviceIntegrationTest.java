@@ -4,9 +4,17 @@ import com.devices.api.dto.DeviceFullUpdateRequest;
 import com.devices.api.dto.DeviceRequest;
 import com.devices.api.dto.DeviceResponse;
 import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertBatchRequest;
 import com.devices.api.enums.DeviceState;
+import com.devices.api.jfr.ConnectionAcquireEvent;
+import com.devices.api.jfr.DeviceOperationEvent;
+import com.devices.api.jfr.DeviceRepositoryEvent;
+import com.devices.api.repository.DeviceCreationRollupRepository;
 import com.devices.api.repository.DeviceRepository;
+import com.devices.api.stats.DeviceCreationRollupRecorder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -25,6 +33,10 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -58,9 +70,17 @@ class DeviceIntegrationTest {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @Autowired
+    private DeviceCreationRollupRecorder rollupRecorder;
+
     @BeforeEach
     void setUp() {
         deviceRepository.deleteAll();
+        rollupRecorder.flush();
+        rollupRepository.deleteAll();
     }
 
     @Nested
@@ -185,6 +205,84 @@ class DeviceIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("Tag Tests")
+    class TagTests {
+
+        @Test
+        @DisplayName("Should filter devices having any or all of the given tags")
+        void shouldFilterByTags() throws Exception {
+            createDevice("iPhone 15", "Apple", List.of("site:ams1", "team:payments"));
+            createDevice("iPhone 14", "Apple", List.of("site:ams1"));
+            createDevice("Galaxy S24", "Samsung", List.of("site:ams1", "team:payments"));
+            createDevice("MacBook Pro", "Apple", List.of());
+
+            mockMvc.perform(get("/api/v1/devices")
+                            .param("anyTags", "team:payments", "pool:loaners"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2));
+
+            mockMvc.perform(get("/api/v1/devices")
+                            .param("brand", "Apple")
+                            .param("allTags", "site:ams1", "team:payments"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].name").value("iPhone 15"))
+                    .andExpect(jsonPath("$[0].tags[0]").value("site:ams1"));
+
+            mockMvc.perform(get("/api/v1/devices/count")
+                            .param("allTags", "site:ams1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.count").value(3));
+        }
+
+        @Test
+        @DisplayName("Should keep tags on PUT and replace them with PATCH, including on a device in use")
+        void shouldReplaceTags() throws Exception {
+            DeviceResponse device = createDevice("iPhone 15", "Apple", List.of("site:ams1"));
+            mockMvc.perform(put("/api/v1/devices/{id}", device.id())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new DeviceFullUpdateRequest("iPhone 15", "Apple", DeviceState.IN_USE))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.tags[0]").value("site:ams1"));
+
+            mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new DeviceUpdateRequest(null, null, null, List.of("site:fra2", " pool:loaners ")))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.tags.length()").value(2))
+                    .andExpect(jsonPath("$.tags[0]").value("pool:loaners"))
+                    .andExpect(jsonPath("$.tags[1]").value("site:fra2"));
+
+            mockMvc.perform(get("/api/v1/devices").param("anyTags", "site:ams1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(0));
+        }
+
+        @Test
+        @DisplayName("Should reject tags in an upsert")
+        void shouldRejectTagsInUpsert() throws Exception {
+            mockMvc.perform(post("/api/v1/devices/upsert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE, List.of("site:ams1")))))
+                    .andExpect(status().isBadRequest());
+
+            assertThat(deviceRepository.count()).isZero();
+        }
+
+        private DeviceResponse createDevice(String name, String brand, List<String> tags) throws Exception {
+            MvcResult result = mockMvc.perform(post("/api/v1/devices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new DeviceRequest(name, brand, DeviceState.AVAILABLE, tags))))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+
+            return objectMapper.readValue(result.getResponse().getContentAsString(), DeviceResponse.class);
+        }
+    }
+
     @Nested
     @DisplayName("Business Rules Tests")
     class BusinessRulesTests {
@@ -295,4 +393,181 @@ class DeviceIntegrationTest {
             );
         }
     }
+
+    @Nested
+    @DisplayName("Upsert Tests")
+    class UpsertTests {
+
+        @Test
+        @DisplayName("Should create a device and then update it in place by brand and name")
+        void shouldUpsertByNaturalKey() throws Exception {
+            DeviceResponse created = upsert(new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE), 201);
+            DeviceResponse updated = upsert(new DeviceRequest("iPhone 15", "Apple", DeviceState.INACTIVE), 200);
+
+            assertThat(updated.id()).isEqualTo(created.id());
+            assertThat(updated.state()).isEqualTo(DeviceState.INACTIVE);
+            assertThat(updated.creationTime()).isEqualTo(created.creationTime());
+            assertThat(deviceRepository.count()).isEqualTo(1);
+
+            mockMvc.perform(get("/api/v1/devices/stats/timeline").param("bucket", "day"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].count").value(1));
+        }
+
+        @Test
+        @DisplayName("Should leave a device in use unchanged")
+        void shouldNotUpsertDeviceInUse() throws Exception {
+            upsert(new DeviceRequest("iPhone 15", "Apple", DeviceState.IN_USE), 201);
+
+            mockMvc.perform(post("/api/v1/devices/upsert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE))))
+                    .andExpect(status().isConflict());
+
+            assertThat(deviceRepository.findAll()).singleElement()
+                    .satisfies(device -> assertThat(device.getState()).isEqualTo(DeviceState.IN_USE));
+        }
+
+        @Test
+        @DisplayName("Should report the outcome of every device in a batch")
+        void shouldUpsertBatch() throws Exception {
+            upsert(new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE), 201);
+            upsert(new DeviceRequest("iPad Pro", "Apple", DeviceState.IN_USE), 201);
+
+            String batch = objectMapper.writeValueAsString(new DeviceUpsertBatchRequest(List.of(
+                    new DeviceRequest("Galaxy S24", "Samsung", DeviceState.AVAILABLE),
+                    new DeviceRequest("iPhone 15", "Apple", DeviceState.INACTIVE),
+                    new DeviceRequest("iPad Pro", "Apple", DeviceState.INACTIVE))));
+
+            mockMvc.perform(post("/api/v1/devices/upsert/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(batch))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].outcome").value("CREATED"))
+                    .andExpect(jsonPath("$[0].device.brand").value("Samsung"))
+                    .andExpect(jsonPath("$[1].outcome").value("UPDATED"))
+                    .andExpect(jsonPath("$[1].device.state").value("INACTIVE"))
+                    .andExpect(jsonPath("$[2].outcome").value("IN_USE"));
+
+            assertThat(deviceRepository.count()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should reject creating a second device with the same brand and name")
+        void shouldRejectDuplicateCreate() throws Exception {
+            upsert(new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE), 201);
+
+            mockMvc.perform(post("/api/v1/devices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new DeviceRequest("iPhone 15", "Apple", DeviceState.INACTIVE))))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.title").value("Device Already Exists"));
+        }
+
+        private DeviceResponse upsert(DeviceRequest request, int expectedStatus) throws Exception {
+            MvcResult result = mockMvc.perform(post("/api/v1/devices/upsert")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().is(expectedStatus))
+                    .andReturn();
+
+            return objectMapper.readValue(result.getResponse().getContentAsString(), DeviceResponse.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Statistics Tests")
+    class StatisticsTests {
+
+        @Test
+        @DisplayName("Should maintain creation timeline on create and delete")
+        void shouldMaintainCreationTimeline() throws Exception {
+            createDevice("iPhone 15", "Apple");
+            DeviceResponse ipad = createDevice("iPad Pro", "Apple");
+            createDevice("Galaxy S24", "Samsung");
+
+            mockMvc.perform(delete("/api/v1/devices/{id}", ipad.id()))
+                    .andExpect(status().isNoContent());
+            rollupRecorder.flush();
+
+            mockMvc.perform(get("/api/v1/devices/stats/timeline")
+                            .param("bucket", "day")
+                            .param("brand", "Apple"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].count").value(1));
+
+            mockMvc.perform(get("/api/v1/devices/stats/timeline")
+                            .param("bucket", "hour"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2));
+        }
+
+        private DeviceResponse createDevice(String name, String brand) throws Exception {
+            DeviceRequest request = new DeviceRequest(name, brand, DeviceState.AVAILABLE);
+
+            MvcResult result = mockMvc.perform(post("/api/v1/devices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+
+            return objectMapper.readValue(
+                    result.getResponse().getContentAsString(),
+                    DeviceResponse.class
+            );
+        }
+    }
+    @Nested
+    @DisplayName("Diagnostics Tests")
+    class DiagnosticsTests {
+
+        @Test
+        @DisplayName("Should dump recent device events from the continuous recording")
+        void shouldDumpRecentDeviceEvents() throws Exception {
+            MvcResult created = mockMvc.perform(post("/api/v1/devices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE))))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            DeviceResponse device = objectMapper.readValue(
+                    created.getResponse().getContentAsString(), DeviceResponse.class);
+
+            mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                    .andExpect(status().isOk());
+
+            byte[] dump = mockMvc.perform(get("/actuator/jfr").param("minutes", "1"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            Path file = Files.createTempFile("devices-api-it", ".jfr");
+            try {
+                Files.write(file, dump);
+                List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+                assertThat(events).anySatisfy(event -> {
+                    assertThat(event.getEventType().getName()).isEqualTo(DeviceOperationEvent.NAME);
+                    assertThat(event.getString("operation")).isEqualTo("getById");
+                    assertThat(event.getString("deviceId")).isEqualTo(device.id().toString());
+                });
+                assertThat(events).anySatisfy(event -> {
+                    assertThat(event.getEventType().getName()).isEqualTo(DeviceRepositoryEvent.NAME);
+                    assertThat(event.getString("repository")).isEqualTo("DeviceRepository");
+                    assertThat(event.getString("method")).isEqualTo("findById");
+                });
+                assertThat(events).anySatisfy(event ->
+                        assertThat(event.getEventType().getName()).isEqualTo(ConnectionAcquireEvent.NAME));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive dump window")
+        void shouldRejectNonPositiveWindow() throws Exception {
+            mockMvc.perform(get("/actuator/jfr").param("minutes", "0"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
 }
@@ -0,0 +1,226 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceFullUpdateRequest;
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertBatchRequest;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.support.QueryBudget;
+import com.devices.api.support.QueryBudgetConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Per-endpoint SQL statement budgets. A failure lists the statements that were issued,
+ * which makes N+1 selects, redundant reads before writes and stray flushes visible.
+ */
+@SpringBootTest(properties = "devices.stats.flush-interval=1h")
+@AutoConfigureMockMvc
+@Import({QueryBudgetConfig.class, DeviceQueryBudgetTest.TestConfig.class})
+class DeviceQueryBudgetTest extends AbstractIntegrationTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        ObjectMapper objectMapper() {
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.findAndRegisterModules();
+            return mapper;
+        }
+    }
+
+    @Autowired
+    private QueryBudget queryBudget;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("POST /devices: single insert, rollup applied after commit")
+    void createBudget() throws Exception {
+        DeviceRequest request = new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE);
+
+        List<String> statements = queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(post("/api/v1/devices")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isCreated()));
+
+        assertThat(statements).noneMatch(sql -> sql.startsWith("select"));
+    }
+
+    @Test
+    @DisplayName("POST /devices/upsert: one statement for create or update")
+    void upsertBudget() throws Exception {
+        DeviceRequest request = new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE);
+
+        for (int expectedStatus : new int[] {201, 200}) {
+            queryBudget.assertAtMost(1, () ->
+                    mockMvc.perform(post("/api/v1/devices/upsert")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(request)))
+                            .andExpect(status().is(expectedStatus)));
+        }
+    }
+
+    @Test
+    @DisplayName("POST /devices/upsert/batch: one statement regardless of batch size")
+    void upsertBatchBudget() throws Exception {
+        createDevice("Device 0", "Apple", DeviceState.AVAILABLE);
+        List<DeviceRequest> devices = IntStream.range(0, 50)
+                .mapToObj(i -> new DeviceRequest("Device " + i, "Apple", DeviceState.INACTIVE))
+                .toList();
+
+        queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(post("/api/v1/devices/upsert/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new DeviceUpsertBatchRequest(devices))))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    @DisplayName("GET /devices/{id}: single select")
+    void getByIdBudget() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+
+        queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    @DisplayName("GET /devices: single select regardless of row count")
+    void getAllBudget() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createDevice("Device " + i, "Apple", DeviceState.AVAILABLE);
+        }
+
+        queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/v1/devices").param("brand", "Apple"))
+                        .andExpect(status().isOk()));
+        queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/v1/devices").param("fields", "id,state"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    @DisplayName("GET /devices/count: single aggregate")
+    void countBudget() throws Exception {
+        createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+
+        queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/v1/devices/count").param("brand", "Apple"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    @DisplayName("PUT /devices/{id}: select and update")
+    void fullUpdateBudget() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        DeviceFullUpdateRequest request = new DeviceFullUpdateRequest("iPhone 15 Pro", "Apple", DeviceState.INACTIVE);
+
+        queryBudget.assertAtMost(2, () ->
+                mockMvc.perform(put("/api/v1/devices/{id}", device.id())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    @DisplayName("PATCH /devices/{id}: select and update")
+    void partialUpdateBudget() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        DeviceUpdateRequest request = new DeviceUpdateRequest(null, null, DeviceState.IN_USE);
+
+        queryBudget.assertAtMost(2, () ->
+                mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    @DisplayName("PATCH /devices/{id}: rejected update issues no writes")
+    void rejectedUpdateBudget() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.IN_USE);
+        DeviceUpdateRequest request = new DeviceUpdateRequest("New Name", null, null);
+
+        queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isConflict()));
+    }
+
+    @Test
+    @DisplayName("DELETE /devices/{id}: select and delete, rollup applied after commit")
+    void deleteBudget() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+
+        queryBudget.assertAtMost(2, () ->
+                mockMvc.perform(delete("/api/v1/devices/{id}", device.id()))
+                        .andExpect(status().isNoContent()));
+    }
+
+    @Test
+    @DisplayName("GET /devices/stats/timeline: single select")
+    void timelineBudget() throws Exception {
+        createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+
+        queryBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/v1/devices/stats/timeline").param("bucket", "day"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    @DisplayName("POST /graphql: aliased device lookups batched into one select")
+    void graphQlDeviceLookupBudget() throws Exception {
+        DeviceResponse first = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        DeviceResponse second = createDevice("Galaxy S24", "Samsung", DeviceState.IN_USE);
+        String query = "{ a: device(id: \"%s\") { name } b: device(id: \"%s\") { brand state } }"
+                .formatted(first.id(), second.id());
+
+        List<String> statements = queryBudget.assertAtMost(1, () -> {
+            MvcResult result = mockMvc.perform(post("/api/v1/graphql")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of("query", query))))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            if (result.getRequest().isAsyncStarted()) {
+                mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+            }
+        });
+
+        assertThat(statements).singleElement().asString().contains("any(");
+    }
+}
@@ -0,0 +1,122 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.support.QueryBudget;
+import com.devices.api.support.QueryBudgetConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"devices.response-cache.enabled=true", "devices.response-cache.min-gzip-size=1KB",
+        "devices.stats.flush-interval=1h"})
+@AutoConfigureMockMvc
+@Import({QueryBudgetConfig.class, DeviceIntegrationTest.TestConfig.class})
+class DeviceResponseCacheIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private QueryBudget queryBudget;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated GET without touching the database")
+    void shouldServeRepeatedGetFromCache() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple");
+        String first = mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        queryBudget.assertAtMost(0, () ->
+                mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                        .andExpect(status().isOk())
+                        .andExpect(content().json(first)));
+    }
+
+    @Test
+    @DisplayName("Should not serve a device changed after it was cached")
+    void shouldInvalidateUpdatedDevice() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple");
+        mockMvc.perform(get("/api/v1/devices/{id}", device.id())).andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeviceUpdateRequest(null, null, DeviceState.IN_USE))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("IN_USE"));
+    }
+
+    @Test
+    @DisplayName("Should not serve a list cached before a device was created or upserted")
+    void shouldInvalidateListsOnWrite() throws Exception {
+        createDevice("iPhone 15", "Apple");
+        mockMvc.perform(get("/api/v1/devices").param("brand", "Apple"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        createDevice("iPad Pro", "Apple");
+        mockMvc.perform(get("/api/v1/devices").param("brand", "Apple"))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        mockMvc.perform(post("/api/v1/devices/upsert")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeviceRequest("iPad Pro", "Apple", DeviceState.INACTIVE))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/devices").param("brand", "Apple").param("state", "INACTIVE"))
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/v1/devices").param("brand", "Apple"))
+                .andExpect(jsonPath("$[?(@.name == 'iPad Pro')].state").value("INACTIVE"));
+    }
+
+    @Test
+    @DisplayName("Should serve large lists gzip-encoded to clients that accept it")
+    void shouldServeGzipVariant() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            createDevice("Device " + i, "Apple");
+        }
+        String plain = mockMvc.perform(get("/api/v1/devices"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        MvcResult gzipped = mockMvc.perform(get("/api/v1/devices").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(
+                new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plain);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.devices.api.integration;
+
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "devices.totals.exact-threshold=500")
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class DeviceTotalsIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+        rollupRepository.deleteAll();
+        insertDevices("Apple", "AVAILABLE", 2000);
+        insertDevices("Samsung", "IN_USE", 20);
+        jdbcTemplate.execute("ANALYZE devices");
+    }
+
+    @Test
+    @DisplayName("Should count a result the planner expects to be small exactly")
+    void shouldCountSmallResultExactly() throws Exception {
+        mockMvc.perform(get("/api/v1/devices").param("brand", "Samsung").param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "20"))
+                .andExpect(header().string("X-Total-Count-Source", "exact"))
+                .andExpect(jsonPath("$.length()").value(20));
+    }
+
+    @Test
+    @DisplayName("Should estimate a large total, then serve the exact count from the cache")
+    void shouldEstimateThenCacheLargeTotal() throws Exception {
+        MvcResult estimated = mockMvc.perform(get("/api/v1/devices").param("state", "AVAILABLE").param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count-Source", "estimate"))
+                .andReturn();
+        assertThat(Long.parseLong(estimated.getResponse().getHeader("X-Total-Count"))).isBetween(1500L, 2500L);
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                mockMvc.perform(get("/api/v1/devices").param("state", "AVAILABLE").param("includeTotal", "true"))
+                        .andExpect(header().string("X-Total-Count", "2000"))
+                        .andExpect(header().string("X-Total-Count-Source", "cached")));
+    }
+
+    @Test
+    @DisplayName("Should count combined filters exactly")
+    void shouldCountCombinedFiltersExactly() throws Exception {
+        mockMvc.perform(get("/api/v1/devices")
+                        .param("brand", "Apple").param("state", "AVAILABLE").param("includeTotal", "true")
+                        .param("fields", "id"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2000"))
+                .andExpect(header().string("X-Total-Count-Source", "exact"));
+    }
+
+    private void insertDevices(String brand, String state, int count) {
+        jdbcTemplate.update("""
+                INSERT INTO devices (id, name, brand, state, creation_time, last_modified)
+                SELECT gen_random_uuid(), ? || ' ' || i, ?, ?, now(), now() FROM generate_series(1, ?) AS i
+                """, brand, brand, state, count);
+    }
+}
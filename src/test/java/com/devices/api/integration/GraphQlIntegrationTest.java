@@ -0,0 +1,134 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class GraphQlIntegrationTest extends AbstractIntegrationTest {
+
+    @Test
+    @DisplayName("Should resolve aliased device lookups with the fields each one selects")
+    void shouldResolveAliasedLookups() throws Exception {
+        DeviceResponse phone = createDevice("GraphQL Phone", "Apple", DeviceState.AVAILABLE);
+        DeviceResponse tablet = createDevice("GraphQL Tablet", "Samsung", DeviceState.IN_USE);
+
+        graphQl("""
+                { phone: device(id: "%s") { name }
+                  tablet: device(id: "%s") { id brand state }
+                  missing: device(id: "%s") { name } }"""
+                .formatted(phone.id(), tablet.id(), UUID.randomUUID()))
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.phone.name").value("GraphQL Phone"))
+                .andExpect(jsonPath("$.data.phone.brand").doesNotExist())
+                .andExpect(jsonPath("$.data.tablet.id").value(tablet.id().toString()))
+                .andExpect(jsonPath("$.data.tablet.brand").value("Samsung"))
+                .andExpect(jsonPath("$.data.tablet.state").value("IN_USE"))
+                .andExpect(jsonPath("$.data.missing").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should list and count devices matching a filter")
+    void shouldListAndCountFilteredDevices() throws Exception {
+        createDevice("GraphQL Filter A", "GraphQL Brand", DeviceState.INACTIVE);
+        createDevice("GraphQL Filter B", "GraphQL Brand", DeviceState.AVAILABLE);
+
+        graphQl("""
+                { devices(filter: {brand: "GraphQL Brand", state: INACTIVE}) { name state }
+                  deviceCount(filter: {brand: "GraphQL Brand"}) }""")
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.devices.length()").value(1))
+                .andExpect(jsonPath("$.data.devices[0].name").value("GraphQL Filter A"))
+                .andExpect(jsonPath("$.data.devices[0].id").doesNotExist())
+                .andExpect(jsonPath("$.data.deviceCount").value(2));
+    }
+
+    @Test
+    @DisplayName("Should return at most limit devices and reject limits out of range")
+    void shouldLimitDevices() throws Exception {
+        createDevice("GraphQL Limit A", "GraphQL Limit", DeviceState.AVAILABLE);
+        createDevice("GraphQL Limit B", "GraphQL Limit", DeviceState.AVAILABLE);
+
+        graphQl("{ devices(filter: {brand: \"GraphQL Limit\"}, limit: 1) { name } }")
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.devices.length()").value(1));
+        graphQl("{ devices(limit: 0) { id } }")
+                .andExpect(jsonPath("$.errors[0].extensions.classification").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.errors[0].message").value("limit must be between 1 and 1000"));
+    }
+
+    @Test
+    @DisplayName("Should report an invalid filter as a BAD_REQUEST error")
+    void shouldRejectInvalidFilter() throws Exception {
+        graphQl("""
+                { devices(filter: {createdAfter: "2024-02-01T00:00:00Z", createdBefore: "2024-01-01T00:00:00Z"}) { id } }""")
+                .andExpect(jsonPath("$.errors[0].extensions.classification").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.errors[0].path[0]").value("devices"));
+    }
+
+    @Test
+    @DisplayName("Should reject queries over the complexity limit before running them")
+    void shouldRejectTooComplexQuery() throws Exception {
+        StringBuilder query = new StringBuilder("{");
+        for (int i = 0; i < 10; i++) {
+            query.append(" d").append(i).append(": devices { id name brand }");
+        }
+
+        graphQl(query.append(" }").toString())
+                .andExpect(jsonPath("$.data").doesNotExist())
+                .andExpect(jsonPath("$.errors[0].message").value(containsString("maximum query complexity exceeded")));
+    }
+
+    @Test
+    @DisplayName("Should cost lists by their limit argument")
+    void shouldCostListsByLimit() throws Exception {
+        graphQl("{ devices(limit: 1000) { id name brand } }")
+                .andExpect(jsonPath("$.data").doesNotExist())
+                .andExpect(jsonPath("$.errors[0].message").value(containsString("maximum query complexity exceeded")));
+
+        StringBuilder query = new StringBuilder("{");
+        for (int i = 0; i < 10; i++) {
+            query.append(" d").append(i).append(": devices(limit: 5) { id name brand }");
+        }
+        graphQl(query.append(" }").toString())
+                .andExpect(jsonPath("$.errors").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should reject queries nested deeper than the depth limit")
+    void shouldRejectTooDeepQuery() throws Exception {
+        graphQl("{ __schema { types { fields { type { ofType { ofType { ofType { name } } } } } } } }")
+                .andExpect(jsonPath("$.data").doesNotExist())
+                .andExpect(jsonPath("$.errors[0].message").value(containsString("maximum query depth exceeded")));
+    }
+
+    private ResultActions graphQl(String query) throws Exception {
+        ResultActions response = mockMvc.perform(post("/api/v1/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("query", query))));
+
+        // Execution that completes on the request thread is answered without an async dispatch
+        MvcResult result = response.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            response = mockMvc.perform(asyncDispatch(result));
+        }
+        return response.andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,45 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"devices.hot-keys.enabled=true", "devices.response-cache.enabled=true"})
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class HotKeysIntegrationTest extends AbstractIntegrationTest {
+
+    @Test
+    @DisplayName("Should list the most requested devices and filters, including cached responses")
+    void shouldListHotKeys() throws Exception {
+        DeviceResponse hot = createDevice("iPhone 15", "Apple");
+        DeviceResponse cold = createDevice("iPad Pro", "Apple");
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/v1/devices/{id}", hot.id())).andExpect(status().isOk());
+            mockMvc.perform(get("/api/v1/devices").param("brand", "Apple")).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/v1/devices/{id}", cold.id())).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/hotkeys").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.devices.length()").value(1))
+                .andExpect(jsonPath("$.devices[0].key").value(hot.id().toString()))
+                .andExpect(jsonPath("$.devices[0].estimate").value(greaterThanOrEqualTo(5)))
+                .andExpect(jsonPath("$.filters[0].key").value("brand=Apple"));
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive limit")
+    void shouldRejectNonPositiveLimit() throws Exception {
+        mockMvc.perform(get("/actuator/hotkeys").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
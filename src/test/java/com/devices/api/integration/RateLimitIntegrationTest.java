@@ -0,0 +1,90 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.enums.DeviceState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "devices.rate-limit.enabled=true",
+        "devices.rate-limit.api-keys=reader,other-reader,writer",
+        "devices.rate-limit.read.requests-per-second=1",
+        "devices.rate-limit.read.burst=2",
+        "devices.rate-limit.write.requests-per-second=1",
+        "devices.rate-limit.write.burst=1",
+        "devices.response-cache.enabled=true"
+})
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class RateLimitIntegrationTest extends AbstractIntegrationTest {
+
+    @Test
+    @DisplayName("Should limit reads per API key, including responses served from the cache")
+    void shouldLimitReads() throws Exception {
+        mockMvc.perform(get("/api/v1/devices").header("X-API-Key", "reader"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("RateLimit-Limit", "2"))
+                .andExpect(header().string("RateLimit-Remaining", "1"));
+
+        MvcResult limited = untilLimited(() -> get("/api/v1/devices").header("X-API-Key", "reader"));
+        assertThat(limited.getResponse().getHeader("Retry-After")).isNotNull();
+        assertThat(limited.getResponse().getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(limited.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        assertThat(limited.getResponse().getContentAsString()).contains("Too Many Requests");
+
+        mockMvc.perform(get("/api/v1/devices").header("X-API-Key", "other-reader"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should limit writes separately from reads")
+    void shouldLimitWrites() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        untilLimited(() -> post("/api/v1/devices").header("X-API-Key", "writer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new DeviceRequest("Pixel " + created.incrementAndGet(), "Google", DeviceState.AVAILABLE))));
+
+        mockMvc.perform(get("/api/v1/devices").header("X-API-Key", "writer"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should not limit endpoints outside the device API")
+    void shouldNotLimitOtherEndpoints() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/actuator/health").header("X-API-Key", "monitor"))
+                    .andExpect(header().doesNotExist("RateLimit-Limit"));
+        }
+    }
+
+    /**
+     * Repeats the request until it is limited. Budgets refill with time, so a slow request
+     * can earn another token and make the exact request that is limited vary.
+     */
+    private MvcResult untilLimited(Callable<MockHttpServletRequestBuilder> request) throws Exception {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            MvcResult result = mockMvc.perform(request.call()).andReturn();
+            if (result.getResponse().getStatus() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return result;
+            }
+            assertThat(result.getResponse().getStatus()).isLessThan(400);
+        }
+        throw new AssertionError("Request was never rate limited");
+    }
+}
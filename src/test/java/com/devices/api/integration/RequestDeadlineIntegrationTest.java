@@ -0,0 +1,88 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "devices.deadlines.enabled=true")
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class RequestDeadlineIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should cancel a statement still waiting when the client's deadline passes and return 504")
+    void shouldCancelStatementAtDeadline() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple");
+
+        try (Connection locker = dataSource.getConnection()) {
+            locker.setAutoCommit(false);
+            try (PreparedStatement lock = locker.prepareStatement("SELECT id FROM devices WHERE id = ? FOR UPDATE")) {
+                lock.setObject(1, device.id());
+                lock.executeQuery();
+            }
+
+            long started = System.nanoTime();
+            mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                            .header("X-Request-Timeout", "300ms")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new DeviceUpdateRequest(null, null, DeviceState.IN_USE))))
+                    .andExpect(status().isGatewayTimeout())
+                    .andExpect(jsonPath("$.title").value("Deadline Exceeded"));
+            assertThat((System.nanoTime() - started) / 1_000_000).isLessThan(5_000);
+
+            locker.rollback();
+        }
+
+        mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("AVAILABLE"));
+    }
+
+    @Test
+    @DisplayName("Should serve requests that finish within their deadline")
+    void shouldServeWithinDeadline() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple");
+
+        mockMvc.perform(get("/api/v1/devices/{id}", device.id()).header("X-Request-Timeout", "2s"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/devices").header("X-Request-Timeout", "1500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid timeout header")
+    void shouldRejectInvalidHeader() throws Exception {
+        mockMvc.perform(get("/api/v1/devices").header("X-Request-Timeout", "soon"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(org.hamcrest.Matchers.containsString("X-Request-Timeout")));
+    }
+}
@@ -0,0 +1,284 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.ImportJobResponse;
+import com.devices.api.enums.ImportJobStatus;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.sharding.ShardRoutingDataSource;
+import com.devices.api.stats.DeviceCreationRollupRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+@Import(DeviceIntegrationTest.TestConfig.class)
+class ShardedDeviceIntegrationTest extends AbstractIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> shard0 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static PostgreSQLContainer<?> shard1 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void shardTopology(DynamicPropertyRegistry registry) {
+        List<PostgreSQLContainer<?>> shards = List.of(shard0, shard1);
+        registry.add("devices.sharding.enabled", () -> "true");
+        for (int i = 0; i < shards.size(); i++) {
+            PostgreSQLContainer<?> shard = shards.get(i);
+            registry.add("devices.sharding.shards[" + i + "].url", shard::getJdbcUrl);
+            registry.add("devices.sharding.shards[" + i + "].username", shard::getUsername);
+            registry.add("devices.sharding.shards[" + i + "].password", shard::getPassword);
+        }
+    }
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private DeviceCreationRollupRecorder rollupRecorder;
+
+    private List<JdbcTemplate> shards;
+
+    @BeforeEach
+    void setUp() {
+        rollupRecorder.flush();
+        shards = new ArrayList<>();
+        for (DataSource shard : dataSource.getShards()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard);
+            jdbc.update("DELETE FROM devices");
+            jdbc.update("DELETE FROM device_creation_rollups");
+            shards.add(jdbc);
+        }
+    }
+
+    @Nested
+    @DisplayName("Shard Placement Tests")
+    class ShardPlacementTests {
+
+        @Test
+        @DisplayName("Should store each device only on the shard its id maps to")
+        void shouldStoreDeviceOnOwningShard() throws Exception {
+            List<DeviceResponse> devices = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                devices.add(createDevice("Device " + i, "Apple"));
+            }
+
+            for (DeviceResponse device : devices) {
+                int owner = shardRouter.shardFor(device.id());
+                for (int shard = 0; shard < shards.size(); shard++) {
+                    assertThat(countById(shard, device))
+                            .as("device %s on shard %d", device.id(), shard)
+                            .isEqualTo(shard == owner ? 1 : 0);
+                }
+            }
+            assertThat(shards).allSatisfy(jdbc ->
+                    assertThat(jdbc.queryForObject("SELECT count(*) FROM devices", Long.class)).isPositive());
+        }
+
+        @Test
+        @DisplayName("Should upsert devices on the shard their brand and name map to")
+        void shouldUpsertOnNaturalKeyShard() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                DeviceRequest request = new DeviceRequest("Device " + i, "Apple", DeviceState.AVAILABLE);
+                DeviceResponse created = createDevice(request.name(), request.brand());
+
+                mockMvc.perform(post("/api/v1/devices/upsert")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new DeviceRequest(request.name(), request.brand(), DeviceState.INACTIVE))))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").value(created.id().toString()));
+
+                assertThat(shardRouter.shardFor(created.id())).isEqualTo(shardRouter.shardForKey("Apple", "Device " + i));
+            }
+            assertThat(shards).allSatisfy(jdbc ->
+                    assertThat(jdbc.queryForObject("SELECT count(*) FROM devices WHERE state = 'INACTIVE'", Long.class)).isPositive());
+        }
+
+        @Test
+        @DisplayName("Should read, update and delete devices on any shard")
+        void shouldServeSingleDeviceOperations() throws Exception {
+            for (int i = 0; i < 6; i++) {
+                DeviceResponse device = createDevice("Device " + i, "Apple");
+
+                mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.name").value("Device " + i));
+
+                mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new DeviceUpdateRequest(null, null, DeviceState.INACTIVE))))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.state").value("INACTIVE"));
+
+                mockMvc.perform(delete("/api/v1/devices/{id}", device.id()))
+                        .andExpect(status().isNoContent());
+
+                mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                        .andExpect(status().isNotFound());
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep brand and name unique after a rename")
+        void shouldKeepRenamedKeysUnique() throws Exception {
+            DeviceResponse device = createDevice("Device 0", "Apple");
+            int owner = shardRouter.shardFor(device.id());
+            String sameShard = nameOnShard("Apple", owner);
+            String otherShard = nameOnShard("Apple", (owner + 1) % shards.size());
+
+            rename(device, sameShard).andExpect(status().isOk());
+            mockMvc.perform(post("/api/v1/devices")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new DeviceRequest(sameShard, "Apple", DeviceState.AVAILABLE))))
+                    .andExpect(status().isConflict());
+
+            rename(device, otherShard)
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.title").value("Cross-Shard Rename"))
+                    .andExpect(jsonPath("$.detail").value(containsString("another shard")));
+            mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                    .andExpect(jsonPath("$.name").value(sameShard));
+        }
+    }
+
+    @Nested
+    @DisplayName("Scatter Gather Tests")
+    class ScatterGatherTests {
+
+        @Test
+        @DisplayName("Should merge filtered lists from all shards")
+        void shouldMergeFilteredLists() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                createDevice("iPhone " + i, "Apple");
+                createDevice("Galaxy " + i, "Samsung");
+            }
+
+            mockMvc.perform(get("/api/v1/devices").param("brand", "Apple").param("includeTotal", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Total-Count", "10"))
+                    .andExpect(header().string("X-Total-Count-Source", "exact"))
+                    .andExpect(jsonPath("$.length()").value(10));
+
+            mockMvc.perform(get("/api/v1/devices").param("fields", "id,brand"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(20));
+        }
+
+        @Test
+        @DisplayName("Should sum creation timeline across shards")
+        void shouldSumTimeline() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                createDevice("iPhone " + i, "Apple");
+            }
+            rollupRecorder.flush();
+
+            mockMvc.perform(get("/api/v1/devices/stats/timeline")
+                            .param("bucket", "day")
+                            .param("brand", "Apple"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].count").value(10));
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Import Tests")
+    class BulkImportTests {
+
+        @Test
+        @DisplayName("Should copy imported devices straight to their owning shards")
+        void shouldRouteImportedDevices() throws Exception {
+            StringBuilder csv = new StringBuilder("name,brand,state\n");
+            for (int i = 0; i < 40; i++) {
+                csv.append("Device ").append(i).append(",Apple,AVAILABLE\n");
+            }
+            MockMultipartFile file = new MockMultipartFile("file", "feed.csv", "text/csv",
+                    csv.toString().getBytes(StandardCharsets.UTF_8));
+
+            MvcResult result = mockMvc.perform(multipart("/api/v1/devices/imports").file(file))
+                    .andExpect(status().isAccepted())
+                    .andReturn();
+            UUID jobId = objectMapper.readValue(result.getResponse().getContentAsString(), ImportJobResponse.class).id();
+
+            await().atMost(Duration.ofSeconds(30)).until(() -> {
+                String body = mockMvc.perform(get("/api/v1/devices/imports/{id}", jobId))
+                        .andReturn().getResponse().getContentAsString();
+                return objectMapper.readValue(body, ImportJobResponse.class).status() == ImportJobStatus.COMPLETED;
+            });
+
+            long total = 0;
+            for (int shard = 0; shard < shards.size(); shard++) {
+                List<UUID> ids = shards.get(shard).queryForList("SELECT id FROM devices", UUID.class);
+                int owner = shard;
+                assertThat(ids).allMatch(id -> shardRouter.shardFor(id) == owner);
+                total += ids.size();
+            }
+            assertThat(total).isEqualTo(40);
+
+            mockMvc.perform(get("/api/v1/devices/stats/timeline")
+                            .param("bucket", "day")
+                            .param("brand", "Apple"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].count").value(40));
+        }
+    }
+
+    private ResultActions rename(DeviceResponse device, String name) throws Exception {
+        return mockMvc.perform(patch("/api/v1/devices/{id}", device.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DeviceUpdateRequest(name, null, null))));
+    }
+
+    private String nameOnShard(String brand, int shard) {
+        return IntStream.range(1, 1_000)
+                .mapToObj(i -> "Device " + i)
+                .filter(name -> shardRouter.shardForKey(brand, name) == shard)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private long countById(int shard, DeviceResponse device) {
+        return shards.get(shard).queryForObject(
+                "SELECT count(*) FROM devices WHERE id = ?", Long.class, device.id());
+    }
+}
@@ -0,0 +1,56 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.enums.DeviceState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "devices.slow-queries.enabled=true",
+        "devices.slow-queries.threshold=0ms",
+        "devices.slow-queries.explain-sample-rate=1",
+        "devices.slow-queries.max-concurrent-explains=10"
+})
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class SlowQueryIntegrationTest extends AbstractIntegrationTest {
+
+    @Test
+    @DisplayName("Should record statements with their endpoint, parameter shape and a sampled plan")
+    void shouldRecordSlowQueries() throws Exception {
+        mockMvc.perform(post("/api/v1/devices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeviceRequest("iPhone " + UUID.randomUUID(), "Apple", DeviceState.AVAILABLE))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/v1/devices").param("brand", "Apple"))
+                .andExpect(status().isOk());
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                mockMvc.perform(get("/actuator/slowqueries"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[?(@.endpoint == 'GET /api/v1/devices')].parameters[0]").value(hasItem("String")))
+                        .andExpect(jsonPath("$[?(@.endpoint == 'GET /api/v1/devices' && @.plan)].plan")
+                                .value(hasItem(containsString("Execution Time")))));
+
+        mockMvc.perform(get("/actuator/slowqueries"))
+                .andExpect(jsonPath("$[?(@.endpoint == 'POST /api/v1/devices')].sql").value(hasItem(startsWith("insert"))))
+                .andExpect(jsonPath("$[?(@.plan)].plan").value(everyItem(not(containsString("Apple")))));
+    }
+}
@@ -0,0 +1,101 @@
+package com.devices.api.integration;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+import com.devices.api.workload.WorkloadRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"devices.workloads.enabled=true", "devices.workloads.bulk.maximum-pool-size=2",
+        "devices.stats.flush-interval=1h"})
+@AutoConfigureMockMvc
+@Import(DeviceIntegrationTest.TestConfig.class)
+class WorkloadPoolsIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WorkloadRoutingDataSource dataSource;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @BeforeEach
+    void setUp() {
+        deviceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should take connections for reads, writes and lists from their own pools")
+    void shouldRouteRequestsToWorkloadPools() throws Exception {
+        long writes = acquisitions("devices-write");
+        DeviceResponse device = createDevice("iPhone 15", "Apple");
+        assertThat(acquisitions("devices-write")).isGreaterThan(writes);
+
+        long pointReads = acquisitions("devices-point-read");
+        long bulk = acquisitions("devices-bulk");
+        mockMvc.perform(get("/api/v1/devices/{id}", device.id())).andExpect(status().isOk());
+        assertThat(acquisitions("devices-point-read")).isGreaterThan(pointReads);
+        assertThat(acquisitions("devices-bulk")).isEqualTo(bulk);
+
+        mockMvc.perform(get("/api/v1/devices")).andExpect(status().isOk());
+        assertThat(acquisitions("devices-bulk")).isGreaterThan(bulk);
+    }
+
+    @Test
+    @DisplayName("Should apply the statement timeout of each pool")
+    void shouldApplyStatementTimeouts() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        assertThat(WorkloadContext.call(WorkloadClass.POINT_READ,
+                () -> jdbc.queryForObject("SHOW statement_timeout", String.class))).isEqualTo("5s");
+        assertThat(WorkloadContext.call(WorkloadClass.BULK,
+                () -> jdbc.queryForObject("SHOW statement_timeout", String.class))).isEqualTo("0");
+    }
+
+    @Test
+    @DisplayName("Should serve point reads while bulk work holds every bulk connection")
+    void shouldIsolatePointReadsFromBulkWork() throws Exception {
+        DeviceResponse device = createDevice("iPhone 15", "Apple");
+
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                held.add(dataSource.getPool(WorkloadClass.BULK).getConnection());
+            }
+            assertThat(dataSource.getPool(WorkloadClass.BULK).getHikariPoolMXBean().getIdleConnections()).isZero();
+
+            mockMvc.perform(get("/api/v1/devices/{id}", device.id()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(device.id().toString()));
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    private long acquisitions(String pool) {
+        Timer timer = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.devices.api.jfr;
+
+import com.devices.api.config.JfrProperties;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContinuousRecordingTest {
+
+    private ContinuousRecording recording;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recording = new ContinuousRecording(new JfrProperties(true, "default", Duration.ofMinutes(1),
+                DataSize.ofMegabytes(10), Duration.ofMinutes(1), Duration.ofMillis(10), Duration.ofMillis(20)));
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    @DisplayName("Should not record environment variables, system properties or JVM arguments")
+    void shouldNotRecordConfidentialEvents() {
+        Map<String, String> settings = running().getSettings();
+
+        assertThat(ContinuousRecording.CONFIDENTIAL_EVENTS)
+                .allSatisfy(event -> assertThat(settings).containsEntry(event + "#enabled", "false"));
+        assertThat(settings).containsEntry("jdk.VirtualThreadPinned#enabled", "true");
+    }
+
+    private static Recording running() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(candidate -> ContinuousRecording.NAME.equals(candidate.getName()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,192 @@
+package com.devices.api.jfr;
+
+import com.devices.api.config.JfrProperties;
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.entity.Device;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.exception.DeviceNotFoundException;
+import com.devices.api.index.DeviceBitmapIndex;
+import com.devices.api.mapper.DeviceMapper;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.service.DeviceService;
+import com.devices.api.service.DeviceServiceImpl;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JfrEventAspectTest {
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private DeviceMapper deviceMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<DeviceBitmapIndex> bitmapIndexProvider;
+
+    private DeviceService deviceService;
+
+    private UUID deviceId;
+    private Device device;
+    private DeviceResponse deviceResponse;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(
+                new DeviceServiceImpl(deviceRepository, deviceMapper, eventPublisher, bitmapIndexProvider));
+        factory.addAspect(new JfrEventAspect());
+        deviceService = factory.getProxy();
+
+        deviceId = UUID.randomUUID();
+        device = new Device();
+        device.setId(deviceId);
+        device.setName("iPhone 15");
+        device.setBrand("Apple");
+        device.setState(DeviceState.AVAILABLE);
+        deviceResponse = new DeviceResponse(deviceId, "iPhone 15", "Apple", DeviceState.AVAILABLE, Instant.now());
+    }
+
+    @Nested
+    @DisplayName("Device Operation Event Tests")
+    class DeviceOperationEventTests {
+
+        private Recording recording;
+
+        @BeforeEach
+        void startRecording() {
+            recording = new Recording();
+            recording.enable(DeviceOperationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+        }
+
+        @AfterEach
+        void closeRecording() {
+            recording.close();
+        }
+
+        @Test
+        @DisplayName("Should record operation with device id and row count")
+        void shouldRecordGetById() throws IOException {
+            when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(device));
+            when(deviceMapper.toResponse(device)).thenReturn(deviceResponse);
+
+            deviceService.getById(deviceId);
+
+            RecordedEvent event = single(stop(recording));
+            assertThat(event.getString("operation")).isEqualTo("getById");
+            assertThat(event.getString("deviceId")).isEqualTo(deviceId.toString());
+            assertThat(event.getInt("rowCount")).isEqualTo(1);
+            assertThat(event.getString("failure")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should record list size as row count")
+        void shouldRecordGetAllRowCount() throws IOException {
+            when(deviceRepository.findAll()).thenReturn(List.of(device, device));
+            when(deviceMapper.toResponseList(List.of(device, device)))
+                    .thenReturn(List.of(deviceResponse, deviceResponse));
+
+            deviceService.getAll(DeviceFilter.of(null, null));
+
+            RecordedEvent event = single(stop(recording));
+            assertThat(event.getString("operation")).isEqualTo("getAll");
+            assertThat(event.getString("deviceId")).isNull();
+            assertThat(event.getInt("rowCount")).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should record failure type and rethrow")
+        void shouldRecordFailure() throws IOException {
+            when(deviceRepository.findById(deviceId)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> deviceService.getById(deviceId))
+                    .isInstanceOf(DeviceNotFoundException.class);
+
+            RecordedEvent event = single(stop(recording));
+            assertThat(event.getString("deviceId")).isEqualTo(deviceId.toString());
+            assertThat(event.getString("failure")).isEqualTo("DeviceNotFoundException");
+            assertThat(event.getInt("rowCount")).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Continuous Recording Tests")
+    class ContinuousRecordingTests {
+
+        @Test
+        @DisplayName("Should dump recent operations from the continuous recording")
+        void shouldDumpRecentOperations() throws Exception {
+            JfrProperties properties = new JfrProperties(true, "default", Duration.ofMinutes(5),
+                    DataSize.ofMegabytes(50), Duration.ofMinutes(1), Duration.ZERO, Duration.ofMillis(20));
+            when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(device));
+            when(deviceMapper.toResponse(device)).thenReturn(deviceResponse);
+
+            try (ContinuousRecording continuousRecording = new ContinuousRecording(properties)) {
+                continuousRecording.start();
+                assertThat(continuousRecording.isRunning()).isTrue();
+
+                deviceService.getById(deviceId);
+
+                Path dump = continuousRecording.dump(Duration.ofMinutes(1));
+                try {
+                    assertThat(RecordingFile.readAllEvents(dump))
+                            .anySatisfy(event -> {
+                                assertThat(event.getEventType().getName()).isEqualTo(DeviceOperationEvent.NAME);
+                                assertThat(event.getString("deviceId")).isEqualTo(deviceId.toString());
+                            });
+                } finally {
+                    Files.deleteIfExists(dump);
+                }
+            }
+        }
+    }
+
+    private static List<RecordedEvent> stop(Recording recording) throws IOException {
+        recording.stop();
+        Path file = Files.createTempFile("jfr-aspect-test", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(DeviceOperationEvent.NAME))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events) {
+        assertThat(events).hasSize(1);
+        return events.getFirst();
+    }
+}
@@ -0,0 +1,129 @@
+package com.devices.api.openapi;
+
+import com.devices.api.config.OpenApiConfig;
+import com.devices.api.controller.DeviceController;
+import com.devices.api.controller.DeviceExportController;
+import com.devices.api.controller.DeviceHistoryController;
+import com.devices.api.controller.DeviceImportController;
+import com.devices.api.controller.DeviceStatsController;
+import com.devices.api.export.DeviceArrowExporter;
+import com.devices.api.service.DeviceHistoryService;
+import com.devices.api.service.DeviceImportService;
+import com.devices.api.service.DeviceService;
+import com.devices.api.service.DeviceStatsService;
+import com.devices.api.service.DeviceTotalService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springdoc.core.configuration.SpringDocConfiguration;
+import org.springdoc.core.properties.SpringDocConfigProperties;
+import org.springdoc.webmvc.core.configuration.SpringDocWebMvcConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Generates the OpenAPI document served at {@code /api-docs} while the application is built,
+ * so instances do not scan controllers at startup. springdoc documents the controllers once,
+ * with every optional one enabled, and the result is written to {@code openapi/api-docs.json}
+ * on the application's classpath together with a gzip-compressed copy.
+ *
+ * <p>Runs in the {@code prepare-package} phase, not with the tests:
+ * <pre>
+ * mvn package
+ * </pre>
+ */
+@WebMvcTest(
+        controllers = {DeviceController.class, DeviceImportController.class, DeviceStatsController.class,
+                DeviceHistoryController.class, DeviceExportController.class},
+        properties = {"springdoc.api-docs.enabled=true", "springdoc.api-docs.path=/api-docs",
+                "devices.history.enabled=true", "devices.export.enabled=true"})
+@ImportAutoConfiguration({SpringDocConfiguration.class, SpringDocConfigProperties.class, SpringDocWebMvcConfiguration.class})
+@Import({OpenApiConfig.class, OpenApiDocumentGenerator.TestConfig.class})
+class OpenApiDocumentGenerator {
+
+    private static final String OUTPUT_DIRECTORY_PROPERTY = "openapi.output-directory";
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        DeviceService deviceService() {
+            return mock(DeviceService.class);
+        }
+
+        @Bean
+        DeviceTotalService deviceTotalService() {
+            return mock(DeviceTotalService.class);
+        }
+
+        @Bean
+        DeviceImportService deviceImportService() {
+            return mock(DeviceImportService.class);
+        }
+
+        @Bean
+        DeviceStatsService deviceStatsService() {
+            return mock(DeviceStatsService.class);
+        }
+
+        @Bean
+        DeviceHistoryService deviceHistoryService() {
+            return mock(DeviceHistoryService.class);
+        }
+
+        @Bean
+        DeviceArrowExporter deviceArrowExporter() {
+            return mock(DeviceArrowExporter.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should write the OpenAPI document of every controller")
+    void generate() throws Exception {
+        byte[] document = mockMvc.perform(get("/api-docs"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode paths = new ObjectMapper().readTree(document).path("paths");
+        assertThat(paths.properties()).extracting(path -> path.getKey())
+                .contains("/api/v1/devices/{id}", "/api/v1/devices/imports", "/api/v1/devices/stats/timeline",
+                        "/api/v1/devices/history", "/api/v1/devices/export");
+        paths.forEach(path -> path.forEach(operation ->
+                assertThat(operation.path("operationId").asText()).isNotBlank()));
+
+        Path directory = Path.of(System.getProperty(OUTPUT_DIRECTORY_PROPERTY, "target/classes/openapi"));
+        Files.createDirectories(directory);
+        Files.write(directory.resolve("api-docs.json"), document);
+        try (OutputStream out = new BestCompressionGzip(Files.newOutputStream(directory.resolve("api-docs.json.gz")))) {
+            out.write(document);
+        }
+    }
+
+    private static final class BestCompressionGzip extends GZIPOutputStream {
+
+        BestCompressionGzip(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.devices.api.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter(
+                new RateLimiter(10, 2, 100, clock::get),
+                new RateLimiter(1, 1, 100, clock::get),
+                "X-API-Key",
+                Set.of("integration-a"),
+                Set.of("/api/v1/graphql"));
+    }
+
+    @Test
+    @DisplayName("Should pass requests within budget with rate limit headers")
+    void shouldPassWithinBudget() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = perform(get(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(RateLimitFilter.REMAINING_HEADER)).isEqualTo("1");
+        assertThat(response.getHeader(RateLimitFilter.RESET_HEADER)).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After and a problem body once the budget is spent")
+    void shouldRejectOverBudget() throws Exception {
+        perform(get(), new MockFilterChain());
+        perform(get(), new MockFilterChain());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = perform(get(), chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getHeader(RateLimitFilter.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(response.getContentType()).isEqualTo("application/problem+json");
+        assertThat(response.getContentAsString()).contains("\"status\":429", "Too Many Requests");
+    }
+
+    @Test
+    @DisplayName("Should keep separate read and write budgets")
+    void shouldSeparateReadAndWriteBudgets() throws Exception {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/v1/devices");
+
+        assertThat(perform(post, new MockFilterChain()).getStatus()).isEqualTo(200);
+        assertThat(perform(post, new MockFilterChain()).getStatus()).isEqualTo(429);
+        assertThat(perform(get(), new MockFilterChain()).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should count POSTs to read-only paths against the read budget")
+    void shouldCountReadOnlyPathsAsReads() throws Exception {
+        MockHttpServletRequest query = new MockHttpServletRequest("POST", "/api/v1/graphql");
+
+        assertThat(perform(query, new MockFilterChain()).getStatus()).isEqualTo(200);
+        assertThat(perform(query, new MockFilterChain()).getStatus()).isEqualTo(200);
+        assertThat(perform(query, new MockFilterChain()).getStatus()).isEqualTo(429);
+        assertThat(perform(new MockHttpServletRequest("POST", "/api/v1/devices"), new MockFilterChain()).getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should identify clients by API key before address")
+    void shouldIdentifyClientsByApiKey() throws Exception {
+        perform(get(), new MockFilterChain());
+        perform(get(), new MockFilterChain());
+
+        MockHttpServletRequest withKey = get();
+        withKey.addHeader("X-API-Key", "integration-a");
+
+        assertThat(perform(withKey, new MockFilterChain()).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should limit requests with unknown API keys by address")
+    void shouldIgnoreUnknownApiKeys() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = get();
+            request.addHeader("X-API-Key", "made-up-" + i);
+            assertThat(perform(request, new MockFilterChain()).getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletRequest another = get();
+        another.addHeader("X-API-Key", "made-up-2");
+
+        assertThat(perform(another, new MockFilterChain()).getStatus()).isEqualTo(429);
+        assertThat(perform(get(), new MockFilterChain()).getStatus()).isEqualTo(429);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/v1/devices");
+    }
+}
@@ -0,0 +1,119 @@
+package com.devices.api.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Nested
+    @DisplayName("Budget Tests")
+    class BudgetTests {
+
+        @Test
+        @DisplayName("Should allow a burst and then reject until a token refills")
+        void shouldAllowBurstThenReject() {
+            RateLimiter limiter = new RateLimiter(10, 3, 100, clock::get);
+
+            assertThat(limiter.tryAcquire("client")).isEqualTo(2);
+            assertThat(limiter.tryAcquire("client")).isEqualTo(1);
+            assertThat(limiter.tryAcquire("client")).isZero();
+            assertThat(limiter.tryAcquire("client")).isEqualTo(-SECOND / 10);
+            assertThat(limiter.rejected()).isEqualTo(1);
+
+            clock.addAndGet(SECOND / 10);
+            assertThat(limiter.tryAcquire("client")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should refill up to the burst only")
+        void shouldRefillUpToBurst() {
+            RateLimiter limiter = new RateLimiter(10, 3, 100, clock::get);
+            limiter.tryAcquire("client");
+
+            clock.addAndGet(60 * SECOND);
+
+            assertThat(limiter.tryAcquire("client")).isEqualTo(2);
+            assertThat(limiter.nanosUntilFull(2)).isEqualTo(SECOND / 10);
+        }
+
+        @Test
+        @DisplayName("Should keep a budget per client")
+        void shouldKeepBudgetPerClient() {
+            RateLimiter limiter = new RateLimiter(1, 1, 100, clock::get);
+
+            assertThat(limiter.tryAcquire("a")).isZero();
+            assertThat(limiter.tryAcquire("a")).isNegative();
+            assertThat(limiter.tryAcquire("b")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should never hand out more than the burst under contention")
+        void shouldNotOvergrantUnderContention() throws Exception {
+            RateLimiter limiter = new RateLimiter(1, 1_000, 100, clock::get);
+
+            List<Future<Integer>> granted = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+                for (int thread = 0; thread < 8; thread++) {
+                    granted.add(executor.submit(() -> {
+                        int count = 0;
+                        for (int i = 0; i < 10_000; i++) {
+                            if (limiter.tryAcquire("client") >= 0) {
+                                count++;
+                            }
+                        }
+                        return count;
+                    }));
+                }
+            }
+
+            int total = 0;
+            for (Future<Integer> future : granted) {
+                total += future.get();
+            }
+            assertThat(total).isEqualTo(1_000);
+            assertThat(limiter.rejected()).isEqualTo(80_000 - 1_000);
+        }
+    }
+
+    @Nested
+    @DisplayName("Client Tracking Tests")
+    class ClientTrackingTests {
+
+        @Test
+        @DisplayName("Should forget clients whose bucket has refilled")
+        void shouldForgetIdleClients() {
+            RateLimiter limiter = new RateLimiter(10, 5, 100, clock::get);
+            limiter.tryAcquire("idle");
+            clock.addAndGet(SECOND);
+            limiter.tryAcquire("busy");
+
+            assertThat(limiter.forgetIdle()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should share one bucket among clients beyond the maximum")
+        void shouldShareOverflowBucket() {
+            RateLimiter limiter = new RateLimiter(1, 1, 1, clock::get);
+            limiter.tryAcquire("tracked");
+
+            assertThat(limiter.tryAcquire("first")).isZero();
+            assertThat(limiter.tryAcquire("second")).isNegative();
+            assertThat(limiter.forgetIdle()).isEqualTo(1);
+        }
+    }
+}
@@ -1,18 +1,26 @@
 package com.devices.api.repository;
 
+import com.devices.api.dto.DeviceFilter;
 import com.devices.api.entity.Device;
+import com.devices.api.enums.DeviceField;
 import com.devices.api.enums.DeviceState;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -27,6 +35,9 @@ class DeviceRepositoryTest {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         deviceRepository.deleteAll();
@@ -105,6 +116,107 @@ class DeviceRepositoryTest {
         assertThat(devices).isEmpty();
     }
 
+    @Test
+    @DisplayName("Should select only requested columns")
+    void shouldSelectOnlyRequestedColumns() {
+        Device saved = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        createDevice("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+
+        List<Tuple> tuples = deviceRepository.findProjectedBy(DeviceFilter.of("Apple", null),
+                EnumSet.of(DeviceField.ID, DeviceField.STATE));
+
+        assertThat(tuples).hasSize(1);
+        assertThat(tuples.get(0).getElements()).hasSize(2);
+        assertThat(tuples.get(0).get("id")).isEqualTo(saved.getId());
+        assertThat(tuples.get(0).get("state")).isEqualTo(DeviceState.AVAILABLE);
+    }
+
+    @Test
+    @DisplayName("Should find devices within creation time range")
+    void shouldFindByCreationTimeRange() {
+        Instant before = Instant.now().minus(1, ChronoUnit.MINUTES);
+        createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        createDevice("Galaxy S24", "Samsung", DeviceState.IN_USE);
+        Instant after = Instant.now().plus(1, ChronoUnit.MINUTES);
+
+        assertThat(deviceRepository.findByFilter(new DeviceFilter(null, null, before, after))).hasSize(2);
+        assertThat(deviceRepository.findByFilter(new DeviceFilter("Apple", null, before, null))).hasSize(1);
+        assertThat(deviceRepository.findByFilter(new DeviceFilter(null, null, after, null))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should fetch devices by id array")
+    void shouldFindAllByIdArray() {
+        Device iphone = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        Device galaxy = createDevice("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+        createDevice("Pixel 9", "Google", DeviceState.AVAILABLE);
+
+        List<Device> devices = deviceRepository.findAllByIdIn(new UUID[]{iphone.getId(), galaxy.getId(), UUID.randomUUID()});
+
+        assertThat(devices).extracting(Device::getId).containsExactlyInAnyOrder(iphone.getId(), galaxy.getId());
+    }
+
+    @Test
+    @DisplayName("Should select requested columns of devices by id array")
+    void shouldFindProjectedByIdArray() {
+        Device iphone = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        createDevice("Galaxy S24", "Samsung", DeviceState.IN_USE);
+
+        List<Tuple> tuples = deviceRepository.findProjectedByIdIn(new UUID[]{iphone.getId(), UUID.randomUUID()},
+                EnumSet.of(DeviceField.ID, DeviceField.NAME));
+
+        assertThat(tuples).singleElement().satisfies(tuple -> {
+            assertThat(tuple.getElements()).hasSize(2);
+            assertThat(tuple.get("id")).isEqualTo(iphone.getId());
+            assertThat(tuple.get("name")).isEqualTo("iPhone 15");
+        });
+    }
+
+    @Test
+    @DisplayName("Should count devices matching filter")
+    void shouldCountByFilter() {
+        createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        createDevice("iPad Pro", "Apple", DeviceState.IN_USE);
+        createDevice("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+
+        assertThat(deviceRepository.countByFilter(DeviceFilter.of(null, null))).isEqualTo(3);
+        assertThat(deviceRepository.countByFilter(DeviceFilter.of("Apple", DeviceState.AVAILABLE))).isEqualTo(1);
+        assertThat(deviceRepository.countByFilter(new DeviceFilter(null, DeviceState.AVAILABLE,
+                Instant.now().plus(1, ChronoUnit.MINUTES), null))).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stamp last modified on update and find devices modified since")
+    void shouldFindModifiedSince() {
+        Device iphone = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        createDevice("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+        Instant since = Instant.now();
+
+        iphone.setState(DeviceState.INACTIVE);
+        Device updated = deviceRepository.saveAndFlush(iphone);
+
+        assertThat(updated.getLastModified()).isAfterOrEqualTo(since.truncatedTo(ChronoUnit.MICROS));
+        assertThat(deviceRepository.findByLastModifiedGreaterThanEqual(since))
+                .extracting(Device::getId)
+                .containsExactly(iphone.getId());
+    }
+
+    @Test
+    @DisplayName("Should tombstone deleted devices and purge tombstones by deletion time")
+    void shouldTombstoneDeletedDevicesAndPurge() {
+        Device old = createDevice("iPhone 15", "Apple", DeviceState.AVAILABLE);
+        Device recent = createDevice("Galaxy S24", "Samsung", DeviceState.AVAILABLE);
+        deviceRepository.deleteAll(List.of(old, recent));
+        deviceRepository.flush();
+        jdbcTemplate.update("UPDATE device_tombstones SET deleted_at = deleted_at - interval '10 days' WHERE id = ?",
+                old.getId());
+        Instant now = Instant.now();
+
+        assertThat(deviceRepository.findTombstoneIdsSince(now.minus(1, ChronoUnit.HOURS))).containsExactly(recent.getId());
+        assertThat(deviceRepository.deleteTombstonesBefore(now.minus(7, ChronoUnit.DAYS))).isEqualTo(1);
+        assertThat(deviceRepository.findTombstoneIdsSince(Instant.EPOCH)).containsExactly(recent.getId());
+    }
+
     private Device createDevice(String name, String brand, DeviceState state) {
         Device device = new Device();
         device.setName(name);
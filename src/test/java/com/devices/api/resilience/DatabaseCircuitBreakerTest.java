@@ -0,0 +1,268 @@
+package com.devices.api.resilience;
+
+import com.devices.api.controller.DeviceController;
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.exception.DatabaseUnavailableException;
+import com.devices.api.exception.DeviceNotFoundException;
+import com.devices.api.resilience.DatabaseCircuitBreaker.Permit;
+import com.devices.api.service.DeviceService;
+import com.devices.api.service.DeviceTotalService;
+import com.devices.api.sharding.ShardRoutingDataSource;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DatabaseCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private DatabaseCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new DatabaseCircuitBreaker(2, Duration.ofSeconds(10), now::get);
+    }
+
+    @Nested
+    @DisplayName("State Tests")
+    class StateTests {
+
+        @Test
+        @DisplayName("Should open after consecutive failures and reject calls until the open duration passed")
+        void shouldOpenAfterConsecutiveFailures() {
+            breaker.onFailure(Permit.CALL);
+            breaker.onSuccess(Permit.CALL);
+            breaker.onFailure(Permit.CALL);
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.CLOSED);
+
+            breaker.onFailure(Permit.CALL);
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.OPEN);
+            assertThat(breaker.tryAcquire()).isEqualTo(Permit.REJECTED);
+
+            now.addAndGet(Duration.ofSeconds(4).toNanos());
+            assertThat(breaker.retryAfter()).isEqualTo(Duration.ofSeconds(6));
+        }
+
+        @Test
+        @DisplayName("Should let a single trial call through and close when it succeeds")
+        void shouldCloseAfterSuccessfulTrial() {
+            open();
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+            Permit trial = breaker.tryAcquire();
+            assertThat(trial).isEqualTo(Permit.TRIAL);
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.HALF_OPEN);
+            assertThat(breaker.tryAcquire()).isEqualTo(Permit.REJECTED);
+
+            breaker.onSuccess(trial);
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.CLOSED);
+            assertThat(breaker.tryAcquire()).isEqualTo(Permit.CALL);
+        }
+
+        @Test
+        @DisplayName("Should reopen when the trial call fails")
+        void shouldReopenAfterFailedTrial() {
+            open();
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+            Permit trial = breaker.tryAcquire();
+
+            breaker.onFailure(trial);
+
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.OPEN);
+            assertThat(breaker.tryAcquire()).isEqualTo(Permit.REJECTED);
+            assertThat(breaker.retryAfter()).isEqualTo(Duration.ofSeconds(10));
+        }
+
+        @Test
+        @DisplayName("Should only let the trial call close a half-open breaker")
+        void shouldOnlyCloseOnTrialSuccess() {
+            open();
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+            breaker.tryAcquire();
+
+            breaker.onSuccess(Permit.CALL);
+
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.HALF_OPEN);
+            assertThat(breaker.tryAcquire()).isEqualTo(Permit.REJECTED);
+        }
+
+        @Test
+        @DisplayName("Should let the next call try when the trial is released")
+        void shouldPassReleasedTrialOn() {
+            open();
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+            breaker.release(breaker.tryAcquire());
+
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.HALF_OPEN);
+            assertThat(breaker.tryAcquire()).isEqualTo(Permit.TRIAL);
+        }
+    }
+
+    @Nested
+    @DisplayName("Stale Serving Tests")
+    @ExtendWith(MockitoExtension.class)
+    class StaleServingTests {
+
+        @Mock
+        private DeviceService deviceService;
+
+        private DeviceController controller;
+        private UUID deviceId;
+        private DeviceResponse device;
+
+        @BeforeEach
+        void setUp() {
+            AspectJProxyFactory factory = new AspectJProxyFactory(new DeviceController(deviceService, mock(DeviceTotalService.class)));
+            factory.addAspect(new DatabaseCircuitBreakerAspect(breaker, 1000, Duration.ofHours(1)));
+            controller = factory.getProxy();
+            deviceId = UUID.randomUUID();
+            device = new DeviceResponse(deviceId, "iPhone 15", "Apple", DeviceState.AVAILABLE, Instant.now());
+        }
+
+        @Test
+        @DisplayName("Should serve the last good response marked stale when the database fails")
+        void shouldServeStaleRead() {
+            when(deviceService.getById(deviceId))
+                    .thenReturn(device)
+                    .thenThrow(new CannotCreateTransactionException("Connection is not available"));
+
+            assertThat(controller.getDevice(deviceId, null).getHeaders().containsHeader(DatabaseCircuitBreakerAspect.STALE_HEADER)).isFalse();
+            ResponseEntity<DeviceResponse> stale = controller.getDevice(deviceId, null);
+
+            assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(stale.getBody()).isEqualTo(device);
+            assertThat(stale.getHeaders().getFirst(DatabaseCircuitBreakerAspect.STALE_HEADER)).isEqualTo("true");
+            assertThat(stale.getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("0");
+        }
+
+        @Test
+        @DisplayName("Should reject writes and unknown reads without calling the database while open")
+        void shouldFailFastWhileOpen() {
+            open();
+
+            assertThatThrownBy(() -> controller.createDevice(new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE)))
+                    .isInstanceOf(DatabaseUnavailableException.class)
+                    .satisfies(ex -> assertThat(((DatabaseUnavailableException) ex).getRetryAfter()).isEqualTo(Duration.ofSeconds(10)));
+            assertThatThrownBy(() -> controller.getDevice(deviceId, null))
+                    .isInstanceOf(DatabaseUnavailableException.class);
+            verifyNoInteractions(deviceService);
+        }
+
+        @Test
+        @DisplayName("Should not count answers from the database as failures")
+        void shouldIgnoreRequestErrors() {
+            when(deviceService.getById(deviceId)).thenReturn(device).thenThrow(new DeviceNotFoundException(deviceId));
+            when(deviceService.create(any())).thenThrow(new DataIntegrityViolationException("uq_devices_brand_name"),
+                    new PessimisticLockingFailureException("deadlock"));
+
+            controller.getDevice(deviceId, null);
+            for (int i = 0; i < 2; i++) {
+                assertThatThrownBy(() -> controller.createDevice(new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE)))
+                        .isNotInstanceOf(DatabaseUnavailableException.class);
+            }
+            assertThatThrownBy(() -> controller.getDevice(deviceId, null)).isInstanceOf(DeviceNotFoundException.class);
+
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.CLOSED);
+            doThrow(new CannotCreateTransactionException("down")).when(deviceService).getById(deviceId);
+            assertThatThrownBy(() -> controller.getDevice(deviceId, null))
+                    .as("a device found missing is not served stale")
+                    .isInstanceOf(DatabaseUnavailableException.class);
+        }
+
+        @Test
+        @DisplayName("Should neither close nor reopen when the trial call ends in a request error")
+        void shouldReleaseTrialOnRequestError() {
+            open();
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+            when(deviceService.getById(deviceId)).thenThrow(new DeviceNotFoundException(deviceId));
+
+            assertThatThrownBy(() -> controller.getDevice(deviceId, null)).isInstanceOf(DeviceNotFoundException.class);
+
+            assertThat(breaker.state()).isEqualTo(DatabaseCircuitBreaker.State.HALF_OPEN);
+            assertThat(breaker.tryAcquire()).isEqualTo(Permit.TRIAL);
+        }
+    }
+
+    @Nested
+    @DisplayName("Connection Timeout Tests")
+    class ConnectionTimeoutTests {
+
+        private final ConnectionTimeoutPostProcessor postProcessor =
+                new ConnectionTimeoutPostProcessor(Duration.ofSeconds(2));
+
+        @Test
+        @DisplayName("Should cap a longer pool connection timeout and keep a shorter one")
+        void shouldCapPoolTimeout() {
+            HikariDataSource slow = pool(30_000);
+            HikariDataSource fast = pool(1_000);
+
+            postProcessor.postProcessBeforeInitialization(slow, "dataSource");
+            postProcessor.postProcessBeforeInitialization(fast, "otherDataSource");
+
+            assertThat(slow.getConnectionTimeout()).isEqualTo(2_000);
+            assertThat(fast.getConnectionTimeout()).isEqualTo(1_000);
+        }
+
+        @Test
+        @DisplayName("Should cap the workload pools of every shard")
+        void shouldCapRoutedPools() {
+            List<WorkloadRoutingDataSource> shards = List.of(workloadPools(), workloadPools());
+
+            postProcessor.postProcessBeforeInitialization(new ShardRoutingDataSource(shards), "dataSource");
+
+            for (WorkloadRoutingDataSource shard : shards) {
+                for (WorkloadClass workload : WorkloadClass.values()) {
+                    assertThat(shard.getPool(workload).getConnectionTimeout()).isEqualTo(2_000);
+                }
+            }
+        }
+
+        private static WorkloadRoutingDataSource workloadPools() {
+            Map<WorkloadClass, HikariDataSource> pools = new EnumMap<>(WorkloadClass.class);
+            for (WorkloadClass workload : WorkloadClass.values()) {
+                pools.put(workload, pool(30_000));
+            }
+            return new WorkloadRoutingDataSource(pools);
+        }
+
+        private static HikariDataSource pool(long connectionTimeout) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setConnectionTimeout(connectionTimeout);
+            return pool;
+        }
+    }
+
+    private void open() {
+        breaker.onFailure(Permit.CALL);
+        breaker.onFailure(Permit.CALL);
+    }
+}
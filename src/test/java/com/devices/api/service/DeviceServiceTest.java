@@ -1,15 +1,24 @@
 package com.devices.api.service;
 
+import com.devices.api.dto.DeviceFilter;
 import com.devices.api.dto.DeviceFullUpdateRequest;
 import com.devices.api.dto.DeviceRequest;
 import com.devices.api.dto.DeviceResponse;
 import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertResult;
 import com.devices.api.entity.Device;
+import com.devices.api.enums.DeviceField;
 import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.UpsertOutcome;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.event.DevicesUpsertedEvent;
 import com.devices.api.exception.DeviceInUseException;
 import com.devices.api.exception.DeviceNotFoundException;
+import com.devices.api.index.DeviceBitmapIndex;
 import com.devices.api.mapper.DeviceMapper;
 import com.devices.api.repository.DeviceRepository;
+import com.devices.api.repository.DeviceRepositoryCustom.UpsertedDevice;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,15 +27,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +53,12 @@ class DeviceServiceTest {
     @Mock
     private DeviceMapper deviceMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<DeviceBitmapIndex> bitmapIndexProvider;
+
     @InjectMocks
     private DeviceServiceImpl deviceService;
 
@@ -81,6 +102,75 @@ class DeviceServiceTest {
 
             assertThat(result).isEqualTo(deviceResponse);
             verify(deviceRepository).save(device);
+            verify(eventPublisher).publishEvent(DeviceChangedEvent.created(deviceResponse));
+        }
+    }
+
+    @Nested
+    @DisplayName("Upsert Device Tests")
+    class UpsertDeviceTests {
+
+        private final DeviceRequest request = new DeviceRequest("Test Device", "Test Brand", DeviceState.INACTIVE);
+
+        @BeforeEach
+        void setUp() {
+            when(deviceMapper.toEntity(request)).thenReturn(new Device());
+        }
+
+        @Test
+        @DisplayName("Should report a new device as created")
+        void shouldCreateUnknownDevice() {
+            when(deviceRepository.upsertAll(any())).thenReturn(List.of(new UpsertedDevice(device, true, null)));
+            when(deviceMapper.toResponse(device)).thenReturn(deviceResponse);
+
+            DeviceUpsertResult result = deviceService.upsert(request);
+
+            assertThat(result).isEqualTo(new DeviceUpsertResult(UpsertOutcome.CREATED, deviceResponse));
+            verify(eventPublisher).publishEvent(new DevicesUpsertedEvent(List.of(DeviceChangedEvent.created(deviceResponse))));
+        }
+
+        @Test
+        @DisplayName("Should report an existing device as updated with its previous state")
+        void shouldUpdateExistingDevice() {
+            when(deviceRepository.upsertAll(any())).thenReturn(List.of(new UpsertedDevice(device, false, DeviceState.INACTIVE)));
+            when(deviceMapper.toResponse(device)).thenReturn(deviceResponse);
+
+            DeviceUpsertResult result = deviceService.upsert(request);
+
+            assertThat(result.outcome()).isEqualTo(UpsertOutcome.UPDATED);
+            DeviceResponse previous = new DeviceResponse(deviceId, "Test Device", "Test Brand",
+                    DeviceState.INACTIVE, device.getCreationTime());
+            verify(eventPublisher).publishEvent(new DevicesUpsertedEvent(List.of(DeviceChangedEvent.updated(previous, deviceResponse))));
+        }
+
+        @Test
+        @DisplayName("Should throw exception when the existing device is in use")
+        void shouldRejectDeviceInUse() {
+            when(deviceRepository.upsertAll(any())).thenReturn(List.of());
+
+            assertThatThrownBy(() -> deviceService.upsert(request))
+                    .isInstanceOf(DeviceInUseException.class);
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should reject a batch naming the same device twice")
+        void shouldRejectDuplicateKeys() {
+            assertThatThrownBy(() -> deviceService.upsertAll(List.of(request, request)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Duplicate device");
+            verify(deviceRepository, never()).upsertAll(any());
+        }
+
+        @Test
+        @DisplayName("Should reject tags, which are only set on create and PATCH")
+        void shouldRejectTags() {
+            DeviceRequest tagged = new DeviceRequest("Other Device", "Test Brand", DeviceState.INACTIVE, List.of("site:ams1"));
+
+            assertThatThrownBy(() -> deviceService.upsertAll(List.of(request, tagged)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Tags");
+            verify(deviceRepository, never()).upsertAll(any());
         }
     }
 
@@ -123,7 +213,7 @@ class DeviceServiceTest {
             when(deviceRepository.findAll()).thenReturn(devices);
             when(deviceMapper.toResponseList(devices)).thenReturn(responses);
 
-            List<DeviceResponse> result = deviceService.getAll(null, null);
+            List<DeviceResponse> result = deviceService.getAll(DeviceFilter.of(null, null));
 
             assertThat(result).hasSize(1);
             verify(deviceRepository).findAll();
@@ -138,7 +228,7 @@ class DeviceServiceTest {
             when(deviceRepository.findByBrand("Test Brand")).thenReturn(devices);
             when(deviceMapper.toResponseList(devices)).thenReturn(responses);
 
-            List<DeviceResponse> result = deviceService.getAll("Test Brand", null);
+            List<DeviceResponse> result = deviceService.getAll(DeviceFilter.of("Test Brand", null));
 
             assertThat(result).hasSize(1);
             verify(deviceRepository).findByBrand("Test Brand");
@@ -153,7 +243,7 @@ class DeviceServiceTest {
             when(deviceRepository.findByState(DeviceState.AVAILABLE)).thenReturn(devices);
             when(deviceMapper.toResponseList(devices)).thenReturn(responses);
 
-            List<DeviceResponse> result = deviceService.getAll(null, DeviceState.AVAILABLE);
+            List<DeviceResponse> result = deviceService.getAll(DeviceFilter.of(null, DeviceState.AVAILABLE));
 
             assertThat(result).hasSize(1);
             verify(deviceRepository).findByState(DeviceState.AVAILABLE);
@@ -168,11 +258,132 @@ class DeviceServiceTest {
             when(deviceRepository.findByBrandAndState("Test Brand", DeviceState.AVAILABLE)).thenReturn(devices);
             when(deviceMapper.toResponseList(devices)).thenReturn(responses);
 
-            List<DeviceResponse> result = deviceService.getAll("Test Brand", DeviceState.AVAILABLE);
+            List<DeviceResponse> result = deviceService.getAll(DeviceFilter.of("Test Brand", DeviceState.AVAILABLE));
 
             assertThat(result).hasSize(1);
             verify(deviceRepository).findByBrandAndState("Test Brand", DeviceState.AVAILABLE);
         }
+
+        @Test
+        @DisplayName("Should filter by creation time range")
+        void shouldFilterByCreationTimeRange() {
+            List<Device> devices = List.of(device);
+            List<DeviceResponse> responses = List.of(deviceResponse);
+            DeviceFilter filter = new DeviceFilter("Test Brand", null,
+                    Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-02-01T00:00:00Z"));
+
+            when(deviceRepository.findByFilter(filter)).thenReturn(devices);
+            when(deviceMapper.toResponseList(devices)).thenReturn(responses);
+
+            List<DeviceResponse> result = deviceService.getAll(filter);
+
+            assertThat(result).hasSize(1);
+            verify(deviceRepository, never()).findByBrand(any());
+        }
+
+        @Test
+        @DisplayName("Should filter by tags together with brand and state")
+        void shouldFilterByTags() {
+            List<Device> devices = List.of(device);
+            DeviceFilter filter = new DeviceFilter("Test Brand", DeviceState.AVAILABLE, null, null,
+                    List.of("site:fra2", "site:ams1", "site:ams1"), List.of("team:payments"));
+
+            when(deviceRepository.findByFilter(filter)).thenReturn(devices);
+            when(deviceMapper.toResponseList(devices)).thenReturn(List.of(deviceResponse));
+
+            assertThat(deviceService.getAll(filter)).hasSize(1);
+            assertThat(filter.anyTags()).containsExactly("site:ams1", "site:fra2");
+            verify(deviceRepository, never()).findByBrandAndState(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Sparse Fieldset Tests")
+    class SparseFieldsetTests {
+
+        @Test
+        @DisplayName("Should project requested fields when getting by id")
+        void shouldProjectFieldsById() {
+            EnumSet<DeviceField> fields = EnumSet.of(DeviceField.ID, DeviceField.STATE);
+            Tuple tuple = mock(Tuple.class);
+            DeviceResponse projected = new DeviceResponse(deviceId, null, null, DeviceState.AVAILABLE, null);
+
+            when(deviceRepository.findProjectedById(deviceId, fields)).thenReturn(Optional.of(tuple));
+            when(deviceMapper.fromTuple(tuple)).thenReturn(projected);
+
+            DeviceResponse result = deviceService.getById(deviceId, fields);
+
+            assertThat(result).isEqualTo(projected);
+            verify(deviceRepository, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when projected device not found")
+        void shouldThrowExceptionWhenProjectedDeviceNotFound() {
+            EnumSet<DeviceField> fields = EnumSet.of(DeviceField.ID);
+
+            when(deviceRepository.findProjectedById(deviceId, fields)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> deviceService.getById(deviceId, fields))
+                    .isInstanceOf(DeviceNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Should project requested fields when listing")
+        void shouldProjectFieldsForList() {
+            EnumSet<DeviceField> fields = EnumSet.of(DeviceField.ID, DeviceField.STATE);
+            List<Tuple> tuples = List.of(mock(Tuple.class));
+            List<DeviceResponse> responses = List.of(deviceResponse);
+
+            when(deviceRepository.findProjectedBy(DeviceFilter.of("Test Brand", null), fields)).thenReturn(tuples);
+            when(deviceMapper.fromTuples(tuples)).thenReturn(responses);
+
+            List<DeviceResponse> result = deviceService.getAll(DeviceFilter.of("Test Brand", null), fields);
+
+            assertThat(result).hasSize(1);
+            verify(deviceRepository, never()).findByBrand(any());
+        }
+
+        @Test
+        @DisplayName("Should project every field of at most limit devices when none are requested")
+        void shouldProjectEveryFieldUpToLimit() {
+            List<Tuple> tuples = List.of(mock(Tuple.class));
+
+            when(deviceRepository.findProjectedBy(DeviceFilter.of(null, null), EnumSet.allOf(DeviceField.class), 10))
+                    .thenReturn(tuples);
+            when(deviceMapper.fromTuples(tuples)).thenReturn(List.of(deviceResponse));
+
+            List<DeviceResponse> result = deviceService.getAll(DeviceFilter.of(null, null), EnumSet.noneOf(DeviceField.class), 10);
+
+            assertThat(result).containsExactly(deviceResponse);
+        }
+
+        @Test
+        @DisplayName("Should project requested fields and the id of many devices in one query")
+        void shouldProjectFieldsOfManyIds() {
+            UUID otherId = UUID.randomUUID();
+            List<Tuple> tuples = List.of(mock(Tuple.class));
+
+            when(deviceRepository.findProjectedByIdIn(new UUID[]{deviceId, otherId}, EnumSet.of(DeviceField.ID, DeviceField.NAME)))
+                    .thenReturn(tuples);
+            when(deviceMapper.fromTuples(tuples)).thenReturn(List.of(deviceResponse));
+
+            List<DeviceResponse> result = deviceService.getAllById(List.of(deviceId, otherId, deviceId), EnumSet.of(DeviceField.NAME));
+
+            assertThat(result).containsExactly(deviceResponse);
+        }
+
+        @Test
+        @DisplayName("Should fall back to full entity when no fields requested")
+        void shouldFallBackToFullEntityWhenNoFields() {
+            when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(device));
+            when(deviceMapper.toResponse(device)).thenReturn(deviceResponse);
+
+            DeviceResponse result = deviceService.getById(deviceId, EnumSet.noneOf(DeviceField.class));
+
+            assertThat(result).isEqualTo(deviceResponse);
+            verify(deviceRepository, never()).findProjectedById(any(), any());
+        }
     }
 
     @Nested
@@ -223,6 +434,22 @@ class DeviceServiceTest {
     @DisplayName("Partial Update Device Tests (PATCH)")
     class PartialUpdateDeviceTests {
 
+        @Test
+        @DisplayName("Should replace tags, also of a device in use")
+        void shouldReplaceTags() {
+            device.setState(DeviceState.IN_USE);
+            device.setTags(List.of("site:fra2"));
+            DeviceUpdateRequest request = new DeviceUpdateRequest(null, null, null, List.of("team:payments", " site:ams1"));
+
+            when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(device));
+            when(deviceRepository.save(any(Device.class))).thenReturn(device);
+            when(deviceMapper.toResponse(device)).thenReturn(deviceResponse);
+
+            deviceService.partialUpdate(deviceId, request);
+
+            assertThat(device.getTags()).containsExactly("site:ams1", "team:payments");
+        }
+
         @Test
         @DisplayName("Should partially update device when available")
         void shouldPartiallyUpdateDeviceWhenAvailable() {
@@ -300,10 +527,12 @@ class DeviceServiceTest {
         @DisplayName("Should delete device successfully when available")
         void shouldDeleteDeviceWhenAvailable() {
             when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(device));
+            when(deviceMapper.toResponse(device)).thenReturn(deviceResponse);
 
             deviceService.delete(deviceId);
 
             verify(deviceRepository).delete(device);
+            verify(eventPublisher).publishEvent(DeviceChangedEvent.deleted(deviceResponse));
         }
 
         @Test
@@ -328,6 +557,7 @@ class DeviceServiceTest {
                     .hasMessageContaining("in use");
 
             verify(deviceRepository, never()).delete(any());
+            verifyNoInteractions(eventPublisher);
         }
 
         @Test
@@ -341,4 +571,148 @@ class DeviceServiceTest {
             verify(deviceRepository, never()).delete(any());
         }
     }
+
+    @Nested
+    @DisplayName("Count Devices Tests")
+    class CountDevicesTests {
+
+        @Test
+        @DisplayName("Should count devices in the database")
+        void shouldCountInDatabase() {
+            DeviceFilter filter = DeviceFilter.of("Apple", DeviceState.AVAILABLE);
+            when(deviceRepository.countByFilter(filter)).thenReturn(7L);
+
+            assertThat(deviceService.count(filter)).isEqualTo(7L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bitmap Index Tests")
+    class BitmapIndexTests {
+
+        private DeviceBitmapIndex index;
+        private DeviceServiceImpl indexedService;
+
+        @BeforeEach
+        void setUp() {
+            index = new DeviceBitmapIndex(1);
+            index.beginRebuild();
+            index.completeRebuild(List.of(
+                    deviceResponse,
+                    new DeviceResponse(UUID.randomUUID(), "Other", "Other Brand", DeviceState.IN_USE, Instant.now())));
+
+            when(bitmapIndexProvider.getIfAvailable()).thenReturn(index);
+            indexedService = new DeviceServiceImpl(deviceRepository, deviceMapper, eventPublisher, bitmapIndexProvider);
+        }
+
+        @Test
+        @DisplayName("Should fetch filtered devices by primary key from index matches")
+        void shouldFetchIndexMatchesById() {
+            when(deviceRepository.findAllByIdInOrModifiedSince(
+                    aryEq(new UUID[]{deviceId}), eq("Test Brand"), eq("AVAILABLE"), eq(index.syncedSince())))
+                    .thenReturn(List.of(device));
+            when(deviceMapper.toResponseList(List.of(device))).thenReturn(List.of(deviceResponse));
+
+            List<DeviceResponse> result = indexedService.getAll(DeviceFilter.of("Test Brand", DeviceState.AVAILABLE));
+
+            assertThat(result).containsExactly(deviceResponse);
+            verify(deviceRepository, never()).findByBrandAndState(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should add devices written since the last rebuild and drop stale matches")
+        void shouldReadRecentWritesFromDatabase() {
+            Device written = new Device();
+            written.setId(UUID.randomUUID());
+            written.setName("Written Elsewhere");
+            written.setBrand("Test Brand");
+            written.setState(DeviceState.IN_USE);
+            when(deviceRepository.findAllByIdInOrModifiedSince(any(), eq("Test Brand"), eq("IN_USE"), any()))
+                    .thenReturn(List.of(written, device));
+            when(deviceMapper.toResponseList(List.of(written))).thenReturn(List.of());
+
+            indexedService.getAll(DeviceFilter.of("Test Brand", DeviceState.IN_USE));
+
+            verify(deviceMapper).toResponseList(List.of(written));
+        }
+
+        @Test
+        @DisplayName("Should use the brand and state index of the table above the id lookup limit")
+        void shouldQueryTableAboveIdLookupLimit() {
+            DeviceBitmapIndex small = new DeviceBitmapIndex(1, 0);
+            small.beginRebuild();
+            small.completeRebuild(List.of(deviceResponse));
+            when(bitmapIndexProvider.getIfAvailable()).thenReturn(small);
+            when(deviceRepository.findByBrand("Test Brand")).thenReturn(List.of(device));
+            when(deviceMapper.toResponseList(List.of(device))).thenReturn(List.of(deviceResponse));
+
+            List<DeviceResponse> result = new DeviceServiceImpl(deviceRepository, deviceMapper, eventPublisher,
+                    bitmapIndexProvider).getAll(DeviceFilter.of("Test Brand", null));
+
+            assertThat(result).containsExactly(deviceResponse);
+            verify(deviceRepository, never()).findAllByIdInOrModifiedSince(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should count from the index")
+        void shouldCountFromIndex() {
+            assertThat(indexedService.count(DeviceFilter.of(null, DeviceState.IN_USE))).isEqualTo(1);
+            assertThat(indexedService.count(DeviceFilter.of(null, null))).isEqualTo(2);
+
+            verify(deviceRepository, never()).countByFilter(any());
+        }
+
+        @Test
+        @DisplayName("Should count rows changed since the last rebuild in the database")
+        void shouldCorrectCountForRecentChanges() {
+            UUID writtenElsewhere = UUID.randomUUID();
+            when(deviceRepository.findIdsChangedSince(index.syncedSince(), IndexedCount.MAX_CHANGES + 1))
+                    .thenReturn(List.of(deviceId, writtenElsewhere));
+            when(deviceRepository.countModifiedSince("Test Brand", null, index.syncedSince())).thenReturn(2L);
+
+            assertThat(indexedService.count(DeviceFilter.of("Test Brand", null))).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should count in the database when too many rows changed since the last rebuild")
+        void shouldCountInDatabaseAfterManyChanges() {
+            DeviceFilter filter = DeviceFilter.of("Test Brand", null);
+            when(deviceRepository.findIdsChangedSince(any(), anyInt()))
+                    .thenReturn(Collections.nCopies(IndexedCount.MAX_CHANGES + 1, deviceId));
+            when(deviceRepository.countByFilter(filter)).thenReturn(150_000L);
+
+            assertThat(indexedService.count(filter)).isEqualTo(150_000L);
+        }
+
+        @Test
+        @DisplayName("Should use the database when a creation time range is given")
+        void shouldUseDatabaseForTimeRange() {
+            DeviceFilter filter = new DeviceFilter("Test Brand", null, Instant.EPOCH, null);
+            when(deviceRepository.countByFilter(filter)).thenReturn(3L);
+
+            assertThat(indexedService.count(filter)).isEqualTo(3L);
+        }
+
+        @Test
+        @DisplayName("Should load devices by id that the index does not know")
+        void shouldLoadIdsUnknownToIndex() {
+            UUID unknown = UUID.randomUUID();
+            List<Tuple> tuples = List.of(mock(Tuple.class));
+            when(deviceRepository.findProjectedByIdIn(new UUID[]{unknown}, EnumSet.of(DeviceField.ID, DeviceField.NAME)))
+                    .thenReturn(tuples);
+            when(deviceMapper.fromTuples(tuples)).thenReturn(List.of(deviceResponse));
+
+            assertThat(indexedService.getAllById(List.of(unknown), EnumSet.of(DeviceField.NAME))).containsExactly(deviceResponse);
+        }
+
+        @Test
+        @DisplayName("Should look up ids the index does not know in the database")
+        void shouldLookUpUnknownIdInDatabase() {
+            UUID unknown = UUID.randomUUID();
+            when(deviceRepository.findById(unknown)).thenReturn(Optional.of(device));
+            when(deviceMapper.toResponse(device)).thenReturn(deviceResponse);
+
+            assertThat(indexedService.getById(unknown)).isEqualTo(deviceResponse);
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceTimelineEntry;
+import com.devices.api.entity.DeviceCreationRollup;
+import com.devices.api.entity.DeviceCreationRollupId;
+import com.devices.api.enums.TimelineBucket;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceStatsServiceTest {
+
+    private static final Instant CREATED = Instant.parse("2024-01-15T10:30:00Z");
+    private static final Instant HOUR_START = Instant.parse("2024-01-15T10:00:00Z");
+    private static final Instant DAY_START = Instant.parse("2024-01-15T00:00:00Z");
+
+    @Mock
+    private DeviceCreationRollupRepository rollupRepository;
+
+    @InjectMocks
+    private DeviceStatsServiceImpl deviceStatsService;
+
+    @Nested
+    @DisplayName("Timeline Query Tests")
+    class TimelineQueryTests {
+
+        @Test
+        @DisplayName("Should align range start to bucket and map rollups")
+        void shouldAlignRangeStartToBucket() {
+            Instant to = Instant.parse("2024-01-16T00:00:00Z");
+            DeviceCreationRollup rollup = new DeviceCreationRollup();
+            rollup.setId(new DeviceCreationRollupId(TimelineBucket.HOUR, HOUR_START, "Apple"));
+            rollup.setDeviceCount(3);
+
+            when(rollupRepository.findTimelineByBrand(TimelineBucket.HOUR, "Apple", HOUR_START, to))
+                    .thenReturn(List.of(rollup));
+
+            List<DeviceTimelineEntry> result = deviceStatsService.getCreationTimeline(TimelineBucket.HOUR, "Apple", CREATED, to);
+
+            assertThat(result).containsExactly(new DeviceTimelineEntry(HOUR_START, "Apple", 3));
+        }
+
+        @Test
+        @DisplayName("Should query all brands when no brand given")
+        void shouldQueryAllBrands() {
+            Instant to = Instant.parse("2024-02-01T00:00:00Z");
+
+            when(rollupRepository.findTimeline(TimelineBucket.DAY, DAY_START, to)).thenReturn(List.of());
+
+            List<DeviceTimelineEntry> result = deviceStatsService.getCreationTimeline(TimelineBucket.DAY, null, CREATED, to);
+
+            assertThat(result).isEmpty();
+            verify(rollupRepository, never()).findTimelineByBrand(any(), any(), any(), any());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.devices.api.service;
+
+import com.devices.api.config.TotalCountProperties;
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceTotal;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.TotalCountSource;
+import com.devices.api.index.DeviceBitmapIndex;
+import com.devices.api.repository.DeviceRepository;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceTotalServiceTest {
+
+    private static final TotalCountProperties PROPERTIES = new TotalCountProperties(10_000, Duration.ofMinutes(1), 100, 1);
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    private DeviceTotalServiceImpl totalService;
+
+    @BeforeEach
+    void setUp() {
+        totalService = new DeviceTotalServiceImpl(deviceRepository, null, null, PROPERTIES);
+    }
+
+    @Nested
+    @DisplayName("Exact Total Tests")
+    class ExactTotalTests {
+
+        @Test
+        @DisplayName("Should count small results exactly")
+        void shouldCountSmallResults() {
+            DeviceFilter filter = DeviceFilter.of("Apple", null);
+            when(deviceRepository.estimateCountByFilter(filter)).thenReturn(9_999L);
+            when(deviceRepository.countByFilter(filter)).thenReturn(9_870L);
+
+            assertThat(totalService.total(filter)).isEqualTo(DeviceTotal.exact(9_870));
+        }
+
+        @Test
+        @DisplayName("Should count combined filters without asking the planner")
+        void shouldCountCombinedFilters() {
+            DeviceFilter filter = DeviceFilter.of("Apple", DeviceState.AVAILABLE);
+            when(deviceRepository.countByFilter(filter)).thenReturn(42L);
+
+            assertThat(totalService.total(filter)).isEqualTo(DeviceTotal.exact(42));
+            verify(deviceRepository, never()).estimateCountByFilter(any());
+        }
+
+        @Test
+        @DisplayName("Should treat a creation time range as a single filter")
+        void shouldTreatTimeRangeAsSingleFilter() {
+            DeviceFilter filter = new DeviceFilter(null, null,
+                    Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-02-01T00:00:00Z"));
+            when(deviceRepository.estimateCountByFilter(filter)).thenReturn(500L);
+            when(deviceRepository.countByFilter(filter)).thenReturn(480L);
+
+            assertThat(totalService.total(filter)).isEqualTo(DeviceTotal.exact(480));
+            verify(deviceRepository).estimateCountByFilter(filter);
+        }
+
+        @Test
+        @DisplayName("Should report bitmap index counts as cached")
+        void shouldCountFromBitmapIndex() {
+            DeviceBitmapIndex bitmapIndex = mock(DeviceBitmapIndex.class);
+            when(bitmapIndex.isReady()).thenReturn(true);
+            when(bitmapIndex.count("Apple", null, null)).thenReturn(1_000_000L);
+            totalService = new DeviceTotalServiceImpl(deviceRepository, bitmapIndex, null, PROPERTIES);
+
+            assertThat(totalService.total(DeviceFilter.of("Apple", null)))
+                    .isEqualTo(new DeviceTotal(1_000_000, TotalCountSource.CACHED));
+            verify(deviceRepository, never()).countByFilter(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Large Total Tests")
+    class LargeTotalTests {
+
+        @Test
+        @DisplayName("Should answer with the estimate until a background count is cached")
+        void shouldCacheBackgroundCount() {
+            DeviceFilter filter = DeviceFilter.of(null, null);
+            AtomicReference<WorkloadClass> workload = new AtomicReference<>();
+            CountDownLatch counting = new CountDownLatch(1);
+            when(deviceRepository.estimateCountByFilter(filter)).thenReturn(2_000_000L);
+            when(deviceRepository.countByFilter(filter)).thenAnswer(invocation -> {
+                workload.set(WorkloadContext.current());
+                counting.await();
+                return 1_987_654L;
+            });
+
+            assertThat(totalService.total(filter)).isEqualTo(new DeviceTotal(2_000_000, TotalCountSource.ESTIMATE));
+            assertThat(totalService.total(filter)).isEqualTo(new DeviceTotal(2_000_000, TotalCountSource.ESTIMATE));
+            counting.countDown();
+
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                    assertThat(totalService.total(filter)).isEqualTo(new DeviceTotal(1_987_654, TotalCountSource.CACHED)));
+            verify(deviceRepository, times(1)).countByFilter(filter);
+            assertThat(workload).hasValue(WorkloadClass.BULK);
+        }
+
+        @Test
+        @DisplayName("Should keep answering with the estimate when the background count fails")
+        void shouldFallBackToEstimateOnFailure() {
+            DeviceFilter filter = DeviceFilter.of(null, DeviceState.IN_USE);
+            when(deviceRepository.estimateCountByFilter(filter)).thenReturn(500_000L);
+            when(deviceRepository.countByFilter(filter)).thenThrow(new IllegalStateException("canceling statement"));
+
+            assertThat(totalService.total(filter).source()).isEqualTo(TotalCountSource.ESTIMATE);
+
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                    verify(deviceRepository, atLeastOnce()).countByFilter(filter));
+            assertThat(totalService.total(filter)).isEqualTo(new DeviceTotal(500_000, TotalCountSource.ESTIMATE));
+        }
+
+        @Test
+        @DisplayName("Should answer large time ranges with the estimate without counting them")
+        void shouldNotCountLargeTimeRanges() {
+            DeviceFilter filter = new DeviceFilter(null, null, Instant.parse("2024-01-01T00:00:00Z"), null);
+            when(deviceRepository.estimateCountByFilter(filter)).thenReturn(2_000_000L);
+
+            assertThat(totalService.total(filter)).isEqualTo(new DeviceTotal(2_000_000, TotalCountSource.ESTIMATE));
+            assertThat(totalService.total(filter)).isEqualTo(new DeviceTotal(2_000_000, TotalCountSource.ESTIMATE));
+            verify(deviceRepository, never()).countByFilter(any());
+        }
+
+        @Test
+        @DisplayName("Should start no more background counts than allowed at once")
+        void shouldBoundBackgroundCounts() {
+            DeviceFilter apple = DeviceFilter.of("Apple", null);
+            DeviceFilter samsung = DeviceFilter.of("Samsung", null);
+            CountDownLatch counting = new CountDownLatch(1);
+            when(deviceRepository.estimateCountByFilter(any())).thenReturn(2_000_000L);
+            when(deviceRepository.countByFilter(apple)).thenAnswer(invocation -> {
+                counting.await();
+                return 1_500_000L;
+            });
+            when(deviceRepository.countByFilter(samsung)).thenReturn(400_000L);
+
+            totalService.total(apple);
+            assertThat(totalService.total(samsung)).isEqualTo(new DeviceTotal(2_000_000, TotalCountSource.ESTIMATE));
+            verify(deviceRepository, never()).countByFilter(samsung);
+            counting.countDown();
+
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                    assertThat(totalService.total(apple)).isEqualTo(new DeviceTotal(1_500_000, TotalCountSource.CACHED)));
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                    assertThat(totalService.total(samsung)).isEqualTo(new DeviceTotal(400_000, TotalCountSource.CACHED)));
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.devices.api.service;
+
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceFullUpdateRequest;
+import com.devices.api.dto.DeviceRequest;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.dto.DeviceTimelineEntry;
+import com.devices.api.dto.DeviceTotal;
+import com.devices.api.dto.DeviceUpdateRequest;
+import com.devices.api.dto.DeviceUpsertResult;
+import com.devices.api.enums.DeviceField;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.enums.TimelineBucket;
+import com.devices.api.enums.TotalCountSource;
+import com.devices.api.enums.UpsertOutcome;
+import com.devices.api.exception.CrossShardRenameException;
+import com.devices.api.exception.DeviceNotFoundException;
+import com.devices.api.sharding.ShardContext;
+import com.devices.api.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedDeviceServiceTest {
+
+    private static final int SHARDS = 4;
+
+    @Mock
+    private DeviceService delegate;
+
+    @Mock
+    private DeviceStatsService statsDelegate;
+
+    @Mock
+    private DeviceTotalService totalDelegate;
+
+    private ShardRouter router;
+    private ShardedDeviceService deviceService;
+    private ShardedDeviceStatsService statsService;
+    private ShardedDeviceTotalService totalService;
+
+    private UUID deviceId;
+    private DeviceResponse deviceResponse;
+
+    @BeforeEach
+    void setUp() {
+        router = new ShardRouter(SHARDS);
+        deviceService = new ShardedDeviceService(delegate, router);
+        statsService = new ShardedDeviceStatsService(statsDelegate, router);
+        totalService = new ShardedDeviceTotalService(totalDelegate, router);
+
+        deviceId = UUID.randomUUID();
+        deviceResponse = new DeviceResponse(deviceId, "iPhone 15", "Apple", DeviceState.AVAILABLE, Instant.now());
+    }
+
+    @Nested
+    @DisplayName("Single Shard Routing Tests")
+    class SingleShardRoutingTests {
+
+        @Test
+        @DisplayName("Should read device from the shard owning its id")
+        void shouldRouteGetByIdToOwningShard() {
+            AtomicReference<ShardContext.Route> route = new AtomicReference<>();
+            when(delegate.getById(deviceId)).thenAnswer(invocation -> {
+                route.set(ShardContext.current());
+                return deviceResponse;
+            });
+
+            DeviceResponse result = deviceService.getById(deviceId);
+
+            assertThat(result).isEqualTo(deviceResponse);
+            assertThat(route.get()).isEqualTo(new ShardContext.Route(router.shardFor(deviceId), SHARDS));
+            assertThat(ShardContext.current()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should update and delete on the shard owning the id")
+        void shouldRouteWritesToOwningShard() {
+            Set<Integer> shards = ConcurrentHashMap.newKeySet();
+            DeviceUpdateRequest request = new DeviceUpdateRequest(null, null, DeviceState.IN_USE);
+            when(delegate.partialUpdate(deviceId, request)).thenAnswer(invocation -> {
+                shards.add(ShardContext.current().shard());
+                return deviceResponse;
+            });
+            doAnswer(invocation -> shards.add(ShardContext.current().shard())).when(delegate).delete(deviceId);
+
+            deviceService.partialUpdate(deviceId, request);
+            deviceService.delete(deviceId);
+
+            assertThat(shards).containsExactly(router.shardFor(deviceId));
+        }
+
+        @Test
+        @DisplayName("Should create device on the shard owning its brand and name")
+        void shouldCreateOnNaturalKeyShard() {
+            DeviceRequest request = new DeviceRequest("iPhone 15", "Apple", DeviceState.AVAILABLE);
+            AtomicReference<ShardContext.Route> route = new AtomicReference<>();
+            when(delegate.create(request)).thenAnswer(invocation -> {
+                route.set(ShardContext.current());
+                return deviceResponse;
+            });
+
+            deviceService.create(request);
+
+            assertThat(route.get()).isEqualTo(new ShardContext.Route(router.shardForKey("Apple", "iPhone 15"), SHARDS));
+        }
+
+        @Test
+        @DisplayName("Should reject a rename to a brand and name owned by another shard")
+        void shouldRejectRenameToAnotherShard() {
+            String name = nameOnShard("Apple", (router.shardFor(deviceId) + 1) % SHARDS);
+
+            assertThatThrownBy(() -> deviceService.update(deviceId, new DeviceFullUpdateRequest(name, "Apple", DeviceState.AVAILABLE)))
+                    .isInstanceOf(CrossShardRenameException.class)
+                    .hasMessageContaining("another shard");
+            verifyNoInteractions(delegate);
+        }
+
+        @Test
+        @DisplayName("Should complete a rename of the name only with the stored brand")
+        void shouldCompletePartialRenameWithStoredBrand() {
+            String name = nameOnShard("Apple", router.shardFor(deviceId));
+            when(delegate.getById(deviceId, EnumSet.of(DeviceField.BRAND, DeviceField.NAME))).thenReturn(deviceResponse);
+            when(delegate.partialUpdate(deviceId, new DeviceUpdateRequest(name, "Apple", null))).thenReturn(deviceResponse);
+
+            deviceService.partialUpdate(deviceId, new DeviceUpdateRequest(name, null, null));
+
+            verify(delegate).partialUpdate(deviceId, new DeviceUpdateRequest(name, "Apple", null));
+        }
+
+        @Test
+        @DisplayName("Should upsert each device on its shard and keep the input order")
+        void shouldGroupUpsertsByShard() {
+            List<DeviceRequest> requests = IntStream.range(0, 20)
+                    .mapToObj(i -> new DeviceRequest("Model " + i, "Brand", DeviceState.AVAILABLE))
+                    .toList();
+            Map<String, Integer> shardByName = new ConcurrentHashMap<>();
+            when(delegate.upsertAll(any())).thenAnswer(invocation -> {
+                List<DeviceRequest> batch = invocation.getArgument(0);
+                return batch.stream().map(request -> {
+                    shardByName.put(request.name(), ShardContext.current().shard());
+                    return new DeviceUpsertResult(UpsertOutcome.CREATED,
+                            new DeviceResponse(UUID.randomUUID(), request.name(), request.brand(), request.state(), Instant.now()));
+                }).toList();
+            });
+
+            List<DeviceUpsertResult> results = deviceService.upsertAll(requests);
+
+            assertThat(results).extracting(result -> result.device().name())
+                    .containsExactlyElementsOf(requests.stream().map(DeviceRequest::name).toList());
+            requests.forEach(request -> assertThat(shardByName.get(request.name()))
+                    .isEqualTo(router.shardForKey(request.brand(), request.name())));
+            verify(delegate, times(Set.copyOf(shardByName.values()).size())).upsertAll(any());
+        }
+
+        @Test
+        @DisplayName("Should clear shard route when delegate throws")
+        void shouldClearRouteOnFailure() {
+            when(delegate.getById(deviceId)).thenThrow(new DeviceNotFoundException(deviceId));
+
+            assertThatThrownBy(() -> deviceService.getById(deviceId))
+                    .isInstanceOf(DeviceNotFoundException.class);
+            assertThat(ShardContext.current()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Scatter Gather Tests")
+    class ScatterGatherTests {
+
+        @Test
+        @DisplayName("Should query every shard and concatenate results")
+        void shouldQueryEveryShard() {
+            DeviceFilter filter = DeviceFilter.of("Apple", null);
+            Set<Integer> shards = ConcurrentHashMap.newKeySet();
+            when(delegate.getAll(filter)).thenAnswer(invocation -> {
+                shards.add(ShardContext.current().shard());
+                return List.of(deviceResponse);
+            });
+
+            List<DeviceResponse> result = deviceService.getAll(filter);
+
+            assertThat(result).hasSize(SHARDS);
+            assertThat(shards).containsExactlyInAnyOrder(0, 1, 2, 3);
+        }
+
+        @Test
+        @DisplayName("Should cut the merged list of every shard to the limit")
+        void shouldCutMergedListToLimit() {
+            DeviceFilter filter = DeviceFilter.of("Apple", null);
+            when(delegate.getAll(filter, Set.of(DeviceField.NAME), 3)).thenReturn(List.of(deviceResponse, deviceResponse));
+
+            List<DeviceResponse> result = deviceService.getAll(filter, Set.of(DeviceField.NAME), 3);
+
+            assertThat(result).hasSize(3);
+            verify(delegate, times(SHARDS)).getAll(filter, Set.of(DeviceField.NAME), 3);
+        }
+
+        @Test
+        @DisplayName("Should look up each id only on the shard owning it")
+        void shouldLookUpIdsOnOwningShards() {
+            List<UUID> ids = IntStream.range(0, 32).mapToObj(i -> UUID.randomUUID()).toList();
+            Map<Integer, List<UUID>> requested = new ConcurrentHashMap<>();
+            when(delegate.getAllById(any(), eq(Set.of(DeviceField.NAME)))).thenAnswer(invocation -> {
+                List<UUID> owned = List.copyOf(invocation.getArgument(0));
+                requested.put(ShardContext.current().shard(), owned);
+                return owned.stream().map(id -> new DeviceResponse(id, "iPhone 15", null, null, null)).toList();
+            });
+
+            List<DeviceResponse> result = deviceService.getAllById(ids, Set.of(DeviceField.NAME));
+
+            assertThat(result).extracting(DeviceResponse::id).containsExactlyInAnyOrderElementsOf(ids);
+            requested.forEach((shard, owned) ->
+                    assertThat(owned).allSatisfy(id -> assertThat(router.shardFor(id)).isEqualTo(shard)));
+        }
+
+        @Test
+        @DisplayName("Should propagate failure from any shard")
+        void shouldPropagateShardFailure() {
+            DeviceFilter filter = DeviceFilter.of(null, null);
+            when(delegate.getAll(filter)).thenAnswer(invocation -> {
+                if (ShardContext.current().shard() == 2) {
+                    throw new IllegalStateException("shard 2 unavailable");
+                }
+                return List.of();
+            });
+
+            assertThatThrownBy(() -> deviceService.getAll(filter))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("shard 2 unavailable");
+        }
+
+        @Test
+        @DisplayName("Should sum timeline counts per bucket and brand across shards")
+        void shouldSumTimelineAcrossShards() {
+            Instant hour = Instant.parse("2024-01-15T10:00:00Z");
+            Instant nextHour = Instant.parse("2024-01-15T11:00:00Z");
+            when(statsDelegate.getCreationTimeline(any(), any(), any(), any())).thenAnswer(invocation ->
+                    ShardContext.current().shard() % 2 == 0
+                            ? List.of(new DeviceTimelineEntry(nextHour, "Apple", 1), new DeviceTimelineEntry(hour, "Samsung", 2))
+                            : List.of(new DeviceTimelineEntry(hour, "Samsung", 3)));
+
+            List<DeviceTimelineEntry> result = statsService.getCreationTimeline(
+                    TimelineBucket.HOUR, null, hour, nextHour.plusSeconds(3600));
+
+            assertThat(result).containsExactly(
+                    new DeviceTimelineEntry(hour, "Samsung", 10),
+                    new DeviceTimelineEntry(nextHour, "Apple", 2));
+        }
+
+        @Test
+        @DisplayName("Should sum totals across shards and report the least accurate source")
+        void shouldSumTotalsAcrossShards() {
+            DeviceFilter filter = DeviceFilter.of("Apple", null);
+            when(totalDelegate.total(filter)).thenAnswer(invocation -> switch (ShardContext.current().shard()) {
+                case 1 -> new DeviceTotal(20_000, TotalCountSource.ESTIMATE);
+                case 2 -> new DeviceTotal(15_000, TotalCountSource.CACHED);
+                default -> DeviceTotal.exact(10);
+            });
+
+            assertThat(totalService.total(filter)).isEqualTo(new DeviceTotal(35_020, TotalCountSource.ESTIMATE));
+        }
+    }
+
+    @Nested
+    @DisplayName("Shard Mapping Tests")
+    class ShardMappingTests {
+
+        @Test
+        @DisplayName("Should map ids deterministically and spread them across shards")
+        void shouldSpreadIdsAcrossShards() {
+            int[] perShard = new int[SHARDS];
+            for (int i = 0; i < 4000; i++) {
+                UUID id = UUID.randomUUID();
+                assertThat(router.shardFor(id)).isEqualTo(ShardRouter.shardOf(id, SHARDS));
+                perShard[router.shardFor(id)]++;
+            }
+
+            for (int count : perShard) {
+                assertThat(count).isBetween(800, 1200);
+            }
+        }
+    }
+
+    private static String nameOnShard(String brand, int shard) {
+        return IntStream.range(0, 1_000)
+                .mapToObj(i -> "Device " + i)
+                .filter(name -> ShardRouter.shardOf(brand, name, SHARDS) == shard)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.devices.api.slowquery;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SlowQueryListenerTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private final SlowQueryLog log = new SlowQueryLog(10);
+    private final SlowQueryListener listener = new SlowQueryListener(log,
+            new QueryPlanSampler(mock(javax.sql.DataSource.class), null, 0, Duration.ofSeconds(1), 1),
+            Duration.ofMillis(500), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Nested
+    @DisplayName("Recording Tests")
+    class RecordingTests {
+
+        @Test
+        @DisplayName("Should record slow statements with endpoint and parameter shape")
+        void shouldRecordSlowStatement() throws Exception {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/devices/42");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/devices/{id}");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+            listener.afterQuery(execution(750), List.of(query(" select * from devices where id = ? and brand = ? ",
+                    setObject(1, UUID.randomUUID()), setNull(2))));
+
+            assertThat(log.recent(10)).containsExactly(new SlowQuery(NOW, "GET /api/v1/devices/{id}", 750,
+                    "select * from devices where id = ? and brand = ?", List.of("UUID", "null"), 1, null));
+        }
+
+        @Test
+        @DisplayName("Should describe arrays by element type and length")
+        void shouldDescribeArrays() throws Exception {
+            listener.afterQuery(execution(500), List.of(query("select * from devices where id = any(?)",
+                    setObject(1, new String[]{"a", "b", "c"}))));
+
+            SlowQuery recorded = log.recent(1).getFirst();
+            assertThat(recorded.parameters()).containsExactly("String[3]");
+            assertThat(recorded.endpoint()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should skip statements under the threshold and the sampler's own plans")
+        void shouldSkipFastStatementsAndPlans() {
+            listener.afterQuery(execution(499), List.of(query("select 1")));
+            listener.afterQuery(execution(900), List.of(query("EXPLAIN (ANALYZE, BUFFERS) select 1")));
+
+            assertThat(log.recorded()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Plan Sampling Tests")
+    class PlanSamplingTests {
+
+        @Test
+        @DisplayName("Should only take plans of plain selects")
+        void shouldOnlyExplainSelects() {
+            assertThat(QueryPlanSampler.isSelect("SELECT * FROM devices")).isTrue();
+            assertThat(QueryPlanSampler.isSelect("select * from devices where id = ? for update")).isFalse();
+            assertThat(QueryPlanSampler.isSelect("select * from devices where id = ? FOR NO KEY UPDATE")).isFalse();
+            assertThat(QueryPlanSampler.isSelect("select * from devices where id = ? for share skip locked")).isFalse();
+            assertThat(QueryPlanSampler.isSelect("select * from devices where id = ?\nfor key share")).isFalse();
+            assertThat(QueryPlanSampler.isSelect("select * from devices where name = 'for sharing'")).isTrue();
+            assertThat(QueryPlanSampler.isSelect("update devices set name = ?")).isFalse();
+            assertThat(QueryPlanSampler.isSelect("with moved as (delete from devices returning *) select 1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should redact bound values from plan conditions")
+        void shouldRedactPlanConditions() {
+            String plan = String.join("\n",
+                    "Limit  (cost=0.42..8.44 rows=1 width=64) (actual time=0.020..0.021 rows=1 loops=1)",
+                    "  ->  Index Scan using devices_pkey on devices d1_0  (cost=0.42..8.44 rows=1 width=64)",
+                    "        Index Cond: (id = '0f8fad5b-d9cb-469f-a165-70867728950e'::uuid)",
+                    "        Filter: (((brand)::text = ANY ('{Apple,O''Neil}'::text[])) AND (version > 3) AND ((name)::character varying(255) <> $1))",
+                    "        Rows Removed by Filter: 12",
+                    "Execution Time: 0.045 ms");
+
+            assertThat(QueryPlanSampler.redact(plan)).isEqualTo(String.join("\n",
+                    "Limit  (cost=0.42..8.44 rows=1 width=64) (actual time=0.020..0.021 rows=1 loops=1)",
+                    "  ->  Index Scan using devices_pkey on devices d1_0  (cost=0.42..8.44 rows=1 width=64)",
+                    "        Index Cond: (id = ?::uuid)",
+                    "        Filter: (((brand)::text = ANY (?::text[])) AND (version > ?) AND ((name)::character varying(255) <> $1))",
+                    "        Rows Removed by Filter: 12",
+                    "Execution Time: 0.045 ms"));
+        }
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsedMillis);
+        return execution;
+    }
+
+    private static QueryInfo query(String sql, ParameterSetOperation... parameters) {
+        QueryInfo query = new QueryInfo(sql);
+        if (parameters.length > 0) {
+            query.getParametersList().add(List.of(parameters));
+        }
+        return query;
+    }
+
+    private static ParameterSetOperation setObject(int index, Object value) throws NoSuchMethodException {
+        return new ParameterSetOperation(PreparedStatement.class.getMethod("setObject", int.class, Object.class),
+                new Object[]{index, value});
+    }
+
+    private static ParameterSetOperation setNull(int index) throws NoSuchMethodException {
+        return new ParameterSetOperation(PreparedStatement.class.getMethod("setNull", int.class, int.class),
+                new Object[]{index, Types.VARCHAR});
+    }
+}
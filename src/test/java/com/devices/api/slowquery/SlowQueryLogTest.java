@@ -0,0 +1,40 @@
+package com.devices.api.slowquery;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTest {
+
+    @Test
+    @DisplayName("Should list entries newest first up to the limit")
+    void shouldListNewestFirst() {
+        SlowQueryLog log = new SlowQueryLog(10);
+        log.add(query("select 1"));
+        log.add(query("select 2"));
+        log.add(query("select 3"));
+
+        assertThat(log.recent(2)).extracting(SlowQuery::sql).containsExactly("select 3", "select 2");
+        assertThat(log.recent(100)).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should overwrite the oldest entries once full")
+    void shouldOverwriteOldest() {
+        SlowQueryLog log = new SlowQueryLog(2);
+        log.add(query("select 1"));
+        log.add(query("select 2"));
+        log.add(query("select 3"));
+
+        assertThat(log.recent(10)).extracting(SlowQuery::sql).containsExactly("select 3", "select 2");
+        assertThat(log.recorded()).isEqualTo(3);
+    }
+
+    private static SlowQuery query(String sql) {
+        return new SlowQuery(Instant.EPOCH, null, 600, sql, List.of(), 1, null);
+    }
+}
@@ -0,0 +1,202 @@
+package com.devices.api.snapshot;
+
+import com.devices.api.config.CatalogSnapshotProperties;
+import com.devices.api.dto.DeviceFilter;
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.service.DeviceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private DeviceResponse iphone;
+    private DeviceResponse galaxy;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("catalog.snapshot");
+        Instant created = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        iphone = new DeviceResponse(UUID.randomUUID(), null, "Apple", DeviceState.AVAILABLE, created);
+        galaxy = new DeviceResponse(UUID.randomUUID(), null, "Samsüng", DeviceState.IN_USE, created.minusSeconds(60));
+    }
+
+    @Nested
+    @DisplayName("Format Tests")
+    class FormatTests {
+
+        @Test
+        @DisplayName("Should round-trip devices and watermark")
+        void shouldRoundTrip() throws IOException {
+            Instant watermark = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+            new CatalogSnapshot(watermark, List.of(iphone, galaxy, iphone)).writeTo(file);
+            CatalogSnapshot read = CatalogSnapshot.mapFrom(file);
+
+            assertThat(read.watermark()).isEqualTo(watermark);
+            assertThat(read.devices()).containsExactly(iphone, galaxy, iphone);
+            assertThat(Files.size(file)).isEqualTo(24 + (2 + 5) + (2 + 8) + 3 * 29 + 4);
+        }
+
+        @Test
+        @DisplayName("Should visit records straight from the mapping")
+        void shouldVisitMappedRecords() throws IOException {
+            Instant watermark = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            new CatalogSnapshot(watermark, List.of(iphone, galaxy)).writeTo(file);
+
+            CatalogSnapshot.Mapped mapped = CatalogSnapshot.map(file);
+            List<DeviceResponse> visited = new ArrayList<>();
+            mapped.forEach((id, brand, state, creationTime) ->
+                    visited.add(new DeviceResponse(id, null, brand, state, creationTime)));
+
+            assertThat(mapped.watermark()).isEqualTo(watermark);
+            assertThat(mapped.size()).isEqualTo(2);
+            assertThat(visited).containsExactly(iphone, galaxy);
+        }
+
+        @Test
+        @DisplayName("Should reject a snapshot larger than one mapping")
+        void shouldRejectOversizedSnapshot() throws IOException {
+            try (RandomAccessFile sparse = new RandomAccessFile(file.toFile(), "rw")) {
+                sparse.setLength(Integer.MAX_VALUE + 1L);
+            }
+
+            assertThatThrownBy(() -> CatalogSnapshot.map(file))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("larger than a mapping");
+        }
+
+        @Test
+        @DisplayName("Should reject a corrupted snapshot")
+        void shouldRejectCorruptedSnapshot() throws IOException {
+            new CatalogSnapshot(Instant.now(), List.of(iphone, galaxy)).writeTo(file);
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 0x01;
+            Files.write(file, bytes);
+
+            assertThatThrownBy(() -> CatalogSnapshot.mapFrom(file))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("checksum");
+        }
+
+        @Test
+        @DisplayName("Should reject a file that is not a snapshot")
+        void shouldRejectForeignFile() throws IOException {
+            Files.writeString(file, "not a catalog snapshot at all");
+
+            assertThatThrownBy(() -> CatalogSnapshot.mapFrom(file))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("unsupported format");
+        }
+    }
+
+    @Nested
+    @DisplayName("Warm Start Tests")
+    class WarmStartTests {
+
+        @Mock
+        private DeviceService deviceService;
+
+        @Mock
+        private DeviceChangeLog changeLog;
+
+        private CatalogSnapshotManager manager;
+
+        @BeforeEach
+        void setUpManager() {
+            CatalogSnapshotProperties properties = new CatalogSnapshotProperties(true, file,
+                    Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofDays(7));
+            manager = new CatalogSnapshotManager(properties, deviceService, changeLog, null);
+        }
+
+        @Test
+        @DisplayName("Should apply changes since the watermark without scanning")
+        void shouldApplyDelta() throws IOException {
+            Instant watermark = Instant.now().minusSeconds(300);
+            new CatalogSnapshot(watermark, List.of(iphone, galaxy)).writeTo(file);
+            DeviceResponse moved = new DeviceResponse(iphone.id(), "iPhone 15", "Apple", DeviceState.INACTIVE,
+                    iphone.creationTime());
+            DeviceResponse created = new DeviceResponse(UUID.randomUUID(), "Pixel 9", "Google", DeviceState.AVAILABLE,
+                    Instant.now());
+            when(changeLog.changesSince(watermark.truncatedTo(ChronoUnit.MICROS).minus(Duration.ofMinutes(1))))
+                    .thenReturn(new DeviceChangeLog.Changes(List.of(moved, created), List.of(galaxy.id())));
+
+            CollectingSink sink = new CollectingSink();
+            manager.load(sink);
+
+            assertThat(sink.devices).containsOnlyKeys(iphone.id(), created.id());
+            assertThat(sink.devices.get(iphone.id())).isEqualTo("Apple " + DeviceState.INACTIVE);
+            verifyNoInteractions(deviceService);
+        }
+
+        @Test
+        @DisplayName("Should scan and write the first snapshot when none exists")
+        void shouldScanWithoutSnapshot() throws IOException {
+            when(deviceService.getAll(any(DeviceFilter.class), anySet())).thenReturn(List.of(iphone, galaxy));
+
+            CollectingSink sink = new CollectingSink();
+            manager.load(sink);
+
+            assertThat(sink.devices).containsOnlyKeys(iphone.id(), galaxy.id());
+            assertThat(CatalogSnapshot.mapFrom(file).devices()).containsExactly(iphone, galaxy);
+            verifyNoInteractions(changeLog);
+        }
+
+        @Test
+        @DisplayName("Should ignore snapshots older than the tombstone retention")
+        void shouldIgnoreStaleSnapshot() throws IOException {
+            new CatalogSnapshot(Instant.now().minus(Duration.ofDays(8)), List.of(iphone)).writeTo(file);
+
+            CollectingSink sink = new CollectingSink();
+
+            assertThat(manager.warmStart(sink)).isFalse();
+            assertThat(sink.devices).isEmpty();
+            verifyNoInteractions(changeLog);
+        }
+    }
+
+    private static final class CollectingSink implements CatalogSink {
+
+        private final Map<UUID, String> devices = new LinkedHashMap<>();
+
+        @Override
+        public void upsert(UUID id, String brand, DeviceState state) {
+            devices.put(id, brand + " " + state);
+        }
+
+        @Override
+        public void remove(UUID id) {
+            devices.remove(id);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.devices.api.stats;
+
+import com.devices.api.dto.DeviceResponse;
+import com.devices.api.enums.DeviceState;
+import com.devices.api.event.DeviceChangedEvent;
+import com.devices.api.repository.DeviceCreationRollupRepository;
+import com.devices.api.sharding.ShardRouter;
+import com.devices.api.workload.WorkloadClass;
+import com.devices.api.workload.WorkloadContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceCreationRollupRecorderTest {
+
+    private static final Instant CREATED = Instant.parse("2024-01-15T10:30:00Z");
+
+    @Mock
+    private DeviceCreationRollupRepository repository;
+
+    private final List<List<String>> writes = new ArrayList<>();
+
+    private DeviceCreationRollupRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new DeviceCreationRollupRecorder(repository, null);
+    }
+
+    private void captureWrites() {
+        doAnswer(invocation -> {
+            String[] buckets = invocation.getArgument(0);
+            String[] bucketStarts = invocation.getArgument(1);
+            String[] brands = invocation.getArgument(2);
+            Long[] deltas = invocation.getArgument(3);
+            List<String> rows = new ArrayList<>();
+            for (int i = 0; i < buckets.length; i++) {
+                rows.add(buckets[i] + " " + bucketStarts[i] + " " + brands[i] + " " + deltas[i]);
+            }
+            return writes.add(rows);
+        }).when(repository).incrementAll(any(), any(), any(), any());
+    }
+
+    @Nested
+    @DisplayName("Rollup Maintenance Tests")
+    class RollupMaintenanceTests {
+
+        @Test
+        @DisplayName("Should increment buckets on creation")
+        void shouldIncrementOnCreation() {
+            captureWrites();
+            recorder.onDeviceChanged(DeviceChangedEvent.created(device("Apple")));
+
+            recorder.flush();
+
+            assertThat(writes).singleElement().isEqualTo(List.of(
+                    "HOUR 2024-01-15T10:00:00Z Apple 1", "DAY 2024-01-15T00:00:00Z Apple 1"));
+        }
+
+        @Test
+        @DisplayName("Should decrement buckets on deletion")
+        void shouldDecrementOnDeletion() {
+            captureWrites();
+            recorder.onDeviceChanged(DeviceChangedEvent.deleted(device("Apple")));
+
+            recorder.flush();
+
+            assertThat(writes).singleElement().isEqualTo(List.of(
+                    "HOUR 2024-01-15T10:00:00Z Apple -1", "DAY 2024-01-15T00:00:00Z Apple -1"));
+        }
+
+        @Test
+        @DisplayName("Should move device between brands when brand changes")
+        void shouldMoveDeviceWhenBrandChanges() {
+            captureWrites();
+            DeviceResponse device = device("Apple");
+            DeviceResponse renamed = new DeviceResponse(device.id(), "iPhone 15", "Samsung", DeviceState.AVAILABLE, CREATED);
+
+            recorder.onDeviceChanged(DeviceChangedEvent.updated(device, renamed));
+            recorder.flush();
+
+            assertThat(writes).singleElement().isEqualTo(List.of(
+                    "HOUR 2024-01-15T10:00:00Z Apple -1", "HOUR 2024-01-15T10:00:00Z Samsung 1",
+                    "DAY 2024-01-15T00:00:00Z Apple -1", "DAY 2024-01-15T00:00:00Z Samsung 1"));
+        }
+
+        @Test
+        @DisplayName("Should ignore updates that keep the brand")
+        void shouldIgnoreUpdatesKeepingBrand() {
+            DeviceResponse device = device("Apple");
+            DeviceResponse inUse = new DeviceResponse(device.id(), "iPhone 15", "Apple", DeviceState.IN_USE, CREATED);
+
+            recorder.onDeviceChanged(DeviceChangedEvent.updated(device, inUse));
+            recorder.flush();
+
+            assertThat(recorder.pending()).isZero();
+            verifyNoInteractions(repository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Flush Tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Should apply many changes to a bucket as one row")
+        void shouldMergeChangesPerBucket() {
+            captureWrites();
+            for (int i = 0; i < 3; i++) {
+                recorder.onDeviceChanged(DeviceChangedEvent.created(device("Apple")));
+            }
+            recorder.onDeviceChanged(DeviceChangedEvent.deleted(device("Apple")));
+
+            recorder.flush();
+
+            assertThat(writes).singleElement().isEqualTo(List.of(
+                    "HOUR 2024-01-15T10:00:00Z Apple 2", "DAY 2024-01-15T00:00:00Z Apple 2"));
+            assertThat(recorder.pending()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should skip buckets whose changes cancel out")
+        void shouldSkipNetZeroChanges() {
+            DeviceResponse device = device("Apple");
+            recorder.onDeviceChanged(DeviceChangedEvent.created(device));
+            recorder.onDeviceChanged(DeviceChangedEvent.deleted(device));
+
+            recorder.flush();
+
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        @DisplayName("Should keep failed changes for the next flush")
+        void shouldRetryFailedChanges() {
+            recorder.onDeviceChanged(DeviceChangedEvent.created(device("Apple")));
+            doThrow(new IllegalStateException("connection refused"))
+                    .when(repository).incrementAll(any(), any(), any(), any());
+
+            recorder.flush();
+            assertThat(recorder.pending()).isEqualTo(2);
+
+            recorder.onDeviceChanged(DeviceChangedEvent.created(device("Apple")));
+            captureWrites();
+            recorder.flush();
+
+            assertThat(writes).singleElement().isEqualTo(List.of(
+                    "HOUR 2024-01-15T10:00:00Z Apple 2", "DAY 2024-01-15T00:00:00Z Apple 2"));
+            assertThat(recorder.pending()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should apply each change on its device's shard and retry only failed shards")
+        void shouldWritePerShard() {
+            ShardRouter router = new ShardRouter(2);
+            recorder = new DeviceCreationRollupRecorder(repository, router);
+            recorder.onDeviceChanged(DeviceChangedEvent.created(device(idOnShard(router, 0), "Apple")));
+            recorder.onDeviceChanged(DeviceChangedEvent.created(device(idOnShard(router, 1), "Apple")));
+            doAnswer(invocation -> null)
+                    .doThrow(new IllegalStateException("shard 1 unavailable"))
+                    .when(repository).incrementAll(any(), any(), any(), any());
+
+            recorder.flush();
+
+            assertThat(recorder.pending()).isEqualTo(2);
+            verify(repository, times(2)).incrementAll(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should apply pending changes on the bulk pool when closed")
+        void shouldFlushOnCloseAsBulk() {
+            AtomicReference<WorkloadClass> workload = new AtomicReference<>();
+            recorder.onDeviceChanged(DeviceChangedEvent.created(device("Apple")));
+            doAnswer(invocation -> {
+                workload.set(WorkloadContext.current());
+                return null;
+            }).when(repository).incrementAll(any(), any(), any(), any());
+
+            recorder.close();
+
+            assertThat(recorder.pending()).isZero();
+            assertThat(workload).hasValue(WorkloadClass.BULK);
+        }
+    }
+
+    private static UUID idOnShard(ShardRouter router, int shard) {
+        UUID id;
+        do {
+            id = UUID.randomUUID();
+        } while (router.shardFor(id) != shard);
+        return id;
+    }
+
+    private static DeviceResponse device(String brand) {
+        return device(UUID.randomUUID(), brand);
+    }
+
+    private static DeviceResponse device(UUID id, String brand) {
+        return new DeviceResponse(id, "iPhone 15", brand, DeviceState.AVAILABLE, CREATED);
+    }
+}
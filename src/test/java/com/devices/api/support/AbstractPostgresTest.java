@@ -0,0 +1,19 @@
+package com.devices.api.support;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Connects a Spring test to one PostgreSQL container shared by every test class that extends
+ * it. The container is started once per JVM and never stopped by a test class, so contexts
+ * cached across classes keep a working database; Testcontainers removes it when the JVM exits.
+ */
+public abstract class AbstractPostgresTest {
+
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        postgres.start();
+    }
+}
@@ -0,0 +1,33 @@
+package com.devices.api.support;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs an action and fails when it issues more SQL statements than its budget.
+ */
+public class QueryBudget {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private final SqlStatementRecorder recorder;
+
+    public QueryBudget(SqlStatementRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public List<String> assertAtMost(int maxStatements, Action action) throws Exception {
+        recorder.reset();
+        action.run();
+        List<String> statements = recorder.statements();
+
+        assertThat(statements)
+                .as("SQL statements issued (budget %d):%n%s", maxStatements, String.join(System.lineSeparator(), statements))
+                .hasSizeLessThanOrEqualTo(maxStatements);
+        return statements;
+    }
+}
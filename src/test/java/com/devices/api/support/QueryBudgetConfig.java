@@ -0,0 +1,42 @@
+package com.devices.api.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a JDBC proxy that feeds {@link SqlStatementRecorder}.
+ * Import it into a Spring Boot test together with {@link QueryBudget}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryBudgetConfig {
+
+    @Bean
+    static SqlStatementRecorder sqlStatementRecorder() {
+        return new SqlStatementRecorder();
+    }
+
+    @Bean
+    QueryBudget queryBudget(SqlStatementRecorder recorder) {
+        return new QueryBudget(recorder);
+    }
+
+    @Bean
+    static BeanPostProcessor queryRecordingDataSourcePostProcessor(SqlStatementRecorder recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(recorder)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
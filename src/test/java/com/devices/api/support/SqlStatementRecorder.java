@@ -0,0 +1,37 @@
+package com.devices.api.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records every statement sent through the proxied test DataSource, regardless of
+ * whether it came from Hibernate, Spring Data or a JdbcTemplate.
+ */
+public class SqlStatementRecorder implements QueryExecutionListener {
+
+    private final ConcurrentLinkedQueue<String> statements = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            statements.add(queryInfo.getQuery().strip());
+        }
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<String> statements() {
+        return new ArrayList<>(statements);
+    }
+}
@@ -0,0 +1,162 @@
+package com.devices.api.workload;
+
+import com.devices.api.config.WorkloadProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkloadRoutingDataSourceTest {
+
+    @Mock
+    private HikariDataSource pointReadPool;
+
+    @Mock
+    private HikariDataSource writePool;
+
+    @Mock
+    private HikariDataSource bulkPool;
+
+    private WorkloadRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new WorkloadRoutingDataSource(Map.of(
+                WorkloadClass.POINT_READ, pointReadPool,
+                WorkloadClass.WRITE, writePool,
+                WorkloadClass.BULK, bulkPool));
+        dataSource.afterPropertiesSet();
+    }
+
+    @Nested
+    @DisplayName("Routing Tests")
+    class RoutingTests {
+
+        @Test
+        @DisplayName("Should hand out connections from the pool of the current workload class")
+        void shouldRouteByWorkloadClass() throws Exception {
+            Connection pointRead = mock(Connection.class);
+            Connection bulk = mock(Connection.class);
+            when(pointReadPool.getConnection()).thenReturn(pointRead);
+            when(bulkPool.getConnection()).thenReturn(bulk);
+
+            assertThat(WorkloadContext.call(WorkloadClass.POINT_READ, () -> connection())).isSameAs(pointRead);
+            assertThat(WorkloadContext.call(WorkloadClass.BULK, () -> connection())).isSameAs(bulk);
+            verifyNoInteractions(writePool);
+        }
+
+        @Test
+        @DisplayName("Should use the write pool when no workload class is set")
+        void shouldDefaultToWritePool() throws Exception {
+            Connection write = mock(Connection.class);
+            when(writePool.getConnection()).thenReturn(write);
+
+            assertThat(dataSource.getConnection()).isSameAs(write);
+        }
+
+        @Test
+        @DisplayName("Should require a pool for every workload class")
+        void shouldRejectMissingPool() {
+            assertThatThrownBy(() -> new WorkloadRoutingDataSource(Map.of(WorkloadClass.WRITE, writePool)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("POINT_READ");
+        }
+
+        @Test
+        @DisplayName("Should close every pool")
+        void shouldCloseEveryPool() {
+            dataSource.close();
+
+            verify(pointReadPool).close();
+            verify(writePool).close();
+            verify(bulkPool).close();
+        }
+
+        private Connection connection() {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Aspect Tests")
+    class AspectTests {
+
+        @Test
+        @DisplayName("Should set the annotated workload class for the call and restore the previous one")
+        void shouldApplyAnnotation() {
+            AspectJProxyFactory factory = new AspectJProxyFactory(new Jobs());
+            factory.addAspect(new WorkloadAspect());
+            Jobs jobs = factory.getProxy();
+
+            assertThat(jobs.scan()).isEqualTo(WorkloadClass.BULK);
+            assertThat(WorkloadContext.current()).isNull();
+            assertThat(WorkloadContext.call(WorkloadClass.WRITE, jobs::scan)).isEqualTo(WorkloadClass.BULK);
+            assertThat(WorkloadContext.call(WorkloadClass.WRITE, jobs::unannotated)).isEqualTo(WorkloadClass.WRITE);
+        }
+
+        @Test
+        @DisplayName("Should restore the previous workload class when the call fails")
+        void shouldRestoreOnFailure() {
+            AspectJProxyFactory factory = new AspectJProxyFactory(new Jobs());
+            factory.addAspect(new WorkloadAspect());
+            Jobs jobs = factory.getProxy();
+
+            WorkloadContext.run(WorkloadClass.POINT_READ, () -> {
+                assertThatThrownBy(jobs::fail).isInstanceOf(IllegalStateException.class);
+                assertThat(WorkloadContext.current()).isEqualTo(WorkloadClass.POINT_READ);
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("Properties Tests")
+    class PropertiesTests {
+
+        @Test
+        @DisplayName("Should fill unset pool settings with the defaults of their class")
+        void shouldApplyClassDefaults() {
+            WorkloadProperties properties = new WorkloadProperties(true,
+                    new WorkloadProperties.Pool(20, null, null), null, null);
+
+            assertThat(properties.pointRead())
+                    .isEqualTo(new WorkloadProperties.Pool(20, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+            assertThat(properties.pool(WorkloadClass.BULK).maximumPoolSize()).isEqualTo(4);
+            assertThat(properties.pool(WorkloadClass.BULK).statementTimeout()).isNull();
+        }
+    }
+
+    static class Jobs {
+
+        @Workload(WorkloadClass.BULK)
+        public WorkloadClass scan() {
+            return WorkloadContext.current();
+        }
+
+        public WorkloadClass unannotated() {
+            return WorkloadContext.current();
+        }
+
+        @Workload(WorkloadClass.BULK)
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}